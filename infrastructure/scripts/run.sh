@@ -0,0 +1,21 @@
+#!/bin/bash
+# Launch script used by the retail-product-service systemd unit
+
+APP_DIR=/opt/retail-product-service
+FAST_STARTUP_DIR=$APP_DIR/fast-startup
+FAST_STARTUP_JAR=$FAST_STARTUP_DIR/retail-product-service-1.0.0-fast-startup.jar
+CDS_ARCHIVE=$FAST_STARTUP_DIR/application.jsa
+
+JAVA_OPTS="${JAVA_OPTS:-} -Dspring.profiles.active=prod"
+
+if [ -f "$FAST_STARTUP_JAR" ]; then
+    # Spring AOT build; add the class-data-sharing archive when after_install produced one
+    JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+    if [ -f "$CDS_ARCHIVE" ]; then
+        JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=$CDS_ARCHIVE"
+    fi
+    cd "$FAST_STARTUP_DIR"
+    exec /usr/bin/java $JAVA_OPTS -jar "$FAST_STARTUP_JAR"
+fi
+
+exec /usr/bin/java $JAVA_OPTS -jar "$APP_DIR/retail-product-service-1.0.0.jar"
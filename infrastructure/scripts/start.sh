@@ -11,18 +11,24 @@ systemctl daemon-reload
 # Start the service
 systemctl start retail-product-service
 
-# Wait a moment and check status
-sleep 5
-
-if systemctl is-active --quiet retail-product-service; then
-    echo "Application started successfully"
-    systemctl status retail-product-service --no-pager
-else
-    echo "ERROR: Application failed to start"
-    systemctl status retail-product-service --no-pager
-    journalctl -u retail-product-service -n 50 --no-pager
-    exit 1
-fi
+# Wait for the readiness probe; it reports UP once startup warm-up has finished
+READINESS_URL="http://localhost:8080/actuator/health/readiness"
+READINESS_TIMEOUT=${READINESS_TIMEOUT:-240}
+elapsed=0
+
+until curl -sf "$READINESS_URL" | grep -q '"status":"UP"'; do
+    if ! systemctl is-active --quiet retail-product-service || [ "$elapsed" -ge "$READINESS_TIMEOUT" ]; then
+        echo "ERROR: Application did not become ready within ${elapsed}s"
+        systemctl status retail-product-service --no-pager
+        journalctl -u retail-product-service -n 50 --no-pager
+        exit 1
+    fi
+    sleep 2
+    elapsed=$((elapsed + 2))
+done
+
+echo "Application started successfully and is ready after ${elapsed}s"
+systemctl status retail-product-service --no-pager
 
 echo "start script completed successfully"
 
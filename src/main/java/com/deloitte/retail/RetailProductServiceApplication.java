@@ -2,6 +2,10 @@ package com.deloitte.retail;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+
+import java.time.ZoneOffset;
+import java.util.TimeZone;
 
 /**
  * Main application class for Retail Product Service
@@ -12,7 +16,17 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class RetailProductServiceApplication {
 
+    /**
+     * Number of startup steps kept for the startup timeline
+     */
+    private static final int STARTUP_STEP_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(RetailProductServiceApplication.class, args);
+        // Timestamps are LocalDateTime taken from the default zone and encoded as UTC by the
+        // binary formats and the catalog snapshot, so the zone is pinned whatever the host uses
+        TimeZone.setDefault(TimeZone.getTimeZone(ZoneOffset.UTC));
+        SpringApplication application = new SpringApplication(RetailProductServiceApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 }
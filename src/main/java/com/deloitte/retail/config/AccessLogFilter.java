@@ -0,0 +1,101 @@
+package com.deloitte.retail.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one access log record per request to the {@code retail.access}
+ * logger: method, route template, status, latency, user and time spent in
+ * the database. Errors and slow requests are always logged; fast successful
+ * requests are sampled.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("retail.access");
+
+    @Value("${retail.access-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.access-log.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${retail.access-log.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !accessLog.isInfoEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long started = System.nanoTime();
+        DatabaseTimeListener.startCollecting();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long[] database = DatabaseTimeListener.stopCollecting();
+            long latencyNanos = System.nanoTime() - started;
+            if (shouldLog(status, latencyNanos)) {
+                accessLog.info("method={} route={} status={} latencyMs={} dbMs={} dbStatements={} user={}{}",
+                        request.getMethod(), route(request), status, millis(latencyNanos), millis(database[0]),
+                        database[1], user(), request.isAsyncStarted() ? " async=true" : "");
+            }
+        }
+    }
+
+    /**
+     * Errors and slow requests are always logged, others with the sample rate
+     * 
+     * @param status Response status
+     * @param latencyNanos Request latency
+     * @return true if the request should be logged
+     */
+    boolean shouldLog(int status, long latencyNanos) {
+        if (status >= 400 || latencyNanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+            return true;
+        }
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    private static String user() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return "-";
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
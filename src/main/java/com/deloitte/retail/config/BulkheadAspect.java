@@ -0,0 +1,51 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.service.Bulkhead;
+import com.deloitte.retail.service.BulkheadFullException;
+import com.deloitte.retail.service.WorkloadBulkheads;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Runs {@link Bulkhead} methods within their workload budgets. Ordered
+ * before the transaction interceptor, so a connection taken when a
+ * transaction begins already counts against the workload.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Aspect
+@Component
+@Order(0)
+public class BulkheadAspect {
+
+    private final WorkloadBulkheads workloadBulkheads;
+
+    public BulkheadAspect(WorkloadBulkheads workloadBulkheads) {
+        this.workloadBulkheads = workloadBulkheads;
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object around(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        boolean entered = workloadBulkheads.enter(bulkhead.value());
+        try {
+            return joinPoint.proceed();
+        } catch (CannotCreateTransactionException ex) {
+            // A transaction that could not get a connection reports the rejection as its cause
+            for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof BulkheadFullException rejection) {
+                    throw rejection;
+                }
+            }
+            throw ex;
+        } finally {
+            if (entered) {
+                workloadBulkheads.exit();
+            }
+        }
+    }
+}
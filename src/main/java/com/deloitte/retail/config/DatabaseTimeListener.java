@@ -0,0 +1,66 @@
+package com.deloitte.retail.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that adds the time spent executing JDBC
+ * statements to a per-thread total, which {@link AccessLogFilter} reports as
+ * the database time of the request. Registered through
+ * {@code hibernate.session.events.auto}; Hibernate creates one per session.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class DatabaseTimeListener implements SessionEventListener {
+
+    private static final ThreadLocal<long[]> TOTALS = new ThreadLocal<>();
+
+    private long executeStart;
+    private long batchStart;
+
+    /**
+     * Start collecting database time for the current thread
+     */
+    public static void startCollecting() {
+        TOTALS.set(new long[2]);
+    }
+
+    /**
+     * Stop collecting and return what the current thread collected
+     * 
+     * @return Array of {total nanoseconds, statement count}, zeros if collection was not started
+     */
+    public static long[] stopCollecting() {
+        long[] totals = TOTALS.get();
+        TOTALS.remove();
+        return totals != null ? totals : new long[2];
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long startNanos) {
+        long[] totals = TOTALS.get();
+        if (totals != null && startNanos != 0) {
+            totals[0] += System.nanoTime() - startNanos;
+            totals[1]++;
+        }
+    }
+}
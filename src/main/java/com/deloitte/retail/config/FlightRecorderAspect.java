@@ -0,0 +1,154 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.ProductBatchGetResponse;
+import com.deloitte.retail.dto.ProductChangePage;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records {@link ProductOperationEvent}s for product service calls and
+ * {@link RepositoryQueryEvent}s for repository calls. Ordered first, so an
+ * operation covers its bulkhead and transaction, commit included.
+ * <p>
+ * While no recording is running JFR reports the events as disabled and calls
+ * just proceed. Arguments and results are only looked at for events a
+ * recording keeps, so a duration threshold also skips that work.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FlightRecorderAspect {
+
+    @Around("execution(public * com.deloitte.retail.service.ProductService.*(..))")
+    public Object productOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        ProductOperationEvent event = new ProductOperationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        ProductOperationEvent outer = ProductOperationEvent.enter(event);
+        Object result = null;
+        Throwable failure = null;
+        event.begin();
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            event.end();
+            ProductOperationEvent.exit(outer);
+            if (event.shouldCommit()) {
+                MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+                event.operation = signature.getName();
+                String[] names = signature.getParameterNames();
+                Object[] args = joinPoint.getArgs();
+                for (int i = 0; names != null && i < names.length; i++) {
+                    if ("id".equals(names[i]) && args[i] instanceof Long id) {
+                        event.productId = id;
+                    } else if ("sku".equals(names[i]) && args[i] instanceof String sku) {
+                        event.sku = sku;
+                    }
+                }
+                event.resultSize = failure == null ? resultSize(result) : 0;
+                event.failure = failure != null ? failure.getClass().getSimpleName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " || execution(public * com.deloitte.retail.repository..*.*(..))")
+    public Object repositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Object result = null;
+        Throwable failure = null;
+        event.begin();
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repositoryName(joinPoint);
+                event.method = joinPoint.getSignature().getName();
+                event.resultSize = failure == null ? resultSize(result) : 0;
+                event.failure = failure != null ? failure.getClass().getSimpleName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Spring Data repositories are proxies of their interface; other
+     * repositories are classes
+     */
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getName().startsWith("com.deloitte.retail.")) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
+
+    /**
+     * Number of items in a result
+     *
+     * @param result Result of a call or body of a response
+     * @return Elements of a list, page or map, products of a batch, changes
+     *         or alerts of a page; 0 for nothing; -1 for a count or flag; 1
+     *         for any other object
+     */
+    static int resultSize(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof ProductBatchGetResponse batch) {
+            return batch.getProducts() != null ? batch.getProducts().size() : 0;
+        }
+        if (result instanceof ProductChangePage page) {
+            return page.getChanges() != null ? page.getChanges().size() : 0;
+        }
+        if (result instanceof LowStockAlertPage page) {
+            return page.getAlerts() != null ? page.getAlerts().size() : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+}
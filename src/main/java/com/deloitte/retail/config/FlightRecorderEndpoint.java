@@ -0,0 +1,267 @@
+package com.deloitte.retail.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Starts, lists, dumps and stops Java Flight Recorder recordings at
+ * {@code /actuator/jfr}, for profiling a running instance:
+ * <ul>
+ *   <li>{@code GET /actuator/jfr} lists recordings, including ones started
+ *       with {@code -XX:StartFlightRecording}</li>
+ *   <li>{@code POST /actuator/jfr} starts a recording</li>
+ *   <li>{@code GET /actuator/jfr/{name}} downloads what a recording holds so
+ *       far; a running recording keeps running</li>
+ *   <li>{@code DELETE /actuator/jfr/{name}} stops a recording and discards it</li>
+ * </ul>
+ * Recordings are kept on disk in the JFR repository, bounded by age and
+ * size, so one can run continuously and be dumped when needed. At most
+ * {@code retail.jfr.max-recordings} recordings may be open at a time, and
+ * recordings started here never capture environment variables or system
+ * properties, which can hold credentials. The endpoint is restricted to
+ * admins; see {@link SecurityConfig}.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class FlightRecorderEndpoint {
+
+    static final String DEFAULT_NAME = "retail";
+
+    private static final int STATUS_CONFLICT = 409;
+
+    /**
+     * Events whose payload can carry secrets passed to the JVM
+     */
+    private static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty");
+
+    private static final List<Class<? extends Event>> RETAIL_EVENTS = List.of(ProductOperationEvent.class,
+            RepositoryQueryEvent.class, JwtVerificationEvent.class, ResponseSerializationEvent.class);
+
+    @Value("${retail.jfr.settings:default}")
+    private String defaultSettings;
+
+    @Value("${retail.jfr.max-age-seconds:3600}")
+    private long defaultMaxAgeSeconds;
+
+    @Value("${retail.jfr.max-size-mb:250}")
+    private long defaultMaxSizeMb;
+
+    @Value("${retail.jfr.max-recordings:3}")
+    private int maxRecordings;
+
+    /**
+     * List recordings
+     *
+     * @return Recordings of this JVM
+     */
+    @ReadOperation
+    public List<RecordingDescriptor> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(FlightRecorderEndpoint::describe)
+                .toList();
+    }
+
+    /**
+     * Start a recording
+     *
+     * @param name Name of the recording, {@value #DEFAULT_NAME} if not given
+     * @param settings JFR settings, {@code default} or {@code profile}
+     * @param durationSeconds Stop after this many seconds; runs until stopped if not given
+     * @param maxAgeSeconds Discard data older than this
+     * @param maxSizeMb Discard the oldest data beyond this size
+     * @param thresholdMs Only record retail events that last at least this long
+     * @return The started recording; 400 for unknown settings, 409 if a
+     *         recording of that name is not closed, 429 if the maximum
+     *         number of recordings is open
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingDescriptor> start(@Nullable String name, @Nullable String settings,
+                                                         @Nullable Long durationSeconds, @Nullable Long maxAgeSeconds,
+                                                         @Nullable Long maxSizeMb, @Nullable Long thresholdMs) {
+        String recordingName = name != null && !name.isBlank() ? name : DEFAULT_NAME;
+        if (find(recordingName).isPresent()) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        if (openRecordings() >= maxRecordings) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : defaultSettings);
+        } catch (IOException | ParseException ex) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Recording recording = new Recording(configuration);
+        recording.setName(recordingName);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds != null ? maxAgeSeconds : defaultMaxAgeSeconds));
+        recording.setMaxSize((maxSizeMb != null ? maxSizeMb : defaultMaxSizeMb) * 1024 * 1024);
+        if (durationSeconds != null) {
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+        }
+        for (Class<? extends Event> eventClass : RETAIL_EVENTS) {
+            recording.enable(eventClass).withThreshold(Duration.ofMillis(thresholdMs != null ? thresholdMs : 0));
+        }
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+        log.info("Started flight recording {}: settings={} durationSeconds={} thresholdMs={}",
+                recordingName, configuration.getName(), durationSeconds, thresholdMs);
+        return new WebEndpointResponse<>(describe(recording));
+    }
+
+    /**
+     * Download the data a recording holds so far
+     *
+     * @param name Name or ID of the recording
+     * @return JFR file; 404 if there is no such recording, 409 if it has not
+     *         started or has no data
+     * @throws IOException if the data can not be written to a temporary file
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        Optional<Recording> recording = find(name);
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("retail-" + recording.get().getId() + "-", ".jfr");
+        try {
+            recording.get().dump(file);
+        } catch (IOException | IllegalStateException ex) {
+            Files.deleteIfExists(file);
+            log.warn("Could not dump flight recording {}: {}", name, ex.getMessage());
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        return new WebEndpointResponse<>(new TemporaryFileSystemResource(file.toFile()));
+    }
+
+    /**
+     * Stop a recording and discard its data
+     *
+     * @param name Name or ID of the recording
+     * @return The recording as it was when stopped; 404 if there is no such recording
+     */
+    @DeleteOperation
+    public WebEndpointResponse<RecordingDescriptor> stop(@Selector String name) {
+        Optional<Recording> recording = find(name);
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.get().getState() == RecordingState.RUNNING) {
+            recording.get().stop();
+        }
+        RecordingDescriptor stopped = describe(recording.get());
+        recording.get().close();
+        log.info("Stopped flight recording {}", stopped.getName());
+        return new WebEndpointResponse<>(stopped);
+    }
+
+    private static long openRecordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getState() != RecordingState.CLOSED)
+                .count();
+    }
+
+    private static Optional<Recording> find(String name) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getState() != RecordingState.CLOSED)
+                .filter(recording -> name.equals(recording.getName()) || name.equals(String.valueOf(recording.getId())))
+                .findFirst();
+    }
+
+    private static RecordingDescriptor describe(Recording recording) {
+        return RecordingDescriptor.builder()
+                .id(recording.getId())
+                .name(recording.getName())
+                .state(recording.getState().name())
+                .startTime(recording.getStartTime())
+                .stopTime(recording.getStopTime())
+                .durationSeconds(recording.getDuration() != null ? recording.getDuration().toSeconds() : null)
+                .maxAgeSeconds(recording.getMaxAge() != null ? recording.getMaxAge().toSeconds() : null)
+                .maxSizeBytes(recording.getMaxSize())
+                .sizeBytes(recording.getSize())
+                .build();
+    }
+
+    /**
+     * A recording as reported by the endpoint
+     */
+    @Getter
+    @Builder
+    public static class RecordingDescriptor {
+
+        private final long id;
+        private final String name;
+        private final String state;
+        private final Instant startTime;
+        private final Instant stopTime;
+        private final Long durationSeconds;
+        private final Long maxAgeSeconds;
+        private final long maxSizeBytes;
+        private final long sizeBytes;
+    }
+
+    /**
+     * Dump file that is deleted once it has been read
+     */
+    private static final class TemporaryFileSystemResource extends FileSystemResource {
+
+        private TemporaryFileSystemResource(File file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Served from the input stream, so the file is deleted after the download
+            return false;
+        }
+    }
+}
@@ -107,17 +107,28 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Get all claims from token
+     * Get all claims from token, recording a {@link JwtVerificationEvent}
      * 
      * @param token JWT token
      * @return Claims object
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            event.valid = true;
+            return claims;
+        } catch (RuntimeException ex) {
+            event.failure = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            event.commit();
+        }
     }
 
     /**
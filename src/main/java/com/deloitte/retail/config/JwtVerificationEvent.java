@@ -0,0 +1,30 @@
+package com.deloitte.retail.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one parse and signature check of a JWT by
+ * {@link JwtTokenProvider}
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Name("com.deloitte.retail.JwtVerification")
+@Label("JWT Verification")
+@Category({"Retail", "Security"})
+@Description("Parse and signature check of a JWT")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Valid")
+    boolean valid;
+
+    @Label("Failure")
+    @Description("Exception the token was rejected with")
+    String failure;
+}
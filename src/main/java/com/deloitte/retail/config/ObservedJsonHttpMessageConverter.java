@@ -0,0 +1,27 @@
+package com.deloitte.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, recording a {@link ResponseSerializationEvent} for
+ * each body it writes
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class ObservedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public ObservedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ResponseSerializationEvent.write(object, outputMessage, message -> super.writeInternal(object, type, message));
+    }
+}
@@ -0,0 +1,130 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.ProductResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * Base for the write-only binary encodings of product payloads: a single
+ * {@link ProductResponse} or a list of them. Prices are written as a whole
+ * number of cents and timestamps as epoch milliseconds (UTC), so callers
+ * parse neither decimals nor dates. Lists are written product by product
+ * as they are serialized.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+abstract class ProductBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    protected ProductBinaryHttpMessageConverter(MediaType mediaType) {
+        super(mediaType);
+    }
+
+    /**
+     * Coarse check by class, used to list supported media types; element
+     * types of collections are checked in {@link #canWrite(Type, Class, MediaType)}
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductResponse.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        Class<?> raw = resolved.toClass();
+        if (Collection.class.isAssignableFrom(raw)) {
+            Class<?> element = resolved.asCollection().resolveGeneric(0);
+            return element != null && ProductResponse.class.isAssignableFrom(element);
+        }
+        return ProductResponse.class.isAssignableFrom(raw);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ResponseSerializationEvent.write(body, outputMessage, message -> {
+            OutputStream out = message.getBody();
+            if (body instanceof Collection<?> products) {
+                writeProducts(products, out);
+            } else {
+                writeProduct((ProductResponse) body, out);
+            }
+            out.flush();
+        });
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary product payloads are response-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary product payloads are response-only", inputMessage);
+    }
+
+    /**
+     * Write one product as the whole body
+     *
+     * @param product Product
+     * @param out Response body
+     * @throws IOException if the body can not be written
+     */
+    protected abstract void writeProduct(ProductResponse product, OutputStream out) throws IOException;
+
+    /**
+     * Write a list of products as the whole body
+     *
+     * @param products Products
+     * @param out Response body
+     * @throws IOException if the body can not be written
+     */
+    protected abstract void writeProducts(Collection<?> products, OutputStream out) throws IOException;
+
+    /**
+     * Price as a whole number of cents; prices are stored with two decimals
+     *
+     * @param price Price
+     * @return Cents
+     */
+    static long priceCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Timestamp as milliseconds since the epoch. Timestamps are UTC: the
+     * application pins the JVM and JDBC time zones to it at startup.
+     *
+     * @param time Timestamp
+     * @return Epoch milliseconds
+     */
+    static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,96 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Writes products as CBOR for {@code Accept: application/cbor}. Each
+ * product is a map with the JSON field names, except that {@code price},
+ * {@code createdAt} and {@code updatedAt} become {@code priceCents},
+ * {@code createdAtMillis} and {@code updatedAtMillis}; null fields are left
+ * out. A list is an indefinite-length array, so it is written as it goes.
+ * Other response types use the generic Jackson CBOR converter.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class ProductCborHttpMessageConverter extends ProductBinaryHttpMessageConverter {
+
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    public ProductCborHttpMessageConverter() {
+        super(MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    protected void writeProduct(ProductResponse product, OutputStream out) throws IOException {
+        try (CBORGenerator generator = generator(out)) {
+            write(generator, product);
+        }
+    }
+
+    @Override
+    protected void writeProducts(Collection<?> products, OutputStream out) throws IOException {
+        try (CBORGenerator generator = generator(out)) {
+            generator.writeStartArray();
+            for (Object product : products) {
+                write(generator, (ProductResponse) product);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private CBORGenerator generator(OutputStream out) throws IOException {
+        CBORGenerator generator = cborFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static void write(CBORGenerator generator, ProductResponse product) throws IOException {
+        generator.writeStartObject();
+        if (product.getId() != null) {
+            generator.writeNumberField("id", product.getId());
+        }
+        writeString(generator, "sku", product.getSku());
+        writeString(generator, "name", product.getName());
+        writeString(generator, "description", product.getDescription());
+        if (product.getPrice() != null) {
+            generator.writeNumberField("priceCents", priceCents(product.getPrice()));
+        }
+        if (product.getQuantity() != null) {
+            generator.writeNumberField("quantity", product.getQuantity());
+        }
+        if (product.getReorderPoint() != null) {
+            generator.writeNumberField("reorderPoint", product.getReorderPoint());
+        }
+        writeString(generator, "category", product.getCategory());
+        writeString(generator, "brand", product.getBrand());
+        if (product.getIsActive() != null) {
+            generator.writeBooleanField("isActive", product.getIsActive());
+        }
+        if (product.getCreatedAt() != null) {
+            generator.writeNumberField("createdAtMillis", epochMillis(product.getCreatedAt()));
+        }
+        if (product.getUpdatedAt() != null) {
+            generator.writeNumberField("updatedAtMillis", epochMillis(product.getUpdatedAt()));
+        }
+        if (product.getChangeSequence() != null) {
+            generator.writeNumberField("changeSequence", product.getChangeSequence());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(CBORGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+}
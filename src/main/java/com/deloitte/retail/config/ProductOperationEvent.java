@@ -0,0 +1,85 @@
+package com.deloitte.retail.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one call of a {@code ProductService} operation,
+ * recorded by {@link FlightRecorderAspect}. Hibernate, JDBC and Tomcat
+ * events recorded on the same thread while it lasts belong to the call.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Name("com.deloitte.retail.ProductOperation")
+@Label("Product Operation")
+@Category({"Retail", "Product Service"})
+@Description("A call of a product service operation")
+@StackTrace(false)
+public class ProductOperationEvent extends Event {
+
+    private static final ThreadLocal<ProductOperationEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Product ID")
+    @Description("ID the operation was called with, 0 for none")
+    long productId;
+
+    @Label("SKU")
+    @Description("SKU the operation was called with")
+    String sku;
+
+    @Label("Result Size")
+    @Description("Products, changes or alerts returned; 1 for a single object, -1 for a count or flag")
+    int resultSize;
+
+    @Label("Cache Hits")
+    @Description("Products served fresh from the product cache")
+    int cacheHits;
+
+    @Label("Failure")
+    @Description("Exception the operation failed with")
+    String failure;
+
+    /**
+     * Count a product cache hit against the operation running on the current
+     * thread; does nothing unless a recording captures the operation
+     */
+    public static void recordCacheHit() {
+        ProductOperationEvent event = CURRENT.get();
+        if (event != null) {
+            event.cacheHits++;
+        }
+    }
+
+    /**
+     * Make an event the one cache hits on the current thread count against
+     *
+     * @param event Event of the operation starting
+     * @return Event of the enclosing operation, to pass to {@link #exit}
+     */
+    static ProductOperationEvent enter(ProductOperationEvent event) {
+        ProductOperationEvent outer = CURRENT.get();
+        CURRENT.set(event);
+        return outer;
+    }
+
+    /**
+     * Restore the event of the enclosing operation
+     *
+     * @param outer Event returned by {@link #enter}, may be null
+     */
+    static void exit(ProductOperationEvent outer) {
+        if (outer != null) {
+            CURRENT.set(outer);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.ProductResponse;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Writes products in the protobuf wire format for
+ * {@code Accept: application/x-protobuf}. A single product is a
+ * {@code retail.v1.Product} message and a list is a
+ * {@code retail.v1.ProductList}, as declared in {@code proto/product.proto};
+ * clients generate their classes from that file. Messages are encoded by
+ * hand so the build needs no protoc step. Null fields are left out.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class ProductProtobufHttpMessageConverter extends ProductBinaryHttpMessageConverter {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int ID = 1;
+    private static final int SKU = 2;
+    private static final int NAME = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int PRICE_CENTS = 5;
+    private static final int QUANTITY = 6;
+    private static final int REORDER_POINT = 7;
+    private static final int CATEGORY = 8;
+    private static final int BRAND = 9;
+    private static final int ACTIVE = 10;
+    private static final int CREATED_AT_MILLIS = 11;
+    private static final int UPDATED_AT_MILLIS = 12;
+    private static final int CHANGE_SEQUENCE = 13;
+
+    /**
+     * {@code ProductList.products}
+     */
+    private static final int PRODUCTS = 1;
+
+    public ProductProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected void writeProduct(ProductResponse product, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out);
+        write(coded, product);
+        coded.flush();
+    }
+
+    @Override
+    protected void writeProducts(Collection<?> products, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out);
+        for (Object product : products) {
+            ProductResponse response = (ProductResponse) product;
+            coded.writeTag(PRODUCTS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            coded.writeUInt32NoTag(size(response));
+            write(coded, response);
+        }
+        coded.flush();
+    }
+
+    private static void write(CodedOutputStream coded, ProductResponse product) throws IOException {
+        if (product.getId() != null) {
+            coded.writeInt64(ID, product.getId());
+        }
+        if (product.getSku() != null) {
+            coded.writeString(SKU, product.getSku());
+        }
+        if (product.getName() != null) {
+            coded.writeString(NAME, product.getName());
+        }
+        if (product.getDescription() != null) {
+            coded.writeString(DESCRIPTION, product.getDescription());
+        }
+        if (product.getPrice() != null) {
+            coded.writeInt64(PRICE_CENTS, priceCents(product.getPrice()));
+        }
+        if (product.getQuantity() != null) {
+            coded.writeInt32(QUANTITY, product.getQuantity());
+        }
+        if (product.getReorderPoint() != null) {
+            coded.writeInt32(REORDER_POINT, product.getReorderPoint());
+        }
+        if (product.getCategory() != null) {
+            coded.writeString(CATEGORY, product.getCategory());
+        }
+        if (product.getBrand() != null) {
+            coded.writeString(BRAND, product.getBrand());
+        }
+        if (product.getIsActive() != null) {
+            coded.writeBool(ACTIVE, product.getIsActive());
+        }
+        if (product.getCreatedAt() != null) {
+            coded.writeInt64(CREATED_AT_MILLIS, epochMillis(product.getCreatedAt()));
+        }
+        if (product.getUpdatedAt() != null) {
+            coded.writeInt64(UPDATED_AT_MILLIS, epochMillis(product.getUpdatedAt()));
+        }
+        if (product.getChangeSequence() != null) {
+            coded.writeInt64(CHANGE_SEQUENCE, product.getChangeSequence());
+        }
+    }
+
+    /**
+     * Encoded size of a product message, needed before writing it into a list
+     */
+    private static int size(ProductResponse product) {
+        int size = 0;
+        if (product.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(ID, product.getId());
+        }
+        if (product.getSku() != null) {
+            size += CodedOutputStream.computeStringSize(SKU, product.getSku());
+        }
+        if (product.getName() != null) {
+            size += CodedOutputStream.computeStringSize(NAME, product.getName());
+        }
+        if (product.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(DESCRIPTION, product.getDescription());
+        }
+        if (product.getPrice() != null) {
+            size += CodedOutputStream.computeInt64Size(PRICE_CENTS, priceCents(product.getPrice()));
+        }
+        if (product.getQuantity() != null) {
+            size += CodedOutputStream.computeInt32Size(QUANTITY, product.getQuantity());
+        }
+        if (product.getReorderPoint() != null) {
+            size += CodedOutputStream.computeInt32Size(REORDER_POINT, product.getReorderPoint());
+        }
+        if (product.getCategory() != null) {
+            size += CodedOutputStream.computeStringSize(CATEGORY, product.getCategory());
+        }
+        if (product.getBrand() != null) {
+            size += CodedOutputStream.computeStringSize(BRAND, product.getBrand());
+        }
+        if (product.getIsActive() != null) {
+            size += CodedOutputStream.computeBoolSize(ACTIVE, product.getIsActive());
+        }
+        if (product.getCreatedAt() != null) {
+            size += CodedOutputStream.computeInt64Size(CREATED_AT_MILLIS, epochMillis(product.getCreatedAt()));
+        }
+        if (product.getUpdatedAt() != null) {
+            size += CodedOutputStream.computeInt64Size(UPDATED_AT_MILLIS, epochMillis(product.getUpdatedAt()));
+        }
+        if (product.getChangeSequence() != null) {
+            size += CodedOutputStream.computeInt64Size(CHANGE_SEQUENCE, product.getChangeSequence());
+        }
+        return size;
+    }
+}
@@ -0,0 +1,187 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter placed right after {@link JwtAuthenticationFilter}. Each client,
+ * identified by JWT subject or else by remote address, has its own token
+ * bucket, and all clients share a global bucket that caps the load sent to the
+ * database. Requests are weighted by cost, so full table reads use up a
+ * client's budget faster than point reads. Rejected requests get a 429 with
+ * {@code Retry-After} before any controller, service or connection is touched.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCTS_PATH = "/api/v1/products";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final TokenBucket globalBucket;
+    private final Counter clientRejections;
+    private final Counter globalRejections;
+
+    @Value("${retail.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.rate-limit.client.tokens-per-second:50}")
+    private double clientTokensPerSecond;
+
+    @Value("${retail.rate-limit.client.capacity:200}")
+    private long clientCapacity;
+
+    @Value("${retail.rate-limit.cost.list:20}")
+    private int listCost;
+
+    @Value("${retail.rate-limit.cost.query:5}")
+    private int queryCost;
+
+    @Value("${retail.rate-limit.cost.write:5}")
+    private int writeCost;
+
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${retail.rate-limit.global.tokens-per-second:2000}") double globalTokensPerSecond,
+                           @Value("${retail.rate-limit.global.capacity:4000}") long globalCapacity,
+                           @Value("${retail.rate-limit.max-clients:100000}") long maxClients) {
+        this.objectMapper = objectMapper;
+        this.clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.globalBucket = new TokenBucket(globalTokensPerSecond, globalCapacity, System.nanoTime());
+        this.clientRejections = Counter.builder("retail.ratelimit.rejected")
+                .tag("scope", "client")
+                .description("Requests rejected because the client exceeded its rate limit")
+                .register(meterRegistry);
+        this.globalRejections = Counter.builder("retail.ratelimit.rejected")
+                .tag("scope", "global")
+                .description("Requests shed because the service-wide rate limit was exceeded")
+                .register(meterRegistry);
+        Gauge.builder("retail.ratelimit.clients", clientBuckets, Cache::estimatedSize)
+                .description("Clients with an active rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        int cost = costOf(request.getMethod(), request.getRequestURI());
+        if (!enabled || cost <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String client = clientKey(request);
+        TokenBucket bucket = clientBuckets.get(client,
+                key -> new TokenBucket(clientTokensPerSecond, clientCapacity, now));
+        long waitNanos = bucket.tryConsume(cost, now);
+        if (waitNanos > 0) {
+            clientRejections.increment();
+            log.debug("Rate limit exceeded for client {}", client);
+            reject(request, response, waitNanos, "Rate limit exceeded");
+            return;
+        }
+        waitNanos = globalBucket.tryConsume(cost, now);
+        if (waitNanos > 0) {
+            globalRejections.increment();
+            reject(request, response, waitNanos, "Service is busy, please retry");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Tokens a request costs; 0 for requests that are not rate limited
+     * 
+     * @param method HTTP method
+     * @param path Request path
+     * @return Request cost
+     */
+    int costOf(String method, String path) {
+        if (path == null || !path.startsWith("/api/")) {
+            return 0;
+        }
+        if (path.equals(PRODUCTS_PATH + "/batch-get")) {
+            return queryCost;
+        }
+        if (!HttpMethod.GET.matches(method)) {
+            return writeCost;
+        }
+        if (path.equals(PRODUCTS_PATH) || path.equals(PRODUCTS_PATH + "/active")) {
+            return listCost;
+        }
+        if (path.startsWith(PRODUCTS_PATH + "/search")
+                || path.startsWith(PRODUCTS_PATH + "/category/")
+                || path.startsWith(PRODUCTS_PATH + "/price-range")
+                || path.startsWith(PRODUCTS_PATH + "/low-stock")
+                || path.startsWith(PRODUCTS_PATH + "/changes")
+                || path.startsWith(PRODUCTS_PATH + "/stream")) {
+            return queryCost;
+        }
+        return 1;
+    }
+
+    /**
+     * Key of the bucket the request is charged to. The remote address is the
+     * proxy's unless {@code server.forward-headers-strategy} is configured.
+     */
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
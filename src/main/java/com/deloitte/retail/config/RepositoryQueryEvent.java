@@ -0,0 +1,37 @@
+package com.deloitte.retail.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one call of a repository method, recorded by
+ * {@link FlightRecorderAspect}
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Name("com.deloitte.retail.RepositoryQuery")
+@Label("Repository Query")
+@Category({"Retail", "Repository"})
+@Description("A call of a repository method")
+@StackTrace(false)
+public class RepositoryQueryEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Result Size")
+    @Description("Rows returned; 1 for a single object, -1 for a count or flag")
+    int resultSize;
+
+    @Label("Failure")
+    @Description("Exception the call failed with")
+    String failure;
+}
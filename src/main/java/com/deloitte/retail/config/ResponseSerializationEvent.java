@@ -0,0 +1,122 @@
+package com.deloitte.retail.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Flight Recorder event for writing one response body. Bodies are written
+ * to the response as they are serialized, so the duration includes waiting
+ * for a slow client.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Name("com.deloitte.retail.ResponseSerialization")
+@Label("Response Serialization")
+@Category({"Retail", "Web"})
+@Description("Serialization of a response body")
+@StackTrace(false)
+public class ResponseSerializationEvent extends Event {
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Body Type")
+    String bodyType;
+
+    @Label("Items")
+    @Description("Elements of a list body; 1 for a single object")
+    int items;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Writes a body to an output message
+     */
+    @FunctionalInterface
+    interface BodyWriter {
+
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    /**
+     * Write a response body, recording an event if a recording captures it
+     *
+     * @param body Body being written
+     * @param outputMessage Response
+     * @param writer Serializes the body
+     * @throws IOException if the body can not be written
+     */
+    static void write(Object body, HttpOutputMessage outputMessage, BodyWriter writer) throws IOException {
+        ResponseSerializationEvent event = new ResponseSerializationEvent();
+        if (!event.isEnabled()) {
+            writer.write(outputMessage);
+            return;
+        }
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        event.begin();
+        try {
+            writer.write(counting);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                MediaType contentType = outputMessage.getHeaders().getContentType();
+                event.mediaType = contentType != null ? contentType.toString() : null;
+                event.bodyType = body != null ? body.getClass().getSimpleName() : null;
+                event.items = FlightRecorderAspect.resultSize(body);
+                event.bytes = counting.bytes;
+                event.commit();
+            }
+        }
+    }
+
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private OutputStream body;
+        private long bytes;
+
+        private CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytes += len;
+                    }
+                };
+            }
+            return body;
+        }
+    }
+}
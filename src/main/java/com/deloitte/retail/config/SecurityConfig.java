@@ -1,6 +1,7 @@
 package com.deloitte.retail.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,6 +34,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final AccessLogFilter accessLogFilter;
 
     /**
      * Configure security filter chain with JWT authentication
@@ -48,12 +51,15 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                 .requestMatchers("/api/v1/auth/**").permitAll() // Allow authentication endpoints
+                .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN") // Recordings expose JVM internals
                 .requestMatchers("/api/v1/products/**").authenticated()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(accessLogFilter, JwtAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, AccessLogFilter.class)
             .headers(headers -> headers
                 .frameOptions(frameOptions -> frameOptions.deny())
                 .contentTypeOptions(contentTypeOptions -> {})
@@ -66,6 +72,34 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Keep the rate limiter out of the servlet filter chain; it only runs
+     * inside the security chain, after the JWT subject is known
+     * 
+     * @param filter Rate limit filter
+     * @return Disabled registration
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Keep the access log out of the servlet filter chain; it runs inside the
+     * security chain so the user is known and rate limited requests are logged
+     * 
+     * @param filter Access log filter
+     * @return Disabled registration
+     */
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilterRegistration(AccessLogFilter filter) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * Password encoder bean
      * 
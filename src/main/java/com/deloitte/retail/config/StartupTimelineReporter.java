@@ -0,0 +1,63 @@
+package com.deloitte.retail.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Logs time-to-ready and the slowest startup steps once the application is
+ * ready, so startup regressions can be tracked per release. The full timeline
+ * stays available at {@code /actuator/startup}.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class StartupTimelineReporter {
+
+    @Value("${retail.startup.report-top-steps:10}")
+    private int topSteps;
+
+    /**
+     * Report the startup timeline
+     * 
+     * @param event Application ready event
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        String version = StartupTimelineReporter.class.getPackage().getImplementationVersion();
+        Duration timeTaken = event.getTimeTaken();
+        log.info("Startup complete: version={} timeToReadyMs={}",
+                version != null ? version : "dev", timeTaken != null ? timeTaken.toMillis() : -1);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup bufferingStartup) || topSteps <= 0) {
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> slowest = bufferingStartup.getBufferedTimeline().getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .toList();
+        for (StartupTimeline.TimelineEvent step : slowest) {
+            log.info("Startup step {}ms {} {}", step.getDuration().toMillis(),
+                    step.getStartupStep().getName(), describe(step));
+        }
+    }
+
+    private static String describe(StartupTimeline.TimelineEvent step) {
+        StringBuilder tags = new StringBuilder();
+        step.getStartupStep().getTags().forEach(tag ->
+                tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+}
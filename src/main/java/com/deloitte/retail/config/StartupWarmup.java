@@ -0,0 +1,211 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.ProductRequest;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.exception.ResourceNotFoundException;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the instance before it takes traffic: fills the connection pool,
+ * preloads the hottest products into the product cache and runs the mapper,
+ * JSON and JWT paths often enough for the JIT to compile them.
+ * <p>
+ * Runs as an {@link ApplicationRunner}; Spring Boot only publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} after all runners have returned, so
+ * {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} until warm-up
+ * completes or times out.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "retail.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String WARMUP_USER = "warmup";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final DataSource dataSource;
+
+    @Value("${retail.warmup.skus:}")
+    private List<String> skus;
+
+    @Value("${retail.warmup.top-recent:500}")
+    private int topRecent;
+
+    @Value("${retail.warmup.parallelism:8}")
+    private int parallelism;
+
+    @Value("${retail.warmup.jit-iterations:2000}")
+    private int jitIterations;
+
+    @Value("${retail.warmup.timeout-ms:60000}")
+    private long timeoutMs;
+
+    /**
+     * Run the warm-up, bounded by the configured timeout
+     *
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        AtomicInteger preloaded = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            tasks.add(executor.submit(this::prefillConnectionPool));
+            tasks.add(executor.submit(this::exerciseHotPaths));
+            for (String sku : skus) {
+                if (!sku.isBlank()) {
+                    tasks.add(executor.submit(() -> preload(() -> productService.getProductBySku(sku.trim()), preloaded)));
+                }
+            }
+            if (topRecent > 0) {
+                for (Product product : productRepository.findByIsActiveTrueOrderByUpdatedAtDesc(PageRequest.of(0, topRecent))) {
+                    Long id = product.getId();
+                    tasks.add(executor.submit(() -> preload(() -> productService.getProductById(id), preloaded)));
+                }
+            }
+            awaitAll(tasks, deadline);
+        } catch (Exception ex) {
+            log.warn("Warm-up failed, continuing startup: {}", ex.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Warm-up finished in {}ms, preloaded {} products",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), preloaded.get());
+    }
+
+    /**
+     * Open connections up to the pool's minimum idle size so the first requests
+     * do not pay for connection establishment
+     */
+    void prefillConnectionPool() {
+        int target;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            target = dataSource.unwrap(HikariDataSource.class).getMinimumIdle();
+        } catch (Exception ex) {
+            log.debug("Connection pool prefill skipped: {}", ex.getMessage());
+            return;
+        }
+
+        List<Connection> connections = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target && !Thread.currentThread().isInterrupted(); i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (Exception ex) {
+            log.warn("Connection pool prefill stopped after {} connections: {}", connections.size(), ex.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (Exception ignored) {
+                    // Returning to the pool; nothing to do
+                }
+            }
+        }
+        log.debug("Connection pool prefilled with {} connections", connections.size());
+    }
+
+    /**
+     * Exercise the request mapping, JSON serialization and JWT code paths
+     */
+    void exerciseHotPaths() {
+        ProductRequest request = ProductRequest.builder()
+                .sku("WARMUP-SKU")
+                .name("Warm-up product")
+                .description("Synthetic product used to exercise request handling")
+                .price(new BigDecimal("19.99"))
+                .quantity(1)
+                .category("Warm-up")
+                .brand("Warm-up")
+                .isActive(true)
+                .build();
+        try {
+            for (int i = 0; i < jitIterations && !Thread.currentThread().isInterrupted(); i++) {
+                Product entity = productMapper.toEntity(request);
+                entity.setId((long) i);
+                ProductResponse response = productMapper.toResponse(entity);
+                byte[] json = objectMapper.writeValueAsBytes(response);
+                objectMapper.readValue(json, ProductResponse.class);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(request), ProductRequest.class);
+
+                String token = jwtTokenProvider.generateToken(WARMUP_USER);
+                if (jwtTokenProvider.validateToken(token)) {
+                    jwtTokenProvider.getUsernameFromToken(token);
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("Hot path warm-up stopped: {}", ex.getMessage());
+        }
+    }
+
+    private void preload(Runnable read, AtomicInteger preloaded) {
+        try {
+            read.run();
+            preloaded.incrementAndGet();
+        } catch (ResourceNotFoundException ex) {
+            log.debug("Warm-up product not found: {}", ex.getMessage());
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> tasks, long deadline) throws InterruptedException {
+        for (Future<?> task : tasks) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                task.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                log.warn("Warm-up timed out, accepting traffic with a partially warmed instance");
+                return;
+            } catch (ExecutionException ex) {
+                log.warn("Warm-up task failed: {}", ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.deloitte.retail.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The bucket state is a single timestamp, the
+ * theoretical time at which the bucket would be full again, so consuming
+ * tokens is one compare-and-set with no lock or refill thread.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param tokensPerSecond Sustained refill rate
+     * @param capacity Maximum tokens available in a burst
+     * @param nowNanos Current {@link System#nanoTime()}; the bucket starts full
+     */
+    public TokenBucket(double tokensPerSecond, long capacity, long nowNanos) {
+        this.nanosPerToken = Math.max(1L, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Try to take tokens from the bucket
+     * 
+     * @param tokens Number of tokens the request costs
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until they
+     *         would be available
+     */
+    public long tryConsume(int tokens, long nowNanos) {
+        long cost = tokens * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + cost;
+            long debt = next - nowNanos;
+            if (debt > burstNanos) {
+                return debt - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Whole tokens currently available
+     * 
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return Available tokens
+     */
+    public long available(long nowNanos) {
+        long debt = Math.max(0L, fullAt.get() - nowNanos);
+        return (burstNanos - debt) / nanosPerToken;
+    }
+}
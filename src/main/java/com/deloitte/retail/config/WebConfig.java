@@ -0,0 +1,41 @@
+package com.deloitte.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the binary product encodings. They go right after the JSON
+ * converter, so JSON stays the default for clients that accept anything and
+ * product payloads take precedence over the generic CBOR converter. The
+ * JSON converter is replaced by one that records serialization events.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ObservedJsonHttpMessageConverter(objectMapper);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int position = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                position = i + 1;
+                break;
+            }
+        }
+        converters.addAll(position, List.of(new ProductCborHttpMessageConverter(),
+                new ProductProtobufHttpMessageConverter()));
+    }
+}
@@ -0,0 +1,131 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.service.Workload;
+import com.deloitte.retail.service.WorkloadBulkheads;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Data source that charges connections to the workload of the calling
+ * thread. A connection taken within a {@link Workload} holds one of its
+ * connection permits until closed, and every statement created on it gets
+ * the query timeout of the workload. Connections taken outside any workload
+ * are passed through unchanged.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class WorkloadDataSource extends DelegatingDataSource {
+
+    private final Supplier<WorkloadBulkheads> workloadBulkheads;
+
+    WorkloadDataSource(DataSource target, Supplier<WorkloadBulkheads> workloadBulkheads) {
+        super(target);
+        this.workloadBulkheads = workloadBulkheads;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return charge(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return charge(() -> super.getConnection(username, password));
+    }
+
+    private Connection charge(ConnectionSource source) throws SQLException {
+        WorkloadBulkheads bulkheads = workloadBulkheads.get();
+        Workload workload = bulkheads.acquireConnection();
+        if (workload == null) {
+            return source.get();
+        }
+        try {
+            Connection connection = source.get();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    new ChargedConnection(connection, bulkheads, workload));
+        } catch (SQLException | RuntimeException ex) {
+            bulkheads.releaseConnection(workload);
+            throw ex;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Sets the query timeout on new statements and returns the permit once
+     * the connection is closed
+     */
+    private static final class ChargedConnection implements InvocationHandler {
+
+        private final Connection target;
+        private final WorkloadBulkheads bulkheads;
+        private final Workload workload;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ChargedConnection(Connection target, WorkloadBulkheads bulkheads, Workload workload) {
+            this.target = target;
+            this.bulkheads = bulkheads;
+            this.workload = workload;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    try {
+                        return invokeTarget(method, args);
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            bulkheads.releaseConnection(workload);
+                        }
+                    }
+                default:
+                    break;
+            }
+            Object result = invokeTarget(method, args);
+            if (result instanceof Statement statement) {
+                int timeout = bulkheads.queryTimeoutSeconds(workload);
+                if (timeout > 0) {
+                    statement.setQueryTimeout(timeout);
+                }
+            }
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
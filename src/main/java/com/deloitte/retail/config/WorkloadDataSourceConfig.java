@@ -0,0 +1,35 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.service.WorkloadBulkheads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a {@link WorkloadDataSource}, so
+ * database connections count against the per-workload connection budgets.
+ * The bulkheads are looked up on first use; resolving them while post
+ * processors are created would initialize the meter registry too early.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class WorkloadDataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor workloadDataSourcePostProcessor(ObjectProvider<WorkloadBulkheads> workloadBulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof WorkloadDataSource)) {
+                    return new WorkloadDataSource(dataSource, workloadBulkheads::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,15 +1,35 @@
 package com.deloitte.retail.controller;
 
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.ProductBatchGetRequest;
+import com.deloitte.retail.dto.ProductBatchGetResponse;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
+import com.deloitte.retail.dto.ProductJobRequest;
+import com.deloitte.retail.dto.ProductJobResponse;
 import com.deloitte.retail.dto.ProductRequest;
 import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+import com.deloitte.retail.dto.ProductSuggestion;
+import com.deloitte.retail.exception.InvalidRequestException;
+import com.deloitte.retail.service.ProductChangeBroadcaster;
+import com.deloitte.retail.service.ProductJobService;
 import com.deloitte.retail.service.ProductService;
+import com.deloitte.retail.service.StaleRead;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -24,7 +44,12 @@ import java.util.List;
 @Slf4j
 public class ProductController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final ProductService productService;
+    private final ProductChangeBroadcaster productChangeBroadcaster;
+    private final ProductJobService productJobService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a new product
@@ -34,87 +59,272 @@ public class ProductController {
      */
     @PostMapping
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest request) {
-        log.info("POST /api/v1/products - Creating product");
+        log.debug("POST /api/v1/products - Creating product");
         ProductResponse response = productService.createProduct(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     /**
-     * Get product by ID
+     * Get product by ID. A product served from a stale cache entry carries
+     * {@code Warning} and {@code Age} headers.
      * 
      * @param id Product ID
      * @return ResponseEntity with ProductResponse
      */
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        log.info("GET /api/v1/products/{} - Fetching product", id);
+        log.debug("GET /api/v1/products/{} - Fetching product", id);
         ProductResponse response = productService.getProductById(id);
-        return ResponseEntity.ok(response);
+        return withStaleness(ResponseEntity.ok()).body(response);
     }
 
     /**
-     * Get product by SKU
+     * Get product by SKU, with staleness headers like {@link #getProductById}
      * 
      * @param sku Product SKU
      * @return ResponseEntity with ProductResponse
      */
     @GetMapping("/sku/{sku}")
     public ResponseEntity<ProductResponse> getProductBySku(@PathVariable String sku) {
-        log.info("GET /api/v1/products/sku/{} - Fetching product by SKU", sku);
+        log.debug("GET /api/v1/products/sku/{} - Fetching product by SKU", sku);
         ProductResponse response = productService.getProductBySku(sku);
+        return withStaleness(ResponseEntity.ok()).body(response);
+    }
+
+    /**
+     * Get several products by ID and/or SKU in one request
+     * 
+     * @param request IDs and SKUs to fetch
+     * @return ResponseEntity with the products found and the missing keys
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<ProductBatchGetResponse> batchGetProducts(@Valid @RequestBody ProductBatchGetRequest request) {
+        log.debug("POST /api/v1/products/batch-get - Fetching products in batch");
+        ProductBatchGetResponse response = productService.getProductsBatch(request.getIds(), request.getSkus());
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Get all products
+     * Get all products, or the first {@code limit} in {@code sort} order when
+     * either parameter is given
      * 
+     * @param sort Optional sort order
+     * @param limit Optional maximum number of products
      * @return ResponseEntity with List of ProductResponse
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("GET /api/v1/products - Fetching all products");
-        List<ProductResponse> responses = productService.getAllProducts();
+    public ResponseEntity<List<ProductResponse>> getAllProducts(@RequestParam(required = false) String sort,
+                                                                @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products - Fetching all products");
+        List<ProductResponse> responses = sort == null && limit == null
+                ? productService.getAllProducts()
+                : productService.getAllProducts(ProductSort.fromParameter(sort), limit);
         return ResponseEntity.ok(responses);
     }
 
     /**
-     * Get all active products
+     * Get all active products, or the first {@code limit} in {@code sort}
+     * order when either parameter is given
      * 
+     * @param sort Optional sort order
+     * @param limit Optional maximum number of products
      * @return ResponseEntity with List of ProductResponse
      */
     @GetMapping("/active")
-    public ResponseEntity<List<ProductResponse>> getActiveProducts() {
-        log.info("GET /api/v1/products/active - Fetching active products");
-        List<ProductResponse> responses = productService.getActiveProducts();
+    public ResponseEntity<List<ProductResponse>> getActiveProducts(@RequestParam(required = false) String sort,
+                                                                   @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/active - Fetching active products");
+        List<ProductResponse> responses = sort == null && limit == null
+                ? productService.getActiveProducts()
+                : productService.getActiveProducts(ProductSort.fromParameter(sort), limit);
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Get active products with a quantity below a threshold, lowest stock first
+     * 
+     * @param threshold Optional exclusive quantity threshold
+     * @param sort Optional sort order
+     * @param limit Optional maximum number of products
+     * @return ResponseEntity with List of ProductResponse
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<ProductResponse>> getLowStockProducts(@RequestParam(required = false) Integer threshold,
+                                                                     @RequestParam(required = false) String sort,
+                                                                     @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/low-stock?threshold={} - Fetching low stock products", threshold);
+        List<ProductResponse> responses = productService.getLowStockProducts(threshold,
+                ProductSort.fromParameter(sort), limit);
         return ResponseEntity.ok(responses);
     }
 
     /**
-     * Search products by name
+     * Search products. The default substring mode matches names only;
+     * ranked mode orders products by relevance across name, brand, category
+     * and description and tolerates typos.
      * 
      * @param name Search term
+     * @param mode Optional search mode, substring (default) or ranked
+     * @param limit Optional maximum number of results in ranked mode
      * @return ResponseEntity with List of ProductResponse
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name) {
-        log.info("GET /api/v1/products/search?name={} - Searching products", name);
-        List<ProductResponse> responses = productService.searchProductsByName(name);
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name,
+                                                                @RequestParam(required = false) String mode,
+                                                                @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/search?name={}&mode={} - Searching products", name, mode);
+        List<ProductResponse> responses;
+        if (mode == null || mode.isBlank() || "substring".equalsIgnoreCase(mode.trim())) {
+            responses = productService.searchProductsByName(name);
+        } else if ("ranked".equalsIgnoreCase(mode.trim())) {
+            responses = productService.searchProductsRanked(name, limit);
+        } else {
+            throw new InvalidRequestException("Unsupported search mode '" + mode + "', expected substring or ranked");
+        }
         return ResponseEntity.ok(responses);
     }
 
     /**
-     * Get products by category
+     * Autocomplete products by SKU or name prefix, for search-as-you-type
+     * 
+     * @param prefix Typed prefix
+     * @param limit Optional maximum number of suggestions
+     * @return ResponseEntity with List of ProductSuggestion
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(@RequestParam String prefix,
+                                                                   @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/suggest?prefix={} - Suggesting products", prefix);
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    /**
+     * Get low-stock alerts after a cursor: LOW when a product drops below its
+     * reorder point, CLEARED when it no longer is
+     * 
+     * @param since Exclusive cursor, 0 to read from the beginning
+     * @param limit Maximum number of alerts to return
+     * @return ResponseEntity with a page of alerts and the next cursor
+     */
+    @GetMapping("/low-stock/alerts")
+    public ResponseEntity<LowStockAlertPage> getLowStockAlerts(@RequestParam(defaultValue = "0") long since,
+                                                               @RequestParam(defaultValue = "500") int limit) {
+        log.debug("GET /api/v1/products/low-stock/alerts?since={} - Fetching low-stock alerts", since);
+        return ResponseEntity.ok(productService.getLowStockAlertsSince(since, limit));
+    }
+
+    /**
+     * Get products by category, or the first {@code limit} in {@code sort}
+     * order when any optional parameter is given
      * 
      * @param category Product category
+     * @param active Optional, true to skip inactive products
+     * @param sort Optional sort order
+     * @param limit Optional maximum number of products
      * @return ResponseEntity with List of ProductResponse
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
-        log.info("GET /api/v1/products/category/{} - Fetching products by category", category);
-        List<ProductResponse> responses = productService.getProductsByCategory(category);
+    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category,
+                                                                       @RequestParam(required = false) Boolean active,
+                                                                       @RequestParam(required = false) String sort,
+                                                                       @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/category/{} - Fetching products by category", category);
+        List<ProductResponse> responses = active == null && sort == null && limit == null
+                ? productService.getProductsByCategory(category)
+                : productService.getProductsByCategory(category, Boolean.TRUE.equals(active),
+                        ProductSort.fromParameter(sort), limit);
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Get products priced within a range
+     * 
+     * @param min Inclusive lower bound, zero if omitted
+     * @param max Inclusive upper bound, unbounded if omitted
+     * @param sort Optional sort order
+     * @param limit Optional maximum number of products
+     * @return ResponseEntity with List of ProductResponse
+     */
+    @GetMapping("/price-range")
+    public ResponseEntity<List<ProductResponse>> getProductsByPriceRange(
+            @RequestParam(required = false) BigDecimal min,
+            @RequestParam(required = false) BigDecimal max,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("GET /api/v1/products/price-range?min={}&max={} - Fetching products by price", min, max);
+        List<ProductResponse> responses = sort == null && limit == null
+                ? productService.getProductsByPriceRange(min, max)
+                : productService.getProductsByPriceRange(min, max, ProductSort.fromParameter(sort), limit);
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Get catalog changes after a cursor
+     * 
+     * @param since Exclusive change cursor, 0 to start from the beginning
+     * @param limit Maximum number of changes in the page
+     * @return ResponseEntity with a page of changes and the next cursor
+     */
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductChangePage> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        log.debug("GET /api/v1/products/changes?since={} - Fetching product changes", since);
+        ProductChangePage page = productService.getChangesSince(since, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Stream all catalog changes after a cursor as newline-delimited JSON.
+     * Pages are read one at a time, so the stream holds no long-running
+     * transaction and memory stays bounded by the page size.
+     * 
+     * @param since Exclusive change cursor, 0 to start from the beginning
+     * @param limit Page size used while reading the feed
+     * @return ResponseEntity streaming one change per line
+     */
+    @GetMapping(value = "/changes", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        log.debug("GET /api/v1/products/changes?since={} - Streaming product changes", since);
+        StreamingResponseBody body = outputStream -> {
+            long cursor = since;
+            ProductChangePage page;
+            do {
+                page = productService.getChangesSince(cursor, limit);
+                for (ProductChange change : page.getChanges()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(change));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                cursor = page.getNextCursor();
+            } while (page.isHasMore());
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Subscribe to product changes as Server-Sent Events. Each event id is a
+     * change feed cursor, so a reconnecting client resumes via
+     * {@code Last-Event-ID}; it may see a few changes again, but misses none.
+     * 
+     * @param skus SKUs to watch, all products when neither filter is given
+     * @param categories Categories to watch
+     * @param lastEventId Last event id received before reconnecting
+     * @return SseEmitter delivering product changes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductEvents(
+            @RequestParam(name = "sku", required = false) List<String> skus,
+            @RequestParam(name = "category", required = false) List<String> categories,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("GET /api/v1/products/stream - Subscribing to product changes");
+        return productChangeBroadcaster.subscribe(skus, categories, lastEventId);
+    }
+
     /**
      * Update product by ID
      * 
@@ -126,7 +336,7 @@ public class ProductController {
     public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long id,
             @Valid @RequestBody ProductRequest request) {
-        log.info("PUT /api/v1/products/{} - Updating product", id);
+        log.debug("PUT /api/v1/products/{} - Updating product", id);
         ProductResponse response = productService.updateProduct(id, request);
         return ResponseEntity.ok(response);
     }
@@ -139,8 +349,76 @@ public class ProductController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        log.info("DELETE /api/v1/products/{} - Deleting product", id);
+        log.debug("DELETE /api/v1/products/{} - Deleting product", id);
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Move an archived product back to the products table
+     * 
+     * @param id Product ID
+     * @return ResponseEntity with the restored ProductResponse
+     */
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<ProductResponse> restoreProduct(@PathVariable Long id) {
+        log.debug("POST /api/v1/products/{}/restore - Restoring archived product", id);
+        ProductResponse response = productService.restoreProduct(id);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Submit a job that deactivates, reactivates or deletes every product of
+     * a category, a brand or a list of SKUs in the background
+     * 
+     * @param request Action and product selector
+     * @return ResponseEntity with the queued job and its location
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ProductJobResponse> submitJob(@Valid @RequestBody ProductJobRequest request) {
+        log.debug("POST /api/v1/products/jobs - Submitting {} job", request.getAction());
+        ProductJobResponse response = productJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/products/jobs/" + response.getId()))
+                .body(response);
+    }
+
+    /**
+     * Get the state and progress of a job
+     * 
+     * @param jobId Job ID
+     * @return ResponseEntity with ProductJobResponse
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ProductJobResponse> getJob(@PathVariable String jobId) {
+        log.debug("GET /api/v1/products/jobs/{} - Fetching job", jobId);
+        return ResponseEntity.ok(productJobService.getJob(jobId));
+    }
+
+    /**
+     * Cancel a job; chunks already applied stay applied
+     * 
+     * @param jobId Job ID
+     * @return ResponseEntity with the job state after the request
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<ProductJobResponse> cancelJob(@PathVariable String jobId) {
+        log.debug("DELETE /api/v1/products/jobs/{} - Cancelling job", jobId);
+        return ResponseEntity.ok(productJobService.cancel(jobId));
+    }
+
+    /**
+     * Add {@code Warning} (110 while a refresh runs, 111 when the database
+     * could not be read) and {@code Age} headers if the service answered
+     * from a stale cache entry
+     */
+    private static ResponseEntity.BodyBuilder withStaleness(ResponseEntity.BodyBuilder builder) {
+        StaleRead stale = StaleRead.current();
+        if (stale != null) {
+            builder.header(HttpHeaders.WARNING, stale.isRevalidationFailed()
+                            ? "111 - \"Revalidation Failed\"" : "110 - \"Response is Stale\"")
+                    .header(HttpHeaders.AGE, Long.toString(stale.getAgeSeconds()));
+        }
+        return builder;
+    }
 }
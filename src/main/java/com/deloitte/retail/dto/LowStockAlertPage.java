@@ -0,0 +1,30 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of the low-stock alert feed
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlertPage {
+
+    private List<LowStockAlertResponse> alerts;
+
+    /**
+     * Cursor to pass as {@code since} to fetch the next page
+     */
+    private long nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a single entry of the low-stock alert feed
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlertResponse {
+
+    /**
+     * Feed cursor of this alert
+     */
+    private Long id;
+
+    /**
+     * LOW when the product dropped below its reorder point, CLEARED when it
+     * no longer is
+     */
+    private String type;
+
+    private Long productId;
+    private String sku;
+    private String category;
+    private Integer quantity;
+    private Integer reorderPoint;
+    private LocalDateTime createdAt;
+}
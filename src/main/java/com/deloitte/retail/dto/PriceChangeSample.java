@@ -0,0 +1,27 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one product's price before and after a price rule, as reported by
+ * a dry run
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeSample {
+
+    private Long id;
+    private String sku;
+    private BigDecimal oldPrice;
+    private BigDecimal newPrice;
+}
@@ -0,0 +1,64 @@
+package com.deloitte.retail.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a price change applied to many products at once, e.g. +3% rounded
+ * to a .99 ending
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRule {
+
+    /**
+     * How {@code value} changes a price
+     */
+    public enum Type {
+        /**
+         * Add {@code value} percent of the price; negative for a discount
+         */
+        PERCENT,
+        /**
+         * Add {@code value} to the price; negative for a reduction
+         */
+        AMOUNT
+    }
+
+    /**
+     * How the new price is brought to two decimal places
+     */
+    public enum Rounding {
+        /**
+         * Nearest cent, halves away from zero
+         */
+        CENT,
+        /**
+         * The .99 ending of the whole unit the price falls in, e.g. 10.30 to 10.99
+         */
+        ENDING_99
+    }
+
+    @NotNull(message = "Price rule type is required")
+    private Type type;
+
+    @NotNull(message = "Price rule value is required")
+    @Digits(integer = 10, fraction = 4, message = "Price rule value must have at most 10 integer digits and 4 decimal places")
+    private BigDecimal value;
+
+    /**
+     * Defaults to {@link Rounding#CENT}
+     */
+    private Rounding rounding;
+}
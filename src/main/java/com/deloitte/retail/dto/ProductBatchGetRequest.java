@@ -0,0 +1,28 @@
+package com.deloitte.retail.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for fetching several products by ID and/or SKU in one request
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchGetRequest {
+
+    @Size(max = 1000, message = "At most 1000 IDs can be requested at once")
+    private List<Long> ids;
+
+    @Size(max = 1000, message = "At most 1000 SKUs can be requested at once")
+    private List<String> skus;
+}
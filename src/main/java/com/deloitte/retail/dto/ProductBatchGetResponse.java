@@ -0,0 +1,26 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a batch get. Products found by ID come first, then
+ * those found by SKU, each in request order and without duplicates.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchGetResponse {
+
+    private List<ProductResponse> products;
+    private List<Long> missingIds;
+    private List<String> missingSkus;
+}
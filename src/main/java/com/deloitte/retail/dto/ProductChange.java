@@ -0,0 +1,37 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a single entry of the product change feed
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    /**
+     * Kind of change recorded in the feed
+     */
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private long sequence;
+    private Type type;
+    private Long productId;
+    private String sku;
+
+    /**
+     * Current state of the product, absent for deletes
+     */
+    private ProductResponse product;
+}
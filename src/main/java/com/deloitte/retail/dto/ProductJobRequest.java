@@ -0,0 +1,77 @@
+package com.deloitte.retail.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for submitting a bulk product job. Exactly one of {@code category},
+ * {@code brand} or {@code skus} selects the products, except for
+ * {@code REPRICE}, which selects by any combination of category, brand and
+ * price band, or the whole catalog when none is given.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductJobRequest {
+
+    /**
+     * Operation applied to every selected product
+     */
+    public enum Action {
+        DEACTIVATE,
+        REACTIVATE,
+        DELETE,
+        REPRICE
+    }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Size(max = 100, message = "Brand must not exceed 100 characters")
+    private String brand;
+
+    @Size(max = 10000, message = "At most 10000 SKUs can be given in one job")
+    private List<String> skus;
+
+    /**
+     * Price change of a {@code REPRICE} job
+     */
+    @Valid
+    private PriceRule priceRule;
+
+    /**
+     * Lowest current price a {@code REPRICE} job changes, inclusive
+     */
+    @DecimalMin(value = "0.0", message = "Minimum price must not be negative")
+    @Digits(integer = 10, fraction = 2, message = "Minimum price must have at most 10 integer digits and 2 decimal places")
+    private BigDecimal minPrice;
+
+    /**
+     * Highest current price a {@code REPRICE} job changes, inclusive
+     */
+    @DecimalMin(value = "0.0", message = "Maximum price must not be negative")
+    @Digits(integer = 10, fraction = 2, message = "Maximum price must have at most 10 integer digits and 2 decimal places")
+    private BigDecimal maxPrice;
+
+    /**
+     * Report what a {@code REPRICE} job would change without writing anything
+     */
+    private boolean dryRun;
+}
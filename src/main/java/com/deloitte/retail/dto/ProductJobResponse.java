@@ -0,0 +1,81 @@
+package com.deloitte.retail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the state and progress of a bulk product job
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductJobResponse {
+
+    /**
+     * Lifecycle of a job
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    private String id;
+    private ProductJobRequest.Action action;
+    private String category;
+    private String brand;
+    private Integer skuCount;
+    private PriceRule priceRule;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean dryRun;
+    private Status status;
+
+    /**
+     * Products selected when the job started, null while queued
+     */
+    private Integer total;
+
+    /**
+     * Selected products looked at so far
+     */
+    private int processed;
+
+    /**
+     * Products actually changed, or for a dry run the products that would
+     * be; ones already in the target state are skipped
+     */
+    private int changed;
+
+    /**
+     * Products a price rule leaves unchanged because the new price would not
+     * be positive or would not fit the price column
+     */
+    private Integer outOfRange;
+
+    /**
+     * Prices before and after for the first products a dry run would change
+     */
+    private List<PriceChangeSample> sample;
+
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Reason the job failed
+     */
+    private String error;
+}
@@ -40,6 +40,15 @@ public class ProductRequest {
     @Min(value = 0, message = "Quantity must be non-negative")
     private Integer quantity;
 
+    @Min(value = 0, message = "Reorder point must be non-negative")
+    private Integer reorderPoint;
+
+    /**
+     * Remove the product's reorder point on update, so the default low-stock
+     * threshold applies again; a missing reorderPoint leaves it unchanged
+     */
+    private Boolean clearReorderPoint;
+
     @Size(max = 100, message = "Category must not exceed 100 characters")
     private String category;
 
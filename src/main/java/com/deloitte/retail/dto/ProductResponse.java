@@ -26,9 +26,11 @@ public class ProductResponse {
     private String description;
     private BigDecimal price;
     private Integer quantity;
+    private Integer reorderPoint;
     private String category;
     private String brand;
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long changeSequence;
 }
@@ -0,0 +1,84 @@
+package com.deloitte.retail.dto;
+
+import com.deloitte.retail.exception.InvalidRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Sort orders supported by the product list endpoints. Ties are broken by
+ * product ID in the same direction, so every order is total and a top-N
+ * result is stable.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public enum ProductSort {
+
+    ID("id", "id", false),
+    PRICE_ASC("price-asc", "price", false),
+    PRICE_DESC("price-desc", "price", true),
+    NEWEST("newest", "createdAt", true),
+    RECENTLY_UPDATED("recently-updated", "updatedAt", true),
+    QUANTITY_ASC("quantity-asc", "quantity", false);
+
+    private final String parameter;
+    private final String property;
+    private final boolean descending;
+
+    ProductSort(String parameter, String property, boolean descending) {
+        this.parameter = parameter;
+        this.property = property;
+        this.descending = descending;
+    }
+
+    /**
+     * Value of the {@code sort} request parameter selecting this order
+     *
+     * @return Parameter value
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Whether larger values come first
+     *
+     * @return true for descending orders
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Equivalent Spring Data sort, including the ID tie breaker
+     *
+     * @return Sort for repository queries
+     */
+    public Sort toSort() {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, property);
+        return this == ID ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Resolve a {@code sort} request parameter
+     *
+     * @param value Parameter value, may be null
+     * @return Sort order, or null if the parameter is absent
+     * @throws InvalidRequestException if the value is not a supported order
+     */
+    public static ProductSort fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.parameter.equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new InvalidRequestException("Unsupported sort '" + value + "', expected one of "
+                + Arrays.stream(values()).map(ProductSort::getParameter).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,15 @@
+package com.deloitte.retail.exception;
+
+/**
+ * Exception thrown when request parameters are well-formed but can not be
+ * served, such as an empty or inverted range
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,9 @@
 package com.deloitte.retail.exception;
 
 /**
- * Exception thrown when a requested resource is not found
+ * Exception thrown when a requested resource is not found.
+ * Not-found is an expected outcome rather than a fault, so exceptions without
+ * a cause skip capturing the stack trace.
  * 
  * @author Deloitte
  * @version 1.0.0
@@ -9,7 +11,7 @@ package com.deloitte.retail.exception;
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
@@ -0,0 +1,19 @@
+package com.deloitte.retail.exception;
+
+/**
+ * Exception thrown when a request can not be served in time because the
+ * service or one of its dependencies is overloaded
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
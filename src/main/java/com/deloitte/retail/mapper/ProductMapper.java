@@ -2,7 +2,9 @@ package com.deloitte.retail.mapper;
 
 import com.deloitte.retail.dto.ProductRequest;
 import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.model.ArchivedProduct;
 import com.deloitte.retail.model.Product;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -27,6 +29,7 @@ public interface ProductMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSequence", ignore = true)
     Product toEntity(ProductRequest request);
 
     /**
@@ -37,6 +40,14 @@ public interface ProductMapper {
      */
     ProductResponse toResponse(Product product);
 
+    /**
+     * Map ArchivedProduct entity to ProductResponse DTO
+     * 
+     * @param product ArchivedProduct entity
+     * @return ProductResponse DTO
+     */
+    ProductResponse toResponse(ArchivedProduct product);
+
     /**
      * Update Product entity from ProductRequest
      * 
@@ -47,5 +58,20 @@ public interface ProductMapper {
     @Mapping(target = "sku", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSequence", ignore = true)
     void updateEntityFromRequest(ProductRequest request, @MappingTarget Product product);
+
+    /**
+     * Clear the reorder point when requested, which null values can not do
+     * as they leave properties unchanged
+     *
+     * @param request ProductRequest DTO
+     * @param product Product entity being updated
+     */
+    @AfterMapping
+    default void clearReorderPoint(ProductRequest request, @MappingTarget Product product) {
+        if (Boolean.TRUE.equals(request.getClearReorderPoint())) {
+            product.setReorderPoint(null);
+        }
+    }
 }
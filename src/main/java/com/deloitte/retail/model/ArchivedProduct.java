@@ -0,0 +1,70 @@
+package com.deloitte.retail.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Product moved out of the products table after being inactive for longer
+ * than the archive threshold. Rows are written and removed with set-based
+ * statements that copy between the two tables, so an archived product keeps
+ * its ID, SKU and every column it had.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "products_archive")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedProduct {
+
+    @Id
+    private Long id;
+
+    @Column(name = "sku", unique = true, nullable = false, length = 50)
+    private String sku;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    @Column(name = "description", length = 1000)
+    private String description;
+
+    @Column(name = "price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "reorder_point")
+    private Integer reorderPoint;
+
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Column(name = "brand", length = 100)
+    private String brand;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "change_seq")
+    private Long changeSequence;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
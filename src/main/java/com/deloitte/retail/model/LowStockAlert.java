@@ -0,0 +1,72 @@
+package com.deloitte.retail.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the low-stock alert feed, recorded in the same transaction as the
+ * write that moved a product across its reorder point. The ID is the feed
+ * cursor.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "low_stock_alerts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlert {
+
+    /**
+     * Direction of the threshold crossing
+     */
+    public enum Type {
+        /**
+         * The product became low on stock
+         */
+        LOW,
+        /**
+         * The product is no longer low on stock: restocked, reorder point
+         * lowered or deactivated
+         */
+        CLEARED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sku", nullable = false, length = 50)
+    private String sku;
+
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 20)
+    private Type type;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "reorder_point", nullable = false)
+    private Integer reorderPoint;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
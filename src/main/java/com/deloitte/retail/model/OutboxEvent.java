@@ -0,0 +1,53 @@
+package com.deloitte.retail.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product change event waiting in the transactional outbox. Rows are written
+ * in the same transaction as the product change and removed by the relay once
+ * the event has been handed to the configured sink.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sku", nullable = false, length = 50)
+    private String sku;
+
+    @Column(name = "event_type", nullable = false, length = 20)
+    private String eventType;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSequence;
+
+    @Column(name = "payload", nullable = false, length = 8000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
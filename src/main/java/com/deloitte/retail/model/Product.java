@@ -11,15 +11,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
- * Product entity representing a retail product
+ * Product entity representing a retail product.
+ * The table and its indexes are created by the Flyway migrations in
+ * {@code db/migration}; the indexes are listed here for reference.
  * 
  * @author Deloitte
  * @version 1.0.0
  */
 @Entity
 @Table(name = "products", indexes = {
-    @Index(name = "idx_product_sku", columnList = "sku"),
-    @Index(name = "idx_product_name", columnList = "name")
+    @Index(name = "idx_product_category_price", columnList = "category, price, id"),
+    @Index(name = "idx_product_brand", columnList = "brand"),
+    @Index(name = "idx_product_price", columnList = "price, id"),
+    @Index(name = "idx_product_created_at", columnList = "created_at, id"),
+    @Index(name = "idx_product_quantity", columnList = "quantity, id"),
+    @Index(name = "idx_product_updated_at", columnList = "updated_at, id"),
+    @Index(name = "idx_product_change_seq", columnList = "change_seq")
 })
 @Data
 @Builder
@@ -55,6 +62,14 @@ public class Product {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
+    /**
+     * Quantity below which the product is low on stock; the configured
+     * default applies when not set
+     */
+    @Min(value = 0, message = "Reorder point must be non-negative")
+    @Column(name = "reorder_point")
+    private Integer reorderPoint;
+
     @Size(max = 100, message = "Category must not exceed 100 characters")
     @Column(name = "category", length = 100)
     private String category;
@@ -73,6 +88,14 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Position of the latest write to this product in the catalog change feed.
+     * Drawn from the same sequence as {@link ProductTombstone} so upserts and
+     * deletes share a single ordering.
+     */
+    @Column(name = "change_seq")
+    private Long changeSequence;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,49 @@
+package com.deloitte.retail.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone recorded when a product is deleted, so that change feed
+ * consumers learn about deletes instead of silently keeping stale rows
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_tombstone_product_id", columnList = "product_id")
+})
+@SequenceGenerator(name = "product_change_seq", sequenceName = "product_change_seq", allocationSize = 1)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @Column(name = "change_seq")
+    private Long changeSequence;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sku", nullable = false, length = 50)
+    private String sku;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (deletedAt == null) {
+            deletedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.ArchivedProduct;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for ArchivedProduct entity. Products move between
+ * the products table and the archive with {@code INSERT ... SELECT}
+ * statements, so no row passes through the application.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public interface ArchivedProductRepository extends JpaRepository<ArchivedProduct, Long> {
+
+    String PRODUCT_COLUMNS = "id, sku, name, description, price, quantity, reorder_point, category, brand, "
+            + "is_active, created_at, updated_at, change_seq";
+
+    /**
+     * Find archived product by SKU
+     * 
+     * @param sku Product SKU
+     * @return Optional archived product
+     */
+    Optional<ArchivedProduct> findBySku(String sku);
+
+    /**
+     * Find archived products by a list of SKUs
+     * 
+     * @param skus Product SKUs
+     * @return List of archived products found, in no particular order
+     */
+    List<ArchivedProduct> findBySkuIn(Collection<String> skus);
+
+    /**
+     * Check if an archived product exists by SKU
+     * 
+     * @param sku Product SKU
+     * @return true if exists, false otherwise
+     */
+    boolean existsBySku(String sku);
+
+    /**
+     * Find archived SKUs in ID order, one page after the given ID
+     * 
+     * @param id Exclusive lower bound of the ID
+     * @param pageable Page size limit
+     * @return List of SKUs ordered by ID
+     */
+    @Query("SELECT a.id AS id, a.sku AS sku, a.changeSequence AS changeSequence FROM ArchivedProduct a "
+            + "WHERE a.id > :id ORDER BY a.id")
+    List<ProductRepository.SkuView> findSkusByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the IDs of all archived products in a category
+     * 
+     * @param category Product category
+     * @return List of product IDs in ascending order
+     */
+    @Query("SELECT a.id FROM ArchivedProduct a WHERE a.category = :category ORDER BY a.id")
+    List<Long> findIdsByCategory(@Param("category") String category);
+
+    /**
+     * Find the IDs of all archived products of a brand
+     * 
+     * @param brand Product brand
+     * @return List of product IDs in ascending order
+     */
+    @Query("SELECT a.id FROM ArchivedProduct a WHERE a.brand = :brand ORDER BY a.id")
+    List<Long> findIdsByBrand(@Param("brand") String brand);
+
+    /**
+     * Find the IDs of the archived products with the given SKUs
+     * 
+     * @param skus Product SKUs
+     * @return List of product IDs, unordered
+     */
+    @Query("SELECT a.id FROM ArchivedProduct a WHERE a.sku IN :skus")
+    List<Long> findIdsBySkuIn(@Param("skus") Collection<String> skus);
+
+    /**
+     * Copy products into the archive, inside the caller's transaction
+     * 
+     * @param ids IDs of the products to copy
+     * @param archivedAt Time of archiving
+     * @return Number of products copied
+     */
+    @Modifying
+    @Query(value = "INSERT INTO products_archive (" + PRODUCT_COLUMNS + ", archived_at) "
+            + "SELECT " + PRODUCT_COLUMNS + ", :archivedAt FROM products WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromProducts(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Copy an archived product back into the products table with its ID,
+     * inside the caller's transaction
+     * 
+     * @param id Product ID
+     * @return Number of products copied, 0 or 1
+     */
+    @Modifying
+    @Query(value = "INSERT INTO products (" + PRODUCT_COLUMNS + ") "
+            + "SELECT " + PRODUCT_COLUMNS + " FROM products_archive WHERE id = :id", nativeQuery = true)
+    int copyToProducts(@Param("id") Long id);
+
+    /**
+     * Copy archived products back into the products table with their IDs,
+     * inside the caller's transaction
+     * 
+     * @param ids Product IDs
+     * @return Number of products copied
+     */
+    @Modifying
+    @Query(value = "INSERT INTO products (" + PRODUCT_COLUMNS + ") "
+            + "SELECT " + PRODUCT_COLUMNS + " FROM products_archive WHERE id IN (:ids)", nativeQuery = true)
+    int copyAllToProducts(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,27 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.LowStockAlert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for LowStockAlert entity
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Long> {
+
+    /**
+     * Find alerts recorded after a cursor, oldest first
+     * 
+     * @param id Exclusive cursor
+     * @param pageable Page size limit
+     * @return List of alerts in feed order
+     */
+    List<LowStockAlert> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
@@ -0,0 +1,50 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends outbox events with JDBC batches. The outbox key is an identity
+ * column, which keeps Hibernate from batching inserts through
+ * {@link OutboxEventRepository}; this writes a transaction's events in a few
+ * round trips on the transaction's own connection.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public class OutboxEventAppender {
+
+    private static final String INSERT_SQL = "INSERT INTO product_outbox"
+            + " (product_id, sku, event_type, change_seq, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventAppender(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert events inside the caller's transaction
+     * 
+     * @param events Events to append; their IDs are left unset
+     */
+    public void appendAll(List<OutboxEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (statement, event) -> {
+            statement.setLong(1, event.getProductId());
+            statement.setString(2, event.getSku());
+            statement.setString(3, event.getEventType());
+            statement.setLong(4, event.getChangeSequence());
+            statement.setString(5, event.getPayload());
+            statement.setTimestamp(6, event.getCreatedAt() != null ? Timestamp.valueOf(event.getCreatedAt()) : now);
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.deloitte.retail.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * A price change and the products it applies to, in the terms
+ * {@link ProductPriceUpdater} turns into SQL. Exactly one of {@code factor}
+ * and {@code amount} is set; the filters are optional.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Value
+@Builder
+public class PriceChange {
+
+    /**
+     * Multiplier applied to the price, e.g. 1.03 for +3%
+     */
+    BigDecimal factor;
+
+    /**
+     * Amount added to the price
+     */
+    BigDecimal amount;
+
+    /**
+     * Round to the .99 ending of the whole unit instead of the nearest cent
+     */
+    boolean ending99;
+
+    String category;
+    String brand;
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+}
@@ -0,0 +1,115 @@
+package com.deloitte.retail.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Access to the database sequence that orders every catalog write.
+ * Products and tombstones both draw from it, so a single cursor value
+ * identifies a position in the change feed.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public class ProductChangeSequence {
+
+    public static final String SEQUENCE_NAME = "product_change_seq";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final String POSTGRESQL_CURRENT_VALUE_SQL =
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM " + SEQUENCE_NAME;
+
+    private static final String H2_CURRENT_VALUE_SQL = "SELECT BASE_VALUE - 1 FROM INFORMATION_SCHEMA.SEQUENCES "
+            + "WHERE SEQUENCE_NAME = '" + SEQUENCE_NAME.toUpperCase() + "'";
+
+    private volatile String nextValueSql;
+    private volatile String currentValueSql;
+    private volatile String nextValueExpression;
+
+    /**
+     * Allocate the next change sequence value. The read does not flush the
+     * persistence context, which a native query otherwise would, so writes
+     * that allocate a value per entity stay linear in the number of entities.
+     * 
+     * @return Next value of the change sequence
+     */
+    public long next() {
+        Number value = (Number) entityManager.createNativeQuery(getNextValueSql())
+                .setFlushMode(FlushModeType.COMMIT)
+                .getSingleResult();
+        return value.longValue();
+    }
+
+    /**
+     * Read the highest value allocated so far, by any connection, without
+     * allocating one. Allocations are not transactional, so the value
+     * includes ones whose transaction has not committed yet.
+     * 
+     * @return Highest allocated change sequence value, 0 if none was allocated
+     */
+    public long current() {
+        Number value = (Number) entityManager.createNativeQuery(getCurrentValueSql())
+                .setFlushMode(FlushModeType.COMMIT)
+                .getSingleResult();
+        return Math.max(0L, value.longValue());
+    }
+
+    /**
+     * Dialect specific SQL expression that allocates the next change sequence
+     * value, for set-based statements that give every row its own value
+     * 
+     * @return SQL expression, e.g. {@code nextval('product_change_seq')}
+     */
+    public String nextValueExpression() {
+        String expression = nextValueExpression;
+        if (expression == null) {
+            expression = getDialect().getSequenceSupport().getSelectSequenceNextValString(SEQUENCE_NAME);
+            nextValueExpression = expression;
+        }
+        return expression;
+    }
+
+    /**
+     * Resolve the dialect specific statement for reading the next sequence value
+     * 
+     * @return SQL selecting the next sequence value
+     */
+    private String getNextValueSql() {
+        String sql = nextValueSql;
+        if (sql == null) {
+            sql = getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME);
+            nextValueSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * Resolve the statement for reading the current sequence value, which
+     * dialects do not provide; PostgreSQL and H2 are the supported databases
+     * 
+     * @return SQL selecting the highest allocated sequence value
+     */
+    private String getCurrentValueSql() {
+        String sql = currentValueSql;
+        if (sql == null) {
+            sql = getDialect() instanceof PostgreSQLDialect ? POSTGRESQL_CURRENT_VALUE_SQL : H2_CURRENT_VALUE_SQL;
+            currentValueSql = sql;
+        }
+        return sql;
+    }
+
+    private Dialect getDialect() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+}
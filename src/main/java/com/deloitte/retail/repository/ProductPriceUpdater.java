@@ -0,0 +1,211 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.Value;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based price changes. A {@link PriceChange} becomes a single SQL
+ * expression for the new price, so a whole range of products is repriced by
+ * one {@code UPDATE} per chunk instead of being loaded and saved one by one. The new
+ * price is rounded to the two decimal places of the price column, and rows
+ * whose new price would be unchanged, not positive, or too large for the
+ * column are left alone. Every row written gets its own change sequence
+ * value, as a single-product update would.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public class ProductPriceUpdater {
+
+    /**
+     * Largest price the {@code NUMERIC(12, 2)} price column holds
+     */
+    public static final BigDecimal MAX_PRICE = new BigDecimal("9999999999.99");
+
+    private final ProductChangeSequence productChangeSequence;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductPriceUpdater(ProductChangeSequence productChangeSequence) {
+        this.productChangeSequence = productChangeSequence;
+    }
+
+    /**
+     * Find the IDs of the products a price change selects
+     * 
+     * @param change Price change
+     * @return List of product IDs in ascending order
+     */
+    public List<Long> findIds(PriceChange change) {
+        Query query = entityManager.createNativeQuery("SELECT id FROM products WHERE " + filter(change) + " ORDER BY id");
+        bindFilter(query, change);
+        List<?> rows = query.getResultList();
+        return rows.stream().map(row -> ((Number) row).longValue()).toList();
+    }
+
+    /**
+     * Reprice a chunk of the selected products, inside the caller's
+     * transaction. The filters are checked again, as the products may have
+     * changed since their IDs were read.
+     * 
+     * @param change Price change
+     * @param ids Product IDs of the chunk
+     * @return Number of products repriced
+     */
+    public int update(PriceChange change, Collection<Long> ids) {
+        String newPrice = newPrice(change);
+        Query query = entityManager.createNativeQuery("UPDATE products SET price = " + newPrice
+                        + ", change_seq = " + productChangeSequence.nextValueExpression()
+                        + ", updated_at = :now"
+                        + " WHERE id IN (:ids) AND " + filter(change)
+                        + " AND " + writable(newPrice))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Product.class);
+        query.setParameter("now", LocalDateTime.now());
+        query.setParameter("ids", ids);
+        query.setParameter("priceLimit", MAX_PRICE);
+        bindFilter(query, change);
+        bindChange(query, change);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Count what a price change would do and sample the first products it
+     * would reprice, without writing anything
+     * 
+     * @param change Price change
+     * @param sampleSize Number of products to sample
+     * @return Counts and sample
+     */
+    public PricePreview preview(PriceChange change, int sampleSize) {
+        String newPrice = newPrice(change);
+        Query counts = entityManager.createNativeQuery("SELECT COUNT(*),"
+                + " SUM(CASE WHEN " + writable(newPrice) + " THEN 1 ELSE 0 END),"
+                + " SUM(CASE WHEN " + newPrice + " <= 0 OR " + newPrice + " > :priceLimit THEN 1 ELSE 0 END)"
+                + " FROM products WHERE " + filter(change));
+        counts.setParameter("priceLimit", MAX_PRICE);
+        bindFilter(counts, change);
+        bindChange(counts, change);
+        Object[] row = (Object[]) counts.getSingleResult();
+
+        Query sample = entityManager.createNativeQuery("SELECT id, sku, price, CAST(" + newPrice + " AS NUMERIC(12, 2))"
+                        + " FROM products WHERE " + filter(change) + " AND " + writable(newPrice) + " ORDER BY id")
+                .setMaxResults(sampleSize);
+        sample.setParameter("priceLimit", MAX_PRICE);
+        bindFilter(sample, change);
+        bindChange(sample, change);
+        List<?> rows = sample.getResultList();
+        return new PricePreview(count(row[0]), count(row[1]), count(row[2]), rows.stream()
+                .map(Object[].class::cast)
+                .map(columns -> new PricePreview.Sample(((Number) columns[0]).longValue(), (String) columns[1],
+                        (BigDecimal) columns[2], (BigDecimal) columns[3]))
+                .toList());
+    }
+
+    /**
+     * SQL expression for the new price of a row
+     */
+    private static String newPrice(PriceChange change) {
+        String raw = change.getFactor() != null ? "price * :factor" : "price + :amount";
+        return change.isEnding99() ? "(FLOOR(" + raw + ") + 0.99)" : "ROUND(" + raw + ", 2)";
+    }
+
+    /**
+     * Condition for a row whose new price differs and fits the column
+     */
+    private static String writable(String newPrice) {
+        return newPrice + " <> price AND " + newPrice + " > 0 AND " + newPrice + " <= :priceLimit";
+    }
+
+    private static String filter(PriceChange change) {
+        StringBuilder sql = new StringBuilder("1 = 1");
+        if (change.getCategory() != null) {
+            sql.append(" AND category = :category");
+        }
+        if (change.getBrand() != null) {
+            sql.append(" AND brand = :brand");
+        }
+        if (change.getMinPrice() != null) {
+            sql.append(" AND price >= :minPrice");
+        }
+        if (change.getMaxPrice() != null) {
+            sql.append(" AND price <= :maxPrice");
+        }
+        return sql.toString();
+    }
+
+    private static void bindFilter(Query query, PriceChange change) {
+        if (change.getCategory() != null) {
+            query.setParameter("category", change.getCategory());
+        }
+        if (change.getBrand() != null) {
+            query.setParameter("brand", change.getBrand());
+        }
+        if (change.getMinPrice() != null) {
+            query.setParameter("minPrice", change.getMinPrice());
+        }
+        if (change.getMaxPrice() != null) {
+            query.setParameter("maxPrice", change.getMaxPrice());
+        }
+    }
+
+    private static void bindChange(Query query, PriceChange change) {
+        if (change.getFactor() != null) {
+            query.setParameter("factor", change.getFactor());
+        } else {
+            query.setParameter("amount", change.getAmount());
+        }
+    }
+
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Outcome of {@link #preview}
+     */
+    @Value
+    public static class PricePreview {
+
+        /**
+         * Products the filters select
+         */
+        long matched;
+
+        /**
+         * Selected products whose price would change
+         */
+        long changed;
+
+        /**
+         * Selected products left alone because the new price would not be
+         * positive or would not fit the price column
+         */
+        long outOfRange;
+
+        List<Sample> sample;
+
+        /**
+         * One product's price before and after
+         */
+        @Value
+        public static class Sample {
+            long id;
+            String sku;
+            BigDecimal oldPrice;
+            BigDecimal newPrice;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.deloitte.retail.repository;
 
 import com.deloitte.retail.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +34,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Optional<Product> findBySku(String sku);
 
+    /**
+     * Find products by a list of SKUs
+     * 
+     * @param skus Product SKUs
+     * @return List of products found, in no particular order
+     */
+    List<Product> findBySkuIn(Collection<String> skus);
+
     /**
      * Check if product exists by SKU
      * 
@@ -65,4 +81,209 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Product> searchByName(@Param("name") String name);
+
+    /**
+     * Find products written after the given change sequence, oldest change first
+     * 
+     * @param changeSequence Exclusive lower bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of products in change order
+     */
+    List<Product> findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(Long changeSequence, Pageable pageable);
+
+    /**
+     * Find products whose change sequence lies in a range, oldest change first
+     * 
+     * @param from Inclusive lower bound of the change sequence
+     * @param to Inclusive upper bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of products in change order
+     */
+    List<Product> findByChangeSequenceBetweenOrderByChangeSequenceAsc(Long from, Long to, Pageable pageable);
+
+    /**
+     * Find the product last updated before the given time
+     * 
+     * @param before Exclusive upper bound of the update time
+     * @return Most recently updated product before that time, if any
+     */
+    Optional<Product> findFirstByUpdatedAtLessThanOrderByUpdatedAtDesc(LocalDateTime before);
+
+    /**
+     * Find the most recently updated active products
+     * 
+     * @param pageable Page size limit
+     * @return List of active products, most recently updated first
+     */
+    List<Product> findByIsActiveTrueOrderByUpdatedAtDesc(Pageable pageable);
+
+    /**
+     * Find products priced within a range
+     * 
+     * @param minPrice Inclusive lower bound
+     * @param maxPrice Inclusive upper bound
+     * @return List of products ordered by ID
+     */
+    List<Product> findByPriceBetweenOrderByIdAsc(BigDecimal minPrice, BigDecimal maxPrice);
+
+    /**
+     * Find the products following an ID, for keyset paging through the table
+     * 
+     * @param id Exclusive lower bound of the ID
+     * @param pageable Page size limit
+     * @return List of products ordered by ID
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Find the first products in the page's sort order
+     * 
+     * @param pageable Sort order and page size
+     * @return List of products, without a count query
+     */
+    List<Product> findAllBy(Pageable pageable);
+
+    /**
+     * Find the first active products in the page's sort order
+     * 
+     * @param pageable Sort order and page size
+     * @return List of active products
+     */
+    List<Product> findByIsActiveTrue(Pageable pageable);
+
+    /**
+     * Find the first products of a category in the page's sort order
+     * 
+     * @param category Product category
+     * @param pageable Sort order and page size
+     * @return List of products in the category
+     */
+    List<Product> findByCategory(String category, Pageable pageable);
+
+    /**
+     * Find the first active products of a category in the page's sort order
+     * 
+     * @param category Product category
+     * @param pageable Sort order and page size
+     * @return List of active products in the category
+     */
+    List<Product> findByCategoryAndIsActiveTrue(String category, Pageable pageable);
+
+    /**
+     * Find the first products priced within a range in the page's sort order
+     * 
+     * @param minPrice Inclusive lower bound
+     * @param maxPrice Inclusive upper bound
+     * @param pageable Sort order and page size
+     * @return List of products
+     */
+    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    /**
+     * Find the first active products with a quantity below a threshold in the
+     * page's sort order
+     * 
+     * @param quantity Exclusive quantity threshold
+     * @param pageable Sort order and page size
+     * @return List of active products low on stock
+     */
+    List<Product> findByIsActiveTrueAndQuantityLessThan(Integer quantity, Pageable pageable);
+
+    /**
+     * Find the SKUs following an ID, for keyset paging through the table
+     * without loading whole products
+     * 
+     * @param id Exclusive lower bound of the ID
+     * @param pageable Page size limit
+     * @return List of SKUs ordered by ID
+     */
+    @Query("SELECT p.id AS id, p.sku AS sku, p.changeSequence AS changeSequence FROM Product p "
+            + "WHERE p.id > :id ORDER BY p.id")
+    List<SkuView> findSkusByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the SKUs of products written after the given change sequence,
+     * oldest change first
+     * 
+     * @param changeSequence Exclusive lower bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of SKUs in change order
+     */
+    @Query("SELECT p.id AS id, p.sku AS sku, p.changeSequence AS changeSequence FROM Product p "
+            + "WHERE p.changeSequence > :changeSequence ORDER BY p.changeSequence")
+    List<SkuView> findSkusByChangeSequenceGreaterThan(@Param("changeSequence") Long changeSequence, Pageable pageable);
+
+    /**
+     * Find the SKUs of products whose change sequence lies in a range,
+     * oldest change first
+     * 
+     * @param from Inclusive lower bound of the change sequence
+     * @param to Inclusive upper bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of SKUs in change order
+     */
+    @Query("SELECT p.id AS id, p.sku AS sku, p.changeSequence AS changeSequence FROM Product p "
+            + "WHERE p.changeSequence BETWEEN :from AND :to ORDER BY p.changeSequence")
+    List<SkuView> findSkusByChangeSequenceBetween(@Param("from") Long from, @Param("to") Long to, Pageable pageable);
+
+    /**
+     * Find the SKUs of the products with the given IDs
+     * 
+     * @param ids Product IDs
+     * @return List of SKUs, unordered
+     */
+    @Query("SELECT p.id AS id, p.sku AS sku, p.changeSequence AS changeSequence FROM Product p WHERE p.id IN :ids")
+    List<SkuView> findSkusByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the IDs of all products in a category, without loading them
+     * 
+     * @param category Product category
+     * @return List of product IDs in ascending order
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.category = :category ORDER BY p.id")
+    List<Long> findIdsByCategory(@Param("category") String category);
+
+    /**
+     * Find the IDs of all products of a brand, without loading them
+     * 
+     * @param brand Product brand
+     * @return List of product IDs in ascending order
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.brand = :brand ORDER BY p.id")
+    List<Long> findIdsByBrand(@Param("brand") String brand);
+
+    /**
+     * Find the IDs of the products with the given SKUs
+     * 
+     * @param skus Product SKUs
+     * @return List of product IDs, unordered
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.sku IN :skus")
+    List<Long> findIdsBySkuIn(@Param("skus") Collection<String> skus);
+
+    /**
+     * Lock the IDs of products inactive since before a cutoff, longest
+     * untouched first, skipping rows another transaction is writing
+     * 
+     * @param cutoff Exclusive upper bound of the last update time
+     * @param pageable Batch size limit
+     * @return List of locked product IDs
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p.id FROM Product p WHERE p.updatedAt < :cutoff AND p.isActive = false ORDER BY p.updatedAt, p.id")
+    List<Long> claimArchiveCandidates(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Product SKU with its ID and change sequence
+     */
+    interface SkuView {
+
+        Long getId();
+
+        String getSku();
+
+        Long getChangeSequence();
+    }
 }
@@ -0,0 +1,37 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for ProductTombstone entity
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Find tombstones recorded after the given change sequence, oldest first
+     * 
+     * @param changeSequence Exclusive lower bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of tombstones in change order
+     */
+    List<ProductTombstone> findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(Long changeSequence, Pageable pageable);
+
+    /**
+     * Find tombstones whose change sequence lies in a range, oldest first
+     * 
+     * @param from Inclusive lower bound of the change sequence
+     * @param to Inclusive upper bound of the change sequence
+     * @param pageable Page size limit
+     * @return List of tombstones in change order
+     */
+    List<ProductTombstone> findByChangeSequenceBetweenOrderByChangeSequenceAsc(Long from, Long to, Pageable pageable);
+}
@@ -0,0 +1,93 @@
+package com.deloitte.retail.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs cache refreshes off the request thread. At most one refresh per key
+ * is queued or running; when the queue is full refreshes are dropped, since
+ * the next read of a stale entry asks again. Refreshes are point reads and
+ * run bound to the {@link Workload#POINT_READ} connection budget and query
+ * timeout.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class BackgroundRefresher {
+
+    private final Set<Object> pending = ConcurrentHashMap.newKeySet();
+    private final WorkloadBulkheads workloadBulkheads;
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+
+    public BackgroundRefresher(@Value("${retail.cache.products.refresh-threads:2}") int threads,
+                               @Value("${retail.cache.products.refresh-queue-size:1000}") int queueSize,
+                               WorkloadBulkheads workloadBulkheads,
+                               MeterRegistry meterRegistry) {
+        this.workloadBulkheads = workloadBulkheads;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = Counter.builder("retail.cache.refresh.dropped")
+                .description("Background cache refreshes dropped because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("retail.cache.refresh.pending", pending, Set::size)
+                .description("Background cache refreshes queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refresh a key in the background unless a refresh of it is already
+     * pending
+     *
+     * @param key Cache key
+     * @param refresh Refresh task; failures are logged and dropped
+     */
+    public void refresh(Object key, Runnable refresh) {
+        if (!pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                boolean bound = workloadBulkheads.bind(Workload.POINT_READ);
+                try {
+                    refresh.run();
+                } catch (RuntimeException ex) {
+                    log.debug("Background refresh of {} failed: {}", key, ex.getMessage());
+                } finally {
+                    if (bound) {
+                        workloadBulkheads.unbind();
+                    }
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.remove(key);
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+}
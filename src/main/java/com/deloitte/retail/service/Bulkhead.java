@@ -0,0 +1,22 @@
+package com.deloitte.retail.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method within the budgets of a {@link Workload}; see
+ * {@link WorkloadBulkheads}. Applies to calls through the Spring proxy.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    Workload value();
+}
@@ -0,0 +1,17 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.exception.ServiceUnavailableException;
+
+/**
+ * Thrown instead of waiting when a workload has used up its concurrency or
+ * connection budget
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class BulkheadFullException extends ServiceUnavailableException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
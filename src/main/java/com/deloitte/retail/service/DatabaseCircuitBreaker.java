@@ -0,0 +1,156 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around product reads from the database.
+ * <p>
+ * After a run of consecutive failures (timeouts, lost connections, other
+ * transient database errors) the circuit opens and calls fail at once with
+ * {@link ServiceUnavailableException}, so callers can fall back to stale
+ * data instead of queueing on a struggling database. After the open period
+ * one trial call is let through; its outcome closes or reopens the circuit.
+ * Errors that say nothing about database health, such as a product not
+ * being found, count as successes.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class DatabaseCircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final Counter rejections;
+
+    /**
+     * Monotonic clock in nanoseconds
+     */
+    private LongSupplier clock = System::nanoTime;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    @Value("${retail.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${retail.circuit-breaker.open-ms:5000}")
+    private long openMs;
+
+    public DatabaseCircuitBreaker(MeterRegistry meterRegistry) {
+        this.rejections = Counter.builder("retail.db.circuit.rejections")
+                .description("Database reads rejected because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("retail.db.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Database circuit state: 0 closed, 1 half open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a database call through the breaker
+     *
+     * @param call Database call
+     * @return Result of the call
+     * @throws ServiceUnavailableException if the circuit is open
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!tryAcquire()) {
+            rejections.increment();
+            throw new ServiceUnavailableException("Database reads are suspended after repeated failures");
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (BulkheadFullException ex) {
+            // The call never reached the database, so it says nothing about its health
+            onSkipped();
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (isDatabaseFailure(ex)) {
+                onFailure(ex);
+            } else {
+                onSuccess();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Whether an exception means the database could not answer in time, so a
+     * stale copy is a reasonable answer
+     *
+     * @param ex Exception thrown by a read
+     * @return true for timeouts, connection failures, an open circuit and a
+     *         full bulkhead
+     */
+    public static boolean isDatabaseFailure(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof ServiceUnavailableException;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (!enabled || state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= TimeUnit.MILLISECONDS.toNanos(openMs)) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Database circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onSkipped() {
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure(RuntimeException ex) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (state == State.CLOSED) {
+                log.warn("Database circuit opened after {} consecutive failures: {}", consecutiveFailures, ex.getMessage());
+            }
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            trialInFlight = false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * OutboxEventSink appending event payloads to a newline-delimited JSON file.
+ * Each batch is written with a single append and forced to disk before the
+ * relay deletes it from the outbox.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "retail.outbox.sink", havingValue = "file")
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    @Value("${retail.outbox.file:/var/log/retail-product-service/product-events.ndjson}")
+    private Path file;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 512);
+        for (OutboxEvent event : events) {
+            lines.append(event.getPayload()).append('\n');
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+    }
+}
@@ -0,0 +1,42 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutboxEventSink keeping published events in memory, intended for tests
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "retail.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final List<OutboxEvent> published = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        published.addAll(events);
+    }
+
+    /**
+     * Events published so far
+     * 
+     * @return Copy of the published events in order
+     */
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    /**
+     * Forget all published events
+     */
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * OutboxEventSink writing each event payload to the {@code retail.outbox} logger
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "retail.outbox.sink", havingValue = "log", matchIfMissing = true)
+@Slf4j(topic = "retail.outbox")
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("{}", event.getPayload());
+        }
+    }
+}
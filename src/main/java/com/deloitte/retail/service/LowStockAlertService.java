@@ -0,0 +1,149 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.LowStockAlertResponse;
+import com.deloitte.retail.model.LowStockAlert;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.LowStockAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects low-stock threshold crossings as products are written and serves
+ * the resulting alert feed.
+ * <p>
+ * A product is low on stock while it is active and its quantity is below its
+ * reorder point, or the configured default when it has none. Callers compare
+ * the state before and after each write, so detection costs O(1) per write
+ * and alerts are only recorded when the state changes.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class LowStockAlertService {
+
+    static final int MAX_ALERT_PAGE_SIZE = 1000;
+
+    private final LowStockAlertRepository lowStockAlertRepository;
+    private final Counter lowCounter;
+    private final Counter clearedCounter;
+
+    @Value("${retail.inventory.low-stock-threshold:10}")
+    private int defaultReorderPoint;
+
+    @Value("${retail.change-feed.commit-lag-ms:10000}")
+    private long commitLagMs;
+
+    public LowStockAlertService(LowStockAlertRepository lowStockAlertRepository, MeterRegistry meterRegistry) {
+        this.lowStockAlertRepository = lowStockAlertRepository;
+        this.lowCounter = Counter.builder("retail.inventory.alerts")
+                .tag("type", "low")
+                .description("Products that dropped below their reorder point")
+                .register(meterRegistry);
+        this.clearedCounter = Counter.builder("retail.inventory.alerts")
+                .tag("type", "cleared")
+                .description("Products that are no longer below their reorder point")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a product is currently low on stock
+     *
+     * @param product Product state, may be null for a product that does not exist yet
+     * @return true if active and below its reorder point
+     */
+    public boolean isLow(Product product) {
+        if (product == null || !Boolean.TRUE.equals(product.getIsActive()) || product.getQuantity() == null) {
+            return false;
+        }
+        return product.getQuantity() < reorderPointOf(product);
+    }
+
+    /**
+     * Record an alert if a write moved the product across its reorder point.
+     * Must run in the transaction of the write so the alert commits with it.
+     *
+     * @param wasLow Whether the product was low before the write
+     * @param product Product state after the write
+     */
+    @Transactional
+    public void recordTransition(boolean wasLow, Product product) {
+        boolean low = isLow(product);
+        if (low == wasLow) {
+            return;
+        }
+        LowStockAlert.Type type = low ? LowStockAlert.Type.LOW : LowStockAlert.Type.CLEARED;
+        lowStockAlertRepository.save(LowStockAlert.builder()
+                .productId(product.getId())
+                .sku(product.getSku())
+                .category(product.getCategory())
+                .type(type)
+                .quantity(product.getQuantity())
+                .reorderPoint(reorderPointOf(product))
+                .build());
+        (low ? lowCounter : clearedCounter).increment();
+        log.debug("Low-stock {} for product {}: quantity {}, reorder point {}",
+                type, product.getSku(), product.getQuantity(), reorderPointOf(product));
+    }
+
+    /**
+     * Get alerts recorded after a cursor, oldest first.
+     * <p>
+     * Alert IDs are allocated when the write happens, not when it commits, so
+     * an alert can become visible after one with a higher ID. An alert is
+     * therefore only served once it is older than the commit lag
+     * ({@code retail.change-feed.commit-lag-ms}); the page stops at the first
+     * newer one, so the cursor never passes an ID whose write may still be open.
+     *
+     * @param since Exclusive cursor, 0 to read from the beginning
+     * @param limit Maximum number of alerts to return
+     * @return Page of alerts with the cursor for the next call
+     */
+    @Transactional(readOnly = true)
+    public LowStockAlertPage getAlertsSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_ALERT_PAGE_SIZE));
+        long cursor = Math.max(0, since);
+        LocalDateTime committedBefore = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(commitLagMs));
+        List<LowStockAlert> page = lowStockAlertRepository
+                .findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize));
+
+        List<LowStockAlertResponse> alerts = new ArrayList<>(page.size());
+        for (LowStockAlert alert : page) {
+            if (alert.getCreatedAt() != null && !alert.getCreatedAt().isBefore(committedBefore)) {
+                break;
+            }
+            alerts.add(LowStockAlertResponse.builder()
+                    .id(alert.getId())
+                    .type(alert.getType().name())
+                    .productId(alert.getProductId())
+                    .sku(alert.getSku())
+                    .category(alert.getCategory())
+                    .quantity(alert.getQuantity())
+                    .reorderPoint(alert.getReorderPoint())
+                    .createdAt(alert.getCreatedAt())
+                    .build());
+        }
+
+        return LowStockAlertPage.builder()
+                .alerts(alerts)
+                .nextCursor(alerts.isEmpty() ? cursor : alerts.get(alerts.size() - 1).getId())
+                .hasMore(alerts.size() == pageSize)
+                .build();
+    }
+
+    private int reorderPointOf(Product product) {
+        return product.getReorderPoint() != null ? product.getReorderPoint() : defaultReorderPoint;
+    }
+}
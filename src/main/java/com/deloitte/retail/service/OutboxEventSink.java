@@ -0,0 +1,24 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes product change events to.
+ * Implementations receive events in outbox order and must either accept the
+ * whole batch or throw, in which case the batch is retried.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Publish a batch of events
+     * 
+     * @param events Events in outbox order
+     * @throws Exception if the batch could not be published
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,90 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.model.OutboxEvent;
+import com.deloitte.retail.repository.OutboxEventAppender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends product change events to the outbox inside the writing transaction,
+ * so an event exists if and only if the product change committed. The events
+ * of a transaction are collected and written together just before it
+ * commits, so a bulk write costs a few batched inserts rather than one round
+ * trip per product.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventWriter {
+
+    private final OutboxEventAppender outboxEventAppender;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queue the change for the outbox of the current transaction. Changes
+     * published outside a transaction are not recorded.
+     * 
+     * @param event Product change event
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        ProductChange change = event.getChange();
+        pendingEvents().add(OutboxEvent.builder()
+                .productId(change.getProductId())
+                .sku(change.getSku())
+                .eventType(change.getType().name())
+                .changeSequence(change.getSequence())
+                .payload(toJson(change))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Events queued in the current transaction, registering the write of
+     * them before commit on first use
+     */
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> pendingEvents() {
+        List<OutboxEvent> pending = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<OutboxEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    outboxEventAppender.appendAll(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventWriter.this);
+                }
+            });
+            pending = events;
+        }
+        return pending;
+    }
+
+    private String toJson(ProductChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product change " + change.getSequence(), ex);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+import com.deloitte.retail.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Background relay moving events from the outbox to the configured sink.
+ * Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, published and
+ * deleted in one short transaction, so delivery is at-least-once and several
+ * instances can relay concurrently without handing out the same rows.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "retail.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventSink outboxEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedBatchCounter;
+
+    @Value("${retail.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${retail.outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxEventSink outboxEventSink,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventSink = outboxEventSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = Counter.builder("retail.outbox.published")
+                .description("Product change events published from the outbox")
+                .register(meterRegistry);
+        this.failedBatchCounter = Counter.builder("retail.outbox.failed.batches")
+                .description("Outbox batches that failed to publish and will be retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain the outbox, batch by batch, until it is empty or the per-run limit
+     * is reached
+     */
+    @Scheduled(fixedDelayString = "${retail.outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int published;
+            try {
+                published = relayBatch();
+            } catch (Exception ex) {
+                failedBatchCounter.increment();
+                log.warn("Outbox batch failed, will retry: {}", ex.getMessage());
+                return;
+            }
+            if (published < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim, publish and delete one batch of events
+     *
+     * @return Number of events published
+     */
+    int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.claimBatch(PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                outboxEventSink.publish(events);
+            } catch (Exception ex) {
+                throw new IllegalStateException("Outbox sink rejected batch starting at event " + events.get(0).getId(), ex);
+            }
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+            return events.size();
+        });
+        int count = published == null ? 0 : published;
+        publishedCounter.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,146 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job moving products that have been inactive for longer than a
+ * threshold from the products table to the archive, so the hot table and its
+ * indexes only hold products that are sold or recently were.
+ * <p>
+ * Each batch claims the longest untouched inactive products with
+ * {@code FOR UPDATE SKIP LOCKED}, copies them to the archive and deletes them
+ * in one short transaction, so several instances can archive concurrently and
+ * a product being written at the same time is left for a later run. Archived
+ * products are still found by ID and SKU; see {@link ProductService}.
+ * <p>
+ * Each archived product leaves a tombstone with its own change sequence
+ * value, so the change feed and the views other instances keep of the
+ * products table drop it like a deleted product.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class ProductArchiver {
+
+    private final ProductRepository productRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+
+    @Value("${retail.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.archive.inactive-days:180}")
+    private long inactiveDays;
+
+    @Value("${retail.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${retail.archive.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    @Value("${retail.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    public ProductArchiver(ProductRepository productRepository,
+                           ArchivedProductRepository archivedProductRepository,
+                           ProductTombstoneRepository productTombstoneRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.archivedProductRepository = archivedProductRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.eventPublisher = eventPublisher;
+        // Batches time out after spring.transaction.default-timeout, below the change feed commit lag
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("retail.product.archived")
+                .description("Products moved from the products table to the archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archive inactive products, batch by batch, until none are left or the
+     * per-run limit is reached
+     */
+    @Scheduled(fixedDelayString = "${retail.archive.interval-ms:3600000}",
+            initialDelayString = "${retail.archive.interval-ms:3600000}")
+    public void archiveInactive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(inactiveDays);
+        long started = System.nanoTime();
+        int total = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (batch > 0 && batchPauseMs > 0) {
+                    Thread.sleep(batchPauseMs);
+                }
+                int archived = archiveBatch(cutoff);
+                total += archived;
+                if (archived < batchSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Archiving inactive products failed after {} products, will retry: {}", total, ex.getMessage());
+        }
+        if (total > 0) {
+            log.info("Archived {} products inactive since before {} in {}ms", total, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    /**
+     * Claim, copy, tombstone and delete one batch of products
+     *
+     * @param cutoff Products last updated before this are archived
+     * @return Number of products archived
+     */
+    int archiveBatch(LocalDateTime cutoff) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<Long> ids = productRepository.claimArchiveCandidates(cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            List<ProductTombstone> tombstones = productTombstoneRepository.saveAll(
+                    productRepository.findSkusByIdIn(ids).stream()
+                            .map(product -> ProductTombstone.builder()
+                                    .productId(product.getId())
+                                    .sku(product.getSku())
+                                    .build())
+                            .toList());
+            archivedProductRepository.copyFromProducts(ids, LocalDateTime.now());
+            productRepository.deleteAllByIdInBatch(ids);
+            eventPublisher.publishEvent(new ProductsArchivedEvent(tombstones));
+            return ids.size();
+        });
+        int count = archived == null ? 0 : archived;
+        archivedCounter.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,243 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.exception.ServiceUnavailableException;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Collects point lookups arriving from many threads within a short window and
+ * resolves each window with a single {@code IN} query. A batch is sent when
+ * the window elapses or when it reaches the maximum size, whichever comes
+ * first, so callers wait at most one window for their result. Batches run on
+ * dispatcher threads bound to the {@link Workload#POINT_READ} connection
+ * budget and query timeout, like the point reads they answer.
+ * <p>
+ * Disabled by default; enable with {@code retail.batch-loader.enabled}.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class ProductBatchLoader {
+
+    private final ProductRepository productRepository;
+    private final WorkloadBulkheads workloadBulkheads;
+    private final ProductMapper productMapper;
+    private final DistributionSummary idBatchSizes;
+    private final DistributionSummary skuBatchSizes;
+
+    @Value("${retail.batch-loader.enabled:false}")
+    private boolean enabled;
+
+    @Value("${retail.batch-loader.window-micros:1000}")
+    private long windowMicros;
+
+    @Value("${retail.batch-loader.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${retail.batch-loader.dispatcher-threads:4}")
+    private int dispatcherThreads;
+
+    private ScheduledExecutorService dispatcher;
+    private Batcher<Long> idBatcher;
+    private Batcher<String> skuBatcher;
+
+    public ProductBatchLoader(ProductRepository productRepository,
+                              ProductMapper productMapper,
+                              WorkloadBulkheads workloadBulkheads,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.workloadBulkheads = workloadBulkheads;
+        this.productMapper = productMapper;
+        this.idBatchSizes = DistributionSummary.builder("retail.batchloader.batch.size")
+                .tag("key", "id")
+                .description("Point lookups resolved per batched query")
+                .register(meterRegistry);
+        this.skuBatchSizes = DistributionSummary.builder("retail.batchloader.batch.size")
+                .tag("key", "sku")
+                .description("Point lookups resolved per batched query")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newScheduledThreadPool(Math.max(1, dispatcherThreads), runnable -> {
+            Thread thread = new Thread(runnable, "product-batch-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        idBatcher = new Batcher<>(this::loadByIds, idBatchSizes);
+        skuBatcher = new Batcher<>(this::loadBySkus, skuBatchSizes);
+        log.info("Product batch loader enabled: window={}us maxBatchSize={}", windowMicros, maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether lookups should go through the loader
+     * 
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled && dispatcher != null;
+    }
+
+    /**
+     * Load a product by ID as part of the current batch
+     * 
+     * @param id Product ID
+     * @param timeoutMs Maximum time to wait for the batch
+     * @return ProductResponse, or null if no product has the ID
+     */
+    public ProductResponse loadById(Long id, long timeoutMs) {
+        return await(idBatcher.enqueue(id), timeoutMs);
+    }
+
+    /**
+     * Load a product by SKU as part of the current batch
+     * 
+     * @param sku Product SKU
+     * @param timeoutMs Maximum time to wait for the batch
+     * @return ProductResponse, or null if no product has the SKU
+     */
+    public ProductResponse loadBySku(String sku, long timeoutMs) {
+        return await(skuBatcher.enqueue(sku), timeoutMs);
+    }
+
+    private Map<Long, ProductResponse> loadByIds(List<Long> ids) {
+        Map<Long, ProductResponse> found = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            found.put(product.getId(), productMapper.toResponse(product));
+        }
+        return found;
+    }
+
+    private Map<String, ProductResponse> loadBySkus(List<String> skus) {
+        Map<String, ProductResponse> found = new HashMap<>();
+        for (Product product : productRepository.findBySkuIn(skus)) {
+            found.put(product.getSku(), productMapper.toResponse(product));
+        }
+        return found;
+    }
+
+    private static ProductResponse await(CompletableFuture<ProductResponse> result, long timeoutMs) {
+        try {
+            return timeoutMs > 0 ? result.get(timeoutMs, TimeUnit.MILLISECONDS) : result.get();
+        } catch (TimeoutException ex) {
+            throw new ServiceUnavailableException("Timed out waiting for a batched product lookup", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted waiting for a batched product lookup", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Pending lookups of one key type. The first key of a batch schedules its
+     * dispatch; a full batch is dispatched immediately.
+     */
+    private final class Batcher<K> {
+
+        private final Function<List<K>, Map<K, ProductResponse>> loader;
+        private final DistributionSummary batchSizes;
+        private Map<K, CompletableFuture<ProductResponse>> pending = new LinkedHashMap<>();
+        private ScheduledFuture<?> scheduledDispatch;
+
+        Batcher(Function<List<K>, Map<K, ProductResponse>> loader, DistributionSummary batchSizes) {
+            this.loader = loader;
+            this.batchSizes = batchSizes;
+        }
+
+        CompletableFuture<ProductResponse> enqueue(K key) {
+            CompletableFuture<ProductResponse> result;
+            Map<K, CompletableFuture<ProductResponse>> full = null;
+            synchronized (this) {
+                result = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+                if (pending.size() >= maxBatchSize) {
+                    full = takePending();
+                } else if (scheduledDispatch == null) {
+                    scheduledDispatch = dispatcher.schedule(this::dispatchPending, windowMicros, TimeUnit.MICROSECONDS);
+                }
+            }
+            if (full != null) {
+                Map<K, CompletableFuture<ProductResponse>> batch = full;
+                dispatcher.execute(() -> dispatch(batch));
+            }
+            return result;
+        }
+
+        private void dispatchPending() {
+            Map<K, CompletableFuture<ProductResponse>> batch;
+            synchronized (this) {
+                batch = takePending();
+            }
+            dispatch(batch);
+        }
+
+        private Map<K, CompletableFuture<ProductResponse>> takePending() {
+            Map<K, CompletableFuture<ProductResponse>> batch = pending;
+            pending = new LinkedHashMap<>();
+            if (scheduledDispatch != null) {
+                scheduledDispatch.cancel(false);
+                scheduledDispatch = null;
+            }
+            return batch;
+        }
+
+        private void dispatch(Map<K, CompletableFuture<ProductResponse>> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            batchSizes.record(batch.size());
+            boolean bound = workloadBulkheads.bind(Workload.POINT_READ);
+            try {
+                Map<K, ProductResponse> found = loader.apply(new ArrayList<>(batch.keySet()));
+                batch.forEach((key, result) -> result.complete(found.get(key)));
+            } catch (RuntimeException ex) {
+                batch.values().forEach(result -> result.completeExceptionally(ex));
+            } finally {
+                if (bound) {
+                    workloadBulkheads.unbind();
+                }
+            }
+        }
+    }
+}
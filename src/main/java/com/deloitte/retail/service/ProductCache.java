@@ -0,0 +1,407 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.config.ProductOperationEvent;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of product point reads, keyed by ID and by SKU.
+ * Committed writes of this instance replace or evict entries; an entry is
+ * only replaced by a state with a higher change sequence, so a slow read can
+ * not overwrite a newer write. Writes of other instances are read from the
+ * product and tombstone tables every
+ * {@code retail.cache.products.poll-interval-ms} and evict the entries they
+ * make stale, so a cached product trails a write on another instance by
+ * about that long. A write whose transaction commits late is picked up once
+ * the {@link ProductChangeWatermark} passes it, at most the commit lag later. A delete leaves a short-lived tombstone with its change
+ * sequence, so a read that started before the delete can not put the product
+ * back. SKUs that were looked up and not found are remembered for a short
+ * time, so repeated lookups of a missing SKU skip the database.
+ * <p>
+ * Entries are fresh for the TTL. Past it they are kept a while longer, so a
+ * read can return them while a background refresh runs (stale-while-
+ * revalidate) or when the database can not answer (stale-if-error).
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private static final int POLL_PAGE_SIZE = 1000;
+
+    private final Cache<Long, ProductResponse> productsById;
+    private final Cache<String, ProductResponse> productsBySku;
+    private final Cache<String, Boolean> missingSkus;
+    private final Cache<Long, Long> deletedIds;
+    private final Cache<String, Long> deletedSkus;
+    private final long ttlMs;
+    private final long staleWhileRevalidateMs;
+    private final long staleIfErrorMs;
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductChangeWatermark productChangeWatermark;
+
+    /**
+     * Every change up to this sequence has been applied
+     */
+    private long pollCursor = -1L;
+
+    /**
+     * Highest change sequence read ahead of the watermark
+     */
+    private long readAhead;
+
+    @Autowired
+    public ProductCache(ProductRepository productRepository,
+                        ProductTombstoneRepository productTombstoneRepository,
+                        ProductChangeWatermark productChangeWatermark,
+                        @Value("${retail.cache.products.max-size:100000}") long maxSize,
+                        @Value("${retail.cache.products.ttl-ms:300000}") long ttlMs,
+                        @Value("${retail.cache.products.negative-ttl-ms:5000}") long negativeTtlMs,
+                        @Value("${retail.cache.products.stale-while-revalidate-ms:30000}") long staleWhileRevalidateMs,
+                        @Value("${retail.cache.products.stale-if-error-ms:3600000}") long staleIfErrorMs,
+                        @Value("${retail.cache.products.delete-tombstone-ms:60000}") long deleteTombstoneMs,
+                        MeterRegistry meterRegistry) {
+        this(productRepository, productTombstoneRepository, productChangeWatermark, maxSize, ttlMs, negativeTtlMs,
+                staleWhileRevalidateMs, staleIfErrorMs, deleteTombstoneMs, meterRegistry, Ticker.systemTicker());
+    }
+
+    ProductCache(ProductRepository productRepository, ProductTombstoneRepository productTombstoneRepository,
+                 ProductChangeWatermark productChangeWatermark, long maxSize, long ttlMs, long negativeTtlMs, long staleWhileRevalidateMs, long staleIfErrorMs,
+                 long deleteTombstoneMs, MeterRegistry meterRegistry, Ticker ticker) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productChangeWatermark = productChangeWatermark;
+        this.ttlMs = ttlMs;
+        this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+        this.staleIfErrorMs = staleIfErrorMs;
+        Duration retention = Duration.ofMillis(ttlMs + Math.max(staleWhileRevalidateMs, staleIfErrorMs));
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.productsBySku = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.missingSkus = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.deletedIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(deleteTombstoneMs))
+                .ticker(ticker)
+                .build();
+        this.deletedSkus = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(deleteTombstoneMs))
+                .ticker(ticker)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, productsBySku, "products.bySku");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingSkus, "products.missingSku");
+    }
+
+    /**
+     * Get a fresh cached product by ID
+     * 
+     * @param id Product ID
+     * @return Cached ProductResponse, or null if absent or past the TTL
+     */
+    public ProductResponse getById(Long id) {
+        return fresh(productsById, id);
+    }
+
+    /**
+     * Get a fresh cached product by SKU
+     * 
+     * @param sku Product SKU
+     * @return Cached ProductResponse, or null if absent or past the TTL
+     */
+    public ProductResponse getBySku(String sku) {
+        return fresh(productsBySku, sku);
+    }
+
+    /**
+     * Get a cached product by ID that is past the TTL but still retained
+     * 
+     * @param id Product ID
+     * @return Stale product, or null if none may be served
+     */
+    public StaleProduct getStaleById(Long id) {
+        return stale(productsById, id);
+    }
+
+    /**
+     * Get a cached product by SKU that is past the TTL but still retained
+     * 
+     * @param sku Product SKU
+     * @return Stale product, or null if none may be served
+     */
+    public StaleProduct getStaleBySku(String sku) {
+        return stale(productsBySku, sku);
+    }
+
+    /**
+     * Whether a SKU was recently looked up and not found
+     * 
+     * @param sku Product SKU
+     * @return true if the SKU is known to be missing
+     */
+    public boolean isMissingSku(String sku) {
+        return missingSkus.getIfPresent(sku) != null;
+    }
+
+    /**
+     * Remember that no product has a SKU
+     * 
+     * @param sku Product SKU
+     */
+    public void putMissingSku(String sku) {
+        if (sku != null) {
+            missingSkus.put(sku, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Cache a product read from the database under both keys, unless a
+     * delete with the same or a higher change sequence was seen
+     * 
+     * @param product Product state
+     */
+    public void put(ProductResponse product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        long sequence = sequenceOf(product);
+        productsById.asMap().compute(product.getId(),
+                (id, current) -> merge(current, product, sequence, deletedIds.getIfPresent(id)));
+        if (product.getSku() != null) {
+            productsBySku.asMap().compute(product.getSku(),
+                    (sku, current) -> merge(current, product, sequence, deletedSkus.getIfPresent(sku)));
+            missingSkus.invalidate(product.getSku());
+        }
+    }
+
+    /**
+     * Remove a deleted product from both keys and keep reads older than the
+     * delete from caching it again
+     * 
+     * @param id Product ID
+     * @param sku Product SKU
+     * @param sequence Change sequence of the delete
+     */
+    public void delete(Long id, String sku, long sequence) {
+        if (id != null) {
+            deletedIds.asMap().merge(id, sequence, Math::max);
+            productsById.invalidate(id);
+        }
+        if (sku != null) {
+            deletedSkus.asMap().merge(sku, sequence, Math::max);
+            productsBySku.invalidate(sku);
+        }
+    }
+
+    /**
+     * Remove a product from both keys
+     * 
+     * @param id Product ID
+     * @param sku Product SKU
+     */
+    public void evict(Long id, String sku) {
+        if (id != null) {
+            productsById.invalidate(id);
+        }
+        if (sku != null) {
+            productsBySku.invalidate(sku);
+        }
+    }
+
+    /**
+     * Remove a product from both keys unless the cached state is at least as
+     * recent as a change, also under the SKU it was cached with if that
+     * differs
+     * 
+     * @param id Product ID
+     * @param sku Product SKU after the change
+     * @param sequence Change sequence of the change
+     */
+    public void evictOlderThan(Long id, String sku, long sequence) {
+        if (id != null) {
+            ProductResponse cached = productsById.getIfPresent(id);
+            productsById.asMap().computeIfPresent(id,
+                    (key, current) -> sequenceOf(current) < sequence ? null : current);
+            if (cached != null && cached.getSku() != null && !cached.getSku().equals(sku)) {
+                evictSkuOlderThan(cached.getSku(), sequence);
+            }
+        }
+        if (sku != null) {
+            evictSkuOlderThan(sku, sequence);
+            missingSkus.invalidate(sku);
+        }
+    }
+
+    /**
+     * Evict the entries that writes of other instances made stale. Changes
+     * up to the watermark are read once when it passes them, so none
+     * committing late is missed; changes above it are read once as soon as
+     * they are visible, so most writes evict within one poll.
+     */
+    @Scheduled(fixedDelayString = "${retail.cache.products.poll-interval-ms:1000}",
+            initialDelayString = "${retail.cache.products.poll-interval-ms:1000}")
+    public synchronized void pollChanges() {
+        try {
+            long safeSequence = productChangeWatermark.safeSequence();
+            if (pollCursor < 0) {
+                pollCursor = safeSequence;
+                readAhead = safeSequence;
+                return;
+            }
+            applyChanges(pollCursor, safeSequence);
+            pollCursor = Math.max(pollCursor, safeSequence);
+            readAhead = applyChanges(Math.max(readAhead, pollCursor), Long.MAX_VALUE);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll product writes for the product cache: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Apply the changes in a range of change sequence values
+     *
+     * @param after Exclusive lower bound
+     * @param upTo Inclusive upper bound
+     * @return Highest change sequence read, or the lower bound
+     */
+    private long applyChanges(long after, long upTo) {
+        long highest = after;
+        if (upTo <= after) {
+            return highest;
+        }
+        PageRequest page = PageRequest.of(0, POLL_PAGE_SIZE);
+        long cursor = after;
+        List<ProductRepository.SkuView> products;
+        do {
+            products = productRepository.findSkusByChangeSequenceBetween(cursor + 1, upTo, page);
+            for (ProductRepository.SkuView product : products) {
+                cursor = product.getChangeSequence();
+                evictOlderThan(product.getId(), product.getSku(), cursor);
+            }
+        } while (products.size() == POLL_PAGE_SIZE);
+        highest = Math.max(highest, cursor);
+
+        cursor = after;
+        List<ProductTombstone> tombstones;
+        do {
+            tombstones = productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(
+                    cursor + 1, upTo, page);
+            for (ProductTombstone tombstone : tombstones) {
+                cursor = tombstone.getChangeSequence();
+                delete(tombstone.getProductId(), tombstone.getSku(), cursor);
+            }
+        } while (tombstones.size() == POLL_PAGE_SIZE);
+        return Math.max(highest, cursor);
+    }
+
+    /**
+     * Number of cached products by ID
+     * 
+     * @return Approximate entry count
+     */
+    public long size() {
+        return productsById.estimatedSize();
+    }
+
+    /**
+     * Apply committed product changes to the cache
+     * 
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChange change = event.getChange();
+        if (change.getType() == ProductChange.Type.UPSERT && change.getProduct() != null) {
+            put(change.getProduct());
+        } else if (change.getType() == ProductChange.Type.DELETE) {
+            delete(change.getProductId(), change.getSku(), change.getSequence());
+        } else {
+            evict(change.getProductId(), change.getSku());
+        }
+    }
+
+    private void evictSkuOlderThan(String sku, long sequence) {
+        productsBySku.asMap().computeIfPresent(sku, (key, current) -> sequenceOf(current) < sequence ? null : current);
+    }
+
+    private <K> ProductResponse fresh(Cache<K, ProductResponse> cache, K key) {
+        ProductResponse product = cache.getIfPresent(key);
+        if (product == null || ageMillis(cache, key) >= ttlMs) {
+            return null;
+        }
+        ProductOperationEvent.recordCacheHit();
+        return product;
+    }
+
+    private <K> StaleProduct stale(Cache<K, ProductResponse> cache, K key) {
+        ProductResponse product = cache.getIfPresent(key);
+        if (product == null) {
+            return null;
+        }
+        long age = ageMillis(cache, key);
+        if (age < ttlMs) {
+            return null;
+        }
+        boolean revalidatable = age < ttlMs + staleWhileRevalidateMs;
+        boolean usableOnError = age < ttlMs + staleIfErrorMs;
+        return revalidatable || usableOnError ? new StaleProduct(product, age, revalidatable, usableOnError) : null;
+    }
+
+    private static <K> long ageMillis(Cache<K, ProductResponse> cache, K key) {
+        return cache.policy().expireAfterWrite()
+                .map(expiration -> expiration.ageOf(key, TimeUnit.MILLISECONDS).orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Runs atomically with other writes of the key, so a delete either sees
+     * the entry or the entry sees its tombstone
+     */
+    private static ProductResponse merge(ProductResponse current, ProductResponse candidate, long sequence,
+                                         Long deletedAt) {
+        if (deletedAt != null && sequence <= deletedAt) {
+            return current;
+        }
+        return current == null || sequence >= sequenceOf(current) ? candidate : current;
+    }
+
+    private static long sequenceOf(ProductResponse product) {
+        return product.getChangeSequence() != null ? product.getChangeSequence() : 0L;
+    }
+}
@@ -0,0 +1,730 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable, column-oriented copy of the product table. Each attribute is
+ * stored in its own array, indexed by row; rows are ordered by product ID.
+ * Numeric attributes are primitives (prices in cents, timestamps in epoch
+ * nanoseconds), category and brand are dictionary-encoded and the active
+ * flag is a bitset, so scans and filters run over dense arrays and the
+ * snapshot takes a fraction of the heap of the equivalent entities.
+ * <p>
+ * A snapshot is never modified; {@link #apply(Map)} returns a new one.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public final class ProductCatalogSnapshot {
+
+    static final int NULL_CODE = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] changeSequences;
+    private final String[] skus;
+    private final String[] names;
+    private final String[] descriptions;
+    private final long[] priceCents;
+    private final int[] quantities;
+    private final int[] reorderPoints;
+    private final int[] categoryCodes;
+    private final int[] brandCodes;
+    private final BitSet active;
+    private final long[] createdAtNanos;
+    private final long[] updatedAtNanos;
+
+    private final List<String> categoryDictionary;
+    private final Map<String, Integer> categoryLookup;
+    private final List<String> brandDictionary;
+    private final Map<String, Integer> brandLookup;
+    private final int[][] rowsByCategory;
+    private final long maxChangeSequence;
+
+    private ProductCatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.changeSequences = Arrays.copyOf(builder.changeSequences, size);
+        this.skus = Arrays.copyOf(builder.skus, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.descriptions = Arrays.copyOf(builder.descriptions, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.reorderPoints = Arrays.copyOf(builder.reorderPoints, size);
+        this.categoryCodes = Arrays.copyOf(builder.categoryCodes, size);
+        this.brandCodes = Arrays.copyOf(builder.brandCodes, size);
+        this.active = (BitSet) builder.active.clone();
+        this.createdAtNanos = Arrays.copyOf(builder.createdAtNanos, size);
+        this.updatedAtNanos = Arrays.copyOf(builder.updatedAtNanos, size);
+        this.categoryDictionary = List.copyOf(builder.categoryDictionary);
+        this.categoryLookup = Map.copyOf(builder.categoryLookup);
+        this.brandDictionary = List.copyOf(builder.brandDictionary);
+        this.brandLookup = Map.copyOf(builder.brandLookup);
+        this.rowsByCategory = indexRows(categoryCodes, size, categoryDictionary.size());
+
+        long maxSequence = 0;
+        for (int row = 0; row < size; row++) {
+            maxSequence = Math.max(maxSequence, changeSequences[row]);
+        }
+        this.maxChangeSequence = maxSequence;
+    }
+
+    /**
+     * Create an empty snapshot
+     *
+     * @return Snapshot without rows
+     */
+    public static ProductCatalogSnapshot empty() {
+        return new Builder(0).build();
+    }
+
+    /**
+     * Number of products in the snapshot
+     *
+     * @return Row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Highest change sequence of any product in the snapshot
+     *
+     * @return Change sequence, 0 if empty
+     */
+    public long maxChangeSequence() {
+        return maxChangeSequence;
+    }
+
+    /**
+     * Get a product by ID
+     *
+     * @param id Product ID
+     * @return ProductResponse, or null if the snapshot has no such product
+     */
+    public ProductResponse findById(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? toResponse(row) : null;
+    }
+
+    /**
+     * Get all products in a category, ordered by ID
+     *
+     * @param category Product category
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findByCategory(String category) {
+        Integer code = category != null ? categoryLookup.get(category) : null;
+        if (code == null) {
+            return Collections.emptyList();
+        }
+        int[] rows = rowsByCategory[code];
+        List<ProductResponse> products = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            products.add(toResponse(row));
+        }
+        return products;
+    }
+
+    /**
+     * Get all active products, ordered by ID
+     *
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findActive() {
+        List<ProductResponse> products = new ArrayList<>(active.cardinality());
+        for (int row = active.nextSetBit(0); row >= 0 && row < size; row = active.nextSetBit(row + 1)) {
+            products.add(toResponse(row));
+        }
+        return products;
+    }
+
+    /**
+     * Get all products priced within a range, ordered by ID
+     *
+     * @param minCents Inclusive lower bound in cents
+     * @param maxCents Inclusive upper bound in cents
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findByPriceBetween(long minCents, long maxCents) {
+        return collect(cents -> cents >= minCents && cents <= maxCents);
+    }
+
+    /**
+     * Get the first products of the whole catalog in the given order
+     *
+     * @param sort Sort order
+     * @param limit Maximum number of products
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findAll(ProductSort sort, int limit) {
+        return select(null, row -> true, sort, limit);
+    }
+
+    /**
+     * Get the first active products in the given order
+     *
+     * @param sort Sort order
+     * @param limit Maximum number of products
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findActive(ProductSort sort, int limit) {
+        return select(null, active::get, sort, limit);
+    }
+
+    /**
+     * Get the first products of a category in the given order
+     *
+     * @param category Product category
+     * @param activeOnly Whether to skip inactive products
+     * @param sort Sort order
+     * @param limit Maximum number of products
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findByCategory(String category, boolean activeOnly, ProductSort sort, int limit) {
+        Integer code = category != null ? categoryLookup.get(category) : null;
+        if (code == null) {
+            return Collections.emptyList();
+        }
+        return select(rowsByCategory[code], activeOnly ? active::get : row -> true, sort, limit);
+    }
+
+    /**
+     * Get the first products priced within a range in the given order
+     *
+     * @param minCents Inclusive lower bound in cents
+     * @param maxCents Inclusive upper bound in cents
+     * @param sort Sort order
+     * @param limit Maximum number of products
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findByPriceBetween(long minCents, long maxCents, ProductSort sort, int limit) {
+        return select(null, row -> priceCents[row] >= minCents && priceCents[row] <= maxCents, sort, limit);
+    }
+
+    /**
+     * Get the first active products with a quantity below a threshold in the
+     * given order
+     *
+     * @param threshold Exclusive quantity threshold
+     * @param sort Sort order
+     * @param limit Maximum number of products
+     * @return List of ProductResponse DTOs
+     */
+    public List<ProductResponse> findLowStock(int threshold, ProductSort sort, int limit) {
+        return select(null, row -> quantities[row] < threshold && active.get(row), sort, limit);
+    }
+
+    /**
+     * Apply committed changes, keyed by product ID. A change only replaces a
+     * row holding an older change sequence; changes the snapshot already
+     * holds are dropped before anything is copied, so applying only those
+     * returns this snapshot without allocating a new one.
+     *
+     * @param changes Latest change per product
+     * @return New snapshot, or this one if no change applied
+     */
+    public ProductCatalogSnapshot apply(Map<Long, ProductChange> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        long[] changedIds = new long[changes.size()];
+        int changed = 0;
+        for (Map.Entry<Long, ProductChange> entry : changes.entrySet()) {
+            if (isNewer(entry.getKey(), entry.getValue())) {
+                changedIds[changed++] = entry.getKey();
+            }
+        }
+        if (changed == 0) {
+            return this;
+        }
+        Arrays.sort(changedIds, 0, changed);
+        Builder builder = new Builder(size + changed, this);
+        int row = 0;
+        int next = 0;
+        while (row < size || next < changed) {
+            if (next >= changed || (row < size && ids[row] < changedIds[next])) {
+                builder.copyRow(this, row++);
+                continue;
+            }
+            long id = changedIds[next++];
+            ProductChange change = changes.get(id);
+            if (row < size && ids[row] == id) {
+                row++;
+            }
+            if (change.getType() == ProductChange.Type.UPSERT && change.getProduct() != null) {
+                builder.addRow(change.getProduct(), change.getSequence());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Whether a change alters the snapshot: it replaces or removes a row
+     * holding an older change sequence, or adds a product not held
+     */
+    private boolean isNewer(long id, ProductChange change) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            return changeSequences[row] < change.getSequence();
+        }
+        return change.getType() == ProductChange.Type.UPSERT && change.getProduct() != null;
+    }
+
+    /**
+     * Write all columns, in the layout read by {@link #readColumns(ByteBuffer)}
+     *
+     * @param out Destination
+     * @throws IOException if writing fails
+     */
+    void writeColumns(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        writeLongs(out, ids);
+        writeLongs(out, changeSequences);
+        writeLongs(out, priceCents);
+        writeLongs(out, createdAtNanos);
+        writeLongs(out, updatedAtNanos);
+        writeInts(out, quantities);
+        writeInts(out, reorderPoints);
+        writeInts(out, categoryCodes);
+        writeInts(out, brandCodes);
+        long[] activeWords = active.toLongArray();
+        out.writeInt(activeWords.length);
+        writeLongs(out, activeWords);
+        out.writeInt(categoryDictionary.size());
+        writeStrings(out, categoryDictionary.toArray(String[]::new));
+        out.writeInt(brandDictionary.size());
+        writeStrings(out, brandDictionary.toArray(String[]::new));
+        writeStrings(out, skus);
+        writeStrings(out, names);
+        writeStrings(out, descriptions);
+    }
+
+    /**
+     * Read columns written by {@link #writeColumns(DataOutputStream)}
+     *
+     * @param in Source, positioned at the first column
+     * @return Snapshot
+     */
+    static ProductCatalogSnapshot readColumns(ByteBuffer in) {
+        Builder builder = new Builder(0);
+        int rows = in.getInt();
+        builder.size = rows;
+        builder.ids = readLongs(in, rows);
+        builder.changeSequences = readLongs(in, rows);
+        builder.priceCents = readLongs(in, rows);
+        builder.createdAtNanos = readLongs(in, rows);
+        builder.updatedAtNanos = readLongs(in, rows);
+        builder.quantities = readInts(in, rows);
+        builder.reorderPoints = readInts(in, rows);
+        builder.categoryCodes = readInts(in, rows);
+        builder.brandCodes = readInts(in, rows);
+        builder.active.or(BitSet.valueOf(readLongs(in, in.getInt())));
+        for (String category : readStrings(in, in.getInt())) {
+            Builder.encode(builder.categoryDictionary, builder.categoryLookup, category);
+        }
+        for (String brand : readStrings(in, in.getInt())) {
+            Builder.encode(builder.brandDictionary, builder.brandLookup, brand);
+        }
+        builder.skus = readStrings(in, rows);
+        builder.names = readStrings(in, rows);
+        builder.descriptions = readStrings(in, rows);
+        return builder.build();
+    }
+
+    /**
+     * Select the first {@code limit} matching rows in sort order. Rows are
+     * stored in ID order, so an ID sort stops after the first matches; other
+     * orders keep the best rows seen so far in a bounded heap whose root is the
+     * worst of them, which costs O(n log limit) and never sorts all matches.
+     *
+     * @param candidates Rows to consider in ascending order, or null for all rows
+     * @param filter Row filter
+     * @param sort Sort order
+     * @param limit Maximum number of rows
+     * @return Materialized rows in sort order
+     */
+    private List<ProductResponse> select(int[] candidates, IntPredicate filter, ProductSort sort, int limit) {
+        int count = candidates != null ? candidates.length : size;
+        if (limit <= 0 || count == 0) {
+            return Collections.emptyList();
+        }
+        if (sort == ProductSort.ID) {
+            List<ProductResponse> products = new ArrayList<>(Math.min(limit, count));
+            for (int i = 0; i < count && products.size() < limit; i++) {
+                int row = candidates != null ? candidates[i] : i;
+                if (filter.test(row)) {
+                    products.add(toResponse(row));
+                }
+            }
+            return products;
+        }
+
+        int[] heap = new int[Math.min(limit, count)];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = candidates != null ? candidates[i] : i;
+            if (!filter.test(row)) {
+                continue;
+            }
+            if (kept < heap.length) {
+                heap[kept] = row;
+                siftUp(heap, kept++, sort);
+            } else if (compareRows(row, heap[0], sort) < 0) {
+                heap[0] = row;
+                siftDown(heap, kept, sort);
+            }
+        }
+
+        ProductResponse[] ordered = new ProductResponse[kept];
+        for (int last = kept - 1; last >= 0; last--) {
+            ordered[last] = toResponse(heap[0]);
+            heap[0] = heap[last];
+            siftDown(heap, last, sort);
+        }
+        return Arrays.asList(ordered);
+    }
+
+    private void siftUp(int[] heap, int index, ProductSort sort) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compareRows(row, heap[parent], sort) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private void siftDown(int[] heap, int length, ProductSort sort) {
+        if (length == 0) {
+            return;
+        }
+        int row = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && compareRows(heap[child + 1], heap[child], sort) > 0) {
+                child++;
+            }
+            if (compareRows(row, heap[child], sort) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    /**
+     * Compare two rows in sort order, ties broken by ID in the same direction
+     */
+    private int compareRows(int left, int right, ProductSort sort) {
+        int result = Long.compare(sortKey(left, sort), sortKey(right, sort));
+        if (result == 0) {
+            result = Long.compare(ids[left], ids[right]);
+        }
+        return sort.isDescending() ? -result : result;
+    }
+
+    private long sortKey(int row, ProductSort sort) {
+        return switch (sort) {
+            case ID -> ids[row];
+            case PRICE_ASC, PRICE_DESC -> priceCents[row];
+            case NEWEST -> createdAtNanos[row];
+            case RECENTLY_UPDATED -> updatedAtNanos[row];
+            case QUANTITY_ASC -> quantities[row];
+        };
+    }
+
+    private List<ProductResponse> collect(LongPredicate priceFilter) {
+        List<ProductResponse> products = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (priceFilter.test(priceCents[row])) {
+                products.add(toResponse(row));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Materialize one row
+     *
+     * @param row Row index
+     * @return ProductResponse DTO
+     */
+    ProductResponse toResponse(int row) {
+        return ProductResponse.builder()
+                .id(ids[row])
+                .sku(skus[row])
+                .name(names[row])
+                .description(descriptions[row])
+                .price(BigDecimal.valueOf(priceCents[row], 2))
+                .quantity(quantities[row])
+                .reorderPoint(reorderPoints[row] != NULL_CODE ? reorderPoints[row] : null)
+                .category(decode(categoryDictionary, categoryCodes[row]))
+                .brand(decode(brandDictionary, brandCodes[row]))
+                .isActive(active.get(row))
+                .createdAt(fromNanos(createdAtNanos[row]))
+                .updatedAt(fromNanos(updatedAtNanos[row]))
+                .changeSequence(changeSequences[row])
+                .build();
+    }
+
+    private static int[][] indexRows(int[] codes, int size, int dictionarySize) {
+        int[] counts = new int[dictionarySize];
+        for (int row = 0; row < size; row++) {
+            if (codes[row] != NULL_CODE) {
+                counts[codes[row]]++;
+            }
+        }
+        int[][] rows = new int[dictionarySize][];
+        for (int code = 0; code < dictionarySize; code++) {
+            rows[code] = new int[counts[code]];
+        }
+        int[] filled = new int[dictionarySize];
+        for (int row = 0; row < size; row++) {
+            int code = codes[row];
+            if (code != NULL_CODE) {
+                rows[code][filled[code]++] = row;
+            }
+        }
+        return rows;
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        for (String value : values) {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static long[] readLongs(ByteBuffer in, int count) {
+        long[] values = new long[count];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + count * Long.BYTES);
+        return values;
+    }
+
+    private static int[] readInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer in, int count) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = in.getInt();
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                in.get(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+
+    private static String decode(List<String> dictionary, int code) {
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return Long.MIN_VALUE;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        if (nanos == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    static long toCents(BigDecimal price) {
+        return price == null ? 0L : price.movePointRight(2).longValue();
+    }
+
+    /**
+     * Accumulates rows, in ascending ID order, for a new snapshot
+     */
+    public static final class Builder {
+
+        private int size;
+        private long[] ids;
+        private long[] changeSequences;
+        private String[] skus;
+        private String[] names;
+        private String[] descriptions;
+        private long[] priceCents;
+        private int[] quantities;
+        private int[] reorderPoints;
+        private int[] categoryCodes;
+        private int[] brandCodes;
+        private final BitSet active = new BitSet();
+        private long[] createdAtNanos;
+        private long[] updatedAtNanos;
+
+        private final List<String> categoryDictionary;
+        private final Map<String, Integer> categoryLookup;
+        private final List<String> brandDictionary;
+        private final Map<String, Integer> brandLookup;
+
+        public Builder(int expectedSize) {
+            this(expectedSize, null);
+        }
+
+        private Builder(int expectedSize, ProductCatalogSnapshot base) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            changeSequences = new long[capacity];
+            skus = new String[capacity];
+            names = new String[capacity];
+            descriptions = new String[capacity];
+            priceCents = new long[capacity];
+            quantities = new int[capacity];
+            reorderPoints = new int[capacity];
+            categoryCodes = new int[capacity];
+            brandCodes = new int[capacity];
+            createdAtNanos = new long[capacity];
+            updatedAtNanos = new long[capacity];
+            // Dictionaries only grow, so codes copied from the base snapshot stay valid
+            categoryDictionary = base != null ? new ArrayList<>(base.categoryDictionary) : new ArrayList<>();
+            categoryLookup = base != null ? new HashMap<>(base.categoryLookup) : new HashMap<>();
+            brandDictionary = base != null ? new ArrayList<>(base.brandDictionary) : new ArrayList<>();
+            brandLookup = base != null ? new HashMap<>(base.brandLookup) : new HashMap<>();
+        }
+
+        /**
+         * Append a product; products must be added in ascending ID order
+         *
+         * @param product Product state
+         * @param changeSequence Change sequence of that state
+         * @return This builder
+         */
+        public Builder addRow(ProductResponse product, long changeSequence) {
+            int row = nextRow(product.getId());
+            changeSequences[row] = changeSequence;
+            skus[row] = product.getSku();
+            names[row] = product.getName();
+            descriptions[row] = product.getDescription();
+            priceCents[row] = toCents(product.getPrice());
+            quantities[row] = product.getQuantity() != null ? product.getQuantity() : 0;
+            reorderPoints[row] = product.getReorderPoint() != null ? product.getReorderPoint() : NULL_CODE;
+            categoryCodes[row] = encode(categoryDictionary, categoryLookup, product.getCategory());
+            brandCodes[row] = encode(brandDictionary, brandLookup, product.getBrand());
+            active.set(row, Boolean.TRUE.equals(product.getIsActive()));
+            createdAtNanos[row] = toNanos(product.getCreatedAt());
+            updatedAtNanos[row] = toNanos(product.getUpdatedAt());
+            return this;
+        }
+
+        private void copyRow(ProductCatalogSnapshot source, int sourceRow) {
+            int row = nextRow(source.ids[sourceRow]);
+            changeSequences[row] = source.changeSequences[sourceRow];
+            skus[row] = source.skus[sourceRow];
+            names[row] = source.names[sourceRow];
+            descriptions[row] = source.descriptions[sourceRow];
+            priceCents[row] = source.priceCents[sourceRow];
+            quantities[row] = source.quantities[sourceRow];
+            reorderPoints[row] = source.reorderPoints[sourceRow];
+            categoryCodes[row] = source.categoryCodes[sourceRow];
+            brandCodes[row] = source.brandCodes[sourceRow];
+            active.set(row, source.active.get(sourceRow));
+            createdAtNanos[row] = source.createdAtNanos[sourceRow];
+            updatedAtNanos[row] = source.updatedAtNanos[sourceRow];
+        }
+
+        private int nextRow(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                throw new IllegalArgumentException("Rows must be added in ascending ID order, got " + id
+                        + " after " + ids[size - 1]);
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            changeSequences = Arrays.copyOf(changeSequences, capacity);
+            skus = Arrays.copyOf(skus, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            reorderPoints = Arrays.copyOf(reorderPoints, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            brandCodes = Arrays.copyOf(brandCodes, capacity);
+            createdAtNanos = Arrays.copyOf(createdAtNanos, capacity);
+            updatedAtNanos = Arrays.copyOf(updatedAtNanos, capacity);
+        }
+
+        private static int encode(List<String> dictionary, Map<String, Integer> lookup, String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return lookup.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+        }
+
+        /**
+         * Build the immutable snapshot
+         *
+         * @return Snapshot of the rows added so far
+         */
+        public ProductCatalogSnapshot build() {
+            return new ProductCatalogSnapshot(this);
+        }
+    }
+}
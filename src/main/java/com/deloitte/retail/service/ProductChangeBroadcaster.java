@@ -0,0 +1,585 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed product changes to Server-Sent Event subscribers.
+ * Each subscriber owns a bounded buffer in which repeated updates to the same
+ * product are coalesced; a subscriber whose buffer overflows is disconnected
+ * and is expected to reconnect with {@code Last-Event-ID}, which replays the
+ * missed changes from the change feed.
+ * <p>
+ * Writes of this instance are pushed as soon as they commit. Writes of other
+ * instances are read from the change feed every
+ * {@code retail.sse.poll-interval-ms}, up to the watermark, and pushed
+ * through the same buffers; a polled change is skipped when this instance
+ * already pushed the same or a later change to the product.
+ * <p>
+ * A live change can be delivered before a write with a lower change sequence
+ * commits, so its event id is capped at the {@link ProductChangeWatermark}:
+ * resuming from it replays that write too, and may repeat a few changes the
+ * client already has.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangeBroadcaster {
+
+    static final String CHANGE_EVENT_NAME = "product-change";
+    static final String RESYNC_EVENT_NAME = "resync";
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private final ProductService productService;
+    private final ProductChangeWatermark productChangeWatermark;
+    private final ProductChangeSequence productChangeSequence;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${retail.sse.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${retail.sse.timeout-ms:1800000}") // 30 minutes default
+    private long timeoutMs;
+
+    @Value("${retail.sse.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${retail.sse.max-replay:10000}")
+    private int maxReplay;
+
+    @Value("${retail.sse.dispatcher-threads:4}")
+    private int dispatcherThreads;
+
+    @Value("${retail.sse.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final Map<String, Set<Subscriber>> subscribersBySku = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> subscribersByCategory = new ConcurrentHashMap<>();
+    private final Set<Subscriber> unfilteredSubscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> allSubscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong subscriberIds = new AtomicLong();
+
+    /**
+     * Highest change sequence pushed per product from writes of this
+     * instance, until the poll cursor passes it
+     */
+    private final Map<Long, Long> pushedSequences = new ConcurrentHashMap<>();
+
+    private volatile long pollCursor = -1L;
+
+    private ExecutorService fanOutExecutor;
+    private ExecutorService dispatchExecutor;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        fanOutExecutor = Executors.newSingleThreadExecutor(namedThreads("sse-fan-out"));
+        dispatchExecutor = Executors.newFixedThreadPool(dispatcherThreads, namedThreads("sse-dispatch"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("sse-scheduler"));
+        scheduler.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("retail.sse.subscribers", allSubscribers, Set::size)
+                .description("Connected product change stream subscribers")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        fanOutExecutor.shutdownNow();
+        dispatchExecutor.shutdownNow();
+        new ArrayList<>(allSubscribers).forEach(subscriber -> disconnect(subscriber, "shutdown"));
+    }
+
+    /**
+     * Open a product change stream
+     *
+     * @param skus SKUs to receive changes for, empty for no SKU filter
+     * @param categories Categories to receive changes for, empty for no category filter
+     * @param lastEventId Last event id the client has seen, null for live changes only
+     * @return SseEmitter delivering product changes
+     */
+    public SseEmitter subscribe(Collection<String> skus, Collection<String> categories, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = register(skus, categories, lastEventId, new EmitterSink(emitter));
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Register a subscriber and, when resuming, replay the changes it missed
+     *
+     * @param skus SKU filter
+     * @param categories Category filter
+     * @param lastEventId Resume cursor or null
+     * @param sink Destination of the events
+     * @return Registered subscriber
+     */
+    Subscriber register(Collection<String> skus, Collection<String> categories, Long lastEventId, EventSink sink) {
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(),
+                normalize(skus), normalize(categories), sink);
+        subscriber.replaying = lastEventId != null;
+
+        allSubscribers.add(subscriber);
+        if (subscriber.skus.isEmpty() && subscriber.categories.isEmpty()) {
+            unfilteredSubscribers.add(subscriber);
+        }
+        subscriber.skus.forEach(sku ->
+                subscribersBySku.computeIfAbsent(sku, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        subscriber.categories.forEach(category ->
+                subscribersByCategory.computeIfAbsent(category, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        log.debug("SSE subscriber {} registered, skus={}, categories={}",
+                subscriber.id, subscriber.skus, subscriber.categories);
+
+        if (lastEventId != null) {
+            // Every change committed before registering has a sequence up to this
+            long registeredAt = productChangeSequence.current();
+            dispatchExecutor.execute(() -> replay(subscriber, lastEventId, registeredAt, 0));
+        }
+        return subscriber;
+    }
+
+    /**
+     * Receive committed product changes and hand them to the fan-out thread,
+     * keeping subscriber matching off the writing request's thread
+     *
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!allSubscribers.isEmpty()) {
+            ProductChange change = event.getChange();
+            pushedSequences.merge(change.getProductId(), change.getSequence(), Math::max);
+            fanOutExecutor.execute(() -> fanOut(event));
+        }
+    }
+
+    /**
+     * Push the changes committed since the last poll, including those of
+     * other instances, up to the change watermark
+     */
+    @Scheduled(fixedDelayString = "${retail.sse.poll-interval-ms:1000}",
+            initialDelayString = "${retail.sse.poll-interval-ms:1000}")
+    public void pollChanges() {
+        long safeSequence = productChangeWatermark.safeSequence();
+        if (pollCursor < 0 || allSubscribers.isEmpty()) {
+            advancePollCursor(safeSequence);
+            return;
+        }
+        long cursor = pollCursor;
+        try {
+            ProductChangePage page;
+            do {
+                page = productService.getChangesSince(cursor, REPLAY_PAGE_SIZE);
+                for (ProductChange change : page.getChanges()) {
+                    fanOutExecutor.execute(() -> fanOutPolled(change));
+                }
+                cursor = page.getNextCursor();
+            } while (page.isHasMore());
+        } catch (RuntimeException ex) {
+            log.debug("Could not poll product changes for SSE subscribers: {}", ex.getMessage());
+            return;
+        }
+        // The feed reads up to a watermark at least as high as the one taken before
+        advancePollCursor(Math.max(cursor, safeSequence));
+    }
+
+    private void advancePollCursor(long cursor) {
+        pollCursor = Math.max(pollCursor, cursor);
+        long passed = pollCursor;
+        // Queued behind the polled changes, which still check these sequences
+        fanOutExecutor.execute(() -> pushedSequences.values().removeIf(sequence -> sequence <= passed));
+    }
+
+    /**
+     * Offer a change to every subscriber whose filter matches it
+     *
+     * @param event Product change event
+     */
+    void fanOut(ProductChangedEvent event) {
+        deliver(event.getChange(), matchingSubscribers(event));
+    }
+
+    /**
+     * Offer a change read from the change feed to every subscriber whose
+     * filter matches it, unless this instance pushed the same or a later
+     * change to the product. Tombstones carry no category, so they go to
+     * every category subscriber, as on replay.
+     *
+     * @param change Polled change
+     */
+    void fanOutPolled(ProductChange change) {
+        Long pushed = pushedSequences.get(change.getProductId());
+        if (pushed != null && pushed >= change.getSequence()) {
+            return;
+        }
+        String category = change.getProduct() != null ? change.getProduct().getCategory() : null;
+        Set<Subscriber> matches = matchingSubscribers(new ProductChangedEvent(change, category));
+        if (change.getProduct() == null) {
+            subscribersByCategory.values().forEach(matches::addAll);
+        }
+        deliver(change, matches);
+    }
+
+    private void deliver(ProductChange change, Set<Subscriber> subscribers) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(change, bufferSize)) {
+                scheduleFlush(subscriber);
+            } else {
+                meterRegistry.counter("retail.sse.slow.disconnects").increment();
+                disconnect(subscriber, "buffer overflow");
+            }
+        }
+    }
+
+    /**
+     * Number of connected subscribers
+     *
+     * @return Subscriber count
+     */
+    public int getSubscriberCount() {
+        return allSubscribers.size();
+    }
+
+    private Set<Subscriber> matchingSubscribers(ProductChangedEvent event) {
+        Set<Subscriber> matches = new HashSet<>(unfilteredSubscribers);
+        ProductChange change = event.getChange();
+        if (change.getSku() != null) {
+            matches.addAll(subscribersBySku.getOrDefault(change.getSku(), Collections.emptySet()));
+        }
+        if (event.getCategory() != null) {
+            matches.addAll(subscribersByCategory.getOrDefault(event.getCategory(), Collections.emptySet()));
+        }
+        return matches;
+    }
+
+    private void scheduleFlush(Subscriber subscriber) {
+        if (!subscriber.replaying && subscriber.flushScheduled.compareAndSet(false, true)) {
+            dispatchExecutor.execute(() -> flush(subscriber));
+        }
+    }
+
+    /**
+     * Drain the subscriber's buffer to its sink. Only one flush per subscriber
+     * runs at a time, which keeps events in buffer order.
+     *
+     * @param subscriber Subscriber to flush
+     */
+    private void flush(Subscriber subscriber) {
+        try {
+            while (true) {
+                List<ProductChange> batch = subscriber.drain();
+                if (batch.isEmpty()) {
+                    subscriber.flushScheduled.set(false);
+                    if (!subscriber.hasPending() || !subscriber.flushScheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                long safeSequence = productChangeWatermark.safeSequence();
+                for (ProductChange change : batch) {
+                    if (change.getSequence() > subscriber.replayedUpTo) {
+                        subscriber.sink.send(change, Math.min(change.getSequence(), safeSequence));
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            subscriber.flushScheduled.set(false);
+            disconnect(subscriber, ex.getMessage());
+        }
+    }
+
+    /**
+     * Send the changes a resuming subscriber missed, read from the change feed.
+     * Live changes arriving meanwhile are buffered and delivered afterwards,
+     * skipping those the replay already covered.
+     * <p>
+     * A change that committed before the subscriber registered never reaches
+     * its buffer, and the feed only returns it once the watermark has passed
+     * it. The replay therefore reads the feed again every
+     * {@code retail.sse.poll-interval-ms} until the watermark has passed the
+     * change sequence taken at registration.
+     *
+     * @param subscriber Resuming subscriber
+     * @param since Change sequence replayed up to so far
+     * @param registeredAt Change sequence when the subscriber registered
+     * @param scanned Changes replayed so far
+     */
+    private void replay(Subscriber subscriber, long since, long registeredAt, int scanned) {
+        if (!allSubscribers.contains(subscriber)) {
+            return;
+        }
+        long cursor = since;
+        try {
+            long safeSequence = productChangeWatermark.safeSequence();
+            ProductChangePage page;
+            do {
+                page = productService.getChangesSince(cursor, REPLAY_PAGE_SIZE);
+                for (ProductChange change : page.getChanges()) {
+                    if (subscriber.matchesReplayed(change)) {
+                        // The feed stops at the watermark, so replayed sequences are safe to resume from
+                        subscriber.sink.send(change, change.getSequence());
+                    }
+                }
+                scanned += page.getChanges().size();
+                cursor = page.getNextCursor();
+                if (page.isHasMore() && scanned >= maxReplay) {
+                    subscriber.sink.resync();
+                    disconnect(subscriber, "replay limit exceeded");
+                    return;
+                }
+            } while (page.isHasMore());
+            if (safeSequence < registeredAt) {
+                long replayed = cursor;
+                int total = scanned;
+                scheduler.schedule(() -> dispatchExecutor.execute(() ->
+                        replay(subscriber, replayed, registeredAt, total)), pollIntervalMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+        } catch (Exception ex) {
+            disconnect(subscriber, ex.getMessage());
+            return;
+        }
+        subscriber.replayedUpTo = cursor;
+        subscriber.replaying = false;
+        scheduleFlush(subscriber);
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : allSubscribers) {
+            dispatchExecutor.execute(() -> {
+                try {
+                    subscriber.sink.heartbeat();
+                } catch (Exception ex) {
+                    disconnect(subscriber, ex.getMessage());
+                }
+            });
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (unregister(subscriber)) {
+            log.debug("Disconnecting SSE subscriber {}: {}", subscriber.id, reason);
+            subscriber.sink.close();
+        }
+    }
+
+    private boolean unregister(Subscriber subscriber) {
+        if (!allSubscribers.remove(subscriber)) {
+            return false;
+        }
+        subscriber.close();
+        unfilteredSubscribers.remove(subscriber);
+        subscriber.skus.forEach(sku -> removeFromIndex(subscribersBySku, sku, subscriber));
+        subscriber.categories.forEach(category -> removeFromIndex(subscribersByCategory, category, subscriber));
+        return true;
+    }
+
+    private static void removeFromIndex(Map<String, Set<Subscriber>> index, String key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static Set<String> normalize(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                normalized.add(value.trim());
+            }
+        }
+        return Collections.unmodifiableSet(normalized);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Destination of a subscriber's events
+     */
+    interface EventSink {
+
+        void send(ProductChange change, long eventId) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void resync() throws IOException;
+
+        void close();
+    }
+
+    /**
+     * EventSink writing to an SseEmitter
+     */
+    private static final class EmitterSink implements EventSink {
+
+        private final SseEmitter emitter;
+
+        private EmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(ProductChange change, long eventId) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(eventId))
+                    .name(CHANGE_EVENT_NAME)
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void resync() throws IOException {
+            emitter.send(SseEmitter.event().name(RESYNC_EVENT_NAME).data("too many missed changes, reload the catalog"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * A connected client with its filter and coalescing buffer
+     */
+    static final class Subscriber {
+
+        final long id;
+        final Set<String> skus;
+        final Set<String> categories;
+        final EventSink sink;
+        final AtomicBoolean flushScheduled = new AtomicBoolean();
+        volatile boolean replaying;
+        volatile long replayedUpTo;
+
+        private final LinkedHashMap<Long, ProductChange> pending = new LinkedHashMap<>();
+        private boolean closed;
+
+        Subscriber(long id, Set<String> skus, Set<String> categories, EventSink sink) {
+            this.id = id;
+            this.skus = skus;
+            this.categories = categories;
+            this.sink = sink;
+        }
+
+        /**
+         * Buffer a change, replacing any older pending change to the same
+         * product
+         *
+         * @param change Change to buffer
+         * @param capacity Maximum number of distinct pending products
+         * @return false if the buffer is full
+         */
+        synchronized boolean offer(ProductChange change, int capacity) {
+            if (closed) {
+                return true;
+            }
+            ProductChange previous = pending.get(change.getProductId());
+            if (previous != null && previous.getSequence() > change.getSequence()) {
+                return true;
+            }
+            pending.remove(change.getProductId());
+            if (previous == null && pending.size() >= capacity) {
+                return false;
+            }
+            pending.put(change.getProductId(), change);
+            return true;
+        }
+
+        synchronized List<ProductChange> drain() {
+            if (pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<ProductChange> batch = new ArrayList<>(pending.values());
+            pending.clear();
+            return batch;
+        }
+
+        synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        synchronized int pendingCount() {
+            return pending.size();
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        /**
+         * Filter for replayed changes; tombstones carry no category, so they are
+         * sent to category subscribers as well
+         *
+         * @param change Replayed change
+         * @return true if the change should be sent
+         */
+        boolean matchesReplayed(ProductChange change) {
+            if (skus.isEmpty() && categories.isEmpty()) {
+                return true;
+            }
+            if (skus.contains(change.getSku())) {
+                return true;
+            }
+            if (categories.isEmpty()) {
+                return false;
+            }
+            if (change.getProduct() == null) {
+                return true;
+            }
+            return categories.contains(change.getProduct().getCategory());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Highest change sequence below which every write has committed.
+ * <p>
+ * Change sequence values are allocated when a write happens, not when it
+ * commits, so a write can become visible after one with a higher value. A
+ * cursor that moves past a value whose transaction is still open would skip
+ * that write for good. The current value of the sequence is therefore sampled
+ * in the background, and a sample only becomes the watermark once it is older
+ * than the commit lag: every transaction that drew a value up to the sample
+ * has committed or rolled back by then. Writes that stay open longer than the
+ * lag can still be missed, so it has to exceed the write transaction timeout:
+ * startup fails unless the transaction manager's default timeout
+ * ({@code spring.transaction.default-timeout}), which every write transaction
+ * runs with, is set and below the lag.
+ * <p>
+ * Right after startup no sample is old enough yet; the watermark is then the
+ * change sequence of the last product updated more than twice the lag ago,
+ * which also tolerates that much clock skew between instances.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class ProductChangeWatermark {
+
+    private final ProductChangeSequence productChangeSequence;
+    private final ProductRepository productRepository;
+    private final long commitLagMs;
+    private final long sampleIntervalMs;
+    private final LongSupplier nanoTime;
+
+    /**
+     * Samples not yet older than the commit lag, oldest first, as
+     * {time taken, sequence value}
+     */
+    private final Deque<long[]> samples = new ArrayDeque<>();
+
+    private long safeSequence = -1L;
+
+    private ScheduledExecutorService sampler;
+
+    @Autowired
+    public ProductChangeWatermark(ProductChangeSequence productChangeSequence, ProductRepository productRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${retail.change-feed.commit-lag-ms:10000}") long commitLagMs,
+                                  @Value("${retail.change-feed.sample-interval-ms:250}") long sampleIntervalMs) {
+        this(productChangeSequence, productRepository, commitLagMs, sampleIntervalMs, System::nanoTime);
+        checkTransactionTimeout(transactionManager, commitLagMs);
+    }
+
+    ProductChangeWatermark(ProductChangeSequence productChangeSequence, ProductRepository productRepository,
+                           long commitLagMs, long sampleIntervalMs, LongSupplier nanoTime) {
+        this.productChangeSequence = productChangeSequence;
+        this.productRepository = productRepository;
+        this.commitLagMs = commitLagMs;
+        this.sampleIntervalMs = sampleIntervalMs;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Fail unless transactions time out before the commit lag passes
+     *
+     * @param transactionManager Transaction manager of the write transactions
+     * @param commitLagMs Commit lag in milliseconds
+     * @throws IllegalStateException if the default timeout is unset or not below the lag
+     */
+    static void checkTransactionTimeout(PlatformTransactionManager transactionManager, long commitLagMs) {
+        int timeoutSeconds = transactionManager instanceof AbstractPlatformTransactionManager manager
+                ? manager.getDefaultTimeout()
+                : TransactionDefinition.TIMEOUT_DEFAULT;
+        if (timeoutSeconds == TransactionDefinition.TIMEOUT_DEFAULT
+                || TimeUnit.SECONDS.toMillis(timeoutSeconds) >= commitLagMs) {
+            throw new IllegalStateException("spring.transaction.default-timeout ("
+                    + (timeoutSeconds == TransactionDefinition.TIMEOUT_DEFAULT ? "unset" : timeoutSeconds + "s")
+                    + ") must be below retail.change-feed.commit-lag-ms (" + commitLagMs + "ms)");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-watermark");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sample, 0L, sampleIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Highest change sequence at or below which every write is visible. Never
+     * decreases.
+     *
+     * @return Safe change sequence, 0 if nothing is known to be committed
+     */
+    public synchronized long safeSequence() {
+        long cutoff = nanoTime.getAsLong() - TimeUnit.MILLISECONDS.toNanos(commitLagMs);
+        while (!samples.isEmpty() && samples.peekFirst()[0] <= cutoff) {
+            safeSequence = Math.max(safeSequence, samples.pollFirst()[1]);
+        }
+        if (safeSequence < 0) {
+            safeSequence = seed();
+        }
+        return Math.max(0L, safeSequence);
+    }
+
+    /**
+     * Read the current value of the change sequence
+     */
+    void sample() {
+        try {
+            record(productChangeSequence.current());
+        } catch (RuntimeException ex) {
+            log.debug("Could not sample the change sequence: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Record a sample of the change sequence taken now
+     *
+     * @param value Current value of the change sequence
+     */
+    synchronized void record(long value) {
+        samples.addLast(new long[]{nanoTime.getAsLong(), value});
+        safeSequence();
+    }
+
+    private long seed() {
+        try {
+            return productRepository
+                    .findFirstByUpdatedAtLessThanOrderByUpdatedAtDesc(
+                            LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(2 * commitLagMs)))
+                    .map(product -> product.getChangeSequence() != null ? product.getChangeSequence() : 0L)
+                    .orElse(0L);
+        } catch (RuntimeException ex) {
+            log.debug("Could not seed the change watermark: {}", ex.getMessage());
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import lombok.Value;
+
+/**
+ * Application event published by {@link ProductService} for every catalog write.
+ * Listeners that need committed data should use
+ * {@code @TransactionalEventListener} so they only see changes that survived.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Value
+public class ProductChangedEvent {
+
+    /**
+     * The change as it appears in the change feed
+     */
+    ProductChange change;
+
+    /**
+     * Category of the product; for deletes the category it had before removal
+     */
+    String category;
+}
@@ -0,0 +1,593 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.PriceChangeSample;
+import com.deloitte.retail.dto.PriceRule;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductJobRequest;
+import com.deloitte.retail.dto.ProductJobResponse;
+import com.deloitte.retail.exception.InvalidRequestException;
+import com.deloitte.retail.exception.ResourceNotFoundException;
+import com.deloitte.retail.exception.ServiceUnavailableException;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.ArchivedProduct;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.PriceChange;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductPriceUpdater;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs set-based product operations (deactivate, reactivate or delete every
+ * product of a category, a brand or a list of SKUs, or reprice products by a
+ * rule) as background jobs.
+ * <p>
+ * A job first reads the IDs of the selected products, then works through
+ * them in chunks. Each chunk is loaded by primary key and written in its own
+ * short transaction, with the same change sequence, low-stock alerts,
+ * tombstones and change events as single-product writes, so row locks are
+ * held for one chunk only and the persistence context never grows past one
+ * chunk. Jobs run one at a time on a single worker with a pause between
+ * chunks, leaving the connection pool to online traffic. Job state is kept
+ * in memory on the instance that accepted the job.
+ * <p>
+ * Repricing is set-based all the way down: each chunk is one {@code UPDATE}
+ * of its IDs, with the new prices computed by the database from a price
+ * rule, after which only the rows it wrote are read back to publish their change events. A dry
+ * run reports the counts and a before and after sample without writing.
+ * <p>
+ * Reactivating and deleting also select archived products and move them
+ * back to the products table first, as a single update or delete does.
+ * Archived products are inactive already, so deactivating leaves them
+ * alone, and repricing does too: they keep their price until restored.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class ProductJobService {
+
+    static final int SKU_QUERY_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final ProductChangeSequence productChangeSequence;
+    private final ProductPriceUpdater productPriceUpdater;
+    private final ProductMapper productMapper;
+    private final LowStockAlertService lowStockAlertService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Job> jobs;
+    private Executor executor;
+
+    @Value("${retail.product-jobs.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${retail.product-jobs.chunk-pause-ms:10}")
+    private long chunkPauseMs;
+
+    @Value("${retail.product-jobs.dry-run-sample-size:10}")
+    private int dryRunSampleSize;
+
+    @Value("${retail.product-jobs.max-queued:10}")
+    private int maxQueued;
+
+    @Value("${retail.product-jobs.retention-ms:86400000}")
+    private long retentionMs;
+
+    public ProductJobService(ProductRepository productRepository,
+                             ProductTombstoneRepository productTombstoneRepository,
+                             ArchivedProductRepository archivedProductRepository,
+                             ProductChangeSequence productChangeSequence,
+                             ProductPriceUpdater productPriceUpdater,
+                             ProductMapper productMapper,
+                             LowStockAlertService lowStockAlertService,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.archivedProductRepository = archivedProductRepository;
+        this.productChangeSequence = productChangeSequence;
+        this.productPriceUpdater = productPriceUpdater;
+        this.productMapper = productMapper;
+        this.lowStockAlertService = lowStockAlertService;
+        this.eventPublisher = eventPublisher;
+        // Batches time out after spring.transaction.default-timeout, below the change feed commit lag
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(retentionMs))
+                .build();
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueued)), runnable -> {
+                    Thread thread = new Thread(runnable, "product-job-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        for (ProductJobResponse.Status status : List.of(ProductJobResponse.Status.QUEUED, ProductJobResponse.Status.RUNNING)) {
+            Gauge.builder("retail.product.jobs.active", this, service -> service.countJobs(status))
+                    .description("Bulk product jobs waiting or running")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a bulk job
+     *
+     * @param request Action and product selector
+     * @return Job state, QUEUED unless the worker already picked it up
+     * @throws InvalidRequestException if the selector does not suit the action
+     * @throws ServiceUnavailableException if too many jobs are queued
+     */
+    public ProductJobResponse submit(ProductJobRequest request) {
+        if (request.getAction() == ProductJobRequest.Action.REPRICE) {
+            validateReprice(request);
+        } else {
+            validateSelector(request);
+        }
+        Job job = new Job(UUID.randomUUID().toString(), request);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.invalidate(job.id);
+            throw new ServiceUnavailableException("Too many product jobs are queued");
+        }
+        log.info("Product job {} queued: {} {}", job.id, request.getAction(), job.selectorDescription());
+        return job.toResponse();
+    }
+
+    /**
+     * Current state of a job
+     *
+     * @param id Job ID
+     * @return Job state
+     * @throws ResourceNotFoundException if the job is unknown or expired
+     */
+    public ProductJobResponse getJob(String id) {
+        return find(id).toResponse();
+    }
+
+    /**
+     * Cancel a job. A queued job never starts; a running job stops before its
+     * next chunk, keeping the chunks already committed. Finished jobs are
+     * left as they are.
+     *
+     * @param id Job ID
+     * @return Job state after the request
+     * @throws ResourceNotFoundException if the job is unknown or expired
+     */
+    public ProductJobResponse cancel(String id) {
+        Job job = find(id);
+        synchronized (job) {
+            if (job.status == ProductJobResponse.Status.QUEUED) {
+                job.finish(ProductJobResponse.Status.CANCELLED, null);
+            } else if (job.status == ProductJobResponse.Status.RUNNING) {
+                job.cancelRequested = true;
+            }
+        }
+        return job.toResponse();
+    }
+
+    private static void validateSelector(ProductJobRequest request) {
+        int selectors = (hasText(request.getCategory()) ? 1 : 0) + (hasText(request.getBrand()) ? 1 : 0)
+                + (hasSkus(request) ? 1 : 0);
+        if (selectors != 1) {
+            throw new InvalidRequestException("Exactly one of category, brand or skus must be given");
+        }
+        if (request.getPriceRule() != null || request.getMinPrice() != null || request.getMaxPrice() != null
+                || request.isDryRun()) {
+            throw new InvalidRequestException("priceRule, minPrice, maxPrice and dryRun only apply to REPRICE");
+        }
+    }
+
+    private static void validateReprice(ProductJobRequest request) {
+        if (request.getPriceRule() == null) {
+            throw new InvalidRequestException("A priceRule is required to reprice products");
+        }
+        if (hasSkus(request)) {
+            throw new InvalidRequestException("Products are repriced by category, brand and price band, not by SKU");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new InvalidRequestException("minPrice must not be greater than maxPrice");
+        }
+    }
+
+    private Job find(String id) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Product job not found with ID: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Select the products, then apply the action chunk by chunk
+     *
+     * @param job Job to run
+     */
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != ProductJobResponse.Status.QUEUED) {
+                return;
+            }
+            job.status = ProductJobResponse.Status.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+        long started = System.nanoTime();
+        try {
+            if (job.request.isDryRun()) {
+                preview(job);
+                return;
+            }
+            List<Long> ids = job.request.getAction() == ProductJobRequest.Action.REPRICE
+                    ? productPriceUpdater.findIds(toPriceChange(job.request))
+                    : selectIds(job.request);
+            job.total = ids.size();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                if (job.cancelRequested) {
+                    job.finish(ProductJobResponse.Status.CANCELLED, null);
+                    log.info("Product job {} cancelled after {} of {} products", job.id, job.processed, job.total);
+                    return;
+                }
+                if (from > 0 && chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                Integer changed = transactionTemplate.execute(status -> applyChunk(job.request, chunk));
+                job.changed += changed != null ? changed : 0;
+                job.processed += chunk.size();
+            }
+            job.finish(ProductJobResponse.Status.SUCCEEDED, null);
+            log.info("Product job {} finished: {} of {} products changed in {}ms", job.id, job.changed, job.total,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.finish(ProductJobResponse.Status.CANCELLED, "Interrupted by shutdown");
+        } catch (RuntimeException ex) {
+            job.finish(ProductJobResponse.Status.FAILED, ex.getMessage());
+            log.warn("Product job {} failed after {} products: {}", job.id, job.processed, ex.getMessage());
+        }
+    }
+
+    /**
+     * Report what a price rule would change, in a read-only transaction
+     *
+     * @param job Dry run job
+     */
+    private void preview(Job job) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        ProductPriceUpdater.PricePreview preview = readOnly.execute(status ->
+                productPriceUpdater.preview(toPriceChange(job.request), dryRunSampleSize));
+        job.total = (int) preview.getMatched();
+        job.processed = job.total;
+        job.changed = (int) preview.getChanged();
+        job.outOfRange = (int) preview.getOutOfRange();
+        job.sample = preview.getSample().stream()
+                .map(sample -> PriceChangeSample.builder()
+                        .id(sample.getId())
+                        .sku(sample.getSku())
+                        .oldPrice(sample.getOldPrice())
+                        .newPrice(sample.getNewPrice())
+                        .build())
+                .toList();
+        job.finish(ProductJobResponse.Status.SUCCEEDED, null);
+        log.info("Product job {} dry run: {} of {} products would be repriced, {} out of range",
+                job.id, job.changed, job.total, job.outOfRange);
+    }
+
+    /**
+     * Select the IDs of the products to write. The products table is read
+     * before the archive, so a product archived in between is selected
+     * twice rather than missed.
+     */
+    private List<Long> selectIds(ProductJobRequest request) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(selectIds(request, productRepository::findIdsByCategory,
+                productRepository::findIdsByBrand, productRepository::findIdsBySkuIn));
+        if (restoresArchived(request)) {
+            ids.addAll(selectIds(request, archivedProductRepository::findIdsByCategory,
+                    archivedProductRepository::findIdsByBrand, archivedProductRepository::findIdsBySkuIn));
+        }
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static List<Long> selectIds(ProductJobRequest request, Function<String, List<Long>> byCategory,
+                                        Function<String, List<Long>> byBrand,
+                                        Function<List<String>, List<Long>> bySkus) {
+        if (hasText(request.getCategory())) {
+            return byCategory.apply(request.getCategory());
+        }
+        if (hasText(request.getBrand())) {
+            return byBrand.apply(request.getBrand());
+        }
+        List<String> skus = new ArrayList<>(new LinkedHashSet<>(request.getSkus()));
+        List<Long> ids = new ArrayList<>(skus.size());
+        for (int from = 0; from < skus.size(); from += SKU_QUERY_CHUNK_SIZE) {
+            ids.addAll(bySkus.apply(skus.subList(from, Math.min(from + SKU_QUERY_CHUNK_SIZE, skus.size()))));
+        }
+        return ids;
+    }
+
+    /**
+     * Apply the action to one chunk of products, inside the caller's transaction
+     *
+     * @param request Job request
+     * @param ids Product IDs selected for the chunk
+     * @return Number of products changed
+     */
+    int applyChunk(ProductJobRequest request, List<Long> ids) {
+        if (request.getAction() == ProductJobRequest.Action.REPRICE) {
+            return reprice(toPriceChange(request), ids);
+        }
+        List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+        if (restoresArchived(request) && products.size() < ids.size()) {
+            products.addAll(restoreArchived(ids, products));
+        }
+        products.removeIf(product -> !stillSelected(request, product));
+        if (request.getAction() == ProductJobRequest.Action.DELETE) {
+            return delete(products);
+        }
+        boolean active = request.getAction() == ProductJobRequest.Action.REACTIVATE;
+        List<Product> changed = products.stream()
+                .filter(product -> !Objects.equals(product.getIsActive(), active))
+                .toList();
+        for (Product product : changed) {
+            boolean wasLow = lowStockAlertService.isLow(product);
+            product.setIsActive(active);
+            product.setChangeSequence(productChangeSequence.next());
+            lowStockAlertService.recordTransition(wasLow, product);
+        }
+        productRepository.saveAll(changed);
+        changed.forEach(this::publishUpsert);
+        return changed.size();
+    }
+
+    /**
+     * Reprice a chunk with one set-based update, then publish the rows it
+     * wrote, told apart by a change sequence past a mark taken before the
+     * update
+     */
+    private int reprice(PriceChange change, List<Long> ids) {
+        long mark = productChangeSequence.next();
+        int updated = productPriceUpdater.update(change, ids);
+        if (updated > 0) {
+            productRepository.findAllById(ids).stream()
+                    .filter(product -> product.getChangeSequence() != null && product.getChangeSequence() > mark)
+                    .forEach(this::publishUpsert);
+        }
+        return updated;
+    }
+
+    private void publishUpsert(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChange.builder()
+                .sequence(product.getChangeSequence())
+                .type(ProductChange.Type.UPSERT)
+                .productId(product.getId())
+                .sku(product.getSku())
+                .product(productMapper.toResponse(product))
+                .build(), product.getCategory()));
+    }
+
+    /**
+     * Move the archived products among the IDs back to the products table,
+     * each with a new change sequence
+     *
+     * @param ids Product IDs of the chunk
+     * @param found Products of the chunk found in the products table
+     * @return Restored products
+     */
+    private List<Product> restoreArchived(List<Long> ids, List<Product> found) {
+        Set<Long> foundIds = found.stream().map(Product::getId).collect(Collectors.toSet());
+        List<Long> archivedIds = archivedProductRepository.findAllById(ids.stream()
+                        .filter(id -> !foundIds.contains(id))
+                        .toList()).stream()
+                .map(ArchivedProduct::getId)
+                .toList();
+        if (archivedIds.isEmpty()) {
+            return List.of();
+        }
+        archivedProductRepository.copyAllToProducts(archivedIds);
+        archivedProductRepository.deleteAllByIdInBatch(archivedIds);
+        List<Product> restored = productRepository.findAllById(archivedIds);
+        restored.forEach(product -> product.setChangeSequence(productChangeSequence.next()));
+        return restored;
+    }
+
+    private static boolean restoresArchived(ProductJobRequest request) {
+        return request.getAction() == ProductJobRequest.Action.REACTIVATE
+                || request.getAction() == ProductJobRequest.Action.DELETE;
+    }
+
+    private int delete(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        List<ProductTombstone> tombstones = productTombstoneRepository.saveAll(products.stream()
+                .map(product -> ProductTombstone.builder()
+                        .productId(product.getId())
+                        .sku(product.getSku())
+                        .build())
+                .toList());
+        productRepository.deleteAllByIdInBatch(products.stream().map(Product::getId).toList());
+        for (int i = 0; i < products.size(); i++) {
+            ProductTombstone tombstone = tombstones.get(i);
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChange.builder()
+                    .sequence(tombstone.getChangeSequence())
+                    .type(ProductChange.Type.DELETE)
+                    .productId(tombstone.getProductId())
+                    .sku(tombstone.getSku())
+                    .build(), products.get(i).getCategory()));
+        }
+        return products.size();
+    }
+
+    private static PriceChange toPriceChange(ProductJobRequest request) {
+        PriceRule rule = request.getPriceRule();
+        return PriceChange.builder()
+                .factor(rule.getType() == PriceRule.Type.PERCENT
+                        ? BigDecimal.ONE.add(rule.getValue().movePointLeft(2)) : null)
+                .amount(rule.getType() == PriceRule.Type.AMOUNT ? rule.getValue() : null)
+                .ending99(rule.getRounding() == PriceRule.Rounding.ENDING_99)
+                .category(hasText(request.getCategory()) ? request.getCategory() : null)
+                .brand(hasText(request.getBrand()) ? request.getBrand() : null)
+                .minPrice(request.getMinPrice())
+                .maxPrice(request.getMaxPrice())
+                .build();
+    }
+
+    /**
+     * Whether a product still matches the selector; its category or brand
+     * may have changed since the IDs were read
+     */
+    private static boolean stillSelected(ProductJobRequest request, Product product) {
+        if (hasText(request.getCategory())) {
+            return request.getCategory().equals(product.getCategory());
+        }
+        if (hasText(request.getBrand())) {
+            return request.getBrand().equals(product.getBrand());
+        }
+        return true;
+    }
+
+    private long countJobs(ProductJobResponse.Status status) {
+        return jobs.asMap().values().stream().filter(job -> job.status == status).count();
+    }
+
+    private static boolean hasSkus(ProductJobRequest request) {
+        return request.getSkus() != null && !request.getSkus().isEmpty();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Mutable state of one job; progress is written by the worker only
+     */
+    private final class Job {
+
+        private final String id;
+        private final ProductJobRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+
+        private volatile ProductJobResponse.Status status = ProductJobResponse.Status.QUEUED;
+        private volatile boolean cancelRequested;
+        private volatile Integer total;
+        private volatile int processed;
+        private volatile int changed;
+        private volatile Integer outOfRange;
+        private volatile List<PriceChangeSample> sample;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(String id, ProductJobRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private synchronized void finish(ProductJobResponse.Status outcome, String reason) {
+            status = outcome;
+            error = reason;
+            finishedAt = LocalDateTime.now();
+            jobs.put(id, this);
+            Counter.builder("retail.product.jobs")
+                    .description("Bulk product jobs finished, by outcome")
+                    .tag("status", outcome.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        private String selectorDescription() {
+            if (request.getAction() == ProductJobRequest.Action.REPRICE) {
+                return "category=" + request.getCategory() + " brand=" + request.getBrand()
+                        + " price=[" + request.getMinPrice() + ", " + request.getMaxPrice() + "]"
+                        + (request.isDryRun() ? " (dry run)" : "");
+            }
+            if (hasText(request.getCategory())) {
+                return "category=" + request.getCategory();
+            }
+            if (hasText(request.getBrand())) {
+                return "brand=" + request.getBrand();
+            }
+            return request.getSkus().size() + " SKUs";
+        }
+
+        private ProductJobResponse toResponse() {
+            return ProductJobResponse.builder()
+                    .id(id)
+                    .action(request.getAction())
+                    .category(request.getCategory())
+                    .brand(request.getBrand())
+                    .skuCount(request.getSkus() != null ? request.getSkus().size() : null)
+                    .priceRule(request.getPriceRule())
+                    .minPrice(request.getMinPrice())
+                    .maxPrice(request.getMaxPrice())
+                    .dryRun(request.isDryRun())
+                    .status(status)
+                    .total(total)
+                    .processed(processed)
+                    .changed(changed)
+                    .outOfRange(outOfRange)
+                    .sample(sample)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
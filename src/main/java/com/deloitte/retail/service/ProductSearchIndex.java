@@ -0,0 +1,612 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable inverted index for relevance-ranked product search.
+ * <p>
+ * Name, brand, category and description are tokenized and scored with BM25F:
+ * term frequencies are boosted per field and normalized by field length, then
+ * saturated and weighted by inverse document frequency. These parts of the
+ * score do not depend on the query, so every posting stores its final score
+ * and a query only adds them up. Retrieval uses block-max WAND: each term
+ * knows its best posting score overall and per block of postings, and runs of
+ * documents whose terms can not beat the current k-th result together are
+ * skipped without being scored, so the work depends on k and the query rather
+ * than on the catalog size. Query words missing from
+ * the index are matched to indexed words one edit away, at a lower weight.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+final class ProductSearchIndex {
+
+    /**
+     * Boosts of name, brand, category and description, in that field order
+     */
+    private static final float[] FIELD_BOOSTS = {3.0f, 2.0f, 1.5f, 1.0f};
+
+    private static final int FIELDS = FIELD_BOOSTS.length;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /**
+     * Shorter words are not typo-corrected; one edit changes them too much
+     */
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int MAX_FUZZY_TERMS = 5;
+    private static final float FUZZY_WEIGHT = 0.5f;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MAX_FIELD_TOKENS = 500;
+
+    /**
+     * Postings per block score bound; smaller blocks skip more but cost more
+     * bound checks
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "from", "in", "of", "on", "or", "the", "to", "with");
+
+    /**
+     * Most relevant first, then lowest ID
+     */
+    private static final Comparator<Hit> RELEVANCE = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparingLong(Hit::getId);
+
+    private final Document[] documentsById;
+    private final long[] ids;
+    private final Map<String, Postings> postings;
+    private final float[] averageFieldLengths;
+    private final int activeDocuments;
+    private final char[] alphabet;
+
+    private ProductSearchIndex(Document[] documentsById, Map<String, Postings> postings,
+                               float[] averageFieldLengths, int activeDocuments, char[] alphabet) {
+        this.documentsById = documentsById;
+        this.postings = postings;
+        this.averageFieldLengths = averageFieldLengths;
+        this.activeDocuments = activeDocuments;
+        this.alphabet = alphabet;
+        this.ids = new long[documentsById.length];
+        for (int i = 0; i < documentsById.length; i++) {
+            ids[i] = documentsById[i].getId();
+        }
+    }
+
+    /**
+     * Build an index
+     *
+     * @param documents Latest state of every product, active or not
+     * @return Index
+     */
+    static ProductSearchIndex build(Collection<Document> documents) {
+        Document[] byId = documents.toArray(new Document[0]);
+        Arrays.sort(byId, Comparator.comparingLong(Document::getId));
+
+        int activeCount = 0;
+        double[] totalLengths = new double[FIELDS];
+        for (Document document : byId) {
+            if (document.isActive()) {
+                activeCount++;
+                for (int field = 0; field < FIELDS; field++) {
+                    totalLengths[field] += document.getFieldLengths()[field];
+                }
+            }
+        }
+        int active = activeCount;
+        float[] averageLengths = new float[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            averageLengths[field] = active > 0 ? (float) Math.max(1.0, totalLengths[field] / active) : 1f;
+        }
+
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        Set<Character> characters = new TreeSet<>();
+        for (int ordinal = 0; ordinal < byId.length; ordinal++) {
+            Document document = byId[ordinal];
+            if (!document.isActive()) {
+                continue;
+            }
+            String[] terms = document.getTerms();
+            for (int t = 0; t < terms.length; t++) {
+                PostingsBuilder builder = builders.get(terms[t]);
+                if (builder == null) {
+                    builder = new PostingsBuilder();
+                    builders.put(terms[t], builder);
+                    for (int c = 0; c < terms[t].length(); c++) {
+                        characters.add(terms[t].charAt(c));
+                    }
+                }
+                builder.add(ordinal, weightedFrequency(document, t, averageLengths));
+            }
+        }
+
+        Map<String, Postings> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> postings.put(term, builder.build(idf(active, builder.size))));
+        char[] alphabet = new char[characters.size()];
+        int i = 0;
+        for (char c : characters) {
+            alphabet[i++] = c;
+        }
+        return new ProductSearchIndex(byId, postings, averageLengths, active, alphabet);
+    }
+
+    /**
+     * Build a new index with some products replaced
+     *
+     * @param changes Latest state of the changed products; deleted products are dropped
+     * @return Index
+     */
+    ProductSearchIndex withChanges(Collection<Document> changes) {
+        Map<Long, Document> merged = new HashMap<>(documentsById.length + changes.size());
+        for (Document document : documentsById) {
+            merged.put(document.getId(), document);
+        }
+        for (Document document : changes) {
+            if (document.isDeleted()) {
+                merged.remove(document.getId());
+            } else {
+                merged.put(document.getId(), document);
+            }
+        }
+        return build(merged.values());
+    }
+
+    /**
+     * Turn query text into weighted terms. Words the index does not contain
+     * are also matched to indexed words one edit away.
+     *
+     * @param text Query text
+     * @return Query, without terms if the text has no searchable words
+     */
+    Query query(String text) {
+        Map<String, Float> terms = new LinkedHashMap<>();
+        for (String token : new LinkedHashSet<>(TextNormalizer.tokens(text, MAX_QUERY_TERMS))) {
+            if (STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.put(token, 1f);
+            if (!postings.containsKey(token) && token.length() >= FUZZY_MIN_LENGTH) {
+                fuzzyMatches(token).forEach(match -> terms.putIfAbsent(match, FUZZY_WEIGHT));
+            }
+        }
+        float[] weights = new float[terms.size()];
+        int i = 0;
+        for (float weight : terms.values()) {
+            weights[i++] = weight;
+        }
+        return new Query(terms.keySet().toArray(new String[0]), weights);
+    }
+
+    /**
+     * Indexed words one insertion, deletion, substitution or transposition
+     * away, most frequent first
+     */
+    private List<String> fuzzyMatches(String token) {
+        Set<String> candidates = new LinkedHashSet<>();
+        char[] chars = token.toCharArray();
+        for (int i = 0; i <= chars.length; i++) {
+            String head = token.substring(0, i);
+            if (i < chars.length) {
+                candidates.add(head + token.substring(i + 1));
+                for (char c : alphabet) {
+                    candidates.add(head + c + token.substring(i + 1));
+                }
+            }
+            if (i + 1 < chars.length) {
+                candidates.add(head + chars[i + 1] + chars[i] + token.substring(i + 2));
+            }
+            for (char c : alphabet) {
+                candidates.add(head + c + token.substring(i));
+            }
+        }
+        candidates.remove(token);
+        return candidates.stream()
+                .filter(postings::containsKey)
+                .sorted(Comparator.comparingInt((String term) -> postings.get(term).docs.length).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(MAX_FUZZY_TERMS)
+                .toList();
+    }
+
+    /**
+     * Most relevant products for a query, using block-max WAND to skip
+     * products that can not make the top {@code limit}
+     *
+     * @param query Parsed query
+     * @param limit Maximum number of results
+     * @param excluded Products to leave out
+     * @return Hits, most relevant first
+     */
+    List<Hit> search(Query query, int limit, LongPredicate excluded) {
+        Cursor[] cursors = new Cursor[query.getTerms().length];
+        int count = 0;
+        for (int i = 0; i < query.getTerms().length; i++) {
+            Postings termPostings = postings.get(query.getTerms()[i]);
+            if (termPostings != null) {
+                cursors[count++] = new Cursor(termPostings, query.getWeights()[i]);
+            }
+        }
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RELEVANCE.reversed());
+        float threshold = 0f;
+        while (count > 0) {
+            sortByDoc(cursors, count);
+            int pivot = -1;
+            float bound = 0f;
+            for (int i = 0; i < count; i++) {
+                bound += cursors[i].upperBound();
+                if (bound > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                break;
+            }
+            int pivotDoc = cursors[pivot].doc();
+            while (pivot + 1 < count && cursors[pivot + 1].doc() == pivotDoc) {
+                pivot++;
+            }
+            float blockBound = 0f;
+            for (int i = 0; i <= pivot; i++) {
+                blockBound += cursors[i].blockUpperBound(pivotDoc);
+            }
+            if (blockBound <= threshold) {
+                // Nothing before the end of the current blocks can make the top
+                int next = pivot + 1 < count ? cursors[pivot + 1].doc() : Integer.MAX_VALUE;
+                for (int i = 0; i <= pivot; i++) {
+                    next = Math.min(next, cursors[i].blockLastDoc() + 1);
+                }
+                for (int i = 0; i <= pivot; i++) {
+                    cursors[i].advanceTo(next);
+                }
+            } else if (cursors[0].doc() == pivotDoc) {
+                float score = 0f;
+                for (int i = 0; i <= pivot; i++) {
+                    score += cursors[i].score();
+                    cursors[i].next();
+                }
+                Document document = documentsById[pivotDoc];
+                if (!excluded.test(document.getId())) {
+                    Hit hit = new Hit(document.getId(), score);
+                    if (top.size() < limit) {
+                        top.add(hit);
+                    } else if (RELEVANCE.compare(hit, top.peek()) < 0) {
+                        top.poll();
+                        top.add(hit);
+                    }
+                    if (top.size() == limit) {
+                        threshold = top.peek().getScore();
+                    }
+                }
+            } else {
+                for (int i = 0; cursors[i].doc() < pivotDoc; i++) {
+                    cursors[i].advanceTo(pivotDoc);
+                }
+            }
+            int live = 0;
+            for (int i = 0; i < count; i++) {
+                if (!cursors[i].exhausted()) {
+                    cursors[live++] = cursors[i];
+                }
+            }
+            count = live;
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RELEVANCE);
+        return hits;
+    }
+
+    /**
+     * Insertion sort; only the cursors moved since the last round are out of
+     * place
+     */
+    private static void sortByDoc(Cursor[] cursors, int count) {
+        for (int i = 1; i < count; i++) {
+            Cursor cursor = cursors[i];
+            int doc = cursor.doc();
+            int j = i - 1;
+            while (j >= 0 && cursors[j].doc() > doc) {
+                cursors[j + 1] = cursors[j];
+                j--;
+            }
+            cursors[j + 1] = cursor;
+        }
+    }
+
+    /**
+     * Score a product that is not in the index against the index statistics
+     *
+     * @param document Product state
+     * @param query Parsed query
+     * @return Relevance, 0 if no term matches
+     */
+    float score(Document document, Query query) {
+        float score = 0f;
+        for (int i = 0; i < query.getTerms().length; i++) {
+            int t = Arrays.binarySearch(document.getTerms(), query.getTerms()[i]);
+            if (t >= 0) {
+                Postings termPostings = postings.get(query.getTerms()[i]);
+                int documentFrequency = termPostings != null ? termPostings.docs.length : 0;
+                score += query.getWeights()[i] * idf(activeDocuments + 1, documentFrequency + 1)
+                        * saturate(weightedFrequency(document, t, averageFieldLengths));
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Change sequence of the indexed state of a product
+     *
+     * @param id Product ID
+     * @return Change sequence, or -1 if the product is not indexed
+     */
+    long sequenceOf(long id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? documentsById[position].getSequence() : -1L;
+    }
+
+    int size() {
+        return documentsById.length;
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    private static float weightedFrequency(Document document, int term, float[] averageLengths) {
+        float frequency = 0f;
+        for (int field = 0; field < FIELDS; field++) {
+            int count = document.getFrequencies()[term * FIELDS + field];
+            if (count > 0) {
+                float lengthRatio = document.getFieldLengths()[field] / averageLengths[field];
+                frequency += FIELD_BOOSTS[field] * count / (1 - B + B * lengthRatio);
+            }
+        }
+        return frequency;
+    }
+
+    private static float saturate(float frequency) {
+        return frequency * (K1 + 1) / (frequency + K1);
+    }
+
+    private static float idf(int documents, int documentFrequency) {
+        return (float) Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Index state of a product
+     *
+     * @param product Product state
+     * @return Tokenized document
+     */
+    static Document documentOf(ProductResponse product) {
+        boolean active = Boolean.TRUE.equals(product.getIsActive());
+        long sequence = product.getChangeSequence() != null ? product.getChangeSequence() : 0L;
+        String[] fields = {product.getName(), product.getBrand(), product.getCategory(), product.getDescription()};
+        Map<String, int[]> counts = new HashMap<>();
+        int[] lengths = new int[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            for (String token : TextNormalizer.tokens(fields[field], MAX_FIELD_TOKENS)) {
+                if (!STOP_WORDS.contains(token)) {
+                    counts.computeIfAbsent(token, key -> new int[FIELDS])[field]++;
+                    lengths[field]++;
+                }
+            }
+        }
+        String[] terms = counts.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] frequencies = new int[terms.length * FIELDS];
+        for (int t = 0; t < terms.length; t++) {
+            System.arraycopy(counts.get(terms[t]), 0, frequencies, t * FIELDS, FIELDS);
+        }
+        return new Document(product.getId(), sequence, active, terms, frequencies, lengths);
+    }
+
+    /**
+     * State of a deleted product
+     *
+     * @param id Product ID
+     * @param sequence Change sequence of the delete
+     * @return Deleted document
+     */
+    static Document deletedDocument(long id, long sequence) {
+        return new Document(id, sequence, false, null, new int[0], new int[FIELDS]);
+    }
+
+    /**
+     * Tokenized state of one product
+     */
+    @Value
+    static class Document {
+
+        long id;
+        long sequence;
+        boolean active;
+
+        /**
+         * Distinct words in sorted order; null for a deleted product
+         */
+        String[] terms;
+
+        /**
+         * Occurrences of each word per field, {@code terms.length * 4} values
+         */
+        int[] frequencies;
+        int[] fieldLengths;
+
+        boolean isDeleted() {
+            return terms == null;
+        }
+    }
+
+    /**
+     * Query terms with their weights
+     */
+    @Value
+    static class Query {
+
+        String[] terms;
+        float[] weights;
+
+        boolean isEmpty() {
+            return terms.length == 0;
+        }
+    }
+
+    /**
+     * Search result
+     */
+    @Value
+    static class Hit {
+
+        long id;
+        float score;
+    }
+
+    /**
+     * Postings of one term: documents in ordinal order with their scores, and
+     * the best score of each block of {@link #BLOCK_SIZE} postings
+     */
+    private static final class Postings {
+
+        private final int[] docs;
+        private final float[] scores;
+        private final float[] blockMaxScores;
+        private final float maxScore;
+
+        private Postings(int[] docs, float[] scores) {
+            this.docs = docs;
+            this.scores = scores;
+            this.blockMaxScores = new float[(docs.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            float max = 0f;
+            for (int i = 0; i < scores.length; i++) {
+                blockMaxScores[i / BLOCK_SIZE] = Math.max(blockMaxScores[i / BLOCK_SIZE], scores[i]);
+                max = Math.max(max, scores[i]);
+            }
+            this.maxScore = max;
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+
+        Postings build(float idf) {
+            float[] scores = new float[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = idf * saturate(frequencies[i]);
+            }
+            return new Postings(Arrays.copyOf(docs, size), scores);
+        }
+    }
+
+    /**
+     * Position in the postings of one query term
+     */
+    private static final class Cursor {
+
+        private final Postings postings;
+        private final float weight;
+        private int position;
+
+        /**
+         * Block checked by the last {@link #blockUpperBound}, never behind
+         * the position
+         */
+        private int block;
+
+        private Cursor(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+
+        int doc() {
+            return postings.docs[position];
+        }
+
+        float score() {
+            return weight * postings.scores[position];
+        }
+
+        float upperBound() {
+            return weight * postings.maxScore;
+        }
+
+        /**
+         * Best score among this term's postings in the block that would hold
+         * a document, 0 past the last block
+         */
+        float blockUpperBound(int doc) {
+            int[] docs = postings.docs;
+            block = Math.max(block, position / BLOCK_SIZE);
+            while (block < postings.blockMaxScores.length
+                    && docs[Math.min((block + 1) * BLOCK_SIZE, docs.length) - 1] < doc) {
+                block++;
+            }
+            return block < postings.blockMaxScores.length ? weight * postings.blockMaxScores[block] : 0f;
+        }
+
+        /**
+         * Last document of the block found by {@link #blockUpperBound}
+         */
+        int blockLastDoc() {
+            int[] docs = postings.docs;
+            return block < postings.blockMaxScores.length
+                    ? docs[Math.min((block + 1) * BLOCK_SIZE, docs.length) - 1] : Integer.MAX_VALUE - 1;
+        }
+
+        void next() {
+            position++;
+        }
+
+        boolean exhausted() {
+            return position >= postings.docs.length;
+        }
+
+        /**
+         * Move to the first posting at or after a document, galloping then
+         * binary searching
+         */
+        void advanceTo(int doc) {
+            int[] docs = postings.docs;
+            int step = 1;
+            int low = position;
+            int high = position;
+            while (high < docs.length && docs[high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, docs.length);
+            int found = Arrays.binarySearch(docs, low, high, doc);
+            position = found >= 0 ? found : -found - 1;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves relevance-ranked product search from an in-memory
+ * {@link ProductSearchIndex}.
+ * <p>
+ * Built and kept current like {@link ProductSuggester}: the index is loaded
+ * at startup from the catalog snapshot or the database, committed writes go
+ * to an overlay that is scored against the index statistics at query time,
+ * and a background thread rebuilds the index with the overlay once it grows
+ * or ages. Writes committed before the index is built wait in the overlay,
+ * and writes of other instances are polled up to the
+ * {@link ProductChangeWatermark}.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@Slf4j
+public class ProductSearcher implements ApplicationRunner {
+
+    private final ProductSnapshotStore productSnapshotStore;
+    private final ProductRepository productRepository;
+    private final ProductChangeWatermark productChangeWatermark;
+    private final ProductMapper productMapper;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactScheduled = new AtomicBoolean();
+
+    /**
+     * Product states written since the index was built, by product ID
+     */
+    private final Map<Long, ProductSearchIndex.Document> overlay = new ConcurrentHashMap<>();
+
+    /**
+     * Recently compacted deletes, so a late upsert can not bring a product back
+     */
+    private final Cache<Long, Long> recentDeletes = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    private volatile ProductSearchIndex index;
+
+    /**
+     * Change sequence up to which every committed write is in the index or
+     * the overlay
+     */
+    private volatile long caughtUpTo;
+
+    @Value("${retail.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.search.compact-threshold:2000}")
+    private int compactThreshold;
+
+    @Value("${retail.snapshot.load-page-size:5000}")
+    private int loadPageSize;
+
+    public ProductSearcher(ProductSnapshotStore productSnapshotStore,
+                           ProductRepository productRepository,
+                           ProductChangeWatermark productChangeWatermark,
+                           ProductMapper productMapper,
+                           MeterRegistry meterRegistry) {
+        this.productSnapshotStore = productSnapshotStore;
+        this.productRepository = productRepository;
+        this.productChangeWatermark = productChangeWatermark;
+        this.productMapper = productMapper;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-search-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("retail.search.products", this, searcher -> searcher.index != null ? searcher.index.size() : 0)
+                .description("Products held in the search index")
+                .register(meterRegistry);
+        Gauge.builder("retail.search.terms", this, searcher -> searcher.index != null ? searcher.index.termCount() : 0)
+                .description("Distinct words in the search index")
+                .register(meterRegistry);
+        Gauge.builder("retail.search.overlay", overlay, Map::size)
+                .description("Product writes not yet folded into the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the index at startup
+     *
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Whether queries can be answered from the index
+     *
+     * @return true once the index is built
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Most relevant active products for a query
+     *
+     * @param text Query text
+     * @param limit Maximum number of results
+     * @return Product IDs, most relevant first; empty until the index is built
+     */
+    public List<Long> search(String text, int limit) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        ProductSearchIndex.Query query = current.query(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        List<ProductSearchIndex.Hit> hits = new ArrayList<>(current.search(query, limit, overlay::containsKey));
+        for (ProductSearchIndex.Document document : overlay.values()) {
+            if (document.isActive()) {
+                float score = current.score(document, query);
+                if (score > 0f) {
+                    hits.add(new ProductSearchIndex.Hit(document.getId(), score));
+                }
+            }
+        }
+        return hits.stream()
+                .sorted(Comparator.comparingDouble(ProductSearchIndex.Hit::getScore).reversed()
+                        .thenComparingLong(ProductSearchIndex.Hit::getId))
+                .limit(limit)
+                .map(ProductSearchIndex.Hit::getId)
+                .toList();
+    }
+
+    /**
+     * Add committed product writes to the overlay, also before the index is
+     * built so the build can not miss them
+     *
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            apply(event.getChange());
+        }
+    }
+
+    /**
+     * Add writes committed on other instances, read like in
+     * {@link ProductSuggester#pollChanges()}
+     */
+    @Scheduled(fixedDelayString = "${retail.search.poll-interval-ms:1000}",
+            initialDelayString = "${retail.search.poll-interval-ms:1000}")
+    public void pollChanges() {
+        if (!enabled || index == null) {
+            return;
+        }
+        try {
+            long safeSequence = productChangeWatermark.safeSequence();
+            productSnapshotStore.changesSince(caughtUpTo).values().forEach(this::apply);
+            caughtUpTo = Math.max(caughtUpTo, safeSequence);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll product changes for the search index: {}", ex.getMessage());
+        }
+    }
+
+    private void apply(ProductChange change) {
+        if (change.getProductId() == null) {
+            return;
+        }
+        ProductSearchIndex.Document document = change.getType() == ProductChange.Type.UPSERT && change.getProduct() != null
+                ? ProductSearchIndex.documentOf(change.getProduct())
+                : ProductSearchIndex.deletedDocument(change.getProductId(), change.getSequence());
+        ProductSearchIndex current = index;
+        Long deletedAt = recentDeletes.getIfPresent(document.getId());
+        if ((current != null && document.getSequence() <= current.sequenceOf(document.getId()))
+                || (deletedAt != null && deletedAt >= document.getSequence())) {
+            return;
+        }
+        overlay.merge(document.getId(), document,
+                (existing, candidate) -> candidate.getSequence() > existing.getSequence() ? candidate : existing);
+        if (overlay.size() >= compactThreshold) {
+            scheduleCompact();
+        }
+    }
+
+    /**
+     * Fold aged overlay entries into the index
+     */
+    @Scheduled(fixedDelayString = "${retail.search.compact-interval-ms:300000}",
+            initialDelayString = "${retail.search.compact-interval-ms:300000}")
+    public void compactPeriodically() {
+        if (!overlay.isEmpty()) {
+            scheduleCompact();
+        }
+    }
+
+    private void scheduleCompact() {
+        if (compactScheduled.compareAndSet(false, true)) {
+            try {
+                compactor.execute(this::compact);
+            } catch (RejectedExecutionException ex) {
+                compactScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index with the overlay, then drop the overlay entries it
+     * contains. Entries replaced during the rebuild stay.
+     */
+    void compact() {
+        compactScheduled.set(false);
+        ProductSearchIndex current = index;
+        if (current == null || overlay.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        Map<Long, ProductSearchIndex.Document> captured = new HashMap<>(overlay);
+        index = current.withChanges(captured.values());
+        captured.values().stream()
+                .filter(ProductSearchIndex.Document::isDeleted)
+                .forEach(document -> recentDeletes.put(document.getId(), document.getSequence()));
+        captured.forEach(overlay::remove);
+        log.debug("Search index rebuilt with {} writes in {}ms", captured.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Build the index from the catalog snapshot, or page through the product
+     * table when the snapshot is not loaded. Overlay entries the index
+     * already holds are dropped.
+     */
+    void load() {
+        long started = System.nanoTime();
+        List<ProductSearchIndex.Document> documents = new ArrayList<>();
+        long safeSequence = productSnapshotStore.caughtUpTo();
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot == null) {
+            safeSequence = productChangeWatermark.safeSequence();
+        }
+        if (snapshot != null) {
+            for (int row = 0; row < snapshot.size(); row++) {
+                documents.add(ProductSearchIndex.documentOf(snapshot.toResponse(row)));
+            }
+        } else {
+            long lastId = 0L;
+            List<Product> page;
+            do {
+                page = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, loadPageSize));
+                for (Product product : page) {
+                    documents.add(ProductSearchIndex.documentOf(productMapper.toResponse(product)));
+                    lastId = product.getId();
+                }
+            } while (page.size() == loadPageSize);
+        }
+        ProductSearchIndex built = ProductSearchIndex.build(documents);
+        overlay.values().removeIf(document -> document.getSequence() <= built.sequenceOf(document.getId()));
+        caughtUpTo = Math.max(caughtUpTo, safeSequence);
+        index = built;
+        log.info("Search index built with {} products and {} words in {}ms", built.size(), built.termCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @PreDestroy
+    void stop() {
+        compactor.shutdownNow();
+    }
+}
@@ -1,22 +1,54 @@
 package com.deloitte.retail.service;
 
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.ProductBatchGetResponse;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
 import com.deloitte.retail.dto.ProductRequest;
 import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+import com.deloitte.retail.dto.ProductSuggestion;
 import com.deloitte.retail.exception.DuplicateResourceException;
+import com.deloitte.retail.exception.InvalidRequestException;
 import com.deloitte.retail.exception.ResourceNotFoundException;
 import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.ArchivedProduct;
 import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductChangeSequence;
 import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * Service class for Product operations
+ * Service class for Product operations. Products archived by
+ * {@link ProductArchiver} are still found by ID and SKU, and a write to one
+ * moves it back to the products table first.
  * 
  * @author Deloitte
  * @version 1.0.0
@@ -27,94 +59,386 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    static final int MAX_CHANGE_PAGE_SIZE = 1000;
+    static final int BATCH_QUERY_CHUNK_SIZE = 200;
+
+    /**
+     * Largest price the product table can hold, NUMERIC(12, 2)
+     */
+    static final BigDecimal MAX_PRICE = new BigDecimal("9999999999.99");
+
+    static final int DEFAULT_LIST_LIMIT = 100;
+    static final int MAX_LIST_LIMIT = 1000;
+
+    static final int DEFAULT_SUGGEST_LIMIT = 10;
+    static final int MAX_SUGGEST_PREFIX_LENGTH = 100;
+
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+    static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    /**
+     * Unique constraint on the product SKU, as named in the V1 migration
+     */
+    static final String SKU_UNIQUE_CONSTRAINT = "uk_product_sku";
+
     private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final ProductChangeSequence productChangeSequence;
+    private final ProductChangeWatermark productChangeWatermark;
     private final ProductMapper productMapper;
+    private final ProductCache productCache;
+    private final ProductBatchLoader productBatchLoader;
+    private final ProductSnapshotStore productSnapshotStore;
+    private final LowStockAlertService lowStockAlertService;
+    private final SkuFilter skuFilter;
+    private final ProductSuggester productSuggester;
+    private final ProductSearcher productSearcher;
+    private final DatabaseCircuitBreaker databaseCircuitBreaker;
+    private final BackgroundRefresher backgroundRefresher;
+    private final WorkloadBulkheads workloadBulkheads;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final SingleFlight<Long, ProductResponse> productByIdFlights = new SingleFlight<>();
+    private final SingleFlight<String, ProductResponse> productBySkuFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<ProductResponse>> productListFlights = new SingleFlight<>();
+
+    @Value("${retail.inventory.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    @Value("${retail.coalescing.wait-timeout-ms:5000}")
+    private long coalescingWaitTimeoutMs;
 
     /**
-     * Create a new product
+     * Create a new product. The duplicate check skips the database when the
+     * SKU filter rules the SKU out; the unique SKU constraint still applies.
+     * SKUs of archived products count as taken.
      * 
      * @param request ProductRequest DTO
      * @return ProductResponse DTO
      * @throws DuplicateResourceException if product with same SKU already exists
      */
+    @Bulkhead(Workload.WRITE)
     public ProductResponse createProduct(ProductRequest request) {
-        log.info("Creating product with SKU: {}", request.getSku());
+        log.debug("Creating product with SKU: {}", request.getSku());
         
-        if (productRepository.existsBySku(request.getSku())) {
-            throw new DuplicateResourceException("Product with SKU " + request.getSku() + " already exists");
+        if (!skuFilter.definitelyAbsent(request.getSku()) && (productRepository.existsBySku(request.getSku())
+                || archivedProductRepository.existsBySku(request.getSku()))) {
+            throw duplicateSku(request.getSku());
         }
 
         Product product = productMapper.toEntity(request);
         if (request.getIsActive() == null) {
             product.setIsActive(true);
         }
+        product.setChangeSequence(productChangeSequence.next());
         
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct;
+        try {
+            // IDENTITY ids insert on save, so the unique SKU constraint is checked here
+            savedProduct = productRepository.save(product);
+        } catch (DataIntegrityViolationException ex) {
+            if (!violatesSkuConstraint(ex)) {
+                throw ex;
+            }
+            // Created concurrently, or by another instance the SKU filter has not seen yet
+            throw duplicateSku(request.getSku());
+        }
+        skuFilter.add(savedProduct.getSku());
+        lowStockAlertService.recordTransition(false, savedProduct);
         log.info("Product created successfully with ID: {}", savedProduct.getId());
         
-        return productMapper.toResponse(savedProduct);
+        ProductResponse response = productMapper.toResponse(savedProduct);
+        publishUpsert(savedProduct, response);
+        return response;
     }
 
     /**
-     * Get product by ID
+     * Get product by ID. Concurrent lookups of the same ID share one database
+     * call, and with the batch loader enabled lookups of different IDs are
+     * combined into one query. The lookup runs without a surrounding
+     * transaction so waiting callers do not hold a connection. A cached
+     * product past its TTL is returned at once while a background refresh
+     * runs, and also when the database fails or the circuit is open. Only
+     * the database read counts against the point read bulkhead, so cached
+     * products are served however busy it is.
      * 
      * @param id Product ID
      * @return ProductResponse DTO
      * @throws ResourceNotFoundException if product not found
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponse getProductById(Long id) {
-        log.info("Fetching product with ID: {}", id);
-        
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        log.debug("Fetching product with ID: {}", id);
         
-        return productMapper.toResponse(product);
+        ProductResponse cached = productCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+        StaleProduct stale = productCache.getStaleById(id);
+        if (stale != null && stale.isRevalidatable()) {
+            backgroundRefresher.refresh("id:" + id, () -> refreshById(id));
+            StaleRead.record(stale, false);
+            return stale.getProduct();
+        }
+        try {
+            return pointRead(() -> loadById(id));
+        } catch (RuntimeException ex) {
+            return staleOnError(stale, ex);
+        }
     }
 
     /**
-     * Get product by SKU
+     * Get product by SKU. Concurrent lookups of the same SKU share one
+     * database call. SKUs the SKU filter rules out, or that were recently not
+     * found, are rejected without a database call. Stale cached products are
+     * served, and the bulkhead applied, like in {@link #getProductById}.
      * 
      * @param sku Product SKU
      * @return ProductResponse DTO
      * @throws ResourceNotFoundException if product not found
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponse getProductBySku(String sku) {
-        log.info("Fetching product with SKU: {}", sku);
-        
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with SKU: " + sku));
+        log.debug("Fetching product with SKU: {}", sku);
         
-        return productMapper.toResponse(product);
+        ProductResponse cached = productCache.getBySku(sku);
+        if (cached != null) {
+            return cached;
+        }
+        StaleProduct stale = productCache.getStaleBySku(sku);
+        if (stale != null && stale.isRevalidatable()) {
+            backgroundRefresher.refresh("sku:" + sku, () -> refreshBySku(sku));
+            StaleRead.record(stale, false);
+            return stale.getProduct();
+        }
+        if (skuFilter.definitelyAbsent(sku) || productCache.isMissingSku(sku)) {
+            throw skuNotFound(sku);
+        }
+        try {
+            return pointRead(() -> loadBySku(sku));
+        } catch (RuntimeException ex) {
+            return staleOnError(stale, ex);
+        }
+    }
+
+    /**
+     * Run the database read of a point lookup within the point read
+     * bulkhead, like {@link Bulkhead} does for a whole call
+     */
+    private ProductResponse pointRead(Supplier<ProductResponse> read) {
+        boolean entered = workloadBulkheads.enter(Workload.POINT_READ);
+        try {
+            return read.get();
+        } finally {
+            if (entered) {
+                workloadBulkheads.exit();
+            }
+        }
+    }
+
+    private ProductResponse loadById(Long id) {
+        return productByIdFlights.execute(id, coalescingWaitTimeoutMs, () -> databaseCircuitBreaker.execute(() -> {
+            ProductResponse response;
+            if (productBatchLoader.isEnabled()) {
+                response = productBatchLoader.loadById(id, coalescingWaitTimeoutMs);
+            } else {
+                response = productRepository.findById(id).map(productMapper::toResponse).orElse(null);
+            }
+            if (response == null) {
+                response = archivedProductRepository.findById(id).map(productMapper::toResponse).orElse(null);
+            }
+            if (response == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + id);
+            }
+            
+            productCache.put(response);
+            return response;
+        }));
+    }
+
+    private ProductResponse loadBySku(String sku) {
+        return productBySkuFlights.execute(sku, coalescingWaitTimeoutMs, () -> databaseCircuitBreaker.execute(() -> {
+            ProductResponse response;
+            if (productBatchLoader.isEnabled()) {
+                response = productBatchLoader.loadBySku(sku, coalescingWaitTimeoutMs);
+            } else {
+                response = productRepository.findBySku(sku).map(productMapper::toResponse).orElse(null);
+            }
+            if (response == null) {
+                response = archivedProductRepository.findBySku(sku).map(productMapper::toResponse).orElse(null);
+            }
+            if (response == null) {
+                productCache.putMissingSku(sku);
+                throw skuNotFound(sku);
+            }
+            
+            productCache.put(response);
+            return response;
+        }));
+    }
+
+    private void refreshById(Long id) {
+        try {
+            loadById(id);
+        } catch (ResourceNotFoundException ex) {
+            // Deleted on another instance
+            productCache.evict(id, null);
+        }
+    }
+
+    private void refreshBySku(String sku) {
+        try {
+            loadBySku(sku);
+        } catch (ResourceNotFoundException ex) {
+            productCache.evict(null, sku);
+        }
+    }
+
+    /**
+     * Answer a failed database read from a stale cache entry when the
+     * failure is the database's
+     */
+    private static ProductResponse staleOnError(StaleProduct stale, RuntimeException ex) {
+        if (stale == null || !stale.isUsableOnError() || !DatabaseCircuitBreaker.isDatabaseFailure(ex)) {
+            throw ex;
+        }
+        log.debug("Serving product {} cached {}s ago: {}", stale.getProduct().getId(), stale.getAgeMillis() / 1000,
+                ex.getMessage());
+        StaleRead.record(stale, true);
+        return stale.getProduct();
+    }
+
+    /**
+     * Get several products by ID and/or SKU. Cached products are served from
+     * the cache; the rest are loaded with {@code IN} queries of at most
+     * {@value #BATCH_QUERY_CHUNK_SIZE} keys, then from the archive. Keys that
+     * do not match a product are reported instead of failing the request.
+     * 
+     * @param ids Product IDs, may be null
+     * @param skus Product SKUs, may be null
+     * @return Products in request order and the keys that were not found
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.POINT_READ)
+    public ProductBatchGetResponse getProductsBatch(List<Long> ids, List<String> skus) {
+        log.debug("Batch fetching {} IDs and {} SKUs",
+                ids != null ? ids.size() : 0, skus != null ? skus.size() : 0);
+
+        Map<Long, ProductResponse> foundById = new HashMap<>();
+        List<Long> idMisses = new ArrayList<>();
+        for (Long id : distinct(ids)) {
+            ProductResponse cached = productCache.getById(id);
+            if (cached != null) {
+                foundById.put(id, cached);
+            } else {
+                idMisses.add(id);
+            }
+        }
+        for (List<Long> chunk : chunks(idMisses)) {
+            for (Product product : productRepository.findAllById(chunk)) {
+                ProductResponse response = productMapper.toResponse(product);
+                productCache.put(response);
+                foundById.put(product.getId(), response);
+            }
+        }
+        idMisses.removeIf(foundById::containsKey);
+        for (List<Long> chunk : chunks(idMisses)) {
+            for (ArchivedProduct product : archivedProductRepository.findAllById(chunk)) {
+                ProductResponse response = productMapper.toResponse(product);
+                productCache.put(response);
+                foundById.put(product.getId(), response);
+            }
+        }
+
+        Map<String, ProductResponse> foundBySku = new HashMap<>();
+        List<String> skuMisses = new ArrayList<>();
+        for (String sku : distinct(skus)) {
+            ProductResponse cached = productCache.getBySku(sku);
+            if (cached != null) {
+                foundBySku.put(sku, cached);
+            } else {
+                skuMisses.add(sku);
+            }
+        }
+        for (List<String> chunk : chunks(skuMisses)) {
+            for (Product product : productRepository.findBySkuIn(chunk)) {
+                ProductResponse response = productMapper.toResponse(product);
+                productCache.put(response);
+                foundBySku.put(product.getSku(), response);
+            }
+        }
+        skuMisses.removeIf(foundBySku::containsKey);
+        for (List<String> chunk : chunks(skuMisses)) {
+            for (ArchivedProduct product : archivedProductRepository.findBySkuIn(chunk)) {
+                ProductResponse response = productMapper.toResponse(product);
+                productCache.put(response);
+                foundBySku.put(product.getSku(), response);
+            }
+        }
+
+        Map<Long, ProductResponse> products = new LinkedHashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingSkus = new ArrayList<>();
+        for (Long id : distinct(ids)) {
+            ProductResponse product = foundById.get(id);
+            if (product != null) {
+                products.putIfAbsent(product.getId(), product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String sku : distinct(skus)) {
+            ProductResponse product = foundBySku.get(sku);
+            if (product != null) {
+                products.putIfAbsent(product.getId(), product);
+            } else {
+                missingSkus.add(sku);
+            }
+        }
+
+        return ProductBatchGetResponse.builder()
+                .products(new ArrayList<>(products.values()))
+                .missingIds(missingIds)
+                .missingSkus(missingSkus)
+                .build();
     }
 
     /**
      * Get all products
      * 
-     * @return List of ProductResponse DTOs
+     * @return List of ProductResponse DTOs, shared between concurrent callers
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
     public List<ProductResponse> getAllProducts() {
-        log.info("Fetching all products");
+        log.debug("Fetching all products");
         
-        return productRepository.findAll().stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        return productListFlights.execute("all", coalescingWaitTimeoutMs, () ->
+                productRepository.findAll().stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toUnmodifiableList()));
     }
 
     /**
      * Get all active products
      * 
-     * @return List of active ProductResponse DTOs
+     * @return List of active ProductResponse DTOs, shared between concurrent callers
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
     public List<ProductResponse> getActiveProducts() {
-        log.info("Fetching all active products");
+        log.debug("Fetching all active products");
         
-        return productRepository.findByIsActiveTrue().stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findActive());
+        }
+        return productListFlights.execute("active", coalescingWaitTimeoutMs, () ->
+                productRepository.findByIsActiveTrue().stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toUnmodifiableList()));
     }
 
     /**
@@ -124,65 +448,537 @@ public class ProductService {
      * @param request ProductRequest DTO
      * @return ProductResponse DTO
      * @throws ResourceNotFoundException if product not found
+     * @throws InvalidRequestException if a reorder point is both given and cleared
      */
+    @Bulkhead(Workload.WRITE)
     public ProductResponse updateProduct(Long id, ProductRequest request) {
-        log.info("Updating product with ID: {}", id);
+        log.debug("Updating product with ID: {}", id);
+        if (Boolean.TRUE.equals(request.getClearReorderPoint()) && request.getReorderPoint() != null) {
+            throw new InvalidRequestException("reorderPoint can not be given together with clearReorderPoint");
+        }
         
         Product product = productRepository.findById(id)
+                .or(() -> restoreArchived(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
 
+        boolean wasLow = lowStockAlertService.isLow(product);
         productMapper.updateEntityFromRequest(request, product);
+        product.setChangeSequence(productChangeSequence.next());
         Product updatedProduct = productRepository.save(product);
+        lowStockAlertService.recordTransition(wasLow, updatedProduct);
         
         log.info("Product updated successfully with ID: {}", updatedProduct.getId());
         
-        return productMapper.toResponse(updatedProduct);
+        ProductResponse response = productMapper.toResponse(updatedProduct);
+        publishUpsert(updatedProduct, response);
+        return response;
     }
 
     /**
-     * Delete product by ID
+     * Delete product by ID, leaving a tombstone in the change feed
      * 
      * @param id Product ID
      * @throws ResourceNotFoundException if product not found
      */
+    @Bulkhead(Workload.WRITE)
     public void deleteProduct(Long id) {
-        log.info("Deleting product with ID: {}", id);
+        log.debug("Deleting product with ID: {}", id);
         
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product not found with ID: " + id);
-        }
-        
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .or(() -> restoreArchived(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+
+        ProductTombstone tombstone = productTombstoneRepository.save(ProductTombstone.builder()
+                .productId(product.getId())
+                .sku(product.getSku())
+                .build());
+        productRepository.delete(product);
         log.info("Product deleted successfully with ID: {}", id);
+
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChange.builder()
+                .sequence(tombstone.getChangeSequence())
+                .type(ProductChange.Type.DELETE)
+                .productId(tombstone.getProductId())
+                .sku(tombstone.getSku())
+                .build(), product.getCategory()));
+    }
+
+    /**
+     * Move an archived product back to the products table. It keeps its ID
+     * and state and gets a new change sequence, so it reappears in listings
+     * and the change feed, and is not archived again before the threshold
+     * passes once more.
+     * 
+     * @param id Product ID
+     * @return ProductResponse DTO
+     * @throws ResourceNotFoundException if no archived product has the ID
+     * @throws DuplicateResourceException if a product with the same SKU was created meanwhile
+     */
+    @Bulkhead(Workload.WRITE)
+    public ProductResponse restoreProduct(Long id) {
+        log.debug("Restoring archived product with ID: {}", id);
+
+        Product product = restoreArchived(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived product not found with ID: " + id));
+        log.info("Product restored from the archive with ID: {}", id);
+
+        ProductResponse response = productMapper.toResponse(product);
+        publishUpsert(product, response);
+        return response;
+    }
+
+    /**
+     * Copy an archived product back to the products table and remove it from
+     * the archive, inside the current transaction
+     * 
+     * @param id Product ID
+     * @return Restored product with a new change sequence, or empty if not archived
+     */
+    private Optional<Product> restoreArchived(Long id) {
+        ArchivedProduct archived = archivedProductRepository.findById(id).orElse(null);
+        if (archived == null) {
+            return Optional.empty();
+        }
+        if (productRepository.existsBySku(archived.getSku())) {
+            throw duplicateSku(archived.getSku());
+        }
+        archivedProductRepository.copyToProducts(id);
+        archivedProductRepository.delete(archived);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Restored product " + id + " is missing"));
+        product.setChangeSequence(productChangeSequence.next());
+        return Optional.of(product);
+    }
+
+    /**
+     * Get catalog changes recorded after the given cursor, in change sequence order.
+     * Each product appears at most once with its latest state; deleted products
+     * appear as tombstones. Sequence values are allocated at write time, so
+     * only changes up to the {@link ProductChangeWatermark} are returned: a
+     * write that commits late is never behind a cursor already handed out.
+     * Recent changes therefore show up once the commit lag has passed.
+     * 
+     * @param since Exclusive cursor, 0 to read from the beginning
+     * @param limit Maximum number of changes to return
+     * @return Page of changes with the cursor for the next call
+     */
+    @Transactional(readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public ProductChangePage getChangesSince(long since, int limit) {
+        log.debug("Fetching product changes since: {}", since);
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGE_PAGE_SIZE));
+        long cursor = Math.max(0, since);
+        long safeSequence = productChangeWatermark.safeSequence();
+        if (safeSequence <= cursor) {
+            return ProductChangePage.builder()
+                    .changes(List.of())
+                    .nextCursor(cursor)
+                    .hasMore(false)
+                    .build();
+        }
+        PageRequest page = PageRequest.of(0, pageSize);
+
+        List<Product> upserts = productRepository
+                .findByChangeSequenceBetweenOrderByChangeSequenceAsc(cursor + 1, safeSequence, page);
+        List<ProductTombstone> tombstones = productTombstoneRepository
+                .findByChangeSequenceBetweenOrderByChangeSequenceAsc(cursor + 1, safeSequence, page);
+
+        List<ProductChange> changes = new ArrayList<>(pageSize);
+        int u = 0;
+        int t = 0;
+        while (changes.size() < pageSize && (u < upserts.size() || t < tombstones.size())) {
+            boolean takeUpsert = t >= tombstones.size() || (u < upserts.size()
+                    && upserts.get(u).getChangeSequence() < tombstones.get(t).getChangeSequence());
+            if (takeUpsert) {
+                Product product = upserts.get(u++);
+                changes.add(ProductChange.builder()
+                        .sequence(product.getChangeSequence())
+                        .type(ProductChange.Type.UPSERT)
+                        .productId(product.getId())
+                        .sku(product.getSku())
+                        .product(productMapper.toResponse(product))
+                        .build());
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                changes.add(ProductChange.builder()
+                        .sequence(tombstone.getChangeSequence())
+                        .type(ProductChange.Type.DELETE)
+                        .productId(tombstone.getProductId())
+                        .sku(tombstone.getSku())
+                        .build());
+            }
+        }
+
+        boolean hasMore = u < upserts.size() || t < tombstones.size()
+                || upserts.size() == pageSize || tombstones.size() == pageSize;
+        long nextCursor = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).getSequence();
+
+        return ProductChangePage.builder()
+                .changes(changes)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
      * Search products by name
      * 
      * @param name Search term
-     * @return List of matching ProductResponse DTOs
+     * @return List of matching ProductResponse DTOs, shared between concurrent callers
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
     public List<ProductResponse> searchProductsByName(String name) {
-        log.info("Searching products by name: {}", name);
+        log.debug("Searching products by name: {}", name);
         
-        return productRepository.searchByName(name).stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        return productListFlights.execute("name:" + name, coalescingWaitTimeoutMs, () ->
+                productRepository.searchByName(name).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * Search active products by relevance across name, brand, category and
+     * description, tolerating one typo per word. Served from the in-memory
+     * search index; until it is built, falls back to the name search.
+     * 
+     * @param query Search words
+     * @param limit Optional maximum number of results
+     * @return List of ProductResponse DTOs, most relevant first
+     * @throws InvalidRequestException if the query has no letters or digits or is too long, or the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> searchProductsRanked(String query, Integer limit) {
+        log.debug("Ranked search for products: {}", query);
+        
+        if (query == null || query.length() > MAX_SEARCH_QUERY_LENGTH || TextNormalizer.normalize(query).isEmpty()) {
+            throw new InvalidRequestException("Query must contain letters or digits and be at most "
+                    + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_SEARCH_LIMIT)) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        int top = limit != null ? limit : DEFAULT_SEARCH_LIMIT;
+        if (!productSearcher.isReady()) {
+            return searchProductsByName(query).stream()
+                    .limit(top)
+                    .toList();
+        }
+        List<Long> ids = productSearcher.search(query, top);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Batch results keep the order of the IDs
+        return getProductsBatch(ids, null).getProducts().stream()
+                .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                .toList();
+    }
+
+    /**
+     * Autocomplete: active products whose SKU, name or a word of the name
+     * starts with a prefix, ignoring case and accents, most stock first.
+     * Served from memory without a database call.
+     * 
+     * @param prefix Typed prefix
+     * @param limit Optional maximum number of suggestions
+     * @return List of suggestions
+     * @throws InvalidRequestException if the prefix has no letters or digits or is too long, or the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductSuggestion> suggestProducts(String prefix, Integer limit) {
+        String normalized = TextNormalizer.normalize(prefix);
+        if (normalized.isEmpty() || normalized.length() > MAX_SUGGEST_PREFIX_LENGTH) {
+            throw new InvalidRequestException("Prefix must contain letters or digits and be at most "
+                    + MAX_SUGGEST_PREFIX_LENGTH + " characters");
+        }
+        if (limit != null && (limit < 1 || limit > ProductSuggestIndex.MAX_RESULTS)) {
+            throw new InvalidRequestException("limit must be between 1 and " + ProductSuggestIndex.MAX_RESULTS);
+        }
+        return productSuggester.suggest(normalized, limit != null ? limit : DEFAULT_SUGGEST_LIMIT);
     }
 
     /**
      * Get products by category
      * 
      * @param category Product category
-     * @return List of ProductResponse DTOs
+     * @return List of ProductResponse DTOs, shared between concurrent callers
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
     public List<ProductResponse> getProductsByCategory(String category) {
-        log.info("Fetching products by category: {}", category);
+        log.debug("Fetching products by category: {}", category);
         
-        return productRepository.findByCategory(category).stream()
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findByCategory(category));
+        }
+        return productListFlights.execute("category:" + category, coalescingWaitTimeoutMs, () ->
+                productRepository.findByCategory(category).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * Get products priced within a range
+     * 
+     * @param minPrice Inclusive lower bound, zero if null
+     * @param maxPrice Inclusive upper bound, unbounded if null
+     * @return List of ProductResponse DTOs ordered by ID
+     * @throws InvalidRequestException if the range is negative or inverted
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        log.debug("Fetching products priced between {} and {}", minPrice, maxPrice);
+        
+        BigDecimal min = lowerPrice(minPrice);
+        BigDecimal max = upperPrice(min, maxPrice);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findByPriceBetween(toCents(min, RoundingMode.CEILING),
+                    toCents(max, RoundingMode.FLOOR)));
+        }
+        return productListFlights.execute("price:" + min.toPlainString() + ":" + max.toPlainString(),
+                coalescingWaitTimeoutMs, () ->
+                productRepository.findByPriceBetweenOrderByIdAsc(min, max).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * Get the first products of the catalog in the given order
+     * 
+     * @param sort Sort order, by ID if null
+     * @param limit Maximum number of products, {@value #DEFAULT_LIST_LIMIT} if null
+     * @return List of ProductResponse DTOs in sort order
+     * @throws InvalidRequestException if the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getAllProducts(ProductSort sort, Integer limit) {
+        ProductSort order = sort != null ? sort : ProductSort.ID;
+        int top = resolveLimit(limit);
+        log.debug("Fetching top {} products by {}", top, order);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findAll(order, top));
+        }
+        return toResponses(productRepository.findAllBy(PageRequest.of(0, top, order.toSort())));
+    }
+
+    /**
+     * Get the first active products in the given order
+     * 
+     * @param sort Sort order, by ID if null
+     * @param limit Maximum number of products, {@value #DEFAULT_LIST_LIMIT} if null
+     * @return List of ProductResponse DTOs in sort order
+     * @throws InvalidRequestException if the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getActiveProducts(ProductSort sort, Integer limit) {
+        ProductSort order = sort != null ? sort : ProductSort.ID;
+        int top = resolveLimit(limit);
+        log.debug("Fetching top {} active products by {}", top, order);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findActive(order, top));
+        }
+        return toResponses(productRepository.findByIsActiveTrue(PageRequest.of(0, top, order.toSort())));
+    }
+
+    /**
+     * Get the first products of a category in the given order
+     * 
+     * @param category Product category
+     * @param activeOnly Whether to skip inactive products
+     * @param sort Sort order, by ID if null
+     * @param limit Maximum number of products, {@value #DEFAULT_LIST_LIMIT} if null
+     * @return List of ProductResponse DTOs in sort order
+     * @throws InvalidRequestException if the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getProductsByCategory(String category, boolean activeOnly,
+                                                       ProductSort sort, Integer limit) {
+        ProductSort order = sort != null ? sort : ProductSort.ID;
+        int top = resolveLimit(limit);
+        log.debug("Fetching top {} products in category {} by {}", top, category, order);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findByCategory(category, activeOnly, order, top));
+        }
+        PageRequest page = PageRequest.of(0, top, order.toSort());
+        return toResponses(activeOnly
+                ? productRepository.findByCategoryAndIsActiveTrue(category, page)
+                : productRepository.findByCategory(category, page));
+    }
+
+    /**
+     * Get the first products priced within a range in the given order
+     * 
+     * @param minPrice Inclusive lower bound, zero if null
+     * @param maxPrice Inclusive upper bound, unbounded if null
+     * @param sort Sort order, by ID if null
+     * @param limit Maximum number of products, {@value #DEFAULT_LIST_LIMIT} if null
+     * @return List of ProductResponse DTOs in sort order
+     * @throws InvalidRequestException if the range or limit is invalid
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                         ProductSort sort, Integer limit) {
+        BigDecimal min = lowerPrice(minPrice);
+        BigDecimal max = upperPrice(min, maxPrice);
+        ProductSort order = sort != null ? sort : ProductSort.ID;
+        int top = resolveLimit(limit);
+        log.debug("Fetching top {} products priced between {} and {} by {}", top, min, max, order);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findByPriceBetween(toCents(min, RoundingMode.CEILING),
+                    toCents(max, RoundingMode.FLOOR), order, top));
+        }
+        return toResponses(productRepository.findByPriceBetween(min, max, PageRequest.of(0, top, order.toSort())));
+    }
+
+    /**
+     * Get active products with a quantity below a threshold, lowest stock first
+     * unless another order is given
+     * 
+     * @param threshold Exclusive quantity threshold, the configured default if null
+     * @param sort Sort order, by quantity if null
+     * @param limit Maximum number of products, {@value #DEFAULT_LIST_LIMIT} if null
+     * @return List of ProductResponse DTOs in sort order
+     * @throws InvalidRequestException if the limit is out of range
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public List<ProductResponse> getLowStockProducts(Integer threshold, ProductSort sort, Integer limit) {
+        int below = threshold != null ? threshold : lowStockThreshold;
+        ProductSort order = sort != null ? sort : ProductSort.QUANTITY_ASC;
+        int top = resolveLimit(limit);
+        log.debug("Fetching top {} products with quantity below {} by {}", top, below, order);
+
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return Collections.unmodifiableList(snapshot.findLowStock(below, order, top));
+        }
+        return toResponses(productRepository.findByIsActiveTrueAndQuantityLessThan(below,
+                PageRequest.of(0, top, order.toSort())));
+    }
+
+    /**
+     * Get low-stock alerts recorded after a cursor, oldest first
+     * 
+     * @param since Exclusive cursor, 0 to read from the beginning
+     * @param limit Maximum number of alerts to return
+     * @return Page of alerts with the cursor for the next call
+     */
+    @Transactional(readOnly = true)
+    @Bulkhead(Workload.LIST_READ)
+    public LowStockAlertPage getLowStockAlertsSince(long since, int limit) {
+        log.debug("Fetching low-stock alerts since: {}", since);
+        return lowStockAlertService.getAlertsSince(since, limit);
+    }
+
+    private List<ProductResponse> toResponses(List<Product> products) {
+        return products.stream()
                 .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIST_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_LIST_LIMIT);
+        }
+        return limit;
+    }
+
+    private static BigDecimal lowerPrice(BigDecimal minPrice) {
+        BigDecimal min = minPrice != null ? minPrice : BigDecimal.ZERO;
+        if (min.signum() < 0) {
+            throw new InvalidRequestException("Invalid price range: minimum " + min + " is negative");
+        }
+        return min;
+    }
+
+    private static BigDecimal upperPrice(BigDecimal min, BigDecimal maxPrice) {
+        BigDecimal max = maxPrice != null ? maxPrice.min(MAX_PRICE) : MAX_PRICE;
+        if (min.compareTo(max) > 0) {
+            throw new InvalidRequestException("Invalid price range: " + min + " to " + max);
+        }
+        return max;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(2, roundingMode).movePointRight(2).longValue();
+    }
+
+    private static <T> Set<T> distinct(List<T> keys) {
+        if (keys == null) {
+            return Collections.emptySet();
+        }
+        Set<T> distinct = new LinkedHashSet<>(keys);
+        distinct.remove(null);
+        return distinct;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> keys) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_QUERY_CHUNK_SIZE) {
+            chunks.add(keys.subList(from, Math.min(keys.size(), from + BATCH_QUERY_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Publish an upsert of the given product to in-process listeners
+     * 
+     * @param product Saved product entity
+     * @param response Response DTO of the saved product
+     */
+    private void publishUpsert(Product product, ProductResponse response) {
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChange.builder()
+                .sequence(product.getChangeSequence())
+                .type(ProductChange.Type.UPSERT)
+                .productId(product.getId())
+                .sku(product.getSku())
+                .product(response)
+                .build(), product.getCategory()));
+    }
+
+    private static DuplicateResourceException duplicateSku(String sku) {
+        return new DuplicateResourceException("Product with SKU " + sku + " already exists");
+    }
+
+    private static ResourceNotFoundException skuNotFound(String sku) {
+        return new ResourceNotFoundException("Product not found with SKU: " + sku);
+    }
+
+    /**
+     * Whether a failed write violated the unique SKU constraint. Other
+     * violations, such as a check constraint, are not duplicates. H2 reports
+     * the name of the backing index, which starts with the constraint name.
+     *
+     * @param ex Exception of the failed write
+     * @return true if the SKU is already taken
+     */
+    private static boolean violatesSkuConstraint(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(SKU_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,145 @@
+package com.deloitte.retail.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format for {@link ProductCatalogSnapshot}, used to restart from
+ * disk instead of reading the whole product table.
+ * <p>
+ * The file is a fixed 40-byte header followed by the snapshot columns:
+ * <pre>
+ *   int  magic            "RCAT"
+ *   int  format version
+ *   int  row count
+ *   int  CRC32 of the payload
+ *   long watermark        highest change sequence contained in the file
+ *   long caught up to     change sequence up to which every write is contained
+ *   long payload length
+ * </pre>
+ * Files are written to a temporary sibling and atomically renamed, so a reader
+ * never sees a partial file. They are read through a read-only memory mapping
+ * and rejected if the header, length or checksum does not match.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+final class ProductSnapshotFile {
+
+    static final int MAGIC = 0x52434154;
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 40;
+
+    private ProductSnapshotFile() {
+    }
+
+    /**
+     * Write a snapshot, replacing any existing file
+     *
+     * @param snapshot Snapshot to write
+     * @param caughtUpTo Change sequence up to which the snapshot holds every committed write
+     * @param path Target file
+     * @throws IOException if the file can not be written
+     */
+    static void write(ProductCatalogSnapshot snapshot, long caughtUpTo, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            snapshot.writeColumns(out);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(snapshot.size())
+                    .putInt((int) checked.getChecksum().getValue())
+                    .putLong(snapshot.maxChangeSequence())
+                    .putLong(caughtUpTo)
+                    .putLong(channel.position() - HEADER_BYTES)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read and verify a snapshot file
+     *
+     * @param path Snapshot file
+     * @return Snapshot and the change sequence it is caught up to
+     * @throws IOException if the file can not be read or fails verification
+     */
+    static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Snapshot file is truncated: " + fileSize + " bytes");
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file is too large to map: " + fileSize + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int magic = mapped.getInt();
+            int version = mapped.getInt();
+            int rows = mapped.getInt();
+            int checksum = mapped.getInt();
+            long watermark = mapped.getLong();
+            long caughtUpTo = mapped.getLong();
+            long payloadLength = mapped.getLong();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Unsupported snapshot file format " + Integer.toHexString(magic) + " v" + version);
+            }
+            if (payloadLength != fileSize - HEADER_BYTES) {
+                throw new IOException("Snapshot payload length " + payloadLength + " does not match file size " + fileSize);
+            }
+
+            ByteBuffer payload = mapped.slice(HEADER_BYTES, (int) payloadLength);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            ProductCatalogSnapshot snapshot = ProductCatalogSnapshot.readColumns(payload);
+            if (snapshot.size() != rows || snapshot.maxChangeSequence() != watermark) {
+                throw new IOException("Snapshot contents do not match its header");
+            }
+            return new Contents(snapshot, caughtUpTo);
+        }
+    }
+
+    /**
+     * A snapshot read from a file
+     */
+    static final class Contents {
+
+        final ProductCatalogSnapshot snapshot;
+        final long caughtUpTo;
+
+        private Contents(ProductCatalogSnapshot snapshot, long caughtUpTo) {
+            this.snapshot = snapshot;
+            this.caughtUpTo = caughtUpTo;
+        }
+    }
+}
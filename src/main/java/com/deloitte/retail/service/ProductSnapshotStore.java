@@ -0,0 +1,495 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Holds the current {@link ProductCatalogSnapshot} for catalog listings.
+ * <p>
+ * The snapshot is loaded at startup, before the warm-up and before the instance
+ * reports ready. When a snapshot file is configured, startup maps the last file
+ * written and only reads the rows changed since the sequence it was caught up
+ * to; the full table is read only if there is no usable file. The file is rewritten periodically
+ * and on shutdown. Writes committed on this instance are queued as they
+ * commit; writes of other instances are read from the change sequence every
+ * poll interval, from the {@link ProductChangeWatermark} the snapshot is
+ * caught up to. Changes are applied by a single applier thread, which drains
+ * everything pending into one copy-on-write rebuild and then swaps the
+ * reference, so readers never lock and a burst of writes costs one rebuild
+ * rather than one per write. Until the first load completes,
+ * {@link #current()} returns null and callers read from the database.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ProductSnapshotStore implements ApplicationRunner {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductChangeSequence productChangeSequence;
+    private final ProductChangeWatermark productChangeWatermark;
+    private final ProductMapper productMapper;
+    private final Queue<ProductChange> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final ExecutorService applier;
+
+    /**
+     * Recently applied deletes, so a late upsert for the same product can not
+     * bring it back into the snapshot
+     */
+    private final Cache<Long, Long> recentDeletes = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    private volatile ProductCatalogSnapshot snapshot;
+
+    /**
+     * Change sequence up to which every committed write is in the snapshot
+     */
+    private volatile long caughtUpTo;
+
+    /**
+     * Change sequence up to which the polls have read every committed write,
+     * -1 until the first poll
+     */
+    private long polledUpTo = -1L;
+
+    /**
+     * Highest change sequence the polls have read above {@link #polledUpTo}
+     */
+    private long readAhead;
+
+    /**
+     * Snapshot last written to or restored from the file
+     */
+    private volatile ProductCatalogSnapshot persisted;
+
+    @Value("${retail.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.snapshot.load-page-size:5000}")
+    private int loadPageSize;
+
+    @Value("${retail.snapshot.file.path:}")
+    private String filePath;
+
+    public ProductSnapshotStore(ProductRepository productRepository,
+                                ProductTombstoneRepository productTombstoneRepository,
+                                ProductChangeSequence productChangeSequence,
+                                ProductChangeWatermark productChangeWatermark,
+                                ProductMapper productMapper,
+                                MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productChangeSequence = productChangeSequence;
+        this.productChangeWatermark = productChangeWatermark;
+        this.productMapper = productMapper;
+        this.applier = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot-applier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("retail.snapshot.rows", this, store -> store.snapshot != null ? store.snapshot.size() : 0)
+                .description("Products held in the in-memory catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("retail.snapshot.change.sequence", this,
+                        store -> store.snapshot != null ? store.snapshot.maxChangeSequence() : 0)
+                .description("Highest change sequence applied to the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("retail.snapshot.pending", pending, Queue::size)
+                .description("Committed changes waiting to be applied to the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot
+     *
+     * @return Snapshot, or null when disabled or not loaded yet
+     */
+    public ProductCatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Load the snapshot at startup
+     *
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && !restore()) {
+            load();
+        }
+    }
+
+    /**
+     * Restore the snapshot from the file and catch it up from the database,
+     * reading every change after the sequence the file was caught up to
+     *
+     * @return true if the snapshot was restored, false if a full load is needed
+     */
+    boolean restore() {
+        Path path = snapshotPath();
+        if (path == null || !Files.exists(path)) {
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            ProductSnapshotFile.Contents contents = ProductSnapshotFile.read(path);
+            ProductCatalogSnapshot restored = contents.snapshot;
+            if (Math.max(restored.maxChangeSequence(), contents.caughtUpTo) > productChangeSequence.current()) {
+                log.warn("Catalog snapshot file {} is ahead of the database, ignoring it", path);
+                return false;
+            }
+            long safeSequence = productChangeWatermark.safeSequence();
+            Map<Long, ProductChange> changes = changesSince(contents.caughtUpTo);
+            ProductCatalogSnapshot caughtUp = restored.apply(changes);
+            persisted = restored;
+            snapshot = caughtUp;
+            caughtUpTo = Math.max(contents.caughtUpTo, safeSequence);
+            log.info("Catalog snapshot restored from {} with {} products, {} changes since sequence {}, in {}ms",
+                    path, caughtUp.size(), changes.size(), contents.caughtUpTo,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Catalog snapshot file {} is unusable, loading from the database: {}", path, ex.getMessage());
+            return false;
+        }
+        scheduleApply();
+        return true;
+    }
+
+    /**
+     * Catch up with writes committed on other instances, which publish no
+     * event here. Changes up to the change watermark are read once when it
+     * passes them, so none committing late is missed; changes above it are
+     * read once as soon as they are visible, so most writes show within one
+     * poll. Each committed row is therefore read at most twice rather than on
+     * every poll, and changes already in the snapshot are dropped when
+     * applied.
+     */
+    @Scheduled(fixedDelayString = "${retail.snapshot.poll-interval-ms:1000}",
+            initialDelayString = "${retail.snapshot.poll-interval-ms:1000}")
+    public synchronized void pollChanges() {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            long safeSequence = productChangeWatermark.safeSequence();
+            if (polledUpTo < 0) {
+                polledUpTo = caughtUpTo;
+                readAhead = caughtUpTo;
+            }
+            pending.addAll(changesBetween(polledUpTo, safeSequence).values());
+            polledUpTo = Math.max(polledUpTo, safeSequence);
+            Map<Long, ProductChange> visible = changesBetween(Math.max(readAhead, polledUpTo), Long.MAX_VALUE);
+            for (ProductChange change : visible.values()) {
+                readAhead = Math.max(readAhead, change.getSequence());
+            }
+            pending.addAll(visible.values());
+            applier.execute(() -> {
+                applyPending();
+                caughtUpTo = Math.max(caughtUpTo, safeSequence);
+            });
+        } catch (RejectedExecutionException ex) {
+            log.debug("Catalog snapshot applier is shut down");
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll product changes for the catalog snapshot: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Change sequence up to which every committed write is in
+     * {@link #current()}; read it before the snapshot
+     *
+     * @return Caught-up change sequence
+     */
+    long caughtUpTo() {
+        return caughtUpTo;
+    }
+
+    /**
+     * Latest change per product after a change sequence, read from the
+     * product and tombstone tables
+     *
+     * @param since Exclusive change sequence
+     * @return Changes by product ID
+     */
+    Map<Long, ProductChange> changesSince(long since) {
+        PageRequest page = PageRequest.of(0, loadPageSize);
+        return readChanges(since,
+                cursor -> productRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(cursor, page),
+                cursor -> productTombstoneRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(
+                        cursor, page));
+    }
+
+    /**
+     * Latest change per product in a range of change sequence values
+     *
+     * @param since Exclusive lower bound
+     * @param upTo Inclusive upper bound
+     * @return Changes by product ID
+     */
+    Map<Long, ProductChange> changesBetween(long since, long upTo) {
+        if (upTo <= since) {
+            return new HashMap<>();
+        }
+        PageRequest page = PageRequest.of(0, loadPageSize);
+        return readChanges(since,
+                cursor -> productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(
+                        cursor + 1, upTo, page),
+                cursor -> productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(
+                        cursor + 1, upTo, page));
+    }
+
+    /**
+     * Read changes page by page, each page after the last change sequence read
+     *
+     * @param since Exclusive change sequence of the first page
+     * @param productPages Products after a change sequence, in sequence order
+     * @param tombstonePages Tombstones after a change sequence, in sequence order
+     * @return Changes by product ID
+     */
+    private Map<Long, ProductChange> readChanges(long since, LongFunction<List<Product>> productPages,
+                                                 LongFunction<List<ProductTombstone>> tombstonePages) {
+        Map<Long, ProductChange> changes = new HashMap<>();
+        long cursor = since;
+        List<Product> products;
+        do {
+            products = productPages.apply(cursor);
+            for (Product product : products) {
+                cursor = product.getChangeSequence();
+                merge(changes, ProductChange.builder()
+                        .sequence(cursor)
+                        .type(ProductChange.Type.UPSERT)
+                        .productId(product.getId())
+                        .sku(product.getSku())
+                        .product(productMapper.toResponse(product))
+                        .build());
+            }
+        } while (products.size() == loadPageSize);
+
+        cursor = since;
+        List<ProductTombstone> tombstones;
+        do {
+            tombstones = tombstonePages.apply(cursor);
+            for (ProductTombstone tombstone : tombstones) {
+                cursor = tombstone.getChangeSequence();
+                merge(changes, ProductChange.builder()
+                        .sequence(cursor)
+                        .type(ProductChange.Type.DELETE)
+                        .productId(tombstone.getProductId())
+                        .sku(tombstone.getSku())
+                        .build());
+            }
+        } while (tombstones.size() == loadPageSize);
+        return changes;
+    }
+
+    /**
+     * Write the current snapshot to the file if it changed since the last
+     * write. Synchronized, as the scheduled write, the write after a load and
+     * the write on shutdown all go through the same temporary file.
+     */
+    @Scheduled(fixedDelayString = "${retail.snapshot.file.write-interval-ms:300000}",
+            initialDelayString = "${retail.snapshot.file.write-interval-ms:300000}")
+    public synchronized void persist() {
+        Path path = snapshotPath();
+        // Read before the snapshot, which already holds every write up to it
+        long cursor = caughtUpTo;
+        ProductCatalogSnapshot current = snapshot;
+        if (path == null || current == null || current == persisted) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            ProductSnapshotFile.write(current, cursor, path);
+            persisted = current;
+            log.info("Catalog snapshot with {} products written to {} in {}ms", current.size(), path,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to write catalog snapshot file {}: {}", path, ex.getMessage());
+        }
+    }
+
+    private Path snapshotPath() {
+        return filePath == null || filePath.isBlank() ? null : Path.of(filePath.trim());
+    }
+
+    /**
+     * Build a snapshot from the product table, reading it in ID order one page
+     * at a time, then apply any change committed meanwhile
+     */
+    void load() {
+        long started = System.nanoTime();
+        // Writes up to the watermark have committed, so the scan sees them
+        long safeSequence = productChangeWatermark.safeSequence();
+        ProductCatalogSnapshot.Builder builder = new ProductCatalogSnapshot.Builder((int) productRepository.count());
+        long lastId = 0L;
+        while (true) {
+            List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, loadPageSize));
+            for (Product product : page) {
+                builder.addRow(productMapper.toResponse(product),
+                        product.getChangeSequence() != null ? product.getChangeSequence() : 0L);
+                lastId = product.getId();
+            }
+            if (page.size() < loadPageSize) {
+                break;
+            }
+        }
+        snapshot = builder.build();
+        caughtUpTo = safeSequence;
+        log.info("Catalog snapshot loaded with {} products in {}ms", snapshot.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        if (snapshotPath() != null) {
+            applier.execute(this::persist);
+        }
+        scheduleApply();
+    }
+
+    /**
+     * Queue a committed product change for the snapshot
+     *
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        pending.add(event.getChange());
+        scheduleApply();
+    }
+
+    /**
+     * Queue the removal of archived products; listings only cover the
+     * products table
+     *
+     * @param event Products archived event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsArchived(ProductsArchivedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (ProductTombstone tombstone : event.getTombstones()) {
+            pending.add(ProductChange.builder()
+                    .sequence(tombstone.getChangeSequence())
+                    .type(ProductChange.Type.DELETE)
+                    .productId(tombstone.getProductId())
+                    .sku(tombstone.getSku())
+                    .build());
+        }
+        scheduleApply();
+    }
+
+    private void scheduleApply() {
+        if (snapshot != null && applyScheduled.compareAndSet(false, true)) {
+            try {
+                applier.execute(this::applyPending);
+            } catch (RejectedExecutionException ex) {
+                applyScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Drain all pending changes into a single new snapshot
+     */
+    void applyPending() {
+        applyScheduled.set(false);
+        Map<Long, ProductChange> latest = new HashMap<>();
+        ProductChange change;
+        while ((change = pending.poll()) != null) {
+            if (change.getProductId() != null && !isDeletedAfter(change)) {
+                merge(latest, change);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        try {
+            snapshot = snapshot.apply(latest);
+        } catch (RuntimeException ex) {
+            log.error("Failed to apply {} changes to the catalog snapshot, reloading", latest.size(), ex);
+            load();
+            return;
+        }
+        latest.values().stream()
+                .filter(applied -> applied.getType() == ProductChange.Type.DELETE)
+                .forEach(applied -> recentDeletes.put(applied.getProductId(), applied.getSequence()));
+        if (!pending.isEmpty()) {
+            scheduleApply();
+        }
+    }
+
+    private static void merge(Map<Long, ProductChange> changes, ProductChange change) {
+        changes.merge(change.getProductId(), change,
+                (current, candidate) -> candidate.getSequence() > current.getSequence() ? candidate : current);
+    }
+
+    private boolean isDeletedAfter(ProductChange change) {
+        Long deletedAt = recentDeletes.getIfPresent(change.getProductId());
+        return deletedAt != null && deletedAt >= change.getSequence();
+    }
+
+    /**
+     * Let the applier finish the changes already queued, then write the
+     * snapshot, so the file holds every change applied before shutdown
+     */
+    @PreDestroy
+    void stop() {
+        applier.shutdown();
+        try {
+            if (!applier.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Catalog snapshot applier did not finish within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+                applier.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            applier.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        persist();
+    }
+}
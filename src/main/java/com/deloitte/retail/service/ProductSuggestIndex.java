@@ -0,0 +1,410 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable prefix index for product autocomplete.
+ * <p>
+ * Every active product is indexed under its normalized SKU, its normalized
+ * name and each word of the name onwards, so "phone" matches "Smart Phone".
+ * Keys are held in one sorted array and a prefix is resolved to a contiguous
+ * key range by binary search. Short, common prefixes match too many keys to
+ * rank per request, so the best {@link #MAX_RESULTS} products of every prefix
+ * matching more than {@code scanLimit} keys are ranked when the index is
+ * built; together these form the upper levels of a trie with the top
+ * completions stored on each node. Every other prefix ranks at most
+ * {@code scanLimit} keys, which keeps lookups within microseconds.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+final class ProductSuggestIndex {
+
+    static final int MAX_RESULTS = 50;
+
+    /**
+     * Words of a name indexed beyond the first
+     */
+    private static final int MAX_WORD_KEYS = 8;
+
+    /**
+     * Most stock first, then lowest ID
+     */
+    static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::getWeight).reversed()
+            .thenComparingLong(Entry::getId);
+
+    private static final Comparator<KeyEntry> KEY_ORDER = Comparator.comparing(KeyEntry::getKey);
+
+    private static final ProductSuggestIndex EMPTY = build(List.of(), 1);
+
+    private final Entry[] entriesById;
+    private final long[] ids;
+
+    /**
+     * Entries in ranking order; elsewhere products are referred to by their
+     * position here, so ranking a key range is sorting ints
+     */
+    private final Entry[] entriesByRank;
+    private final String[] keys;
+    private final Entry[] keyEntries;
+    private final int[] keyRanks;
+    private final Map<String, int[]> topByPrefix = new HashMap<>();
+    private final int scanLimit;
+
+    private ProductSuggestIndex(Entry[] entriesById, String[] keys, Entry[] keyEntries, int scanLimit) {
+        this.entriesById = entriesById;
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.scanLimit = scanLimit;
+        this.ids = new long[entriesById.length];
+        for (int i = 0; i < entriesById.length; i++) {
+            ids[i] = entriesById[i].getId();
+        }
+        this.entriesByRank = entriesById.clone();
+        Arrays.sort(entriesByRank, RANKING);
+        this.keyRanks = new int[keys.length];
+        long minId = ids.length > 0 ? ids[0] : 0L;
+        long span = ids.length > 0 ? ids[ids.length - 1] - minId + 1 : 0L;
+        if (span <= 4L * ids.length) {
+            // IDs are dense, index ranks by ID directly
+            int[] rankById = new int[(int) span];
+            for (int rank = 0; rank < entriesByRank.length; rank++) {
+                rankById[(int) (entriesByRank[rank].getId() - minId)] = rank;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                keyRanks[i] = rankById[(int) (keyEntries[i].getId() - minId)];
+            }
+        } else {
+            int[] rankByPosition = new int[ids.length];
+            for (int rank = 0; rank < entriesByRank.length; rank++) {
+                rankByPosition[Arrays.binarySearch(ids, entriesByRank[rank].getId())] = rank;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                keyRanks[i] = rankByPosition[Arrays.binarySearch(ids, keyEntries[i].getId())];
+            }
+        }
+        rankCommonPrefixes(0, keys.length, 0);
+    }
+
+    static ProductSuggestIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build an index
+     *
+     * @param entries Latest state of every product, active or not
+     * @param scanLimit Largest key range ranked per request
+     * @return Index
+     */
+    static ProductSuggestIndex build(Collection<Entry> entries, int scanLimit) {
+        Entry[] byId = entries.toArray(new Entry[0]);
+        Arrays.sort(byId, Comparator.comparingLong(Entry::getId));
+        KeyEntry[] sorted = keyEntriesOf(Arrays.asList(byId));
+        Arrays.parallelSort(sorted, KEY_ORDER);
+        String[] keys = new String[sorted.length];
+        Entry[] keyEntries = new Entry[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i].getKey();
+            keyEntries[i] = sorted[i].getEntry();
+        }
+        return new ProductSuggestIndex(byId, keys, keyEntries, scanLimit);
+    }
+
+    /**
+     * Build a new index with some products replaced. Keys of unchanged
+     * products are already sorted, so only the changed keys are sorted and
+     * merged in.
+     *
+     * @param changes Latest state of the changed products; deleted products are dropped
+     * @return Index
+     */
+    ProductSuggestIndex withChanges(Collection<Entry> changes) {
+        Map<Long, Entry> changed = new HashMap<>();
+        for (Entry entry : changes) {
+            changed.put(entry.getId(), entry);
+        }
+
+        List<Entry> byId = new ArrayList<>(entriesById.length + changed.size());
+        for (Entry entry : entriesById) {
+            if (!changed.containsKey(entry.getId())) {
+                byId.add(entry);
+            }
+        }
+        List<Entry> current = changed.values().stream().filter(entry -> !entry.isDeleted()).toList();
+        byId.addAll(current);
+        byId.sort(Comparator.comparingLong(Entry::getId));
+
+        KeyEntry[] added = keyEntriesOf(current);
+        Arrays.sort(added, KEY_ORDER);
+        String[] mergedKeys = new String[keys.length + added.length];
+        Entry[] mergedEntries = new Entry[mergedKeys.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (changed.containsKey(keyEntries[i].getId())) {
+                continue;
+            }
+            while (next < added.length && added[next].getKey().compareTo(keys[i]) < 0) {
+                mergedKeys[size] = added[next].getKey();
+                mergedEntries[size++] = added[next++].getEntry();
+            }
+            mergedKeys[size] = keys[i];
+            mergedEntries[size++] = keyEntries[i];
+        }
+        while (next < added.length) {
+            mergedKeys[size] = added[next].getKey();
+            mergedEntries[size++] = added[next++].getEntry();
+        }
+        return new ProductSuggestIndex(byId.toArray(new Entry[0]), Arrays.copyOf(mergedKeys, size),
+                Arrays.copyOf(mergedEntries, size), scanLimit);
+    }
+
+    private static KeyEntry[] keyEntriesOf(Collection<Entry> entries) {
+        List<KeyEntry> keyed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isActive()) {
+                for (String key : entry.getKeys()) {
+                    keyed.add(new KeyEntry(key, entry));
+                }
+            }
+        }
+        return keyed.toArray(new KeyEntry[0]);
+    }
+
+    /**
+     * Rank every prefix matching more than {@code scanLimit} keys within a
+     * key range sharing its first {@code depth} characters. Works bottom-up
+     * like a trie: the range is split by the next character, and the ranking
+     * of a common prefix is merged from the rankings of its children, so each
+     * key is ranked once.
+     *
+     * @return Ranks of the best products of the range
+     */
+    private int[] rankCommonPrefixes(int from, int to, int depth) {
+        int[] candidates = new int[Math.min(to - from, 64)];
+        int count = 0;
+        int start = from;
+        while (start < to && keys[start].length() == depth) {
+            candidates = append(candidates, count++, keyRanks[start++]);
+        }
+        while (start < to) {
+            char next = keys[start].charAt(depth);
+            int end = start + 1;
+            while (end < to && keys[end].charAt(depth) == next) {
+                end++;
+            }
+            int[] child = end - start > scanLimit
+                    ? rankCommonPrefixes(start, end, depth + 1)
+                    : rank(start, end, MAX_RESULTS, id -> false);
+            for (int rank : child) {
+                candidates = append(candidates, count++, rank);
+            }
+            start = end;
+        }
+        int[] ranked = distinctSmallest(candidates, count, MAX_RESULTS);
+        if (depth > 0) {
+            topByPrefix.put(keys[from].substring(0, depth), ranked);
+        }
+        return ranked;
+    }
+
+    /**
+     * Best products matching a normalized prefix
+     *
+     * @param prefix Normalized prefix
+     * @param limit Maximum number of products, at most {@link #MAX_RESULTS}
+     * @param excluded Products to leave out
+     * @return Matching products in ranking order
+     */
+    List<Entry> suggest(String prefix, int limit, LongPredicate excluded) {
+        List<Entry> results = new ArrayList<>(limit);
+        int[] ranked = topByPrefix.get(prefix);
+        if (ranked != null) {
+            for (int rank : ranked) {
+                Entry entry = entriesByRank[rank];
+                if (!excluded.test(entry.getId())) {
+                    results.add(entry);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+            if (results.size() == ranked.length) {
+                return results;
+            }
+            results.clear();
+        }
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < keys.length && keys[to].startsWith(prefix)) {
+            to++;
+        }
+        for (int rank : rank(from, to, limit, excluded)) {
+            results.add(entriesByRank[rank]);
+        }
+        return results;
+    }
+
+    /**
+     * Change sequence of the indexed state of a product
+     *
+     * @param id Product ID
+     * @return Change sequence, or -1 if the product is not indexed
+     */
+    long sequenceOf(long id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? entriesById[position].getSequence() : -1L;
+    }
+
+    int size() {
+        return entriesById.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ranks of the best distinct products of a key range
+     */
+    private int[] rank(int from, int to, int limit, LongPredicate excluded) {
+        int[] ranks = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (!excluded.test(keyEntries[i].getId())) {
+                ranks[count++] = keyRanks[i];
+            }
+        }
+        return distinctSmallest(ranks, count, limit);
+    }
+
+    /**
+     * Smallest distinct values; keys of the same product share its rank, so
+     * duplicates are adjacent once sorted
+     */
+    private static int[] distinctSmallest(int[] values, int count, int limit) {
+        Arrays.sort(values, 0, count);
+        int[] smallest = new int[Math.min(count, limit)];
+        int size = 0;
+        for (int i = 0; i < count && size < smallest.length; i++) {
+            if (size == 0 || values[i] != smallest[size - 1]) {
+                smallest[size++] = values[i];
+            }
+        }
+        return size == smallest.length ? smallest : Arrays.copyOf(smallest, size);
+    }
+
+    private static int[] append(int[] values, int index, int value) {
+        int[] target = index < values.length ? values : Arrays.copyOf(values, Math.max(16, values.length * 2));
+        target[index] = value;
+        return target;
+    }
+
+    /**
+     * Index state of a product
+     *
+     * @param product Product state
+     * @return Entry ranked by stock
+     */
+    static Entry entryOf(ProductResponse product) {
+        boolean active = Boolean.TRUE.equals(product.getIsActive());
+        return new Entry(product.getId(),
+                product.getChangeSequence() != null ? product.getChangeSequence() : 0L,
+                product.getSku(), product.getName(), product.getCategory(),
+                product.getQuantity() != null ? Math.max(0, product.getQuantity()) : 0,
+                active, active ? keysOf(product.getSku(), product.getName()) : new String[0]);
+    }
+
+    /**
+     * State of a deleted product
+     *
+     * @param id Product ID
+     * @param sequence Change sequence of the delete
+     * @return Inactive entry
+     */
+    static Entry deletedEntry(long id, long sequence) {
+        return new Entry(id, sequence, null, null, null, 0, false, new String[0]);
+    }
+
+    private static String[] keysOf(String sku, String name) {
+        Set<String> keys = new HashSet<>();
+        String normalizedSku = TextNormalizer.normalize(sku);
+        if (!normalizedSku.isEmpty()) {
+            keys.add(normalizedSku);
+        }
+        String normalizedName = TextNormalizer.normalize(name);
+        if (!normalizedName.isEmpty()) {
+            keys.add(normalizedName);
+            int words = 0;
+            for (int i = normalizedName.indexOf(' '); i >= 0 && words < MAX_WORD_KEYS;
+                 i = normalizedName.indexOf(' ', i + 1)) {
+                keys.add(normalizedName.substring(i + 1));
+                words++;
+            }
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * Indexed state of one product
+     */
+    @Value
+    static class Entry {
+
+        long id;
+        long sequence;
+        String sku;
+        String name;
+        String category;
+        int weight;
+        boolean active;
+
+        /**
+         * Normalized keys the product is found under; empty when inactive
+         */
+        String[] keys;
+
+        boolean isDeleted() {
+            return sku == null;
+        }
+
+        boolean matches(String prefix) {
+            for (String key : keys) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Value
+    private static class KeyEntry {
+
+        String key;
+        Entry entry;
+    }
+}
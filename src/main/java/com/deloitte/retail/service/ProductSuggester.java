@@ -0,0 +1,296 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductSuggestion;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves product autocomplete from an in-memory {@link ProductSuggestIndex}.
+ * <p>
+ * The index is built at startup from the catalog snapshot, or from the
+ * database when the snapshot is disabled. Committed writes go to a small
+ * overlay that queries merge with the index, so a write is visible at once
+ * without rebuilding anything; a background thread folds the overlay into a
+ * new index once it grows or ages. Writes committed before the index is
+ * built wait in the overlay as well. Writes of other instances are read from
+ * the change sequence every poll interval, up to the
+ * {@link ProductChangeWatermark}. Suggestions are ranked by stock.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Slf4j
+public class ProductSuggester implements ApplicationRunner {
+
+    private final ProductSnapshotStore productSnapshotStore;
+    private final ProductRepository productRepository;
+    private final ProductChangeWatermark productChangeWatermark;
+    private final ProductMapper productMapper;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactScheduled = new AtomicBoolean();
+
+    /**
+     * Product states written since the index was built, by product ID
+     */
+    private final Map<Long, ProductSuggestIndex.Entry> overlay = new ConcurrentHashMap<>();
+
+    /**
+     * Recently compacted deletes, so a late upsert can not bring a product back
+     */
+    private final Cache<Long, Long> recentDeletes = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    private volatile ProductSuggestIndex index;
+
+    /**
+     * Change sequence up to which every committed write is in the index or
+     * the overlay
+     */
+    private volatile long caughtUpTo;
+
+    @Value("${retail.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.suggest.scan-limit:512}")
+    private int scanLimit;
+
+    @Value("${retail.suggest.compact-threshold:1000}")
+    private int compactThreshold;
+
+    @Value("${retail.snapshot.load-page-size:5000}")
+    private int loadPageSize;
+
+    public ProductSuggester(ProductSnapshotStore productSnapshotStore,
+                            ProductRepository productRepository,
+                            ProductChangeWatermark productChangeWatermark,
+                            ProductMapper productMapper,
+                            MeterRegistry meterRegistry) {
+        this.productSnapshotStore = productSnapshotStore;
+        this.productRepository = productRepository;
+        this.productChangeWatermark = productChangeWatermark;
+        this.productMapper = productMapper;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-suggest-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("retail.suggest.products", this, suggester -> suggester.index != null ? suggester.index.size() : 0)
+                .description("Products held in the autocomplete index")
+                .register(meterRegistry);
+        Gauge.builder("retail.suggest.overlay", overlay, Map::size)
+                .description("Product writes not yet folded into the autocomplete index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the index at startup
+     *
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Best products whose SKU, name or a word of the name starts with a prefix
+     *
+     * @param prefix Normalized prefix, not empty
+     * @param limit Maximum number of suggestions, at most {@link ProductSuggestIndex#MAX_RESULTS}
+     * @return Suggestions, most stock first; empty until the index is built
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        ProductSuggestIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        List<ProductSuggestIndex.Entry> candidates = new ArrayList<>(current.suggest(prefix, limit, overlay::containsKey));
+        for (ProductSuggestIndex.Entry entry : overlay.values()) {
+            if (entry.isActive() && entry.matches(prefix)) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(ProductSuggestIndex.RANKING);
+        return candidates.stream()
+                .limit(limit)
+                .map(entry -> ProductSuggestion.builder()
+                        .id(entry.getId())
+                        .sku(entry.getSku())
+                        .name(entry.getName())
+                        .category(entry.getCategory())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Add committed product writes to the overlay, also before the index is
+     * built so the build can not miss them
+     *
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            apply(event.getChange());
+        }
+    }
+
+    /**
+     * Add writes committed on other instances, which publish no event here.
+     * Every change above the caught-up sequence is read, and that sequence
+     * only moves to the change watermark taken before the read, so a write
+     * that commits late is read by a later poll.
+     */
+    @Scheduled(fixedDelayString = "${retail.suggest.poll-interval-ms:1000}",
+            initialDelayString = "${retail.suggest.poll-interval-ms:1000}")
+    public void pollChanges() {
+        if (!enabled || index == null) {
+            return;
+        }
+        try {
+            long safeSequence = productChangeWatermark.safeSequence();
+            productSnapshotStore.changesSince(caughtUpTo).values().forEach(this::apply);
+            caughtUpTo = Math.max(caughtUpTo, safeSequence);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll product changes for the autocomplete index: {}", ex.getMessage());
+        }
+    }
+
+    private void apply(ProductChange change) {
+        if (change.getProductId() == null) {
+            return;
+        }
+        ProductSuggestIndex.Entry entry = change.getType() == ProductChange.Type.UPSERT && change.getProduct() != null
+                ? ProductSuggestIndex.entryOf(change.getProduct())
+                : ProductSuggestIndex.deletedEntry(change.getProductId(), change.getSequence());
+        ProductSuggestIndex current = index;
+        Long deletedAt = recentDeletes.getIfPresent(entry.getId());
+        if ((current != null && entry.getSequence() <= current.sequenceOf(entry.getId()))
+                || (deletedAt != null && deletedAt >= entry.getSequence())) {
+            return;
+        }
+        overlay.merge(entry.getId(), entry,
+                (existing, candidate) -> candidate.getSequence() > existing.getSequence() ? candidate : existing);
+        if (overlay.size() >= compactThreshold) {
+            scheduleCompact();
+        }
+    }
+
+    /**
+     * Fold aged overlay entries into the index
+     */
+    @Scheduled(fixedDelayString = "${retail.suggest.compact-interval-ms:60000}",
+            initialDelayString = "${retail.suggest.compact-interval-ms:60000}")
+    public void compactPeriodically() {
+        if (!overlay.isEmpty()) {
+            scheduleCompact();
+        }
+    }
+
+    private void scheduleCompact() {
+        if (compactScheduled.compareAndSet(false, true)) {
+            try {
+                compactor.execute(this::compact);
+            } catch (RejectedExecutionException ex) {
+                compactScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Merge the overlay into a new index, then drop the overlay entries it
+     * contains. Entries replaced during the merge stay.
+     */
+    void compact() {
+        compactScheduled.set(false);
+        ProductSuggestIndex current = index;
+        if (current == null || overlay.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        Map<Long, ProductSuggestIndex.Entry> captured = new HashMap<>(overlay);
+        index = current.withChanges(captured.values());
+        captured.values().stream()
+                .filter(ProductSuggestIndex.Entry::isDeleted)
+                .forEach(entry -> recentDeletes.put(entry.getId(), entry.getSequence()));
+        captured.forEach(overlay::remove);
+        log.debug("Autocomplete index rebuilt with {} writes in {}ms", captured.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Build the index from the catalog snapshot, or page through the product
+     * table when the snapshot is not loaded. Overlay entries the index
+     * already holds are dropped.
+     */
+    void load() {
+        long started = System.nanoTime();
+        List<ProductSuggestIndex.Entry> entries = new ArrayList<>();
+        long safeSequence = productSnapshotStore.caughtUpTo();
+        ProductCatalogSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot == null) {
+            safeSequence = productChangeWatermark.safeSequence();
+        }
+        if (snapshot != null) {
+            for (int row = 0; row < snapshot.size(); row++) {
+                entries.add(ProductSuggestIndex.entryOf(snapshot.toResponse(row)));
+            }
+        } else {
+            long lastId = 0L;
+            List<Product> page;
+            do {
+                page = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, loadPageSize));
+                for (Product product : page) {
+                    entries.add(ProductSuggestIndex.entryOf(productMapper.toResponse(product)));
+                    lastId = product.getId();
+                }
+            } while (page.size() == loadPageSize);
+        }
+        ProductSuggestIndex built = ProductSuggestIndex.build(entries, scanLimit);
+        overlay.values().removeIf(entry -> entry.getSequence() <= built.sequenceOf(entry.getId()));
+        caughtUpTo = Math.max(caughtUpTo, safeSequence);
+        index = built;
+        log.info("Autocomplete index built with {} products in {}ms", entries.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @PreDestroy
+    void stop() {
+        compactor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.ProductTombstone;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Application event published by {@link ProductArchiver} when products move
+ * to the archive. The products have not changed, so no change event is
+ * published for them; only views of the products table need to drop them.
+ * Each move leaves a tombstone, so other instances drop them too when they
+ * catch up from the tombstone table.
+ * 
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Value
+public class ProductsArchivedEvent {
+
+    /**
+     * One tombstone per archived product, with the change sequence value
+     * allocated for its move; later writes to the same product, such as a
+     * restore, have higher values
+     */
+    List<ProductTombstone> tombstones;
+}
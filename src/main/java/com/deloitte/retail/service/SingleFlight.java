@@ -0,0 +1,83 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.exception.ServiceUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one execution. The first
+ * caller runs the loader; callers arriving while it is in flight wait for and
+ * share its result or its exception. Nothing is cached once the call completes.
+ * 
+ * @param <K> Key type
+ * @param <V> Result type
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the loader, or join the call already in flight for the key
+     * 
+     * @param key Call key
+     * @param timeoutMs Maximum time a joining caller waits, 0 to wait indefinitely
+     * @param loader Loader run by the first caller
+     * @return Loaded value
+     * @throws ServiceUnavailableException if a joining caller times out
+     */
+    public V execute(K key, long timeoutMs, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing, timeoutMs);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Number of calls currently in flight
+     * 
+     * @return In-flight call count
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call, long timeoutMs) {
+        try {
+            return timeoutMs > 0 ? call.get(timeoutMs, TimeUnit.MILLISECONDS) : call.get();
+        } catch (TimeoutException ex) {
+            throw new ServiceUnavailableException("Timed out waiting for a concurrent identical request", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted waiting for a concurrent identical request", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
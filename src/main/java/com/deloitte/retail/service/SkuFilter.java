@@ -0,0 +1,220 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory Bloom filter over all product SKUs, so lookups of SKUs that do
+ * not exist are answered without a database call.
+ * <p>
+ * The filter is built at startup from a SKU-only scan of the product and
+ * archive tables and rebuilt periodically, which also drops SKUs of deleted
+ * products. SKUs
+ * are added when this instance creates a product, and products written by
+ * other instances are picked up by polling the change sequence up to the
+ * {@link ProductChangeWatermark}. A Bloom filter
+ * never reports an added SKU as absent, so only {@link #definitelyAbsent}
+ * answers are trusted; until the first build completes every SKU is treated as
+ * possibly present.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class SkuFilter implements ApplicationRunner {
+
+    private final ProductRepository productRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final ProductChangeWatermark productChangeWatermark;
+    private final Counter rejections;
+
+    private volatile SkuBloomFilter filter;
+
+    /**
+     * Filter being rebuilt; SKUs added meanwhile go to both filters
+     */
+    private volatile SkuBloomFilter building;
+
+    /**
+     * Change sequence up to which every write is in the filter
+     */
+    private long pollCursor;
+
+    @Value("${retail.sku-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.sku-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${retail.sku-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${retail.sku-filter.page-size:10000}")
+    private int pageSize;
+
+    public SkuFilter(ProductRepository productRepository, ArchivedProductRepository archivedProductRepository,
+                     ProductChangeWatermark productChangeWatermark, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.archivedProductRepository = archivedProductRepository;
+        this.productChangeWatermark = productChangeWatermark;
+        this.rejections = Counter.builder("retail.sku.filter.rejections")
+                .description("SKU lookups answered as not found without a database call")
+                .register(meterRegistry);
+        Gauge.builder("retail.sku.filter.bits", this, skuFilter -> skuFilter.filter != null ? skuFilter.filter.bitSize() : 0)
+                .description("Size of the SKU Bloom filter in bits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a SKU certainly does not belong to any product
+     *
+     * @param sku Product SKU
+     * @return true if no product has the SKU; false if one may have it or the
+     *         filter is not built
+     */
+    public boolean definitelyAbsent(String sku) {
+        SkuBloomFilter current = filter;
+        if (sku == null || current == null || current.mightContain(sku)) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    /**
+     * Add the SKU of a product written on this instance
+     *
+     * @param sku Product SKU
+     */
+    public void add(String sku) {
+        if (sku == null) {
+            return;
+        }
+        SkuBloomFilter current = filter;
+        if (current != null) {
+            current.put(sku);
+        }
+        SkuBloomFilter next = building;
+        if (next != null) {
+            next.put(sku);
+        }
+    }
+
+    /**
+     * Add the SKUs of committed product writes
+     *
+     * @param event Product change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChange change = event.getChange();
+        if (change.getType() == ProductChange.Type.UPSERT) {
+            add(change.getSku());
+        }
+    }
+
+    /**
+     * Build the filter at startup
+     *
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replace the filter with one built from the product and archive tables.
+     * The new filter is published before the scan, so SKUs committed during
+     * the scan are added to it as well, and every write up to the watermark
+     * taken before the scan has committed in time to be read by it.
+     */
+    @Scheduled(fixedDelayString = "${retail.sku-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${retail.sku-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long safe = productChangeWatermark.safeSequence();
+        long count = productRepository.count() + archivedProductRepository.count();
+        SkuBloomFilter next = new SkuBloomFilter(Math.max(expectedInsertions, count * 2), falsePositiveRate);
+        building = next;
+        try {
+            long lastId = 0L;
+            List<ProductRepository.SkuView> page;
+            do {
+                page = productRepository.findSkusByIdGreaterThan(lastId, PageRequest.of(0, pageSize));
+                for (ProductRepository.SkuView view : page) {
+                    next.put(view.getSku());
+                    lastId = view.getId();
+                }
+            } while (page.size() == pageSize);
+            lastId = 0L;
+            do {
+                page = archivedProductRepository.findSkusByIdGreaterThan(lastId, PageRequest.of(0, pageSize));
+                for (ProductRepository.SkuView view : page) {
+                    next.put(view.getSku());
+                    lastId = view.getId();
+                }
+            } while (page.size() == pageSize);
+            pollCursor = Math.max(pollCursor, safe);
+            filter = next;
+            log.info("SKU filter built with {} products, {} bits and {} hashes in {}ms", count, next.bitSize(),
+                    next.hashCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to build the SKU filter, keeping the previous one: {}", ex.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Add SKUs of products written by other instances. Sequence values are
+     * allocated before commit, so the cursor only advances to the watermark
+     * taken before the read; writes above it are read again by the next poll.
+     */
+    @Scheduled(fixedDelayString = "${retail.sku-filter.poll-interval-ms:1000}",
+            initialDelayString = "${retail.sku-filter.poll-interval-ms:1000}")
+    public synchronized void pollWrites() {
+        if (filter == null) {
+            return;
+        }
+        try {
+            long safe = productChangeWatermark.safeSequence();
+            long cursor = pollCursor;
+            List<ProductRepository.SkuView> page;
+            do {
+                page = productRepository.findSkusByChangeSequenceGreaterThan(cursor, PageRequest.of(0, pageSize));
+                for (ProductRepository.SkuView view : page) {
+                    add(view.getSku());
+                    cursor = view.getChangeSequence();
+                }
+            } while (page.size() == pageSize);
+            pollCursor = Math.max(pollCursor, safe);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll product writes for the SKU filter: {}", ex.getMessage());
+        }
+    }
+}
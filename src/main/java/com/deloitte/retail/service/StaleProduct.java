@@ -0,0 +1,27 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import lombok.Value;
+
+/**
+ * Cached product past its freshness TTL
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Value
+public class StaleProduct {
+
+    ProductResponse product;
+    long ageMillis;
+
+    /**
+     * Young enough to return at once while a refresh runs
+     */
+    boolean revalidatable;
+
+    /**
+     * Young enough to return when the database can not answer
+     */
+    boolean usableOnError;
+}
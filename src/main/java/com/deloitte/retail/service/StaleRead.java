@@ -0,0 +1,51 @@
+package com.deloitte.retail.service;
+
+import lombok.Value;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Marks the current request as answered from a stale cache entry, so the
+ * controller can tell the client through {@code Warning} and {@code Age}
+ * headers. Outside a web request nothing is recorded.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Value
+public class StaleRead {
+
+    private static final String ATTRIBUTE = StaleRead.class.getName();
+
+    long ageSeconds;
+
+    /**
+     * The database could not be read, as opposed to a refresh running in
+     * the background
+     */
+    boolean revalidationFailed;
+
+    /**
+     * Record that the current request is answered from a stale entry
+     *
+     * @param stale Stale cache entry
+     * @param revalidationFailed Whether the database could not be read
+     */
+    public static void record(StaleProduct stale, boolean revalidationFailed) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, new StaleRead(stale.getAgeMillis() / 1000, revalidationFailed),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Stale read recorded for the current request
+     *
+     * @return Stale read, or null if the response is fresh
+     */
+    public static StaleRead current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? (StaleRead) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.deloitte.retail.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization shared by the in-memory product indexes, so indexed
+ * text and queries are compared in the same form.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalize text: accents removed, lower case, and runs of anything but
+     * letters and digits replaced by one space
+     *
+     * @param text Text to normalize, may be null
+     * @return Normalized text, empty if nothing is left
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Split text into normalized words
+     *
+     * @param text Text to split, may be null
+     * @param maxTokens Maximum number of words returned
+     * @return Words in text order
+     */
+    static List<String> tokens(String text, int maxTokens) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length() && tokens.size() < maxTokens) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            tokens.add(normalized.substring(start, end));
+            start = end + 1;
+        }
+        return tokens;
+    }
+}
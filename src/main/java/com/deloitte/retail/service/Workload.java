@@ -0,0 +1,41 @@
+package com.deloitte.retail.service;
+
+/**
+ * Classes of product work that get separate concurrency, connection and
+ * query time budgets, so a burst of one can not starve the others
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+public enum Workload {
+
+    /**
+     * Lookups of single products or small batches by key
+     */
+    POINT_READ("point-read"),
+
+    /**
+     * Listings and searches that may scan many rows
+     */
+    LIST_READ("list-read"),
+
+    /**
+     * Creates, updates and deletes
+     */
+    WRITE("write");
+
+    private final String key;
+
+    Workload(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Name used in configuration keys and metric tags
+     *
+     * @return Key such as {@code point-read}
+     */
+    public String getKey() {
+        return key;
+    }
+}
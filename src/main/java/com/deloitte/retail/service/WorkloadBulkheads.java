@@ -0,0 +1,240 @@
+package com.deloitte.retail.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Separate budgets for each {@link Workload}, so a flood of slow list reads
+ * can not take the threads and connections point reads and writes need.
+ * <p>
+ * Each workload has a number of calls that may run at once, a number of
+ * database connections those calls may hold at once, and a query timeout
+ * applied to every statement they run. A call that finds a budget used up
+ * fails at once with {@link BulkheadFullException} rather than queueing.
+ * The workload of a call is bound to its thread, so nested calls count once
+ * and work on threads outside any call, such as startup and background
+ * jobs, is not limited. Background threads that read on behalf of a
+ * workload, such as cache refreshes and batched lookups, {@link #bind} to it
+ * so their statements share its connection budget and query timeout.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class WorkloadBulkheads {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Workload, Budget> budgets = new EnumMap<>(Workload.class);
+
+    @Value("${retail.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retail.bulkhead.point-read.max-concurrent:200}")
+    private int pointReadMaxConcurrent;
+
+    @Value("${retail.bulkhead.point-read.max-connections:8}")
+    private int pointReadMaxConnections;
+
+    @Value("${retail.bulkhead.point-read.query-timeout-ms:2000}")
+    private long pointReadQueryTimeoutMs;
+
+    @Value("${retail.bulkhead.list-read.max-concurrent:20}")
+    private int listReadMaxConcurrent;
+
+    @Value("${retail.bulkhead.list-read.max-connections:6}")
+    private int listReadMaxConnections;
+
+    @Value("${retail.bulkhead.list-read.query-timeout-ms:10000}")
+    private long listReadQueryTimeoutMs;
+
+    @Value("${retail.bulkhead.write.max-concurrent:50}")
+    private int writeMaxConcurrent;
+
+    @Value("${retail.bulkhead.write.max-connections:6}")
+    private int writeMaxConnections;
+
+    @Value("${retail.bulkhead.write.query-timeout-ms:5000}")
+    private long writeQueryTimeoutMs;
+
+    public WorkloadBulkheads(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        budgets.put(Workload.POINT_READ,
+                new Budget(Workload.POINT_READ, pointReadMaxConcurrent, pointReadMaxConnections, pointReadQueryTimeoutMs));
+        budgets.put(Workload.LIST_READ,
+                new Budget(Workload.LIST_READ, listReadMaxConcurrent, listReadMaxConnections, listReadQueryTimeoutMs));
+        budgets.put(Workload.WRITE,
+                new Budget(Workload.WRITE, writeMaxConcurrent, writeMaxConnections, writeQueryTimeoutMs));
+        if (enabled) {
+            budgets.values().forEach(budget -> log.info("Bulkhead {}: maxConcurrent={} maxConnections={} queryTimeoutMs={}",
+                    budget.workload.getKey(), budget.maxConcurrent, budget.maxConnections, budget.queryTimeoutMs));
+        }
+    }
+
+    /**
+     * Start a call of a workload on the current thread
+     *
+     * @param workload Workload of the call
+     * @return true if the call took a permit and must {@link #exit()}; false
+     *         if bulkheads are disabled or the thread is already in a call
+     * @throws BulkheadFullException if the workload has no call permit left
+     */
+    public boolean enter(Workload workload) {
+        if (!enabled || CURRENT.get() != null) {
+            return false;
+        }
+        Budget budget = budgets.get(workload);
+        if (!budget.calls.tryAcquire()) {
+            budget.callRejections.increment();
+            throw new BulkheadFullException("Too many concurrent " + workload.getKey() + " requests");
+        }
+        CURRENT.set(workload);
+        return true;
+    }
+
+    /**
+     * End the call started by a successful {@link #enter}
+     */
+    public void exit() {
+        Workload workload = CURRENT.get();
+        CURRENT.remove();
+        if (workload != null) {
+            budgets.get(workload).calls.release();
+        }
+    }
+
+    /**
+     * Bind the current thread to a workload for background work done on its
+     * behalf. Statements use the workload's connection budget and query
+     * timeout, but no call permit is taken: the pool running the work already
+     * bounds it, and a refresh or batch should not fail for lack of one.
+     *
+     * @param workload Workload the work is done for
+     * @return true if bound and must {@link #unbind()}; false if bulkheads are
+     *         disabled or the thread is already in a call
+     */
+    public boolean bind(Workload workload) {
+        if (!enabled || CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(workload);
+        return true;
+    }
+
+    /**
+     * End background work started by a successful {@link #bind}
+     */
+    public void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Workload of the call running on the current thread
+     *
+     * @return Workload, or null outside any call
+     */
+    public Workload current() {
+        return enabled ? CURRENT.get() : null;
+    }
+
+    /**
+     * Take a connection permit for the call running on the current thread
+     *
+     * @return Workload to pass to {@link #releaseConnection}, or null if the
+     *         thread is not in a call and nothing was taken
+     * @throws BulkheadFullException if the workload holds all its connections
+     */
+    public Workload acquireConnection() {
+        Workload workload = current();
+        if (workload == null) {
+            return null;
+        }
+        Budget budget = budgets.get(workload);
+        if (!budget.connections.tryAcquire()) {
+            budget.connectionRejections.increment();
+            throw new BulkheadFullException("No database connections left for " + workload.getKey() + " requests");
+        }
+        return workload;
+    }
+
+    /**
+     * Return a permit taken by {@link #acquireConnection}
+     *
+     * @param workload Workload the permit was taken for
+     */
+    public void releaseConnection(Workload workload) {
+        budgets.get(workload).connections.release();
+    }
+
+    /**
+     * JDBC query timeout for statements of a workload
+     *
+     * @param workload Workload
+     * @return Timeout in whole seconds, rounded up; 0 for none
+     */
+    public int queryTimeoutSeconds(Workload workload) {
+        long millis = budgets.get(workload).queryTimeoutMs;
+        return millis > 0 ? (int) Math.min(Integer.MAX_VALUE, (millis + 999) / 1000) : 0;
+    }
+
+    private final class Budget {
+
+        private final Workload workload;
+        private final int maxConcurrent;
+        private final int maxConnections;
+        private final long queryTimeoutMs;
+        private final Semaphore calls;
+        private final Semaphore connections;
+        private final Counter callRejections;
+        private final Counter connectionRejections;
+
+        private Budget(Workload workload, int maxConcurrent, int maxConnections, long queryTimeoutMs) {
+            this.workload = workload;
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+            this.maxConnections = Math.max(1, maxConnections);
+            this.queryTimeoutMs = queryTimeoutMs;
+            this.calls = new Semaphore(this.maxConcurrent);
+            this.connections = new Semaphore(this.maxConnections);
+            this.callRejections = rejections("calls");
+            this.connectionRejections = rejections("connections");
+            Gauge.builder("retail.bulkhead.in.use", calls, semaphore -> this.maxConcurrent - semaphore.availablePermits())
+                    .description("Calls and database connections of a workload in use")
+                    .tags("workload", workload.getKey(), "budget", "calls")
+                    .register(meterRegistry);
+            Gauge.builder("retail.bulkhead.in.use", connections, semaphore -> this.maxConnections - semaphore.availablePermits())
+                    .description("Calls and database connections of a workload in use")
+                    .tags("workload", workload.getKey(), "budget", "connections")
+                    .register(meterRegistry);
+            Gauge.builder("retail.bulkhead.limit", () -> this.maxConcurrent)
+                    .description("Budget of a workload")
+                    .tags("workload", workload.getKey(), "budget", "calls")
+                    .register(meterRegistry);
+            Gauge.builder("retail.bulkhead.limit", () -> this.maxConnections)
+                    .description("Budget of a workload")
+                    .tags("workload", workload.getKey(), "budget", "connections")
+                    .register(meterRegistry);
+        }
+
+        private Counter rejections(String budget) {
+            return Counter.builder("retail.bulkhead.rejections")
+                    .description("Calls of a workload rejected because a budget was used up")
+                    .tags("workload", workload.getKey(), "budget", budget)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+-- Product catalog schema.
+-- Written with IF NOT EXISTS so databases created before migrations were
+-- introduced can be baselined and brought up to date by this script.
+
+CREATE SEQUENCE IF NOT EXISTS product_change_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS products (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sku          VARCHAR(50)    NOT NULL,
+    name         VARCHAR(255)   NOT NULL,
+    description  VARCHAR(1000),
+    price        NUMERIC(12, 2) NOT NULL,
+    quantity     INTEGER        NOT NULL,
+    category     VARCHAR(100),
+    brand        VARCHAR(100),
+    is_active    BOOLEAN        NOT NULL,
+    created_at   TIMESTAMP(6)   NOT NULL,
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT uk_product_sku UNIQUE (sku)
+);
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS change_seq BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_product_change_seq ON products (change_seq);
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    change_seq   BIGINT       NOT NULL PRIMARY KEY,
+    product_id   BIGINT       NOT NULL,
+    sku          VARCHAR(50)  NOT NULL,
+    deleted_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tombstone_product_id ON product_tombstones (product_id);
+
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id   BIGINT        NOT NULL,
+    sku          VARCHAR(50)   NOT NULL,
+    event_type   VARCHAR(20)   NOT NULL,
+    change_seq   BIGINT        NOT NULL,
+    payload      VARCHAR(8000) NOT NULL,
+    created_at   TIMESTAMP(6)  NOT NULL
+);
@@ -0,0 +1,14 @@
+-- Per-product reorder point and the feed of low-stock threshold crossings
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS reorder_point INTEGER;
+
+CREATE TABLE IF NOT EXISTS low_stock_alerts (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id     BIGINT       NOT NULL,
+    sku            VARCHAR(50)  NOT NULL,
+    category       VARCHAR(100),
+    alert_type     VARCHAR(20)  NOT NULL,
+    quantity       INTEGER      NOT NULL,
+    reorder_point  INTEGER      NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Cold storage for products that have been inactive longer than the archive
+-- threshold. Rows keep the ID they had in the products table, so they can be
+-- moved back unchanged; SKUs stay unique across both tables by convention of
+-- the application, and within this table by constraint.
+
+CREATE TABLE IF NOT EXISTS products_archive (
+    id             BIGINT         NOT NULL PRIMARY KEY,
+    sku            VARCHAR(50)    NOT NULL,
+    name           VARCHAR(255)   NOT NULL,
+    description    VARCHAR(1000),
+    price          NUMERIC(12, 2) NOT NULL,
+    quantity       INTEGER        NOT NULL,
+    reorder_point  INTEGER,
+    category       VARCHAR(100),
+    brand          VARCHAR(100),
+    is_active      BOOLEAN        NOT NULL,
+    created_at     TIMESTAMP(6)   NOT NULL,
+    updated_at     TIMESTAMP(6),
+    change_seq     BIGINT,
+    archived_at    TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT uk_product_archive_sku UNIQUE (sku)
+);
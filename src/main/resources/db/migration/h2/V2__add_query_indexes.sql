@@ -0,0 +1,15 @@
+-- Indexes for the catalog queries.
+
+-- The unique constraint on sku already provides an index
+DROP INDEX IF EXISTS idx_product_sku;
+
+-- A plain index on name can not serve the case-insensitive substring search;
+-- PostgreSQL gets a trigram index instead (see the vendor migrations)
+DROP INDEX IF EXISTS idx_product_name;
+
+CREATE INDEX IF NOT EXISTS idx_product_category ON products (category);
+
+CREATE INDEX IF NOT EXISTS idx_product_brand ON products (brand);
+
+-- Most recently updated first, with id as a tie breaker for keyset paging
+CREATE INDEX IF NOT EXISTS idx_product_updated_at ON products (updated_at, id);
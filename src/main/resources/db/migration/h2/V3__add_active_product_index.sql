@@ -0,0 +1,2 @@
+-- H2 has no partial indexes; index the flag instead
+CREATE INDEX IF NOT EXISTS idx_product_active ON products (is_active);
@@ -0,0 +1,2 @@
+-- Give products written before the change feed existed a change sequence
+UPDATE products SET change_seq = NEXT VALUE FOR product_change_seq WHERE change_seq IS NULL;
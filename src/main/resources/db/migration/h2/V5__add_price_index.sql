@@ -0,0 +1,3 @@
+-- Serves price range listings when the in-memory catalog snapshot is disabled
+-- or still loading
+CREATE INDEX IF NOT EXISTS idx_product_price ON products (price);
@@ -0,0 +1,16 @@
+-- Indexes matching the sorted, limited list queries, so ORDER BY ... LIMIT k
+-- reads the first k index entries instead of sorting every matching row.
+-- Each index ends with id, the tie breaker of every sort order.
+
+-- Cheapest / most expensive within a category; also serves category equality lookups
+CREATE INDEX IF NOT EXISTS idx_product_category_price ON products (category, price, id);
+DROP INDEX IF EXISTS idx_product_category;
+
+DROP INDEX IF EXISTS idx_product_price;
+CREATE INDEX IF NOT EXISTS idx_product_price ON products (price, id);
+
+-- Newest products
+CREATE INDEX IF NOT EXISTS idx_product_created_at ON products (created_at, id);
+
+-- Low stock
+CREATE INDEX IF NOT EXISTS idx_product_quantity ON products (quantity, id);
@@ -0,0 +1,4 @@
+-- Bulk jobs selecting products by category or brand also look archived products
+-- up by these columns
+CREATE INDEX IF NOT EXISTS idx_product_archive_category ON products_archive (category, id);
+CREATE INDEX IF NOT EXISTS idx_product_archive_brand ON products_archive (brand, id);
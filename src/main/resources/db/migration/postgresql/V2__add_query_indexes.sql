@@ -0,0 +1,20 @@
+-- Indexes for the catalog queries.
+--
+-- Built and dropped CONCURRENTLY, so writes to products continue meanwhile;
+-- the script therefore runs outside a transaction (see the .conf file).
+-- A concurrent build that fails leaves an INVALID index behind: drop it, run
+-- flyway repair and migrate again.
+
+-- The unique constraint on sku already provides an index
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_sku;
+
+-- A plain index on name can not serve the case-insensitive substring search;
+-- a trigram index replaces it (see V3)
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_name;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_category ON products (category);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_brand ON products (brand);
+
+-- Most recently updated first, with id as a tie breaker for keyset paging
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_updated_at ON products (updated_at, id);
@@ -0,0 +1,14 @@
+-- Built CONCURRENTLY, so writes to products continue while an index builds;
+-- the script therefore runs outside a transaction (see the .conf file).
+-- A concurrent build that fails leaves an INVALID index behind: drop it, run
+-- flyway repair and migrate again.
+
+-- Only active products are listed, so index just those rows
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_active ON products (id) WHERE is_active;
+
+-- Case-insensitive substring search: LOWER(name) LIKE '%term%'.
+-- Creating the extension needs a role allowed to do so (PostgreSQL 13+ lets
+-- database owners create trusted extensions such as pg_trgm).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_name_trgm ON products USING gin (LOWER(name) gin_trgm_ops);
@@ -0,0 +1,8 @@
+-- Serves price range listings when the in-memory catalog snapshot is disabled
+-- or still loading.
+--
+-- Built CONCURRENTLY, so writes to products continue while the index builds;
+-- the script therefore runs outside a transaction (see the .conf file).
+-- A concurrent build that fails leaves an INVALID index behind: drop it, run
+-- flyway repair and migrate again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_price ON products (price);
@@ -0,0 +1,24 @@
+-- Indexes matching the sorted, limited list queries, so ORDER BY ... LIMIT k
+-- reads the first k index entries instead of sorting every matching row.
+-- Each index ends with id, the tie breaker of every sort order.
+--
+-- Built CONCURRENTLY, so writes to products continue while an index builds;
+-- the script therefore runs outside a transaction (see the .conf file), and
+-- each replacement index is built before the one it replaces is dropped.
+-- A concurrent build that fails leaves an INVALID index behind: drop it, run
+-- flyway repair and migrate again.
+
+-- Cheapest / most expensive within a category; also serves category equality lookups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_category_price ON products (category, price, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_category;
+
+-- (price) becomes (price, id): build it under a new name, then swap
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_price_id ON products (price, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_price;
+ALTER INDEX IF EXISTS idx_product_price_id RENAME TO idx_product_price;
+
+-- Newest products
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_created_at ON products (created_at, id);
+
+-- Low stock
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_quantity ON products (quantity, id);
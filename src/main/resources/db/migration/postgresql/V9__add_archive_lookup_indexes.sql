@@ -0,0 +1,9 @@
+-- Bulk jobs selecting products by category or brand also look archived products
+-- up by these columns. Each index ends with id, the order the IDs are returned in.
+--
+-- Built CONCURRENTLY, so the archive job can keep moving products while an
+-- index builds; the script therefore runs outside a transaction (see the
+-- .conf file). A concurrent build that fails leaves an INVALID index behind:
+-- drop it, run flyway repair and migrate again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_archive_category ON products_archive (category, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_archive_brand ON products_archive (brand, id);
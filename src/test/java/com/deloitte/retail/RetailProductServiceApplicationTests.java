@@ -1,8 +1,15 @@
 package com.deloitte.retail;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Main application test class
@@ -11,11 +18,23 @@ import org.springframework.test.context.ActiveProfiles;
  * @version 1.0.0
  */
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 class RetailProductServiceApplicationTests {
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     void contextLoads() {
         // Test that the application context loads successfully
     }
+
+    @Test
+    void testFlightRecorderEndpoint_RequiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/jfr").with(user("apiuser").roles("USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/jfr").with(user("admin").roles("USER", "ADMIN")))
+                .andExpect(status().isOk());
+    }
 }
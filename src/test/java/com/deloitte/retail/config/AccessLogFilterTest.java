@@ -0,0 +1,59 @@
+package com.deloitte.retail.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AccessLogFilter
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class AccessLogFilterTest {
+
+    private AccessLogFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AccessLogFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+        ReflectionTestUtils.setField(filter, "slowThresholdMs", 500L);
+    }
+
+    @Test
+    void testShouldLog_AlwaysLogsErrorsAndSlowRequests() {
+        assertTrue(filter.shouldLog(404, TimeUnit.MILLISECONDS.toNanos(2)));
+        assertTrue(filter.shouldLog(503, TimeUnit.MILLISECONDS.toNanos(2)));
+        assertTrue(filter.shouldLog(200, TimeUnit.MILLISECONDS.toNanos(800)));
+    }
+
+    @Test
+    void testShouldLog_SamplesFastSuccessfulRequests() {
+        assertFalse(filter.shouldLog(200, TimeUnit.MILLISECONDS.toNanos(2)));
+
+        ReflectionTestUtils.setField(filter, "sampleRate", 1.0);
+        assertTrue(filter.shouldLog(200, TimeUnit.MILLISECONDS.toNanos(2)));
+    }
+
+    @Test
+    void testDatabaseTimeListener_CollectsStatementTimePerThread() {
+        DatabaseTimeListener.startCollecting();
+        DatabaseTimeListener listener = new DatabaseTimeListener();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+
+        long[] totals = DatabaseTimeListener.stopCollecting();
+
+        assertEquals(2, totals[1]);
+        assertTrue(totals[0] >= 0);
+        assertEquals(0, DatabaseTimeListener.stopCollecting()[1]);
+    }
+}
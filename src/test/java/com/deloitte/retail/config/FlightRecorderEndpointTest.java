@@ -0,0 +1,170 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.dto.ProductResponse;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlightRecorderEndpoint and the retail JFR events
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class FlightRecorderEndpointTest {
+
+    private static final String NAME = "flight-recorder-endpoint-test";
+
+    private FlightRecorderEndpoint endpoint;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecorderEndpoint();
+        ReflectionTestUtils.setField(endpoint, "defaultSettings", "default");
+        ReflectionTestUtils.setField(endpoint, "defaultMaxAgeSeconds", 60L);
+        ReflectionTestUtils.setField(endpoint, "defaultMaxSizeMb", 10L);
+        ReflectionTestUtils.setField(endpoint, "maxRecordings", 10);
+
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+                "MySecretKeyForJWTTokenGenerationMustBeAtLeast256BitsLongForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop(NAME);
+        endpoint.stop(NAME + "-2");
+    }
+
+    @Test
+    void testStartDumpStop_RecordsRetailEvents() throws Throwable {
+        WebEndpointResponse<FlightRecorderEndpoint.RecordingDescriptor> started =
+                endpoint.start(NAME, null, null, null, null, null);
+        assertEquals(200, started.getStatus());
+        assertEquals("RUNNING", started.getBody().getState());
+        assertEquals(409, endpoint.start(NAME, null, null, null, null, null).getStatus());
+        assertTrue(endpoint.recordings().stream().anyMatch(recording -> NAME.equals(recording.getName())));
+
+        assertTrue(jwtTokenProvider.validateToken(jwtTokenProvider.generateToken("admin")));
+        assertFalse(jwtTokenProvider.validateToken("not-a-token"));
+        assertNotNull(productOperation("getProductById", new String[]{"id"}, new Object[]{42L}));
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        ResponseSerializationEvent.write(List.of("a", "b"), message,
+                output -> output.getBody().write("[\"a\",\"b\"]".getBytes(StandardCharsets.UTF_8)));
+
+        List<RecordedEvent> events = dump();
+        List<RecordedEvent> verifications = ofType(events, "com.deloitte.retail.JwtVerification");
+        assertTrue(verifications.stream().anyMatch(event -> event.getBoolean("valid")));
+        assertTrue(verifications.stream().anyMatch(event -> !event.getBoolean("valid")
+                && event.getString("failure") != null));
+
+        RecordedEvent operation = ofType(events, "com.deloitte.retail.ProductOperation").get(0);
+        assertEquals("getProductById", operation.getString("operation"));
+        assertEquals(42L, operation.getLong("productId"));
+        assertEquals(1, operation.getInt("resultSize"));
+        assertEquals(1, operation.getInt("cacheHits"));
+
+        RecordedEvent serialization = ofType(events, "com.deloitte.retail.ResponseSerialization").get(0);
+        assertEquals("application/json", serialization.getString("mediaType"));
+        assertEquals(2, serialization.getInt("items"));
+        assertEquals(9L, serialization.getLong("bytes"));
+
+        assertEquals("STOPPED", endpoint.stop(NAME).getBody().getState());
+        assertEquals(404, endpoint.stop(NAME).getStatus());
+        assertEquals(404, endpoint.dump(NAME).getStatus());
+    }
+
+    @Test
+    void testStart_NeverRecordsEnvironmentOrSystemProperties() {
+        assertEquals(200, endpoint.start(NAME, "profile", null, null, null, null).getStatus());
+
+        Recording recording = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(candidate -> NAME.equals(candidate.getName()))
+                .findFirst().orElseThrow();
+        assertEquals("false", recording.getSettings().get("jdk.InitialEnvironmentVariable#enabled"));
+        assertEquals("false", recording.getSettings().get("jdk.InitialSystemProperty#enabled"));
+    }
+
+    @Test
+    void testStart_RejectsRecordingsBeyondTheMaximum() {
+        long open = endpoint.recordings().stream().filter(recording -> !"CLOSED".equals(recording.getState())).count();
+        ReflectionTestUtils.setField(endpoint, "maxRecordings", (int) open + 1);
+
+        assertEquals(200, endpoint.start(NAME, null, null, null, null, null).getStatus());
+        assertEquals(429, endpoint.start(NAME + "-2", null, null, null, null, null).getStatus());
+        assertTrue(endpoint.recordings().stream().noneMatch(recording -> (NAME + "-2").equals(recording.getName())));
+    }
+
+    @Test
+    void testStart_RejectsUnknownSettings() {
+        assertEquals(400, endpoint.start(NAME, "no-such-settings", null, null, null, null).getStatus());
+        assertTrue(endpoint.recordings().stream().noneMatch(recording -> NAME.equals(recording.getName())));
+    }
+
+    @Test
+    void testEvents_NotRecordedWithoutRecording() throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertEquals("result", new FlightRecorderAspect().productOperation(joinPoint));
+        verify(joinPoint, never()).getSignature();
+        verify(joinPoint, never()).getArgs();
+    }
+
+    private Object productOperation(String name, String[] parameterNames, Object[] args) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getName()).thenReturn(name);
+        when(signature.getParameterNames()).thenReturn(parameterNames);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            ProductOperationEvent.recordCacheHit();
+            return ProductResponse.builder().id(42L).build();
+        });
+        return new FlightRecorderAspect().productOperation(joinPoint);
+    }
+
+    private List<RecordedEvent> dump() throws Exception {
+        WebEndpointResponse<Resource> response = endpoint.dump(NAME);
+        assertEquals(200, response.getStatus());
+        Path file = Files.createTempFile("flight-recorder-endpoint-test-", ".jfr");
+        try {
+            try (InputStream in = response.getBody().getInputStream()) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            assertFalse(response.getBody().exists(), "dump file is deleted once read");
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String type) {
+        return events.stream().filter(event -> type.equals(event.getEventType().getName())).toList();
+    }
+}
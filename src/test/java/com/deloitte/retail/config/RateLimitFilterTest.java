@@ -0,0 +1,89 @@
+package com.deloitte.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateLimitFilter
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), 1000, 1000, 100);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "clientTokensPerSecond", 1.0);
+        ReflectionTestUtils.setField(filter, "clientCapacity", 20L);
+        ReflectionTestUtils.setField(filter, "listCost", 20);
+        ReflectionTestUtils.setField(filter, "queryCost", 5);
+        ReflectionTestUtils.setField(filter, "writeCost", 5);
+        filterChain = mock(FilterChain.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testCostOf_WeighsListsAbovePointReads() {
+        assertEquals(20, filter.costOf("GET", "/api/v1/products"));
+        assertEquals(5, filter.costOf("GET", "/api/v1/products/search"));
+        assertEquals(5, filter.costOf("POST", "/api/v1/products"));
+        assertEquals(1, filter.costOf("GET", "/api/v1/products/1"));
+        assertEquals(0, filter.costOf("GET", "/actuator/health/readiness"));
+    }
+
+    @Test
+    void testFilter_RejectsWith429OnceClientBudgetIsSpent() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("apiuser", null, Collections.emptyList()));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), first, filterChain);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), second, filterChain);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertNotNull(second.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(second.getHeader("Retry-After")) >= 1);
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void testFilter_ClientsHaveSeparateBuckets() throws Exception {
+        MockHttpServletRequest fromFirst = new MockHttpServletRequest("GET", "/api/v1/products");
+        fromFirst.setRemoteAddr("10.0.0.1");
+        MockHttpServletRequest fromSecond = new MockHttpServletRequest("GET", "/api/v1/products");
+        fromSecond.setRemoteAddr("10.0.0.2");
+
+        filter.doFilter(fromFirst, new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(fromSecond, response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        verify(filterChain, times(2)).doFilter(any(), any());
+    }
+}
@@ -0,0 +1,51 @@
+package com.deloitte.retail.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryConsume_AllowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0L);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryConsume(1, 0L));
+        }
+        long wait = bucket.tryConsume(1, 0L);
+
+        assertEquals(SECOND / 10, wait);
+        assertEquals(0L, bucket.available(0L));
+    }
+
+    @Test
+    void testTryConsume_RefillsOverTime() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0L);
+        assertEquals(0L, bucket.tryConsume(5, 0L));
+
+        assertTrue(bucket.tryConsume(3, SECOND / 10) > 0);
+        assertEquals(0L, bucket.tryConsume(3, 3 * SECOND / 10));
+        assertEquals(5L, bucket.available(10 * SECOND));
+    }
+
+    @Test
+    void testTryConsume_RejectedRequestTakesNoTokens() {
+        TokenBucket bucket = new TokenBucket(1, 20, 0L);
+        assertEquals(0L, bucket.tryConsume(15, 0L));
+
+        assertTrue(bucket.tryConsume(10, 0L) > 0);
+
+        assertEquals(5L, bucket.available(0L));
+    }
+}
@@ -0,0 +1,92 @@
+package com.deloitte.retail.config;
+
+import com.deloitte.retail.service.BulkheadFullException;
+import com.deloitte.retail.service.Workload;
+import com.deloitte.retail.service.WorkloadBulkheads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WorkloadDataSource
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class WorkloadDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    private WorkloadBulkheads bulkheads;
+    private WorkloadDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        bulkheads = new WorkloadBulkheads(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bulkheads, "enabled", true);
+        ReflectionTestUtils.setField(bulkheads, "pointReadMaxConcurrent", 10);
+        ReflectionTestUtils.setField(bulkheads, "pointReadMaxConnections", 1);
+        ReflectionTestUtils.setField(bulkheads, "pointReadQueryTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(bulkheads, "listReadMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheads, "listReadMaxConnections", 1);
+        ReflectionTestUtils.setField(bulkheads, "writeMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheads, "writeMaxConnections", 1);
+        ReflectionTestUtils.invokeMethod(bulkheads, "start");
+        dataSource = new WorkloadDataSource(target, () -> bulkheads);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.exit();
+    }
+
+    @Test
+    void testGetConnection_OutsideWorkloadPassesThrough() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        assertSame(connection, dataSource.getConnection());
+    }
+
+    @Test
+    void testGetConnection_AppliesTimeoutAndHoldsPermitUntilClosed() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+        bulkheads.enter(Workload.POINT_READ);
+
+        Connection charged = dataSource.getConnection();
+        assertSame(statement, charged.prepareStatement("select 1"));
+        verify(statement).setQueryTimeout(2);
+        assertThrows(BulkheadFullException.class, dataSource::getConnection);
+
+        charged.close();
+        charged.close();
+        verify(connection, times(2)).close();
+        dataSource.getConnection().close();
+        assertThrows(BulkheadFullException.class, () -> {
+            dataSource.getConnection();
+            dataSource.getConnection();
+        });
+    }
+
+    @Test
+    void testGetConnection_ReleasesPermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted")).thenReturn(mock(Connection.class));
+        bulkheads.enter(Workload.POINT_READ);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertNotNull(dataSource.getConnection());
+    }
+}
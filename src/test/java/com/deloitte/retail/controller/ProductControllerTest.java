@@ -1,24 +1,51 @@
 package com.deloitte.retail.controller;
 
+import com.deloitte.retail.config.JwtTokenProvider;
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.LowStockAlertResponse;
+import com.deloitte.retail.dto.ProductBatchGetRequest;
+import com.deloitte.retail.dto.ProductBatchGetResponse;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
+import com.deloitte.retail.dto.ProductJobRequest;
+import com.deloitte.retail.dto.ProductJobResponse;
 import com.deloitte.retail.dto.ProductRequest;
 import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+import com.deloitte.retail.dto.ProductSuggestion;
+import com.deloitte.retail.exception.ResourceNotFoundException;
+import com.deloitte.retail.service.ProductChangeBroadcaster;
+import com.deloitte.retail.service.ProductJobService;
 import com.deloitte.retail.service.ProductService;
+import com.deloitte.retail.service.StaleProduct;
+import com.deloitte.retail.service.StaleRead;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -32,6 +59,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @version 1.0.0
  */
 @WebMvcTest(ProductController.class)
+@Import(SimpleMeterRegistry.class)
 class ProductControllerTest {
 
     @Autowired
@@ -40,6 +68,15 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @MockBean
+    private ProductJobService productJobService;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -115,12 +152,91 @@ class ProductControllerTest {
 
         mockMvc.perform(get("/api/v1/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.sku").value("SKU-001"));
 
         verify(productService).getProductById(1L);
     }
 
+    @Test
+    @WithMockUser
+    void testGetProductById_StaleResponseCarriesWarningAndAge() throws Exception {
+        when(productService.getProductById(1L)).thenAnswer(invocation -> {
+            StaleRead.record(new StaleProduct(productResponse, 42500, false, true), true);
+            return productResponse;
+        });
+
+        mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "111 - \"Revalidation Failed\""))
+                .andExpect(header().string("Age", "42"))
+                .andExpect(jsonPath("$.sku").value("SKU-001"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetProductById_Cbor() throws Exception {
+        productResponse.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        when(productService.getProductById(1L)).thenReturn(productResponse);
+
+        byte[] body = mockMvc.perform(get("/api/v1/products/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode product = new CBORMapper().readTree(body);
+        assertEquals(1L, product.get("id").asLong());
+        assertEquals(9999L, product.get("priceCents").asLong());
+        assertEquals(1704164645000L, product.get("createdAtMillis").asLong());
+        assertFalse(product.has("price"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllProducts_Protobuf() throws Exception {
+        ProductResponse other = ProductResponse.builder().id(2L).sku("SKU-002").price(new BigDecimal("0.50")).build();
+        when(productService.getAllProducts()).thenReturn(List.of(productResponse, other));
+
+        byte[] body = mockMvc.perform(get("/api/v1/products").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Map<Integer, Object>> products = new ArrayList<>();
+        CodedInputStream list = CodedInputStream.newInstance(body);
+        while (!list.isAtEnd()) {
+            assertEquals(1, WireFormat.getTagFieldNumber(list.readTag()));
+            CodedInputStream message = CodedInputStream.newInstance(list.readByteArray());
+            Map<Integer, Object> fields = new HashMap<>();
+            while (!message.isAtEnd()) {
+                int tag = message.readTag();
+                fields.put(WireFormat.getTagFieldNumber(tag), WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_VARINT
+                        ? (Object) message.readInt64() : message.readStringRequireUtf8());
+            }
+            products.add(fields);
+        }
+        assertEquals(2, products.size());
+        assertEquals("SKU-001", products.get(0).get(2));
+        assertEquals(9999L, products.get(0).get(5));
+        assertEquals(2L, products.get(1).get(1));
+        assertEquals(50L, products.get(1).get(5));
+        assertFalse(products.get(1).containsKey(3));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetProductById_NotFoundWithProtobufIsJsonError() throws Exception {
+        when(productService.getProductById(404L))
+                .thenThrow(new ResourceNotFoundException("Product not found with ID: 404"));
+
+        mockMvc.perform(get("/api/v1/products/404").accept("application/x-protobuf"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Product not found with ID: 404"));
+    }
+
     @Test
     @WithMockUser
     void testGetProductBySku_Success() throws Exception {
@@ -187,6 +303,92 @@ class ProductControllerTest {
         verify(productService).getProductsByCategory("Electronics");
     }
 
+    @Test
+    @WithMockUser
+    void testGetLowStockProducts_Success() throws Exception {
+        when(productService.getLowStockProducts(5, ProductSort.QUANTITY_ASC, 10))
+                .thenReturn(Arrays.asList(productResponse));
+
+        mockMvc.perform(get("/api/v1/products/low-stock")
+                        .param("threshold", "5")
+                        .param("sort", "quantity-asc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sku").value("SKU-001"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetLowStockAlerts_Success() throws Exception {
+        when(productService.getLowStockAlertsSince(3L, 500)).thenReturn(LowStockAlertPage.builder()
+                .alerts(List.of(LowStockAlertResponse.builder()
+                        .id(4L).type("LOW").productId(1L).sku("SKU-001").quantity(2).reorderPoint(5).build()))
+                .nextCursor(4L)
+                .hasMore(false)
+                .build());
+
+        mockMvc.perform(get("/api/v1/products/low-stock/alerts").param("since", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alerts[0].type").value("LOW"))
+                .andExpect(jsonPath("$.nextCursor").value(4));
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchProducts_RankedMode() throws Exception {
+        when(productService.searchProductsRanked("tset product", 5)).thenReturn(List.of(productResponse));
+
+        mockMvc.perform(get("/api/v1/products/search")
+                        .param("name", "tset product").param("mode", "ranked").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sku").value("SKU-001"));
+
+        verify(productService, never()).searchProductsByName(anyString());
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchProducts_UnknownModeReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products/search").param("name", "tv").param("mode", "fuzzy"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @WithMockUser
+    void testSuggestProducts_Success() throws Exception {
+        when(productService.suggestProducts("tes", 5)).thenReturn(List.of(ProductSuggestion.builder()
+                .id(1L).sku("SKU-001").name("Test Product").category("Electronics").build()));
+
+        mockMvc.perform(get("/api/v1/products/suggest").param("prefix", "tes").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sku").value("SKU-001"))
+                .andExpect(jsonPath("$[0].name").value("Test Product"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetActiveProducts_UnknownSortReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products/active").param("sort", "popularity"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetProductsByPriceRange_Success() throws Exception {
+        when(productService.getProductsByPriceRange(new BigDecimal("10.00"), null))
+                .thenReturn(Arrays.asList(productResponse));
+
+        mockMvc.perform(get("/api/v1/products/price-range").param("min", "10.00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sku").value("SKU-001"));
+
+        verify(productService).getProductsByPriceRange(new BigDecimal("10.00"), null);
+    }
+
     @Test
     @WithMockUser
     void testUpdateProduct_Success() throws Exception {
@@ -213,4 +415,114 @@ class ProductControllerTest {
 
         verify(productService).deleteProduct(1L);
     }
+
+    @Test
+    @WithMockUser
+    void testGetChanges_Success() throws Exception {
+        ProductChangePage page = ProductChangePage.builder()
+                .changes(List.of(ProductChange.builder()
+                        .sequence(12L)
+                        .type(ProductChange.Type.UPSERT)
+                        .productId(1L)
+                        .sku("SKU-001")
+                        .product(productResponse)
+                        .build()))
+                .nextCursor(12L)
+                .hasMore(false)
+                .build();
+        when(productService.getChangesSince(10L, 500)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/products/changes")
+                        .param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].product.sku").value("SKU-001"))
+                .andExpect(jsonPath("$.nextCursor").value(12L))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(productService).getChangesSince(10L, 500);
+    }
+
+    @Test
+    @WithMockUser
+    void testBatchGetProducts_Success() throws Exception {
+        ProductBatchGetRequest request = ProductBatchGetRequest.builder()
+                .ids(List.of(1L, 99L))
+                .build();
+        ProductBatchGetResponse response = ProductBatchGetResponse.builder()
+                .products(List.of(productResponse))
+                .missingIds(List.of(99L))
+                .missingSkus(List.of())
+                .build();
+        when(productService.getProductsBatch(List.of(1L, 99L), null)).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/products/batch-get")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].sku").value("SKU-001"))
+                .andExpect(jsonPath("$.missingIds[0]").value(99L));
+
+        verify(productService).getProductsBatch(List.of(1L, 99L), null);
+    }
+
+    @Test
+    @WithMockUser
+    void testSubmitJob_AcceptedWithLocation() throws Exception {
+        ProductJobRequest request = ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DEACTIVATE)
+                .brand("TestBrand")
+                .build();
+        when(productJobService.submit(request)).thenReturn(ProductJobResponse.builder()
+                .id("job-1")
+                .action(ProductJobRequest.Action.DEACTIVATE)
+                .brand("TestBrand")
+                .status(ProductJobResponse.Status.QUEUED)
+                .build());
+
+        mockMvc.perform(post("/api/v1/products/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/products/jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        mockMvc.perform(post("/api/v1/products/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brand\":\"TestBrand\"}"))
+                .andExpect(status().isBadRequest());
+        verify(productJobService).submit(request);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAndCancelJob_Success() throws Exception {
+        when(productJobService.getJob("job-1")).thenReturn(ProductJobResponse.builder()
+                .id("job-1").status(ProductJobResponse.Status.RUNNING).total(1200).processed(500).changed(480).build());
+        when(productJobService.cancel("job-1")).thenReturn(ProductJobResponse.builder()
+                .id("job-1").status(ProductJobResponse.Status.CANCELLED).total(1200).processed(1000).changed(950).build());
+
+        mockMvc.perform(get("/api/v1/products/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.processed").value(500));
+        mockMvc.perform(delete("/api/v1/products/jobs/job-1").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    @WithMockUser
+    void testRestoreProduct_Success() throws Exception {
+        when(productService.restoreProduct(1L)).thenReturn(productResponse);
+
+        mockMvc.perform(post("/api/v1/products/1/restore").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.sku").value("SKU-001"));
+        verify(productService).restoreProduct(1L);
+    }
 }
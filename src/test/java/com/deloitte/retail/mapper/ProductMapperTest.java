@@ -113,4 +113,19 @@ class ProductMapperTest {
         assertEquals(new BigDecimal("100.00"), product.getPrice());
         assertEquals(100, product.getQuantity());
     }
+
+    @Test
+    void testUpdateEntityFromRequest_ClearsReorderPointOnlyWhenAsked() {
+        Product product = Product.builder()
+                .id(1L)
+                .sku("SKU-001")
+                .reorderPoint(25)
+                .build();
+
+        productMapper.updateEntityFromRequest(ProductRequest.builder().name("Kept").build(), product);
+        assertEquals(25, product.getReorderPoint());
+
+        productMapper.updateEntityFromRequest(ProductRequest.builder().clearReorderPoint(true).build(), product);
+        assertNull(product.getReorderPoint());
+    }
 }
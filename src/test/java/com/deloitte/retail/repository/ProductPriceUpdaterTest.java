@@ -0,0 +1,117 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProductPriceUpdater against the schema created by the migrations
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductPriceUpdater.class, ProductChangeSequence.class})
+class ProductPriceUpdaterTest {
+
+    @Autowired
+    private ProductPriceUpdater productPriceUpdater;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product cheap;
+    private Product mid;
+    private Product huge;
+    private Product otherBrand;
+
+    @BeforeEach
+    void setUp() {
+        cheap = save("PU-1", "10.30", "Acme");
+        mid = save("PU-2", "20.99", "Acme");
+        huge = save("PU-3", "9999999999.00", "Acme");
+        otherBrand = save("PU-4", "10.30", "Other");
+        entityManager.flush();
+    }
+
+    @Test
+    void testPreview_CountsAndSamplesWithoutWriting() {
+        PriceChange change = PriceChange.builder()
+                .factor(new BigDecimal("1.03")).ending99(true).brand("Acme").build();
+
+        ProductPriceUpdater.PricePreview preview = productPriceUpdater.preview(change, 10);
+
+        assertEquals(3, preview.getMatched());
+        assertEquals(2, preview.getChanged());
+        assertEquals(1, preview.getOutOfRange());
+        assertEquals(2, preview.getSample().size());
+        assertEquals("PU-1", preview.getSample().get(0).getSku());
+        assertEquals(new BigDecimal("10.30"), preview.getSample().get(0).getOldPrice());
+        assertEquals(new BigDecimal("10.99"), preview.getSample().get(0).getNewPrice());
+        assertEquals(new BigDecimal("21.99"), preview.getSample().get(1).getNewPrice());
+        entityManager.clear();
+        assertEquals(new BigDecimal("10.30"), productRepository.findById(cheap.getId()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void testUpdate_RoundsToCentsAndGivesEachRowAChangeSequence() {
+        PriceChange change = PriceChange.builder()
+                .factor(new BigDecimal("1.035")).brand("Acme").maxPrice(new BigDecimal("100")).build();
+        List<Long> ids = productPriceUpdater.findIds(change);
+        assertEquals(List.of(cheap.getId(), mid.getId()), ids);
+
+        assertEquals(2, productPriceUpdater.update(change, ids));
+
+        entityManager.clear();
+        Map<String, Product> products = productRepository.findAll().stream()
+                .collect(Collectors.toMap(Product::getSku, Function.identity()));
+        assertEquals(new BigDecimal("10.66"), products.get("PU-1").getPrice());
+        assertEquals(new BigDecimal("21.72"), products.get("PU-2").getPrice());
+        assertEquals(new BigDecimal("9999999999.00"), products.get("PU-3").getPrice());
+        assertEquals(new BigDecimal("10.30"), products.get("PU-4").getPrice());
+        assertNotNull(products.get("PU-1").getChangeSequence());
+        assertNotEquals(products.get("PU-1").getChangeSequence(), products.get("PU-2").getChangeSequence());
+        assertNull(products.get("PU-4").getChangeSequence());
+    }
+
+    @Test
+    void testUpdate_SkipsRowsWhosePriceWouldNotChangeOrFit() {
+        PriceChange change = PriceChange.builder().amount(new BigDecimal("-10.30")).build();
+
+        assertEquals(2, productPriceUpdater.update(change,
+                List.of(cheap.getId(), mid.getId(), huge.getId(), otherBrand.getId())));
+
+        entityManager.clear();
+        assertEquals(new BigDecimal("10.30"), productRepository.findById(cheap.getId()).orElseThrow().getPrice());
+        assertEquals(new BigDecimal("10.69"), productRepository.findById(mid.getId()).orElseThrow().getPrice());
+        assertEquals(new BigDecimal("9999999988.70"), productRepository.findById(huge.getId()).orElseThrow().getPrice());
+    }
+
+    private Product save(String sku, String price, String brand) {
+        return productRepository.save(Product.builder()
+                .sku(sku)
+                .name("Product " + sku)
+                .price(new BigDecimal(price))
+                .quantity(10)
+                .category("Electronics")
+                .brand(brand)
+                .build());
+    }
+}
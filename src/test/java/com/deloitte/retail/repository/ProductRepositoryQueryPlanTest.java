@@ -0,0 +1,350 @@
+package com.deloitte.retail.repository;
+
+import com.deloitte.retail.dto.ProductSort;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the queries generated for the repository methods are answered
+ * from an index rather than a table scan, by running {@code EXPLAIN} on the
+ * SQL Hibernate issues against the schema created by the migrations.
+ * <p>
+ * Not covered: {@code findAll}, which reads the whole table by definition,
+ * and {@code searchByName}, whose substring match is served by the
+ * PostgreSQL trigram index and has no H2 equivalent (see
+ * {@link #testSearchByName_NotCheckedOnH2()}). H2 does not scan an index
+ * backwards, so descending sorts are checked through their ascending mirror.
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.deloitte.retail.repository.ProductRepositoryQueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+class ProductRepositoryQueryPlanTest {
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    private static final Pattern FULL_INDEX_SCAN = Pattern.compile("/\\* PUBLIC\\.\\w+ \\*/");
+
+    private static final String INDEX_SORTED = "/* index sorted */";
+
+    private static final String FETCH = "FETCH ";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void testFindBySku_UsesIndex() {
+        productRepository.findBySku("SKU-001");
+        assertNoTableScan("SKU-001");
+    }
+
+    @Test
+    void testExistsBySku_UsesIndex() {
+        productRepository.existsBySku("SKU-001");
+        assertNoTableScan("SKU-001", 1);
+    }
+
+    @Test
+    void testFindBySkuIn_UsesIndex() {
+        productRepository.findBySkuIn(List.of("SKU-001", "SKU-002"));
+        assertNoTableScan("SKU-001", "SKU-002");
+    }
+
+    @Test
+    void testFindAllById_UsesIndex() {
+        productRepository.findAllById(List.of(1L, 2L));
+        assertNoTableScan(1L, 2L);
+    }
+
+    @Test
+    void testFindSkusByChangeSequenceGreaterThan_UsesIndex() {
+        productRepository.findSkusByChangeSequenceGreaterThan(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindByCategory_UsesIndex() {
+        productRepository.findByCategory("Electronics");
+        assertNoTableScan("Electronics");
+    }
+
+    @Test
+    void testFindByBrand_UsesIndex() {
+        productRepository.findByBrand("TestBrand");
+        assertNoTableScan("TestBrand");
+    }
+
+    @Test
+    void testFindIdsByCategory_UsesIndex() {
+        productRepository.findIdsByCategory("Electronics");
+        assertNoTableScan("Electronics");
+    }
+
+    @Test
+    void testFindIdsByBrand_UsesIndex() {
+        productRepository.findIdsByBrand("TestBrand");
+        assertNoTableScan("TestBrand");
+    }
+
+    @Test
+    void testFindIdsBySkuIn_UsesIndex() {
+        productRepository.findIdsBySkuIn(List.of("SKU-001", "SKU-002"));
+        assertNoTableScan("SKU-001", "SKU-002");
+    }
+
+    @Test
+    void testFindByIsActiveTrue_UsesIndex() {
+        productRepository.findByIsActiveTrue();
+        assertNoTableScan();
+    }
+
+    @Test
+    void testFindByIsActiveTrueOrderByUpdatedAtDesc_UsesIndex() {
+        productRepository.findByIsActiveTrueOrderByUpdatedAtDesc(PageRequest.of(0, 10));
+        assertNoTableScan(0, 10);
+    }
+
+    @Test
+    void testClaimArchiveCandidates_UsesIndex() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+        productRepository.claimArchiveCandidates(cutoff, PageRequest.of(0, 10));
+        assertNoTableScan(cutoff, 0, 10);
+    }
+
+    @Test
+    void testFindByPriceBetween_UsesIndex() {
+        productRepository.findByPriceBetweenOrderByIdAsc(new BigDecimal("10.00"), new BigDecimal("20.00"));
+        assertNoTableScan(new BigDecimal("10.00"), new BigDecimal("20.00"));
+    }
+
+    @Test
+    void testFindCheapestInCategory_UsesIndex() {
+        productRepository.findByCategory("Electronics", PageRequest.of(0, 10, ProductSort.PRICE_ASC.toSort()));
+        assertNoTableScan("Electronics", 0, 10);
+    }
+
+    @Test
+    void testFindLowStock_UsesIndex() {
+        productRepository.findByIsActiveTrueAndQuantityLessThan(5,
+                PageRequest.of(0, 10, ProductSort.QUANTITY_ASC.toSort()));
+        assertNoTableScan(5, 0, 10);
+    }
+
+    @Test
+    void testFindByIdGreaterThan_UsesIndex() {
+        productRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindProductChanges_UsesIndex() {
+        productRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindTombstoneChanges_UsesIndex() {
+        productTombstoneRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindProductChangesBetween_UsesIndex() {
+        productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(5L, 9L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 9L, 0, 10);
+    }
+
+    @Test
+    void testFindTombstoneChangesBetween_UsesIndex() {
+        productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(5L, 9L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 9L, 0, 10);
+    }
+
+    @Test
+    void testFindFirstByUpdatedAtLessThan_UsesIndex() {
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        productRepository.findFirstByUpdatedAtLessThanOrderByUpdatedAtDesc(before);
+        assertNoTableScan(before, 1);
+    }
+
+    @Test
+    void testFindSkusByIdGreaterThan_UsesIndex() {
+        productRepository.findSkusByIdGreaterThan(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindSkusByChangeSequenceBetween_UsesIndex() {
+        productRepository.findSkusByChangeSequenceBetween(5L, 9L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 9L, 0, 10);
+    }
+
+    @Test
+    void testFindSkusByIdIn_UsesIndex() {
+        productRepository.findSkusByIdIn(List.of(1L, 2L));
+        assertNoTableScan(1L, 2L);
+    }
+
+    @Test
+    void testFindAllBy_UsesIndexForEverySort() {
+        for (ProductSort sort : ProductSort.values()) {
+            RecordingStatementInspector.STATEMENTS.clear();
+            productRepository.findAllBy(PageRequest.of(0, 10, explainable(sort)));
+            assertNoTableScan(0, 10);
+        }
+    }
+
+    @Test
+    void testFindByCategoryAndIsActiveTrue_UsesIndexForEverySort() {
+        for (ProductSort sort : ProductSort.values()) {
+            RecordingStatementInspector.STATEMENTS.clear();
+            productRepository.findByCategoryAndIsActiveTrue("Electronics", PageRequest.of(0, 10, explainable(sort)));
+            assertNoTableScan("Electronics", 0, 10);
+        }
+    }
+
+    @Test
+    void testFindByPriceBetweenPaged_UsesIndexForEverySort() {
+        for (ProductSort sort : ProductSort.values()) {
+            RecordingStatementInspector.STATEMENTS.clear();
+            productRepository.findByPriceBetween(new BigDecimal("10.00"), new BigDecimal("20.00"),
+                    PageRequest.of(0, 10, explainable(sort)));
+            assertNoTableScan(new BigDecimal("10.00"), new BigDecimal("20.00"), 0, 10);
+        }
+    }
+
+    @Test
+    @Disabled("LOWER(name) LIKE '%term%' is served by the PostgreSQL trigram index; H2 has no equivalent and always scans")
+    void testSearchByName_NotCheckedOnH2() {
+        productRepository.searchByName("phone");
+        assertNoTableScan("phone");
+    }
+
+    @Test
+    void testFindArchivedBySku_UsesIndex() {
+        archivedProductRepository.findBySku("SKU-001");
+        assertNoTableScan("SKU-001");
+    }
+
+    @Test
+    void testFindArchivedBySkuIn_UsesIndex() {
+        archivedProductRepository.findBySkuIn(List.of("SKU-001", "SKU-002"));
+        assertNoTableScan("SKU-001", "SKU-002");
+    }
+
+    @Test
+    void testExistsArchivedBySku_UsesIndex() {
+        archivedProductRepository.existsBySku("SKU-001");
+        assertNoTableScan("SKU-001", 1);
+    }
+
+    @Test
+    void testFindArchivedSkusByIdGreaterThan_UsesIndex() {
+        archivedProductRepository.findSkusByIdGreaterThan(5L, PageRequest.of(0, 10));
+        assertNoTableScan(5L, 0, 10);
+    }
+
+    @Test
+    void testFindArchivedIdsByCategory_UsesIndex() {
+        archivedProductRepository.findIdsByCategory("Electronics");
+        assertNoTableScan("Electronics");
+    }
+
+    @Test
+    void testFindArchivedIdsByBrand_UsesIndex() {
+        archivedProductRepository.findIdsByBrand("TestBrand");
+        assertNoTableScan("TestBrand");
+    }
+
+    @Test
+    void testFindArchivedIdsBySkuIn_UsesIndex() {
+        archivedProductRepository.findIdsBySkuIn(List.of("SKU-001", "SKU-002"));
+        assertNoTableScan("SKU-001", "SKU-002");
+    }
+
+    @Test
+    void testCopyArchivedStatements_UseIndex() {
+        assertNativeNoTableScan("SELECT " + ArchivedProductRepository.PRODUCT_COLUMNS
+                + " FROM products WHERE id IN (?, ?)", 1L, 2L);
+        assertNativeNoTableScan("SELECT " + ArchivedProductRepository.PRODUCT_COLUMNS
+                + " FROM products_archive WHERE id = ?", 1L);
+        assertNativeNoTableScan("SELECT " + ArchivedProductRepository.PRODUCT_COLUMNS
+                + " FROM products_archive WHERE id IN (?, ?)", 1L, 2L);
+    }
+
+    private void assertNativeNoTableScan(String sql, Object... parameters) {
+        assertPlanUsesIndex(sql, parameters);
+    }
+
+    private void assertNoTableScan(Object... parameters) {
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.size(), "Expected exactly one statement");
+        assertPlanUsesIndex(RecordingStatementInspector.STATEMENTS.get(0), parameters);
+    }
+
+    /**
+     * Fails on a table scan, and on a full index scan (an index named without
+     * a condition) unless it is read in order and cut short by FETCH
+     */
+    private void assertPlanUsesIndex(String sql, Object... parameters) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+        assertFalse(plan.contains(TABLE_SCAN), () -> "Table scan in plan:\n" + plan);
+        boolean fullIndexScan = FULL_INDEX_SCAN.matcher(plan).find();
+        assertFalse(fullIndexScan && !(plan.contains(INDEX_SORTED) && plan.contains(FETCH)),
+                () -> "Full index scan in plan:\n" + plan);
+    }
+
+    /**
+     * The sort to run {@code EXPLAIN} with: H2 only reads an index forwards, so
+     * a descending sort is checked through its ascending mirror, which needs
+     * the same index that PostgreSQL scans backwards for the descending one
+     */
+    private static Sort explainable(ProductSort sort) {
+        return sort.toSort().ascending();
+    }
+
+    /**
+     * Records the SQL Hibernate sends to the database
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.exception.ResourceNotFoundException;
+import com.deloitte.retail.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DatabaseCircuitBreaker
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class DatabaseCircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private DatabaseCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new DatabaseCircuitBreaker(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(breaker, "enabled", true);
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openMs", 1000L);
+        ReflectionTestUtils.setField(breaker, "clock", (LongSupplier) nanos::get);
+    }
+
+    @Test
+    void testExecute_OpensAfterConsecutiveFailuresAndRejectsWithoutCalling() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(QueryTimeoutException.class, this::timeout);
+        }
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+
+        assertThrows(ServiceUnavailableException.class, this::timeout);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testExecute_NotFoundIsNotAFailure() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(QueryTimeoutException.class, this::timeout);
+            assertThrows(ResourceNotFoundException.class, () -> breaker.execute(() -> {
+                throw new ResourceNotFoundException("Product not found");
+            }));
+        }
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testExecute_TrialCallClosesOrReopensAfterOpenPeriod() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(QueryTimeoutException.class, this::timeout);
+        }
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThrows(QueryTimeoutException.class, this::timeout);
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(ServiceUnavailableException.class, () -> breaker.execute(() -> "ok"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals("ok", breaker.execute(() -> "ok"));
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testExecute_BulkheadRejectionNeitherCountsNorHoldsTrial() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(BulkheadFullException.class, this::rejected);
+        }
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(QueryTimeoutException.class, this::timeout);
+        }
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThrows(BulkheadFullException.class, this::rejected);
+        assertEquals("ok", breaker.execute(() -> "ok"));
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private Object rejected() {
+        return breaker.execute(() -> {
+            throw new BulkheadFullException("No database connections left for point-read requests");
+        });
+    }
+
+    private Object timeout() {
+        return breaker.execute(() -> {
+            calls.incrementAndGet();
+            throw new QueryTimeoutException("canceling statement due to statement timeout");
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.LowStockAlertPage;
+import com.deloitte.retail.dto.LowStockAlertResponse;
+import com.deloitte.retail.model.LowStockAlert;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.LowStockAlertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LowStockAlertService
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class LowStockAlertServiceTest {
+
+    @Mock
+    private LowStockAlertRepository lowStockAlertRepository;
+
+    private LowStockAlertService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LowStockAlertService(lowStockAlertRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "defaultReorderPoint", 10);
+        ReflectionTestUtils.setField(service, "commitLagMs", 10000L);
+    }
+
+    @Test
+    void testRecordTransition_DropBelowReorderPointRecordsLowAlert() {
+        Product product = product(20, 25, true);
+        boolean wasLow = service.isLow(product);
+        product.setQuantity(19);
+
+        service.recordTransition(wasLow, product);
+
+        ArgumentCaptor<LowStockAlert> alert = ArgumentCaptor.forClass(LowStockAlert.class);
+        verify(lowStockAlertRepository).save(alert.capture());
+        assertEquals(LowStockAlert.Type.LOW, alert.getValue().getType());
+        assertEquals(19, alert.getValue().getQuantity());
+        assertEquals(20, alert.getValue().getReorderPoint());
+    }
+
+    @Test
+    void testRecordTransition_NoAlertWhileStateUnchanged() {
+        Product product = product(null, 5, true);
+        boolean wasLow = service.isLow(product);
+        product.setQuantity(3);
+
+        assertTrue(wasLow);
+        service.recordTransition(wasLow, product);
+
+        verify(lowStockAlertRepository, never()).save(any());
+    }
+
+    @Test
+    void testRecordTransition_DeactivatingLowProductClearsAlert() {
+        Product product = product(null, 5, true);
+        boolean wasLow = service.isLow(product);
+        product.setIsActive(false);
+
+        service.recordTransition(wasLow, product);
+
+        ArgumentCaptor<LowStockAlert> alert = ArgumentCaptor.forClass(LowStockAlert.class);
+        verify(lowStockAlertRepository).save(alert.capture());
+        assertEquals(LowStockAlert.Type.CLEARED, alert.getValue().getType());
+        assertEquals(10, alert.getValue().getReorderPoint());
+    }
+
+    @Test
+    void testGetAlertsSince_StopsAtAlertsNewerThanCommitLag() {
+        LocalDateTime now = LocalDateTime.now();
+        when(lowStockAlertRepository.findByIdGreaterThanOrderByIdAsc(eq(4L), any(Pageable.class))).thenReturn(List.of(
+                alert(5L, now.minusMinutes(1)),
+                alert(6L, now.minusSeconds(1)),
+                alert(7L, now.minusMinutes(1))));
+
+        LowStockAlertPage page = service.getAlertsSince(4L, 3);
+
+        // Alert 6 may still have a lower ID open behind it, so the cursor stops before it
+        assertEquals(List.of(5L), page.getAlerts().stream().map(LowStockAlertResponse::getId).toList());
+        assertEquals(5L, page.getNextCursor());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void testGetAlertsSince_CursorStaysWhileOnlyRecentAlerts() {
+        when(lowStockAlertRepository.findByIdGreaterThanOrderByIdAsc(eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(alert(5L, LocalDateTime.now())));
+
+        LowStockAlertPage page = service.getAlertsSince(4L, 10);
+
+        assertTrue(page.getAlerts().isEmpty());
+        assertEquals(4L, page.getNextCursor());
+    }
+
+    private static LowStockAlert alert(long id, LocalDateTime createdAt) {
+        return LowStockAlert.builder()
+                .id(id)
+                .productId(1L)
+                .sku("SKU-001")
+                .type(LowStockAlert.Type.LOW)
+                .quantity(3)
+                .reorderPoint(10)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static Product product(Integer reorderPoint, int quantity, boolean active) {
+        return Product.builder()
+                .id(1L)
+                .sku("SKU-001")
+                .category("Electronics")
+                .quantity(quantity)
+                .reorderPoint(reorderPoint)
+                .isActive(active)
+                .build();
+    }
+}
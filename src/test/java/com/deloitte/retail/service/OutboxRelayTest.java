@@ -0,0 +1,98 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.OutboxEvent;
+import com.deloitte.retail.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxRelay
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryOutboxEventSink sink;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        sink = new InMemoryOutboxEventSink();
+        relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 10);
+    }
+
+    @Test
+    void testRelay_PublishesAndDeletesBatchesUntilDrained() {
+        when(outboxEventRepository.claimBatch(any(Pageable.class)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L), sink.getPublished().stream().map(OutboxEvent::getId).toList());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(outboxEventRepository, times(2)).claimBatch(any(Pageable.class));
+    }
+
+    @Test
+    void testRelay_EmptyOutboxDoesNothing() {
+        when(outboxEventRepository.claimBatch(any(Pageable.class))).thenReturn(List.of());
+
+        relay.relay();
+
+        assertTrue(sink.getPublished().isEmpty());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void testRelay_SinkFailureKeepsEventsForRetry() {
+        OutboxEventSink failingSink = events -> {
+            throw new IllegalStateException("broker unavailable");
+        };
+        relay = new OutboxRelay(outboxEventRepository, failingSink, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 10);
+        when(outboxEventRepository.claimBatch(any(Pageable.class))).thenReturn(List.of(event(1L)));
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .productId(id)
+                .sku("SKU-" + id)
+                .eventType("UPSERT")
+                .changeSequence(id)
+                .payload("{\"sequence\":" + id + "}")
+                .build();
+    }
+}
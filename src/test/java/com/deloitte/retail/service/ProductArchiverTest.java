@@ -0,0 +1,147 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.model.ArchivedProduct;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProductArchiver and the archive copy statements against the
+ * schema created by the migrations
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductArchiver.class, SimpleMeterRegistry.class})
+class ProductArchiverTest {
+
+    @Autowired
+    private ProductArchiver productArchiver;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product stale;
+    private Product recent;
+    private Product active;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productArchiver, "batchSize", 1);
+        stale = save("AR-1", false);
+        recent = save("AR-2", false);
+        active = save("AR-3", true);
+        entityManager.flush();
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(400);
+        jdbcTemplate.update("UPDATE products SET updated_at = ? WHERE id IN (?, ?)", longAgo, stale.getId(), active.getId());
+        entityManager.clear();
+    }
+
+    @Test
+    void testArchiveBatch_MovesOnlyProductsInactiveBeforeCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(180);
+
+        assertEquals(1, productArchiver.archiveBatch(cutoff));
+        assertEquals(0, productArchiver.archiveBatch(cutoff));
+
+        entityManager.clear();
+        assertFalse(productRepository.existsById(stale.getId()));
+        assertTrue(productRepository.existsById(recent.getId()));
+        assertTrue(productRepository.existsById(active.getId()));
+        ArchivedProduct archived = archivedProductRepository.findBySku("AR-1").orElseThrow();
+        assertEquals(stale.getId(), archived.getId());
+        assertEquals(new BigDecimal("12.50"), archived.getPrice());
+        assertEquals(stale.getChangeSequence(), archived.getChangeSequence());
+        assertNotNull(archived.getArchivedAt());
+    }
+
+    @Test
+    void testArchiveBatch_LeavesTombstoneForCatchUp() {
+        productArchiver.archiveBatch(LocalDateTime.now().minusDays(180));
+
+        entityManager.clear();
+        List<ProductTombstone> tombstones = productTombstoneRepository
+                .findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(0L, PageRequest.of(0, 100)).stream()
+                .filter(tombstone -> tombstone.getProductId().equals(stale.getId()))
+                .toList();
+        assertEquals(1, tombstones.size());
+        assertEquals("AR-1", tombstones.get(0).getSku());
+    }
+
+    @Test
+    void testCopyToProducts_RestoresRowWithItsId() {
+        productArchiver.archiveBatch(LocalDateTime.now().minusDays(180));
+
+        assertEquals(1, archivedProductRepository.copyToProducts(stale.getId()));
+        archivedProductRepository.deleteById(stale.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Product restored = productRepository.findById(stale.getId()).orElseThrow();
+        assertEquals("AR-1", restored.getSku());
+        assertFalse(restored.getIsActive());
+        assertFalse(archivedProductRepository.existsBySku("AR-1"));
+    }
+
+    @Test
+    void testCopyAllToProducts_RestoresSelectedRows() {
+        productArchiver.archiveBatch(LocalDateTime.now().minusDays(180));
+        List<Long> ids = archivedProductRepository.findIdsBySkuIn(List.of("AR-1", "AR-404"));
+        assertEquals(List.of(stale.getId()), ids);
+        assertEquals(ids, archivedProductRepository.findIdsByBrand("Acme"));
+
+        assertEquals(1, archivedProductRepository.copyAllToProducts(ids));
+        archivedProductRepository.deleteAllByIdInBatch(ids);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(productRepository.existsById(stale.getId()));
+        assertTrue(archivedProductRepository.findIdsByCategory("Electronics").isEmpty());
+    }
+
+    private Product save(String sku, boolean active) {
+        return productRepository.save(Product.builder()
+                .sku(sku)
+                .name("Product " + sku)
+                .price(new BigDecimal("12.50"))
+                .quantity(3)
+                .category("Electronics")
+                .brand("Acme")
+                .isActive(active)
+                .changeSequence(7L)
+                .build());
+    }
+}
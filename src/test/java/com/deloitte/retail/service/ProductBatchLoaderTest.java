@@ -0,0 +1,114 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductBatchLoader
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductBatchLoaderTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private WorkloadBulkheads workloadBulkheads;
+
+    private ProductBatchLoader loader;
+    private final ExecutorService callers = Executors.newFixedThreadPool(10);
+
+    @BeforeEach
+    void setUp() {
+        loader = new ProductBatchLoader(productRepository, productMapper, workloadBulkheads, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(loader, "enabled", true);
+        ReflectionTestUtils.setField(loader, "windowMicros", 200_000L);
+        ReflectionTestUtils.setField(loader, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(loader, "dispatcherThreads", 1);
+        loader.start();
+        lenient().when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return ProductResponse.builder().id(product.getId()).sku(product.getSku()).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testLoadById_ConcurrentLookupsShareOneQuery() throws Exception {
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (id != 404L) {
+                    found.add(Product.builder().id(id).sku("SKU-" + id).build());
+                }
+            }
+            return found;
+        });
+
+        List<Future<ProductResponse>> results = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            long productId = id;
+            results.add(callers.submit(() -> loader.loadById(productId, 5000)));
+        }
+        Future<ProductResponse> missing = callers.submit(() -> loader.loadById(404L, 5000));
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1L, results.get(i).get(5, TimeUnit.SECONDS).getId());
+        }
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(workloadBulkheads).bind(Workload.POINT_READ);
+    }
+
+    @Test
+    void testLoadBySku_FullBatchIsSentWithoutWaitingForWindow() throws Exception {
+        ReflectionTestUtils.setField(loader, "windowMicros", TimeUnit.SECONDS.toMicros(30));
+        ReflectionTestUtils.setField(loader, "maxBatchSize", 2);
+        when(productRepository.findBySkuIn(any())).thenAnswer(invocation -> {
+            Set<String> skus = new HashSet<>(invocation.<Collection<String>>getArgument(0));
+            return skus.stream().map(sku -> Product.builder().id((long) sku.hashCode()).sku(sku).build()).toList();
+        });
+
+        Future<ProductResponse> first = callers.submit(() -> loader.loadBySku("SKU-001", 5000));
+        Future<ProductResponse> second = callers.submit(() -> loader.loadBySku("SKU-002", 5000));
+
+        assertEquals("SKU-001", first.get(5, TimeUnit.SECONDS).getSku());
+        assertEquals("SKU-002", second.get(5, TimeUnit.SECONDS).getSku());
+    }
+}
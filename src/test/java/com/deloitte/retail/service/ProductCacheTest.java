@@ -0,0 +1,187 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductCache
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class ProductCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductTombstoneRepository productTombstoneRepository = mock(ProductTombstoneRepository.class);
+    private final ProductChangeWatermark productChangeWatermark = mock(ProductChangeWatermark.class);
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(productRepository, productTombstoneRepository, productChangeWatermark, 100, 60000, 60000, 30000, 600000, 10000, new SimpleMeterRegistry(),
+                nanos::get);
+    }
+
+    @Test
+    void testPut_CachesUnderIdAndSku() {
+        ProductResponse product = product(1L, "SKU-001", 5L);
+
+        productCache.put(product);
+
+        assertSame(product, productCache.getById(1L));
+        assertSame(product, productCache.getBySku("SKU-001"));
+    }
+
+    @Test
+    void testPut_OlderStateDoesNotReplaceNewer() {
+        ProductResponse newer = product(1L, "SKU-001", 6L);
+        productCache.put(newer);
+
+        productCache.put(product(1L, "SKU-001", 5L));
+
+        assertSame(newer, productCache.getById(1L));
+        assertSame(newer, productCache.getBySku("SKU-001"));
+    }
+
+    @Test
+    void testOnProductChanged_DeleteEvictsBothKeys() {
+        productCache.put(product(1L, "SKU-001", 5L));
+
+        productCache.onProductChanged(new ProductChangedEvent(ProductChange.builder()
+                .sequence(7L).type(ProductChange.Type.DELETE).productId(1L).sku("SKU-001").build(), null));
+
+        assertNull(productCache.getById(1L));
+        assertNull(productCache.getBySku("SKU-001"));
+    }
+
+    @Test
+    void testPut_ReadOlderThanDeleteDoesNotRecacheProduct() {
+        productCache.put(product(1L, "SKU-001", 5L));
+        productCache.onProductChanged(new ProductChangedEvent(ProductChange.builder()
+                .sequence(7L).type(ProductChange.Type.DELETE).productId(1L).sku("SKU-001").build(), null));
+
+        // A read that started before the delete finishes after it
+        productCache.put(product(1L, "SKU-001", 5L));
+        assertNull(productCache.getById(1L));
+        assertNull(productCache.getBySku("SKU-001"));
+
+        ProductResponse restored = product(1L, "SKU-001", 8L);
+        productCache.put(restored);
+        assertSame(restored, productCache.getById(1L));
+        assertSame(restored, productCache.getBySku("SKU-001"));
+    }
+
+    @Test
+    void testPutMissingSku_ClearedWhenProductIsCached() {
+        productCache.putMissingSku("SKU-001");
+        assertTrue(productCache.isMissingSku("SKU-001"));
+
+        productCache.onProductChanged(new ProductChangedEvent(ProductChange.builder()
+                .sequence(7L).type(ProductChange.Type.UPSERT).productId(1L).sku("SKU-001")
+                .product(product(1L, "SKU-001", 7L)).build(), null));
+
+        assertFalse(productCache.isMissingSku("SKU-001"));
+    }
+
+    @Test
+    void testGetStale_ServedPastTtlWithinTheStaleWindows() {
+        ProductResponse product = product(1L, "SKU-001", 5L);
+        productCache.put(product);
+        assertNull(productCache.getStaleById(1L));
+
+        advanceMillis(70000);
+        assertNull(productCache.getById(1L));
+        StaleProduct stale = productCache.getStaleById(1L);
+        assertSame(product, stale.getProduct());
+        assertEquals(70000, stale.getAgeMillis());
+        assertTrue(stale.isRevalidatable());
+        assertTrue(stale.isUsableOnError());
+
+        advanceMillis(60000);
+        stale = productCache.getStaleBySku("SKU-001");
+        assertFalse(stale.isRevalidatable());
+        assertTrue(stale.isUsableOnError());
+
+        productCache.put(product(1L, "SKU-001", 5L));
+        assertNotNull(productCache.getById(1L));
+
+        advanceMillis(700000);
+        assertNull(productCache.getStaleById(1L));
+    }
+
+    @Test
+    void testPollChanges_EvictsProductsWrittenByOtherInstances() {
+        productCache.put(product(1L, "SKU-001", 3L));
+        productCache.put(product(2L, "SKU-002", 9L));
+        productCache.put(product(3L, "SKU-003", 4L));
+        when(productChangeWatermark.safeSequence()).thenReturn(5L, 8L);
+        productCache.pollChanges();
+
+        // Product 1 changed its SKU and product 3 was deleted elsewhere; product 2 was written here
+        when(productRepository.findSkusByChangeSequenceBetween(eq(6L), eq(8L), any(Pageable.class)))
+                .thenReturn(List.of(skuView(1L, "SKU-001-B", 7L)));
+        when(productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(6L), eq(8L),
+                any(Pageable.class)))
+                .thenReturn(List.of(ProductTombstone.builder().changeSequence(6L).productId(3L).sku("SKU-003").build()));
+        when(productRepository.findSkusByChangeSequenceBetween(eq(9L), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(skuView(2L, "SKU-002", 9L)));
+        productCache.pollChanges();
+
+        assertNull(productCache.getById(1L));
+        assertNull(productCache.getBySku("SKU-001"));
+        assertNotNull(productCache.getById(2L));
+        assertNotNull(productCache.getBySku("SKU-002"));
+        assertNull(productCache.getById(3L));
+        assertNull(productCache.getBySku("SKU-003"));
+
+        // Changes read ahead of the watermark are not read again until it passes them
+        productCache.pollChanges();
+        verify(productRepository).findSkusByChangeSequenceBetween(eq(10L), eq(Long.MAX_VALUE), any(Pageable.class));
+    }
+
+    private static ProductRepository.SkuView skuView(long id, String sku, long changeSequence) {
+        return new ProductRepository.SkuView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+
+            @Override
+            public Long getChangeSequence() {
+                return changeSequence;
+            }
+        };
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static ProductResponse product(long id, String sku, long changeSequence) {
+        return ProductResponse.builder().id(id).sku(sku).changeSequence(changeSequence).build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductCatalogSnapshot
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class ProductCatalogSnapshotTest {
+
+    private ProductCatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new ProductCatalogSnapshot.Builder(3)
+                .addRow(product(1L, "Electronics", "9.99", true, 5L), 5L)
+                .addRow(product(2L, "Toys", "24.50", false, 6L), 6L)
+                .addRow(product(3L, "Electronics", "120.00", true, 7L), 7L)
+                .build();
+    }
+
+    @Test
+    void testQueries_ReturnMatchingRowsInIdOrder() {
+        assertEquals(List.of(1L, 3L), ids(snapshot.findByCategory("Electronics")));
+        assertEquals(List.of(1L, 3L), ids(snapshot.findActive()));
+        assertEquals(List.of(1L, 2L), ids(snapshot.findByPriceBetween(999L, 2450L)));
+        assertTrue(snapshot.findByCategory("Garden").isEmpty());
+        assertEquals(7L, snapshot.maxChangeSequence());
+    }
+
+    @Test
+    void testFindById_RoundTripsAllColumns() {
+        ProductResponse expected = product(2L, "Toys", "24.50", false, 6L);
+
+        assertEquals(expected, snapshot.findById(2L));
+        assertEquals(5, snapshot.findById(1L).getReorderPoint());
+        assertNull(snapshot.findById(4L));
+    }
+
+    @Test
+    void testApply_ReplacesInsertsAndDeletesWithoutTouchingOriginal() {
+        ProductCatalogSnapshot updated = snapshot.apply(Map.of(
+                1L, upsert(product(1L, "Toys", "9.99", true, 8L)),
+                3L, ProductChange.builder().sequence(9L).type(ProductChange.Type.DELETE).productId(3L).build(),
+                4L, upsert(product(4L, "Garden", "3.00", true, 10L))));
+
+        assertEquals(List.of(1L, 2L, 4L), ids(all(updated)));
+        assertEquals(List.of(1L, 2L), ids(updated.findByCategory("Toys")));
+        assertEquals(List.of(4L), ids(updated.findByCategory("Garden")));
+        assertEquals(List.of(1L, 3L), ids(snapshot.findByCategory("Electronics")));
+        assertEquals(10L, updated.maxChangeSequence());
+    }
+
+    @Test
+    void testApply_IgnoresOlderChangeSequence() {
+        ProductCatalogSnapshot updated = snapshot.apply(Map.of(
+                2L, upsert(product(2L, "Garden", "1.00", true, 4L))));
+
+        assertSame(snapshot, updated);
+        assertEquals("Toys", updated.findById(2L).getCategory());
+    }
+
+    @Test
+    void testApply_ReturnsSameSnapshotForChangesAlreadyHeld() {
+        ProductCatalogSnapshot updated = snapshot.apply(Map.of(
+                1L, upsert(product(1L, "Toys", "9.99", true, 5L)),
+                3L, ProductChange.builder().sequence(7L).type(ProductChange.Type.DELETE).productId(3L).build(),
+                4L, ProductChange.builder().sequence(11L).type(ProductChange.Type.DELETE).productId(4L).build()));
+
+        assertSame(snapshot, updated);
+    }
+
+    @Test
+    void testTopN_MatchesFullSortForEveryOrder() {
+        Random random = new Random(42);
+        ProductCatalogSnapshot.Builder builder = new ProductCatalogSnapshot.Builder(500);
+        for (long id = 1; id <= 500; id++) {
+            ProductResponse product = product(id, random.nextBoolean() ? "Electronics" : "Toys",
+                    random.nextInt(50) + ".99", random.nextInt(4) > 0, id);
+            product.setQuantity(random.nextInt(20));
+            product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(random.nextInt(100)));
+            builder.addRow(product, id);
+        }
+        ProductCatalogSnapshot large = builder.build();
+        List<ProductResponse> everything = large.findByPriceBetween(0L, Long.MAX_VALUE);
+
+        for (ProductSort sort : ProductSort.values()) {
+            Comparator<ProductResponse> order = comparator(sort);
+            assertEquals(everything.stream().sorted(order).limit(10).toList(), large.findAll(sort, 10), sort.name());
+            assertEquals(everything.stream().filter(p -> "Toys".equals(p.getCategory()) && p.getIsActive())
+                            .sorted(order).limit(7).toList(),
+                    large.findByCategory("Toys", true, sort, 7), sort.name());
+            assertEquals(everything.stream().filter(p -> p.getIsActive() && p.getQuantity() < 3)
+                            .sorted(order).limit(1000).toList(),
+                    large.findLowStock(3, sort, 1000), sort.name());
+        }
+    }
+
+    private static Comparator<ProductResponse> comparator(ProductSort sort) {
+        Comparator<ProductResponse> key = switch (sort) {
+            case ID -> Comparator.comparing(ProductResponse::getId);
+            case PRICE_ASC, PRICE_DESC -> Comparator.comparing(ProductResponse::getPrice);
+            case NEWEST -> Comparator.comparing(ProductResponse::getCreatedAt);
+            case RECENTLY_UPDATED -> Comparator.comparing(ProductResponse::getUpdatedAt);
+            case QUANTITY_ASC -> Comparator.comparing(ProductResponse::getQuantity);
+        };
+        Comparator<ProductResponse> order = key.thenComparing(ProductResponse::getId);
+        return sort.isDescending() ? order.reversed() : order;
+    }
+
+    private static List<ProductResponse> all(ProductCatalogSnapshot snapshot) {
+        return snapshot.findByPriceBetween(0L, Long.MAX_VALUE);
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+
+    private static ProductChange upsert(ProductResponse product) {
+        return ProductChange.builder()
+                .sequence(product.getChangeSequence())
+                .type(ProductChange.Type.UPSERT)
+                .productId(product.getId())
+                .sku(product.getSku())
+                .product(product)
+                .build();
+    }
+
+    private static ProductResponse product(long id, String category, String price, boolean active, long sequence) {
+        return ProductResponse.builder()
+                .id(id)
+                .sku("SKU-00" + id)
+                .name("Product " + id)
+                .description("Description " + id)
+                .price(new BigDecimal(price))
+                .quantity((int) id * 10)
+                .reorderPoint(id % 2 == 1 ? 5 : null)
+                .category(category)
+                .brand("TestBrand")
+                .isActive(active)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_000))
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 10, 0))
+                .changeSequence(sequence)
+                .build();
+    }
+}
@@ -0,0 +1,291 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductChangeBroadcaster
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductChangeBroadcasterTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
+    @Mock
+    private ProductChangeSequence productChangeSequence;
+
+    private ProductChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ProductChangeBroadcaster(productService, productChangeWatermark,
+                productChangeSequence, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 2);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "heartbeatIntervalMs", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "maxReplay", 100);
+        ReflectionTestUtils.setField(broadcaster, "dispatcherThreads", 1);
+        ReflectionTestUtils.setField(broadcaster, "pollIntervalMs", 10L);
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void testSubscriber_CoalescesUpdatesToSameProduct() {
+        ProductChangeBroadcaster.Subscriber subscriber = new ProductChangeBroadcaster.Subscriber(
+                1L, Collections.emptySet(), Collections.emptySet(), new RecordingSink());
+
+        assertTrue(subscriber.offer(upsert(1L, 1L, "SKU-001", "Electronics"), 2));
+        assertTrue(subscriber.offer(upsert(2L, 2L, "SKU-002", "Electronics"), 2));
+        assertTrue(subscriber.offer(upsert(3L, 1L, "SKU-001", "Electronics"), 2));
+
+        List<ProductChange> drained = subscriber.drain();
+        assertEquals(2, drained.size());
+        assertEquals(2L, drained.get(0).getSequence());
+        assertEquals(3L, drained.get(1).getSequence());
+    }
+
+    @Test
+    void testSubscriber_RejectsNewProductWhenBufferFull() {
+        ProductChangeBroadcaster.Subscriber subscriber = new ProductChangeBroadcaster.Subscriber(
+                1L, Collections.emptySet(), Collections.emptySet(), new RecordingSink());
+
+        assertTrue(subscriber.offer(upsert(1L, 1L, "SKU-001", null), 2));
+        assertTrue(subscriber.offer(upsert(2L, 2L, "SKU-002", null), 2));
+
+        assertFalse(subscriber.offer(upsert(3L, 3L, "SKU-003", null), 2));
+    }
+
+    @Test
+    void testFanOut_DeliversOnlyMatchingChanges() throws Exception {
+        RecordingSink skuSink = new RecordingSink(1);
+        RecordingSink categorySink = new RecordingSink(2);
+        broadcaster.register(List.of("SKU-001"), null, null, skuSink);
+        broadcaster.register(null, List.of("Toys"), null, categorySink);
+
+        broadcaster.fanOut(event(upsert(1L, 1L, "SKU-001", "Electronics")));
+        broadcaster.fanOut(event(upsert(2L, 2L, "SKU-002", "Toys")));
+        broadcaster.fanOut(event(upsert(3L, 3L, "SKU-003", "Garden")));
+        broadcaster.fanOut(new ProductChangedEvent(ProductChange.builder()
+                .sequence(4L).type(ProductChange.Type.DELETE).productId(5L).sku("SKU-005").build(), "Toys"));
+
+        assertTrue(skuSink.await());
+        assertTrue(categorySink.await());
+        assertEquals(List.of(1L), skuSink.sequences());
+        assertEquals(List.of(2L, 4L), categorySink.sequences());
+    }
+
+    @Test
+    void testFanOut_EventIdNeverPassesWatermark() throws Exception {
+        when(productChangeWatermark.safeSequence()).thenReturn(6L);
+        RecordingSink sink = new RecordingSink(2);
+        broadcaster.register(null, null, null, sink);
+
+        broadcaster.fanOut(event(upsert(5L, 1L, "SKU-001", null)));
+        broadcaster.fanOut(event(upsert(9L, 2L, "SKU-002", null)));
+
+        assertTrue(sink.await());
+        assertEquals(List.of(5L, 9L), sink.sequences());
+        assertEquals(List.of(5L, 6L), sink.eventIds());
+    }
+
+    @Test
+    void testFanOut_DisconnectsSlowConsumer() {
+        RecordingSink sink = new RecordingSink();
+        ProductChangeBroadcaster.Subscriber subscriber = broadcaster.register(null, null, null, sink);
+        // Keep the subscriber in replay so nothing drains while the buffer fills
+        subscriber.replaying = true;
+
+        broadcaster.fanOut(event(upsert(1L, 1L, "SKU-001", null)));
+        broadcaster.fanOut(event(upsert(2L, 2L, "SKU-002", null)));
+        broadcaster.fanOut(event(upsert(3L, 3L, "SKU-003", null)));
+
+        assertTrue(sink.closed);
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void testPollChanges_PushesWritesOfOtherInstancesOnce() throws Exception {
+        when(productChangeWatermark.safeSequence()).thenReturn(5L, 8L);
+        RecordingSink sink = new RecordingSink(2);
+        broadcaster.register(null, null, null, sink);
+        broadcaster.pollChanges();
+
+        // Product 1 was written here, product 2 on another instance
+        broadcaster.onProductChanged(event(upsert(6L, 1L, "SKU-001", null)));
+        when(productService.getChangesSince(5L, 500)).thenReturn(ProductChangePage.builder()
+                .changes(List.of(upsert(6L, 1L, "SKU-001", null), upsert(7L, 2L, "SKU-002", null)))
+                .nextCursor(7L)
+                .hasMore(false)
+                .build());
+        broadcaster.pollChanges();
+
+        assertTrue(sink.await());
+        assertEquals(List.of(6L, 7L), sink.sequences());
+        when(productService.getChangesSince(8L, 500)).thenReturn(ProductChangePage.builder()
+                .changes(List.of()).nextCursor(8L).hasMore(false).build());
+        broadcaster.pollChanges();
+        verify(productService).getChangesSince(8L, 500);
+    }
+
+    @Test
+    void testSubscriber_KeepsLaterPendingChangeOfSameProduct() {
+        ProductChangeBroadcaster.Subscriber subscriber = new ProductChangeBroadcaster.Subscriber(
+                1L, Collections.emptySet(), Collections.emptySet(), new RecordingSink());
+
+        assertTrue(subscriber.offer(upsert(9L, 1L, "SKU-001", null), 2));
+        assertTrue(subscriber.offer(upsert(7L, 1L, "SKU-001", null), 2));
+
+        assertEquals(List.of(9L), subscriber.drain().stream().map(ProductChange::getSequence).toList());
+    }
+
+    @Test
+    void testRegister_ResumeReplaysMissedChangesFromFeed() throws Exception {
+        when(productService.getChangesSince(10L, 500)).thenReturn(ProductChangePage.builder()
+                .changes(List.of(upsert(11L, 1L, "SKU-001", null), upsert(12L, 2L, "SKU-002", null)))
+                .nextCursor(12L)
+                .hasMore(false)
+                .build());
+        RecordingSink sink = new RecordingSink(1);
+
+        broadcaster.register(List.of("SKU-002"), null, 10L, sink);
+
+        assertTrue(sink.await());
+        assertEquals(List.of(12L), sink.sequences());
+    }
+
+    @Test
+    void testRegister_ResumeWaitsForChangesCommittedBeforeRegistering() throws Exception {
+        // Change 14 committed between disconnect and reconnect, with the watermark still at 12
+        when(productChangeSequence.current()).thenReturn(14L);
+        when(productChangeWatermark.safeSequence()).thenReturn(12L, 12L, 14L);
+        when(productService.getChangesSince(10L, 500)).thenReturn(ProductChangePage.builder()
+                .changes(List.of(upsert(11L, 1L, "SKU-001", null)))
+                .nextCursor(11L)
+                .hasMore(false)
+                .build());
+        when(productService.getChangesSince(11L, 500)).thenReturn(
+                ProductChangePage.builder().changes(List.of()).nextCursor(11L).hasMore(false).build(),
+                ProductChangePage.builder()
+                        .changes(List.of(upsert(14L, 2L, "SKU-002", null)))
+                        .nextCursor(14L)
+                        .hasMore(false)
+                        .build());
+        RecordingSink sink = new RecordingSink(2);
+
+        ProductChangeBroadcaster.Subscriber subscriber = broadcaster.register(null, null, 10L, sink);
+
+        assertTrue(sink.await());
+        assertEquals(List.of(11L, 14L), sink.sequences());
+        assertTrue(eventually(() -> !subscriber.replaying));
+        assertEquals(14L, subscriber.replayedUpTo);
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private static ProductChangedEvent event(ProductChange change) {
+        return new ProductChangedEvent(change, change.getProduct().getCategory());
+    }
+
+    private static ProductChange upsert(long sequence, long productId, String sku, String category) {
+        return ProductChange.builder()
+                .sequence(sequence)
+                .type(ProductChange.Type.UPSERT)
+                .productId(productId)
+                .sku(sku)
+                .product(ProductResponse.builder().id(productId).sku(sku).category(category).build())
+                .build();
+    }
+
+    private static class RecordingSink implements ProductChangeBroadcaster.EventSink {
+
+        private final List<ProductChange> sent = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> eventIds = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch latch;
+        private volatile boolean closed;
+
+        RecordingSink() {
+            this(0);
+        }
+
+        RecordingSink(int expected) {
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(ProductChange change, long eventId) {
+            sent.add(change);
+            eventIds.add(eventId);
+            latch.countDown();
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void resync() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        List<Long> eventIds() {
+            synchronized (eventIds) {
+                return List.copyOf(eventIds);
+            }
+        }
+
+        List<Long> sequences() {
+            synchronized (sent) {
+                return sent.stream().map(ProductChange::getSequence).toList();
+            }
+        }
+    }
+}
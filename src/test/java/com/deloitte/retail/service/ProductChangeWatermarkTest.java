@@ -0,0 +1,221 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ProductChangeWatermark and the change feed it bounds, with
+ * writes committing out of change sequence order
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductService.class, ProductChangeSequence.class, ProductChangeWatermarkTest.WatermarkConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductChangeWatermarkTest {
+
+    private static final long COMMIT_LAG_MS = 1000L;
+
+    private static final AtomicLong NANOS = new AtomicLong();
+
+    @MockBean
+    private ProductMapper productMapper;
+
+    @MockBean
+    private ProductCache productCache;
+
+    @MockBean
+    private ProductBatchLoader productBatchLoader;
+
+    @MockBean
+    private ProductSnapshotStore productSnapshotStore;
+
+    @MockBean
+    private LowStockAlertService lowStockAlertService;
+
+    @MockBean
+    private SkuFilter skuFilter;
+
+    @MockBean
+    private ProductSuggester productSuggester;
+
+    @MockBean
+    private ProductSearcher productSearcher;
+
+    @MockBean
+    private DatabaseCircuitBreaker databaseCircuitBreaker;
+
+    @MockBean
+    private BackgroundRefresher backgroundRefresher;
+
+    @MockBean
+    private WorkloadBulkheads workloadBulkheads;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeWatermark productChangeWatermark;
+
+    @Autowired
+    private ProductChangeSequence productChangeSequence;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class WatermarkConfig {
+
+        @Bean
+        ProductChangeWatermark productChangeWatermark(ProductChangeSequence productChangeSequence,
+                                                      ProductRepository productRepository) {
+            return new ProductChangeWatermark(productChangeSequence, productRepository, COMMIT_LAG_MS,
+                    TimeUnit.DAYS.toMillis(1), NANOS::get);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE 'WM-%'");
+    }
+
+    @Test
+    void testGetChangesSince_LowerSequenceCommittingLateIsNotSkipped() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long cursor = productChangeWatermark.safeSequence();
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Product> late = executor.submit(() -> transaction.execute(status -> {
+                Product product = save("WM-LATE");
+                written.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return product;
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+            Product early = transaction.execute(status -> save("WM-EARLY"));
+            productChangeWatermark.sample();
+
+            // A cursor taken from the highest visible sequence would pass the open write
+            List<Product> visible = productRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(
+                    cursor, PageRequest.of(0, 100));
+            assertEquals(List.of("WM-EARLY"), visible.stream().map(Product::getSku).toList());
+
+            ProductChangePage before = productService.getChangesSince(cursor, 100);
+            assertTrue(before.getChanges().isEmpty());
+            assertEquals(cursor, before.getNextCursor());
+
+            commit.countDown();
+            Product committedLate = late.get(10, TimeUnit.SECONDS);
+            assertTrue(committedLate.getChangeSequence() < early.getChangeSequence());
+            NANOS.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMMIT_LAG_MS));
+
+            ProductChangePage after = productService.getChangesSince(before.getNextCursor(), 100);
+            assertEquals(List.of(committedLate.getChangeSequence(), early.getChangeSequence()),
+                    after.getChanges().stream().map(ProductChange::getSequence).toList());
+            assertEquals(early.getChangeSequence(), after.getNextCursor());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSafeSequence_FollowsSamplesOnceOlderThanCommitLag() {
+        AtomicLong nanos = new AtomicLong();
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findFirstByUpdatedAtLessThanOrderByUpdatedAtDesc(any()))
+                .thenReturn(Optional.of(Product.builder().changeSequence(3L).build()));
+        ProductChangeWatermark watermark = new ProductChangeWatermark(mock(ProductChangeSequence.class), repository,
+                COMMIT_LAG_MS, COMMIT_LAG_MS, nanos::get);
+
+        watermark.record(5L);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMMIT_LAG_MS / 2));
+        watermark.record(9L);
+        assertEquals(3L, watermark.safeSequence(), "seeded from the last product updated before twice the lag");
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMMIT_LAG_MS / 2));
+        assertEquals(5L, watermark.safeSequence());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMMIT_LAG_MS));
+        watermark.record(7L);
+        assertEquals(9L, watermark.safeSequence());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMMIT_LAG_MS));
+        assertEquals(9L, watermark.safeSequence(), "the watermark never moves back");
+        verify(repository, times(1)).findFirstByUpdatedAtLessThanOrderByUpdatedAtDesc(any());
+    }
+
+    @Test
+    void testCheckTransactionTimeout_RequiresTimeoutBelowCommitLag() {
+        DataSourceTransactionManager manager = new DataSourceTransactionManager();
+        assertThrows(IllegalStateException.class,
+                () -> ProductChangeWatermark.checkTransactionTimeout(manager, COMMIT_LAG_MS));
+
+        manager.setDefaultTimeout((int) TimeUnit.MILLISECONDS.toSeconds(COMMIT_LAG_MS));
+        assertThrows(IllegalStateException.class,
+                () -> ProductChangeWatermark.checkTransactionTimeout(manager, COMMIT_LAG_MS));
+
+        manager.setDefaultTimeout((int) TimeUnit.MILLISECONDS.toSeconds(COMMIT_LAG_MS) - 1);
+        assertDoesNotThrow(() -> ProductChangeWatermark.checkTransactionTimeout(manager, COMMIT_LAG_MS));
+    }
+
+    private Product save(String sku) {
+        return productRepository.saveAndFlush(Product.builder()
+                .sku(sku)
+                .name("Product " + sku)
+                .price(new BigDecimal("12.50"))
+                .quantity(3)
+                .category("Electronics")
+                .isActive(true)
+                .changeSequence(productChangeSequence.next())
+                .build());
+    }
+}
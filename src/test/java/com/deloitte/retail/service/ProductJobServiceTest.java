@@ -0,0 +1,310 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.PriceRule;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductJobRequest;
+import com.deloitte.retail.dto.ProductJobResponse;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.exception.InvalidRequestException;
+import com.deloitte.retail.exception.ResourceNotFoundException;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.ArchivedProduct;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.PriceChange;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductPriceUpdater;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductJobService
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductJobServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Mock
+    private ProductChangeSequence productChangeSequence;
+
+    @Mock
+    private ProductPriceUpdater productPriceUpdater;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private LowStockAlertService lowStockAlertService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private ProductJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductJobService(productRepository, productTombstoneRepository, archivedProductRepository,
+                productChangeSequence, productPriceUpdater, productMapper, lowStockAlertService, eventPublisher, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "chunkPauseMs", 0L);
+        ReflectionTestUtils.setField(service, "dryRunSampleSize", 10);
+        ReflectionTestUtils.setField(service, "maxQueued", 10);
+        ReflectionTestUtils.setField(service, "retentionMs", 60000L);
+        service.start();
+        service.stop();
+        ReflectionTestUtils.setField(service, "executor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void testSubmit_DeactivatesBrandInChunksSkippingUnchangedProducts() {
+        Product active = product(1L, "TestBrand", true);
+        Product inactive = product(2L, "TestBrand", false);
+        Product moved = product(3L, "OtherBrand", true);
+        when(productRepository.findIdsByBrand("TestBrand")).thenReturn(List.of(1L, 2L, 3L));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(active, inactive));
+        when(productRepository.findAllById(List.of(3L))).thenReturn(List.of(moved));
+        when(productChangeSequence.next()).thenReturn(100L);
+        when(productMapper.toResponse(active)).thenReturn(ProductResponse.builder().id(1L).isActive(false).build());
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DEACTIVATE).brand("TestBrand").build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.SUCCEEDED, job.getStatus());
+        assertEquals(3, job.getTotal());
+        assertEquals(3, job.getProcessed());
+        assertEquals(1, job.getChanged());
+        assertFalse(active.getIsActive());
+        assertTrue(moved.getIsActive());
+        assertEquals(100L, active.getChangeSequence());
+        verify(lowStockAlertService).recordTransition(false, active);
+        verify(productRepository).saveAll(List.of(active));
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductChange.Type.UPSERT, event.getValue().getChange().getType());
+        assertEquals(100L, event.getValue().getChange().getSequence());
+    }
+
+    @Test
+    void testSubmit_DeletesSkusWithTombstones() {
+        Product product = product(5L, "TestBrand", true);
+        when(productRepository.findIdsBySkuIn(List.of("SKU-5", "SKU-404"))).thenReturn(List.of(5L));
+        when(productRepository.findAllById(List.of(5L))).thenReturn(List.of(product));
+        when(productTombstoneRepository.saveAll(anyList())).thenReturn(List.of(ProductTombstone.builder()
+                .changeSequence(200L).productId(5L).sku("SKU-5").build()));
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DELETE).skus(List.of("SKU-5", "SKU-404", "SKU-5")).build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.SUCCEEDED, job.getStatus());
+        assertEquals(1, job.getChanged());
+        assertEquals(3, job.getSkuCount());
+        verify(productRepository).deleteAllByIdInBatch(List.of(5L));
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductChange.Type.DELETE, event.getValue().getChange().getType());
+        assertEquals(200L, event.getValue().getChange().getSequence());
+        assertEquals("Electronics", event.getValue().getCategory());
+    }
+
+    @Test
+    void testSubmit_ReactivatesArchivedProductsAfterRestoringThem() {
+        Product hot = product(1L, "TestBrand", false);
+        Product restored = product(2L, "TestBrand", false);
+        when(productRepository.findIdsByBrand("TestBrand")).thenReturn(List.of(1L));
+        when(archivedProductRepository.findIdsByBrand("TestBrand")).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(hot));
+        when(archivedProductRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(ArchivedProduct.builder().id(2L).sku("SKU-2").build()));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(restored));
+        when(productChangeSequence.next()).thenReturn(100L, 101L, 102L);
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REACTIVATE).brand("TestBrand").build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.SUCCEEDED, job.getStatus());
+        assertEquals(2, job.getTotal());
+        assertEquals(2, job.getChanged());
+        verify(archivedProductRepository).copyAllToProducts(List.of(2L));
+        verify(archivedProductRepository).deleteAllByIdInBatch(List.of(2L));
+        assertTrue(restored.getIsActive());
+        assertEquals(102L, restored.getChangeSequence());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void testSubmit_DeactivateLeavesArchivedProductsAlone() {
+        when(productRepository.findIdsByCategory("Electronics")).thenReturn(List.of(1L));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of());
+
+        service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DEACTIVATE).category("Electronics").build());
+
+        verifyNoInteractions(archivedProductRepository);
+    }
+
+    @Test
+    void testSubmit_ChunkFailureFailsJobKeepingProgress() {
+        when(productRepository.findIdsByCategory("Electronics")).thenReturn(List.of(1L, 2L, 3L));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of());
+        when(productRepository.findAllById(List.of(3L))).thenThrow(new QueryTimeoutException("statement timeout"));
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REACTIVATE).category("Electronics").build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.FAILED, job.getStatus());
+        assertEquals(2, job.getProcessed());
+        assertEquals("statement timeout", job.getError());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void testCancel_QueuedJobNeverStarts() {
+        ReflectionTestUtils.setField(service, "executor", (Executor) queued::add);
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DELETE).category("Electronics").build());
+        assertEquals(ProductJobResponse.Status.QUEUED, response.getStatus());
+        assertEquals(ProductJobResponse.Status.CANCELLED, service.cancel(response.getId()).getStatus());
+
+        queued.forEach(Runnable::run);
+        assertEquals(ProductJobResponse.Status.CANCELLED, service.getJob(response.getId()).getStatus());
+        verifyNoInteractions(productRepository);
+        assertThrows(ResourceNotFoundException.class, () -> service.cancel("unknown"));
+    }
+
+    @Test
+    void testSubmit_RequiresExactlyOneSelector() {
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DELETE).build()));
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DELETE).category("Electronics").brand("TestBrand").build()));
+        verify(productRepository, never()).findIdsByCategory(any());
+    }
+
+    @Test
+    void testSubmit_RepricesChunksAndPublishesOnlyRowsWritten() {
+        Product repriced = product(1L, "TestBrand", true);
+        repriced.setChangeSequence(301L);
+        Product untouched = product(2L, "TestBrand", true);
+        untouched.setChangeSequence(7L);
+        when(productPriceUpdater.findIds(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(productChangeSequence.next()).thenReturn(300L, 400L);
+        when(productPriceUpdater.update(any(), eq(List.of(1L, 2L)))).thenReturn(1);
+        when(productPriceUpdater.update(any(), eq(List.of(3L)))).thenReturn(0);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(repriced, untouched));
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REPRICE).brand("TestBrand").minPrice(new BigDecimal("10"))
+                .priceRule(PriceRule.builder().type(PriceRule.Type.PERCENT).value(new BigDecimal("-2.5"))
+                        .rounding(PriceRule.Rounding.ENDING_99).build())
+                .build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.SUCCEEDED, job.getStatus());
+        assertEquals(3, job.getProcessed());
+        assertEquals(1, job.getChanged());
+        ArgumentCaptor<PriceChange> change = ArgumentCaptor.forClass(PriceChange.class);
+        verify(productPriceUpdater).findIds(change.capture());
+        assertEquals(0, new BigDecimal("0.975").compareTo(change.getValue().getFactor()));
+        assertNull(change.getValue().getAmount());
+        assertTrue(change.getValue().isEnding99());
+        assertEquals("TestBrand", change.getValue().getBrand());
+        assertNull(change.getValue().getCategory());
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getChange().getProductId());
+        assertEquals(301L, event.getValue().getChange().getSequence());
+        verify(productRepository, never()).findAllById(List.of(3L));
+    }
+
+    @Test
+    void testSubmit_DryRunReportsPreviewWithoutWriting() {
+        when(productPriceUpdater.preview(any(), eq(10))).thenReturn(new ProductPriceUpdater.PricePreview(5, 3, 1,
+                List.of(new ProductPriceUpdater.PricePreview.Sample(1L, "SKU-1", new BigDecimal("10.00"), new BigDecimal("10.50")))));
+
+        ProductJobResponse response = service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REPRICE).category("Electronics").dryRun(true)
+                .priceRule(PriceRule.builder().type(PriceRule.Type.AMOUNT).value(new BigDecimal("0.50")).build())
+                .build());
+
+        ProductJobResponse job = service.getJob(response.getId());
+        assertEquals(ProductJobResponse.Status.SUCCEEDED, job.getStatus());
+        assertTrue(job.isDryRun());
+        assertEquals(5, job.getTotal());
+        assertEquals(3, job.getChanged());
+        assertEquals(1, job.getOutOfRange());
+        assertEquals(new BigDecimal("10.50"), job.getSample().get(0).getNewPrice());
+        verify(productPriceUpdater, never()).update(any(), anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testSubmit_RejectsPriceOptionsOutsideReprice() {
+        PriceRule rule = PriceRule.builder().type(PriceRule.Type.PERCENT).value(BigDecimal.ONE).build();
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REPRICE).build()));
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REPRICE).priceRule(rule).skus(List.of("SKU-1")).build()));
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.REPRICE).priceRule(rule)
+                .minPrice(BigDecimal.TEN).maxPrice(BigDecimal.ONE).build()));
+        assertThrows(InvalidRequestException.class, () -> service.submit(ProductJobRequest.builder()
+                .action(ProductJobRequest.Action.DEACTIVATE).category("Electronics").priceRule(rule).build()));
+        verifyNoInteractions(productPriceUpdater);
+    }
+
+    private static Product product(long id, String brand, boolean active) {
+        return Product.builder()
+                .id(id)
+                .sku("SKU-" + id)
+                .name("Product " + id)
+                .quantity(50)
+                .category("Electronics")
+                .brand(brand)
+                .isActive(active)
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductSearcher and ProductSearchIndex
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSearcherTest {
+
+    private static final String[] WORDS = {"smart", "phone", "speaker", "cable", "charger", "wireless", "audio", "black"};
+
+    @Mock
+    private ProductSnapshotStore productSnapshotStore;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    private ProductSearcher searcher;
+
+    @BeforeEach
+    void setUp() {
+        searcher = new ProductSearcher(productSnapshotStore, productRepository, productChangeWatermark,
+                productMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(searcher, "enabled", true);
+        ReflectionTestUtils.setField(searcher, "compactThreshold", 1000);
+    }
+
+    @Test
+    void testSearch_RanksNameAboveDescriptionAndSkipsInactive() {
+        load(product(1L, "Phone Case", "Acme", "Accessories", "Fits every speaker", true),
+                product(2L, "Bluetooth Speaker", "Acme", "Audio", "Portable", true),
+                product(3L, "Speaker Stand", "Acme", "Audio", "Old", false),
+                product(4L, "Desk Lamp", "Lumo", "Lighting", "Warm light for the desk", true));
+
+        assertEquals(List.of(2L, 1L), searcher.search("speaker", 10));
+        assertEquals(List.of(2L), searcher.search("speaker", 1));
+        assertEquals(List.of(4L), searcher.search("lumo lighting", 10));
+        assertEquals(List.of(2L, 1L), searcher.search("Spaeker", 10));
+        assertTrue(searcher.search("the for", 10).isEmpty());
+        assertTrue(searcher.search("zebra", 10).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testOnProductChanged_WritesVisibleBeforeAndAfterCompaction() {
+        load(product(1L, "Smart TV", "Acme", "Video", "", true),
+                product(2L, "Smart Phone", "Acme", "Phones", "", true));
+
+        searcher.onProductChanged(upsert(product(3L, "Smart Speaker", "Acme", "Audio", "", true), 10L));
+        searcher.onProductChanged(upsert(product(1L, "Smart TV", "Acme", "Video", "", false), 11L));
+        searcher.onProductChanged(delete(2L, 12L));
+        assertEquals(List.of(3L), searcher.search("smart", 10));
+
+        searcher.compact();
+        assertEquals(List.of(3L), searcher.search("smart", 10));
+
+        searcher.onProductChanged(upsert(product(2L, "Smart Phone", "Acme", "Phones", "", true), 9L));
+        assertEquals(List.of(3L), searcher.search("smart", 10));
+    }
+
+    @Test
+    void testOnProductChanged_WritesBeforeLoadAreKept() {
+        searcher.onProductChanged(upsert(product(3L, "Smart Speaker", "Acme", "Audio", "", true), 10L));
+
+        load(product(1L, "Smart TV", "Acme", "Video", "", true));
+
+        assertEquals(Set.of(1L, 3L), Set.copyOf(searcher.search("smart", 10)));
+    }
+
+    @Test
+    void testPollChanges_AddsWritesOfOtherInstancesUpToTheWatermark() {
+        when(productSnapshotStore.caughtUpTo()).thenReturn(2L);
+        load(product(1L, "Smart TV", "Acme", "Video", "", true),
+                product(2L, "Smart Phone", "Acme", "Phones", "", true));
+        when(productChangeWatermark.safeSequence()).thenReturn(8L);
+        when(productSnapshotStore.changesSince(2L)).thenReturn(Map.of(
+                3L, upsert(product(3L, "Smart Speaker", "Acme", "Audio", "", true), 7L).getChange(),
+                2L, delete(2L, 6L).getChange()));
+
+        searcher.pollChanges();
+
+        assertEquals(Set.of(1L, 3L), Set.copyOf(searcher.search("smart", 10)));
+        searcher.pollChanges();
+        verify(productSnapshotStore).changesSince(8L);
+    }
+
+    @Test
+    void testSearch_TopKMatchesExhaustiveScoring() {
+        Random random = new Random(7);
+        List<ProductResponse> products = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            products.add(product(id, words(random, 1 + random.nextInt(3)), words(random, 1), words(random, 1),
+                    words(random, random.nextInt(6)), random.nextInt(10) > 0));
+        }
+        load(products.toArray(new ProductResponse[0]));
+        ProductSearchIndex index = (ProductSearchIndex) ReflectionTestUtils.getField(searcher, "index");
+
+        for (String text : List.of("smart", "smart phone", "wireless audio cable", "blak charger", "phone speaker black")) {
+            ProductSearchIndex.Query query = index.query(text);
+            List<ProductSearchIndex.Hit> all = index.search(query, products.size(), id -> false);
+            List<ProductSearchIndex.Hit> top = index.search(query, 10, id -> false);
+            assertEquals(Math.min(10, all.size()), top.size(), text);
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(all.get(i).getScore(), top.get(i).getScore(), 1e-4, text);
+            }
+            assertEquals(top.stream().map(ProductSearchIndex.Hit::getId).toList(), searcher.search(text, 10), text);
+        }
+        assertFalse(index.query("blak").isEmpty());
+    }
+
+    private void load(ProductResponse... products) {
+        ProductCatalogSnapshot.Builder builder = new ProductCatalogSnapshot.Builder(products.length);
+        for (ProductResponse product : products) {
+            builder.addRow(product, product.getChangeSequence());
+        }
+        when(productSnapshotStore.current()).thenReturn(builder.build());
+        searcher.load();
+    }
+
+    private static ProductChangedEvent upsert(ProductResponse product, long sequence) {
+        product.setChangeSequence(sequence);
+        return new ProductChangedEvent(ProductChange.builder()
+                .sequence(sequence).type(ProductChange.Type.UPSERT).productId(product.getId()).sku(product.getSku())
+                .product(product).build(), product.getCategory());
+    }
+
+    private static ProductChangedEvent delete(long id, long sequence) {
+        return new ProductChangedEvent(ProductChange.builder()
+                .sequence(sequence).type(ProductChange.Type.DELETE).productId(id).build(), null);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static ProductResponse product(long id, String name, String brand, String category,
+                                           String description, boolean active) {
+        return ProductResponse.builder()
+                .id(id)
+                .sku("SKU-" + id)
+                .name(name)
+                .brand(brand)
+                .category(category)
+                .description(description)
+                .price(new BigDecimal("9.99"))
+                .quantity(10)
+                .isActive(active)
+                .changeSequence(id)
+                .build();
+    }
+}
@@ -1,20 +1,41 @@
 package com.deloitte.retail.service;
 
+import com.deloitte.retail.dto.ProductBatchGetResponse;
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductChangePage;
 import com.deloitte.retail.dto.ProductRequest;
 import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSort;
+import com.deloitte.retail.dto.ProductSuggestion;
 import com.deloitte.retail.exception.DuplicateResourceException;
+import com.deloitte.retail.exception.InvalidRequestException;
 import com.deloitte.retail.exception.ResourceNotFoundException;
 import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.ArchivedProduct;
 import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductChangeSequence;
 import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +43,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,9 +60,54 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Mock
+    private ProductChangeSequence productChangeSequence;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductBatchLoader productBatchLoader;
+
+    @Mock
+    private ProductSnapshotStore productSnapshotStore;
+
+    @Mock
+    private LowStockAlertService lowStockAlertService;
+
+    @Mock
+    private SkuFilter skuFilter;
+
+    @Mock
+    private ProductSuggester productSuggester;
+
+    @Mock
+    private ProductSearcher productSearcher;
+
+    @Spy
+    private DatabaseCircuitBreaker databaseCircuitBreaker = new DatabaseCircuitBreaker(new SimpleMeterRegistry());
+
+    @Mock
+    private BackgroundRefresher backgroundRefresher;
+
+    @Mock
+    private WorkloadBulkheads workloadBulkheads;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -127,6 +195,92 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         verify(productRepository).findById(1L);
+        verify(productCache).put(productResponse);
+    }
+
+    @Test
+    void testGetProductById_UsesBatchLoaderWhenEnabled() {
+        when(productBatchLoader.isEnabled()).thenReturn(true);
+        when(productBatchLoader.loadById(eq(1L), anyLong())).thenReturn(productResponse);
+
+        ProductResponse result = productService.getProductById(1L);
+
+        assertSame(productResponse, result);
+        verify(productRepository, never()).findById(any());
+        verify(productCache).put(productResponse);
+    }
+
+    @Test
+    void testGetProductById_ServedFromCache() {
+        when(productCache.getById(1L)).thenReturn(productResponse);
+
+        ProductResponse result = productService.getProductById(1L);
+
+        assertSame(productResponse, result);
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetProductById_CacheHitServedWhenBulkheadFull() {
+        lenient().when(workloadBulkheads.enter(Workload.POINT_READ))
+                .thenThrow(new BulkheadFullException("Too many concurrent point-read requests"));
+        when(productCache.getById(1L)).thenReturn(productResponse);
+
+        assertSame(productResponse, productService.getProductById(1L));
+        verify(workloadBulkheads, never()).enter(any());
+    }
+
+    @Test
+    void testGetProductById_DatabaseReadTakesPointReadPermit() {
+        when(workloadBulkheads.enter(Workload.POINT_READ)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        productService.getProductById(1L);
+
+        InOrder order = inOrder(workloadBulkheads, productRepository);
+        order.verify(workloadBulkheads).enter(Workload.POINT_READ);
+        order.verify(productRepository).findById(1L);
+        order.verify(workloadBulkheads).exit();
+    }
+
+    @Test
+    void testGetProductBySku_StaleEntryServedWhenBulkheadFull() {
+        when(productCache.getStaleBySku("SKU-001")).thenReturn(new StaleProduct(productResponse, 900000, false, true));
+        when(workloadBulkheads.enter(Workload.POINT_READ))
+                .thenThrow(new BulkheadFullException("Too many concurrent point-read requests"));
+
+        assertSame(productResponse, productService.getProductBySku("SKU-001"));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProductById_StaleEntryServedWhileRefreshing() {
+        when(productCache.getStaleById(1L)).thenReturn(new StaleProduct(productResponse, 70000, true, true));
+
+        ProductResponse result = productService.getProductById(1L);
+
+        assertSame(productResponse, result);
+        verify(backgroundRefresher).refresh(eq("id:1"), any(Runnable.class));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProductById_StaleEntryServedWhenDatabaseTimesOut() {
+        when(productCache.getStaleById(1L)).thenReturn(new StaleProduct(productResponse, 900000, false, true));
+        when(productRepository.findById(1L)).thenThrow(new QueryTimeoutException("statement timeout"));
+
+        ProductResponse result = productService.getProductById(1L);
+
+        assertSame(productResponse, result);
+        verifyNoInteractions(backgroundRefresher);
+    }
+
+    @Test
+    void testGetProductBySku_DatabaseFailureWithoutStaleEntryPropagates() {
+        when(productRepository.findBySku("SKU-001")).thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> productService.getProductBySku("SKU-001"));
     }
 
     @Test
@@ -140,6 +294,56 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
     }
 
+    @Test
+    void testGetProductById_FallsBackToArchive() {
+        ArchivedProduct archived = ArchivedProduct.builder().id(1L).sku("SKU-001").isActive(false).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedProductRepository.findById(1L)).thenReturn(Optional.of(archived));
+        when(productMapper.toResponse(archived)).thenReturn(productResponse);
+
+        ProductResponse result = productService.getProductById(1L);
+
+        assertSame(productResponse, result);
+        verify(productCache).put(productResponse);
+    }
+
+    @Test
+    void testRestoreProduct_CopiesBackWithNewChangeSequence() {
+        ArchivedProduct archived = ArchivedProduct.builder().id(1L).sku("SKU-001").isActive(false).build();
+        when(archivedProductRepository.findById(1L)).thenReturn(Optional.of(archived));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productChangeSequence.next()).thenReturn(42L);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        ProductResponse result = productService.restoreProduct(1L);
+
+        assertSame(productResponse, result);
+        assertEquals(42L, product.getChangeSequence());
+        verify(archivedProductRepository).copyToProducts(1L);
+        verify(archivedProductRepository).delete(archived);
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getChange().getType() == ProductChange.Type.UPSERT && event.getChange().getSequence() == 42L));
+    }
+
+    @Test
+    void testRestoreProduct_SkuTakenMeanwhileIsDuplicate() {
+        when(archivedProductRepository.findById(1L)).thenReturn(Optional.of(
+                ArchivedProduct.builder().id(1L).sku("SKU-001").build()));
+        when(productRepository.existsBySku("SKU-001")).thenReturn(true);
+
+        assertThrows(DuplicateResourceException.class, () -> productService.restoreProduct(1L));
+        verify(archivedProductRepository, never()).copyToProducts(any());
+        assertThrows(ResourceNotFoundException.class, () -> productService.restoreProduct(2L));
+    }
+
+    @Test
+    void testCreateProduct_ArchivedSkuIsDuplicate() {
+        when(archivedProductRepository.existsBySku("SKU-001")).thenReturn(true);
+
+        assertThrows(DuplicateResourceException.class, () -> productService.createProduct(productRequest));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void testGetProductBySku_Success() {
         when(productRepository.findBySku("SKU-001")).thenReturn(Optional.of(product));
@@ -163,6 +367,65 @@ class ProductServiceTest {
         verify(productRepository).findBySku("SKU-001");
     }
 
+    @Test
+    void testGetProductBySku_FilteredOutSkipsDatabase() {
+        when(skuFilter.definitelyAbsent("SKU-404")).thenReturn(true);
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> productService.getProductBySku("SKU-404"));
+
+        assertEquals(0, ex.getStackTrace().length);
+        verify(productRepository, never()).findBySku(anyString());
+    }
+
+    @Test
+    void testGetProductBySku_NotFoundIsRememberedAndSkipsDatabase() {
+        when(productRepository.findBySku("SKU-404")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductBySku("SKU-404"));
+        verify(productCache).putMissingSku("SKU-404");
+
+        when(productCache.isMissingSku("SKU-404")).thenReturn(true);
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductBySku("SKU-404"));
+        verify(productRepository, times(1)).findBySku("SKU-404");
+    }
+
+    @Test
+    void testCreateProduct_FilteredOutSkipsDuplicateCheck() {
+        when(skuFilter.definitelyAbsent("SKU-001")).thenReturn(true);
+        when(productMapper.toEntity(productRequest)).thenReturn(product);
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        productService.createProduct(productRequest);
+
+        verify(productRepository, never()).existsBySku(anyString());
+        verify(skuFilter).add("SKU-001");
+    }
+
+    @Test
+    void testCreateProduct_UniqueConstraintViolationIsDuplicate() {
+        when(skuFilter.definitelyAbsent("SKU-001")).thenReturn(true);
+        when(productMapper.toEntity(productRequest)).thenReturn(product);
+        when(productRepository.save(any(Product.class)))
+                .thenThrow(constraintViolation("\"PUBLIC.UK_PRODUCT_SKU_INDEX_8 ON PUBLIC.PRODUCTS(SKU NULLS FIRST)\""));
+
+        assertThrows(DuplicateResourceException.class, () -> productService.createProduct(productRequest));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testCreateProduct_OtherConstraintViolationIsNotDuplicate() {
+        when(skuFilter.definitelyAbsent("SKU-001")).thenReturn(true);
+        when(productMapper.toEntity(productRequest)).thenReturn(product);
+        DataIntegrityViolationException violation = constraintViolation("chk_product_quantity");
+        when(productRepository.save(any(Product.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> productService.createProduct(productRequest)));
+        verify(skuFilter, never()).add(anyString());
+    }
+
     @Test
     void testGetAllProducts_Success() {
         Product product2 = Product.builder()
@@ -219,6 +482,7 @@ class ProductServiceTest {
                 .name("Updated Product")
                 .price(new BigDecimal("149.99"))
                 .quantity(200)
+                .changeSequence(2L)
                 .build();
 
         ProductResponse updatedResponse = ProductResponse.builder()
@@ -242,6 +506,19 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void testUpdateProduct_RejectsReorderPointGivenAndCleared() {
+        ProductRequest updateRequest = ProductRequest.builder()
+                .name("Updated Product")
+                .reorderPoint(5)
+                .clearReorderPoint(true)
+                .build();
+
+        assertThrows(InvalidRequestException.class, () -> productService.updateProduct(1L, updateRequest));
+
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void testUpdateProduct_NotFound() {
         ProductRequest updateRequest = ProductRequest.builder()
@@ -260,25 +537,137 @@ class ProductServiceTest {
 
     @Test
     void testDeleteProduct_Success() {
-        when(productRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productTombstoneRepository.save(any(ProductTombstone.class))).thenAnswer(invocation -> {
+            ProductTombstone tombstone = invocation.getArgument(0);
+            tombstone.setChangeSequence(7L);
+            return tombstone;
+        });
 
         productService.deleteProduct(1L);
 
-        verify(productRepository).existsById(1L);
-        verify(productRepository).deleteById(1L);
+        verify(productRepository).findById(1L);
+        verify(productTombstoneRepository).save(argThat(tombstone ->
+                tombstone.getProductId().equals(1L) && tombstone.getSku().equals("SKU-001")));
+        verify(productRepository).delete(product);
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getChange().getType() == ProductChange.Type.DELETE
+                        && "Electronics".equals(event.getCategory())));
     }
 
     @Test
     void testDeleteProduct_NotFound() {
-        when(productRepository.existsById(1L)).thenReturn(false);
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             productService.deleteProduct(1L);
         });
 
-        verify(productRepository).existsById(1L);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository).findById(1L);
+        verify(productTombstoneRepository, never()).save(any(ProductTombstone.class));
+        verify(productRepository, never()).delete(any(Product.class));
+    }
+
+    @Test
+    void testCreateProduct_AssignsChangeSequence() {
+        when(productRepository.existsBySku("SKU-001")).thenReturn(false);
+        when(productMapper.toEntity(productRequest)).thenReturn(product);
+        when(productChangeSequence.next()).thenReturn(42L);
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        productService.createProduct(productRequest);
+
+        verify(productRepository).save(argThat(saved -> saved.getChangeSequence() == 42L));
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getChange().getSequence() == 42L
+                        && event.getChange().getType() == ProductChange.Type.UPSERT));
+    }
+
+    @Test
+    void testGetProductsBatch_UsesCacheAndReportsMissingKeysInOrder() {
+        Product second = Product.builder().id(2L).sku("SKU-002").build();
+        ProductResponse secondResponse = ProductResponse.builder().id(2L).sku("SKU-002").build();
+        ProductResponse cached = ProductResponse.builder().id(3L).sku("SKU-003").build();
+        lenient().when(productCache.getById(anyLong())).thenReturn(null);
+        when(productCache.getById(3L)).thenReturn(cached);
+        when(productRepository.findAllById(List.of(2L, 9L, 1L))).thenReturn(List.of(product, second));
+        when(productRepository.findBySkuIn(List.of("SKU-002", "SKU-404"))).thenReturn(List.of(second));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        when(productMapper.toResponse(second)).thenReturn(secondResponse);
+
+        ProductBatchGetResponse result = productService.getProductsBatch(
+                Arrays.asList(2L, 3L, 9L, 2L, 1L), List.of("SKU-002", "SKU-404"));
+
+        assertEquals(List.of(2L, 3L, 1L), result.getProducts().stream().map(ProductResponse::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        assertEquals(List.of("SKU-404"), result.getMissingSkus());
+        verify(productCache).put(productResponse);
+    }
+
+    @Test
+    void testGetChangesSince_MergesUpsertsAndTombstonesInOrder() {
+        product.setChangeSequence(5L);
+        ProductTombstone tombstone = ProductTombstone.builder()
+                .changeSequence(7L)
+                .productId(2L)
+                .sku("SKU-002")
+                .build();
+        Product later = Product.builder().id(3L).sku("SKU-003").changeSequence(9L).build();
+
+        when(productChangeWatermark.safeSequence()).thenReturn(9L);
+        when(productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(5L), eq(9L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(product, later));
+        when(productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(5L), eq(9L), any(Pageable.class)))
+                .thenReturn(List.of(tombstone));
+        when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+
+        ProductChangePage page = productService.getChangesSince(4L, 10);
+
+        assertEquals(3, page.getChanges().size());
+        assertEquals(5L, page.getChanges().get(0).getSequence());
+        assertEquals(ProductChange.Type.DELETE, page.getChanges().get(1).getType());
+        assertEquals("SKU-002", page.getChanges().get(1).getSku());
+        assertNull(page.getChanges().get(1).getProduct());
+        assertEquals(9L, page.getChanges().get(2).getSequence());
+        assertEquals(9L, page.getNextCursor());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void testGetChangesSince_FullPageReportsMore() {
+        product.setChangeSequence(5L);
+        ProductTombstone tombstone = ProductTombstone.builder()
+                .changeSequence(6L)
+                .productId(2L)
+                .sku("SKU-002")
+                .build();
+
+        when(productChangeWatermark.safeSequence()).thenReturn(6L);
+        when(productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(1L), eq(6L), any(Pageable.class)))
+                .thenReturn(List.of(product));
+        when(productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(1L), eq(6L), any(Pageable.class)))
+                .thenReturn(List.of(tombstone));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        ProductChangePage page = productService.getChangesSince(0L, 1);
+
+        assertEquals(1, page.getChanges().size());
+        assertEquals(ProductChange.Type.UPSERT, page.getChanges().get(0).getType());
+        assertEquals(5L, page.getNextCursor());
+        assertTrue(page.isHasMore());
+    }
+
+    @Test
+    void testGetChangesSince_CursorAtWatermarkReturnsNothing() {
+        when(productChangeWatermark.safeSequence()).thenReturn(8L);
+
+        ProductChangePage page = productService.getChangesSince(8L, 10);
+
+        assertTrue(page.getChanges().isEmpty());
+        assertEquals(8L, page.getNextCursor());
+        assertFalse(page.isHasMore());
+        verifyNoInteractions(productRepository, productTombstoneRepository);
     }
 
     @Test
@@ -304,4 +693,122 @@ class ProductServiceTest {
         assertEquals(1, results.size());
         verify(productRepository).findByCategory("Electronics");
     }
+
+    @Test
+    void testGetProductsByCategory_ServedFromSnapshot() {
+        productResponse.setChangeSequence(3L);
+        when(productSnapshotStore.current()).thenReturn(new ProductCatalogSnapshot.Builder(1)
+                .addRow(productResponse, 3L)
+                .build());
+
+        List<ProductResponse> results = productService.getProductsByCategory("Electronics");
+
+        assertEquals(List.of(productResponse), results);
+        verify(productRepository, never()).findByCategory(any());
+    }
+
+    @Test
+    void testGetProductsByPriceRange_FallsBackToDatabase() {
+        when(productRepository.findByPriceBetweenOrderByIdAsc(new BigDecimal("50"), ProductService.MAX_PRICE))
+                .thenReturn(List.of(product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        List<ProductResponse> results = productService.getProductsByPriceRange(new BigDecimal("50"), null);
+
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void testGetProductsByPriceRange_InvertedRange() {
+        assertThrows(InvalidRequestException.class,
+                () -> productService.getProductsByPriceRange(new BigDecimal("100"), new BigDecimal("10")));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProductsByCategory_TopNQueriesDatabaseWithSortAndLimit() {
+        when(productRepository.findByCategoryAndIsActiveTrue("Electronics",
+                PageRequest.of(0, 10, ProductSort.PRICE_ASC.toSort()))).thenReturn(List.of(product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        List<ProductResponse> results = productService.getProductsByCategory("Electronics", true,
+                ProductSort.PRICE_ASC, 10);
+
+        assertEquals(List.of(productResponse), results);
+    }
+
+    @Test
+    void testSuggestProducts_NormalizesPrefix() {
+        ProductSuggestion suggestion = ProductSuggestion.builder().id(1L).sku("SKU-001").name("Café Table").build();
+        when(productSuggester.suggest("cafe t", 10)).thenReturn(List.of(suggestion));
+
+        List<ProductSuggestion> result = productService.suggestProducts("  Café-T", null);
+
+        assertEquals(List.of(suggestion), result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testSuggestProducts_RejectsBlankPrefix() {
+        assertThrows(InvalidRequestException.class, () -> productService.suggestProducts(" - ", null));
+        verifyNoInteractions(productSuggester);
+    }
+
+    @Test
+    void testSearchProductsRanked_ResolvesHitsInRelevanceOrder() {
+        ProductResponse other = ProductResponse.builder().id(2L).sku("SKU-002").name("Other").isActive(true).build();
+        when(productSearcher.isReady()).thenReturn(true);
+        when(productSearcher.search("test", 20)).thenReturn(List.of(2L, 1L));
+        when(productCache.getById(2L)).thenReturn(other);
+        when(productCache.getById(1L)).thenReturn(productResponse);
+
+        List<ProductResponse> results = productService.searchProductsRanked("test", null);
+
+        assertEquals(List.of(other, productResponse), results);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testSearchProductsRanked_FallsBackToNameSearchUntilIndexIsBuilt() {
+        when(productSearcher.isReady()).thenReturn(false);
+        when(productRepository.searchByName("Test")).thenReturn(List.of(product, product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        List<ProductResponse> results = productService.searchProductsRanked("Test", 1);
+
+        assertEquals(List.of(productResponse), results);
+    }
+
+    @Test
+    void testSearchProductsRanked_RejectsInvalidInput() {
+        assertThrows(InvalidRequestException.class, () -> productService.searchProductsRanked(" ? ", null));
+        assertThrows(InvalidRequestException.class,
+                () -> productService.searchProductsRanked("tv", ProductService.MAX_SEARCH_LIMIT + 1));
+        verifyNoInteractions(productSearcher);
+    }
+
+    @Test
+    void testGetLowStockProducts_LimitOutOfRange() {
+        assertThrows(InvalidRequestException.class,
+                () -> productService.getLowStockProducts(5, null, ProductService.MAX_LIST_LIMIT + 1));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testUpdateProduct_RecordsLowStockTransition() {
+        ProductRequest updateRequest = ProductRequest.builder().quantity(2).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(lowStockAlertService.isLow(product)).thenReturn(false);
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        productService.updateProduct(1L, updateRequest);
+
+        verify(lowStockAlertService).recordTransition(false, product);
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
 }
@@ -0,0 +1,89 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductSnapshotFile
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class ProductSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndRead_RoundTripsSnapshot() throws IOException {
+        ProductCatalogSnapshot snapshot = new ProductCatalogSnapshot.Builder(2)
+                .addRow(product(1L, "Electronics", null), 4L)
+                .addRow(product(2L, null, "Description with ünïcode"), 9L)
+                .build();
+        Path file = directory.resolve("catalog.snapshot");
+
+        ProductSnapshotFile.write(snapshot, 8L, file);
+        ProductSnapshotFile.Contents contents = ProductSnapshotFile.read(file);
+        ProductCatalogSnapshot restored = contents.snapshot;
+
+        assertEquals(8L, contents.caughtUpTo);
+        assertEquals(2, restored.size());
+        assertEquals(9L, restored.maxChangeSequence());
+        assertEquals(snapshot.findById(1L), restored.findById(1L));
+        assertEquals(snapshot.findById(2L), restored.findById(2L));
+        assertEquals(1, restored.findByCategory("Electronics").size());
+        assertFalse(Files.exists(directory.resolve("catalog.snapshot.tmp")));
+    }
+
+    @Test
+    void testRead_RejectsCorruptedPayload() throws IOException {
+        ProductCatalogSnapshot snapshot = new ProductCatalogSnapshot.Builder(1)
+                .addRow(product(1L, "Electronics", "Description"), 4L)
+                .build();
+        Path file = directory.resolve("catalog.snapshot");
+        ProductSnapshotFile.write(snapshot, 4L, file);
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(ProductSnapshotFile.HEADER_BYTES + 8);
+            raw.write(0x7f);
+        }
+
+        IOException ex = assertThrows(IOException.class, () -> ProductSnapshotFile.read(file));
+        assertTrue(ex.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testRead_RejectsTruncatedFile() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        Files.write(file, new byte[]{0x52, 0x43});
+
+        assertThrows(IOException.class, () -> ProductSnapshotFile.read(file));
+    }
+
+    private static ProductResponse product(long id, String category, String description) {
+        return ProductResponse.builder()
+                .id(id)
+                .sku("SKU-00" + id)
+                .name("Product " + id)
+                .description(description)
+                .price(new BigDecimal("19.99"))
+                .quantity(5)
+                .category(category)
+                .brand("TestBrand")
+                .isActive(true)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 10, 0, 0, 1))
+                .changeSequence(id == 1L ? 4L : 9L)
+                .build();
+    }
+}
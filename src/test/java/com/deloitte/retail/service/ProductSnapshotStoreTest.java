@@ -0,0 +1,195 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.model.Product;
+import com.deloitte.retail.model.ProductTombstone;
+import com.deloitte.retail.repository.ProductChangeSequence;
+import com.deloitte.retail.repository.ProductRepository;
+import com.deloitte.retail.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductSnapshotStore
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSnapshotStoreTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ProductChangeSequence productChangeSequence;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    private ProductSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProductSnapshotStore(productRepository, productTombstoneRepository, productChangeSequence,
+                productChangeWatermark, productMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "loadPageSize", 100);
+        lenient().when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return ProductResponse.builder()
+                    .id(product.getId())
+                    .sku(product.getSku())
+                    .changeSequence(product.getChangeSequence())
+                    .build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.stop();
+    }
+
+    @Test
+    void testPollChanges_AppliesWritesOfOtherInstancesFromTheWatermark() throws Exception {
+        when(productChangeWatermark.safeSequence()).thenReturn(3L, 7L, 7L);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(1L, 3L)));
+        store.load();
+        assertNotNull(store.current().findById(1L));
+
+        // Product 2 was written and product 1 deleted on another instance
+        when(productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(4L), eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(product(2L, 6L)));
+        when(productTombstoneRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(4L), eq(7L),
+                any(Pageable.class)))
+                .thenReturn(List.of(ProductTombstone.builder().changeSequence(5L).productId(1L).sku("SKU-1").build()));
+        store.pollChanges();
+
+        assertTrue(eventually(() -> store.current().findById(2L) != null && store.current().findById(1L) == null));
+        assertTrue(eventually(() -> (long) ReflectionTestUtils.getField(store, "caughtUpTo") == 7L));
+
+        // Rows up to the watermark are not read again
+        store.pollChanges();
+        verify(productRepository, times(1)).findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(4L), eq(7L),
+                any(Pageable.class));
+        verify(productRepository, times(2)).findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(8L),
+                eq(Long.MAX_VALUE), any(Pageable.class));
+    }
+
+    @Test
+    void testPollChanges_ReadsVisibleChangesAboveTheWatermarkOnce() throws Exception {
+        when(productChangeWatermark.safeSequence()).thenReturn(3L);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(1L, 3L)));
+        store.load();
+        when(productRepository.findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(4L), eq(Long.MAX_VALUE),
+                any(Pageable.class)))
+                .thenReturn(List.of(product(2L, 9L)));
+
+        store.pollChanges();
+        assertTrue(eventually(() -> store.current().findById(2L) != null));
+
+        store.pollChanges();
+        verify(productRepository, times(1)).findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(4L),
+                eq(Long.MAX_VALUE), any(Pageable.class));
+        verify(productRepository).findByChangeSequenceBetweenOrderByChangeSequenceAsc(eq(10L), eq(Long.MAX_VALUE),
+                any(Pageable.class));
+    }
+
+    @Test
+    void testRestore_CatchesUpFromTheSequenceTheFileWasCaughtUpTo(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("catalog.snapshot");
+        ProductSnapshotFile.write(new ProductCatalogSnapshot.Builder(1)
+                .addRow(ProductResponse.builder().id(1L).sku("SKU-1").changeSequence(4L).build(), 4L)
+                .build(), 5L, file);
+        ReflectionTestUtils.setField(store, "filePath", file.toString());
+        when(productChangeSequence.current()).thenReturn(9L);
+        when(productChangeWatermark.safeSequence()).thenReturn(8L);
+        when(productRepository.findByChangeSequenceGreaterThanOrderByChangeSequenceAsc(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(product(2L, 7L)));
+
+        assertTrue(store.restore());
+
+        assertNotNull(store.current().findById(1L));
+        assertNotNull(store.current().findById(2L));
+        assertEquals(8L, ReflectionTestUtils.getField(store, "caughtUpTo"));
+        verify(productChangeSequence, never()).next();
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void testStop_WritesChangesQueuedBeforeShutdown(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("catalog.snapshot");
+        ReflectionTestUtils.setField(store, "filePath", file.toString());
+        when(productChangeWatermark.safeSequence()).thenReturn(3L);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(1L, 3L)));
+        store.load();
+
+        store.onProductChanged(new ProductChangedEvent(ProductChange.builder()
+                .sequence(4L)
+                .type(ProductChange.Type.UPSERT)
+                .productId(2L)
+                .sku("SKU-2")
+                .product(ProductResponse.builder().id(2L).sku("SKU-2").changeSequence(4L).build())
+                .build(), null));
+        store.stop();
+
+        ProductCatalogSnapshot written = ProductSnapshotFile.read(file).snapshot;
+        assertNotNull(written.findById(1L));
+        assertNotNull(written.findById(2L));
+    }
+
+    @Test
+    void testRestore_IgnoresFileAheadOfTheDatabase(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("catalog.snapshot");
+        ProductSnapshotFile.write(ProductCatalogSnapshot.empty(), 12L, file);
+        ReflectionTestUtils.setField(store, "filePath", file.toString());
+        when(productChangeSequence.current()).thenReturn(9L);
+
+        assertFalse(store.restore());
+        assertNull(store.current());
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private static Product product(long id, long changeSequence) {
+        return Product.builder().id(id).sku("SKU-" + id).changeSequence(changeSequence).build();
+    }
+}
@@ -0,0 +1,191 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.dto.ProductResponse;
+import com.deloitte.retail.dto.ProductSuggestion;
+import com.deloitte.retail.mapper.ProductMapper;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductSuggester and ProductSuggestIndex
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductSnapshotStore productSnapshotStore;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ProductSuggester(productSnapshotStore, productRepository, productChangeWatermark,
+                productMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(suggester, "enabled", true);
+        ReflectionTestUtils.setField(suggester, "scanLimit", 8);
+        ReflectionTestUtils.setField(suggester, "compactThreshold", 1000);
+    }
+
+    @Test
+    void testSuggest_MatchesSkuNameAndWordsRankedByStock() {
+        load(product(1L, "TV-100", "Smart Télévision", 5, true),
+                product(2L, "PH-200", "Smart Phone", 50, true),
+                product(3L, "PH-300", "Phone Case", 20, true),
+                product(4L, "PH-400", "Old Phone", 99, false));
+
+        assertEquals(List.of("PH-200", "PH-300"), skus(suggester.suggest("phone", 10)));
+        assertEquals(List.of("PH-200", "TV-100"), skus(suggester.suggest("smart", 10)));
+        assertEquals(List.of("TV-100"), skus(suggester.suggest("smart tele", 10)));
+        assertEquals(List.of("PH-200", "PH-300"), skus(suggester.suggest("ph", 10)));
+        assertEquals(List.of("PH-200"), skus(suggester.suggest("ph", 1)));
+        assertTrue(suggester.suggest("zzz", 10).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testOnProductChanged_WritesVisibleBeforeAndAfterCompaction() {
+        load(product(1L, "TV-100", "Smart TV", 5, true),
+                product(2L, "PH-200", "Smart Phone", 50, true));
+
+        suggester.onProductChanged(upsert(product(3L, "SP-300", "Smart Speaker", 70, true), 10L));
+        suggester.onProductChanged(upsert(product(1L, "TV-100", "Smart TV", 0, false), 11L));
+        suggester.onProductChanged(delete(2L, 12L));
+        assertEquals(List.of("SP-300"), skus(suggester.suggest("smart", 10)));
+
+        suggester.compact();
+        assertEquals(List.of("SP-300"), skus(suggester.suggest("smart", 10)));
+
+        suggester.onProductChanged(upsert(product(2L, "PH-200", "Smart Phone", 50, true), 9L));
+        assertEquals(List.of("SP-300"), skus(suggester.suggest("smart", 10)));
+    }
+
+    @Test
+    void testOnProductChanged_WritesBeforeLoadAreKept() {
+        suggester.onProductChanged(upsert(product(3L, "SP-300", "Smart Speaker", 70, true), 10L));
+        suggester.onProductChanged(upsert(product(1L, "TV-100", "Smart TV", 5, true), 1L));
+
+        load(product(1L, "TV-100", "Smart TV", 5, true),
+                product(2L, "PH-200", "Smart Phone", 50, true));
+
+        assertEquals(List.of("SP-300", "PH-200", "TV-100"), skus(suggester.suggest("smart", 10)));
+        @SuppressWarnings("unchecked")
+        Map<Long, ?> overlay = (Map<Long, ?>) ReflectionTestUtils.getField(suggester, "overlay");
+        assertEquals(Set.of(3L), overlay.keySet(), "writes the index holds are dropped from the overlay");
+    }
+
+    @Test
+    void testPollChanges_AddsWritesOfOtherInstancesUpToTheWatermark() {
+        when(productSnapshotStore.caughtUpTo()).thenReturn(2L);
+        load(product(1L, "TV-100", "Smart TV", 5, true),
+                product(2L, "PH-200", "Smart Phone", 50, true));
+        when(productChangeWatermark.safeSequence()).thenReturn(8L);
+        when(productSnapshotStore.changesSince(2L)).thenReturn(Map.of(
+                3L, upsert(product(3L, "SP-300", "Smart Speaker", 70, true), 7L).getChange(),
+                2L, delete(2L, 6L).getChange()));
+
+        suggester.pollChanges();
+
+        assertEquals(List.of("SP-300", "TV-100"), skus(suggester.suggest("smart", 10)));
+        suggester.pollChanges();
+        verify(productSnapshotStore).changesSince(8L);
+    }
+
+    @Test
+    void testSuggest_CommonPrefixesMatchBruteForce() {
+        Random random = new Random(42);
+        List<ProductResponse> products = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            String name = "Product " + (char) ('a' + random.nextInt(4)) + (char) ('a' + random.nextInt(4)) + " " + id;
+            products.add(product(id, "SKU-" + id, name, random.nextInt(100), random.nextInt(10) > 0));
+        }
+        load(products.toArray(new ProductResponse[0]));
+        for (long id = 1; id <= 300; id += 7) {
+            ProductResponse product = products.get((int) id - 1);
+            product.setQuantity(random.nextInt(100));
+            suggester.onProductChanged(upsert(product, 1000L + id));
+        }
+
+        for (String prefix : List.of("p", "product", "product a", "product ab", "sku", "sku 1", "a", "1")) {
+            List<ProductResponse> expected = products.stream()
+                    .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                    .filter(product -> TextNormalizer.normalize(product.getSku()).startsWith(prefix)
+                            || (" " + TextNormalizer.normalize(product.getName())).contains(" " + prefix))
+                    .sorted(Comparator.comparingInt(ProductResponse::getQuantity).reversed()
+                            .thenComparingLong(ProductResponse::getId))
+                    .limit(10)
+                    .toList();
+            assertEquals(skus(expected), skus(suggester.suggest(prefix, 10)), prefix);
+        }
+    }
+
+    private void load(ProductResponse... products) {
+        ProductCatalogSnapshot.Builder builder = new ProductCatalogSnapshot.Builder(products.length);
+        for (ProductResponse product : products) {
+            builder.addRow(product, product.getChangeSequence());
+        }
+        when(productSnapshotStore.current()).thenReturn(builder.build());
+        suggester.load();
+    }
+
+    private static ProductChangedEvent upsert(ProductResponse product, long sequence) {
+        product.setChangeSequence(sequence);
+        return new ProductChangedEvent(ProductChange.builder()
+                .sequence(sequence).type(ProductChange.Type.UPSERT).productId(product.getId()).sku(product.getSku())
+                .product(product).build(), product.getCategory());
+    }
+
+    private static ProductChangedEvent delete(long id, long sequence) {
+        return new ProductChangedEvent(ProductChange.builder()
+                .sequence(sequence).type(ProductChange.Type.DELETE).productId(id).build(), null);
+    }
+
+    private static List<String> skus(List<?> results) {
+        return results.stream()
+                .map(result -> result instanceof ProductSuggestion suggestion
+                        ? suggestion.getSku() : ((ProductResponse) result).getSku())
+                .toList();
+    }
+
+    private static ProductResponse product(long id, String sku, String name, int quantity, boolean active) {
+        return ProductResponse.builder()
+                .id(id)
+                .sku(sku)
+                .name(name)
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .category("Electronics")
+                .isActive(active)
+                .changeSequence(id)
+                .build();
+    }
+}
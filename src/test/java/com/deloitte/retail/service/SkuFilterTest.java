@@ -0,0 +1,147 @@
+package com.deloitte.retail.service;
+
+import com.deloitte.retail.dto.ProductChange;
+import com.deloitte.retail.repository.ArchivedProductRepository;
+import com.deloitte.retail.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SkuFilter and SkuBloomFilter
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class SkuFilterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Mock
+    private ProductChangeWatermark productChangeWatermark;
+
+    private SkuFilter skuFilter;
+
+    @BeforeEach
+    void setUp() {
+        skuFilter = new SkuFilter(productRepository, archivedProductRepository, productChangeWatermark,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(skuFilter, "enabled", true);
+        ReflectionTestUtils.setField(skuFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(skuFilter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(skuFilter, "pageSize", 100);
+    }
+
+    @Test
+    void testBloomFilter_NoFalseNegativesAndFewFalsePositives() {
+        SkuBloomFilter filter = new SkuBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("SKU-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("SKU-" + i));
+            if (filter.mightContain("MISSING-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testDefinitelyAbsent_FalseUntilBuilt() {
+        assertFalse(skuFilter.definitelyAbsent("SKU-404"));
+    }
+
+    @Test
+    void testRebuild_LoadsSkusAndAddsLaterWrites() {
+        when(productRepository.count()).thenReturn(2L);
+        when(productRepository.findSkusByIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "SKU-001", 5L), view(2L, "SKU-002", 8L)));
+        when(archivedProductRepository.findSkusByIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(7L, "SKU-ARCHIVED", 3L)));
+
+        skuFilter.rebuild();
+
+        assertFalse(skuFilter.definitelyAbsent("SKU-001"));
+        assertFalse(skuFilter.definitelyAbsent("SKU-002"));
+        assertFalse(skuFilter.definitelyAbsent("SKU-ARCHIVED"));
+        assertTrue(skuFilter.definitelyAbsent("SKU-404"));
+
+        skuFilter.onProductChanged(new ProductChangedEvent(ProductChange.builder()
+                .sequence(9L).type(ProductChange.Type.UPSERT).productId(3L).sku("SKU-003").build(), null));
+        assertFalse(skuFilter.definitelyAbsent("SKU-003"));
+    }
+
+    @Test
+    void testPollWrites_AddsSkusWrittenByOtherInstances() {
+        when(productChangeWatermark.safeSequence()).thenReturn(40L, 52L);
+        when(productRepository.count()).thenReturn(1L);
+        when(productRepository.findSkusByIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "SKU-001", 50L)));
+        skuFilter.rebuild();
+        when(productRepository.findSkusByChangeSequenceGreaterThan(eq(40L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "SKU-001", 50L), view(7L, "SKU-007", 51L)));
+
+        skuFilter.pollWrites();
+
+        assertFalse(skuFilter.definitelyAbsent("SKU-007"));
+        assertEquals(52L, ReflectionTestUtils.getField(skuFilter, "pollCursor"));
+    }
+
+    @Test
+    void testPollWrites_CursorStaysAtWatermarkBelowOpenWrites() {
+        when(productChangeWatermark.safeSequence()).thenReturn(40L);
+        when(productRepository.count()).thenReturn(1L);
+        when(productRepository.findSkusByIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "SKU-001", 50L)));
+        skuFilter.rebuild();
+        when(productRepository.findSkusByChangeSequenceGreaterThan(eq(40L), any(Pageable.class)))
+                .thenReturn(List.of(view(7L, "SKU-007", 60L)))
+                .thenReturn(List.of(view(6L, "SKU-006", 55L), view(7L, "SKU-007", 60L)));
+
+        // Sequence 55 commits after 60 was read; the cursor did not pass it
+        skuFilter.pollWrites();
+        skuFilter.pollWrites();
+
+        assertFalse(skuFilter.definitelyAbsent("SKU-006"));
+        verify(productRepository, times(2)).findSkusByChangeSequenceGreaterThan(eq(40L), any(Pageable.class));
+    }
+
+    private static ProductRepository.SkuView view(long id, String sku, long changeSequence) {
+        return new ProductRepository.SkuView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+
+            @Override
+            public Long getChangeSequence() {
+                return changeSequence;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.deloitte.retail.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorkloadBulkheads
+ *
+ * @author Deloitte
+ * @version 1.0.0
+ */
+class WorkloadBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WorkloadBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        bulkheads = new WorkloadBulkheads(meterRegistry);
+        ReflectionTestUtils.setField(bulkheads, "enabled", true);
+        ReflectionTestUtils.setField(bulkheads, "pointReadMaxConcurrent", 2);
+        ReflectionTestUtils.setField(bulkheads, "pointReadMaxConnections", 1);
+        ReflectionTestUtils.setField(bulkheads, "pointReadQueryTimeoutMs", 1500L);
+        ReflectionTestUtils.setField(bulkheads, "listReadMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheads, "listReadMaxConnections", 1);
+        ReflectionTestUtils.setField(bulkheads, "listReadQueryTimeoutMs", 0L);
+        ReflectionTestUtils.setField(bulkheads, "writeMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheads, "writeMaxConnections", 1);
+        ReflectionTestUtils.setField(bulkheads, "writeQueryTimeoutMs", 5000L);
+        bulkheads.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.exit();
+    }
+
+    @Test
+    void testEnter_RejectsWhenFullWithoutAffectingOtherWorkloads() throws Exception {
+        Thread holder = new Thread(() -> bulkheads.enter(Workload.LIST_READ));
+        holder.start();
+        holder.join();
+
+        assertThrows(BulkheadFullException.class, () -> bulkheads.enter(Workload.LIST_READ));
+        assertNull(bulkheads.current());
+        assertTrue(bulkheads.enter(Workload.POINT_READ));
+        assertEquals(Workload.POINT_READ, bulkheads.current());
+        assertEquals(1.0, meterRegistry.get("retail.bulkhead.rejections")
+                .tags("workload", "list-read", "budget", "calls").counter().count());
+        assertEquals(1.0, meterRegistry.get("retail.bulkhead.in.use")
+                .tags("workload", "point-read", "budget", "calls").gauge().value());
+
+        bulkheads.exit();
+        assertNull(bulkheads.current());
+        assertEquals(0.0, meterRegistry.get("retail.bulkhead.in.use")
+                .tags("workload", "point-read", "budget", "calls").gauge().value());
+    }
+
+    @Test
+    void testEnter_NestedCallKeepsOuterWorkloadAndPermit() {
+        assertTrue(bulkheads.enter(Workload.WRITE));
+        assertFalse(bulkheads.enter(Workload.WRITE));
+        assertFalse(bulkheads.enter(Workload.LIST_READ));
+        assertEquals(Workload.WRITE, bulkheads.current());
+    }
+
+    @Test
+    void testAcquireConnection_ChargesCurrentWorkloadOnly() {
+        assertNull(bulkheads.acquireConnection());
+
+        bulkheads.enter(Workload.POINT_READ);
+        assertEquals(Workload.POINT_READ, bulkheads.acquireConnection());
+        assertThrows(BulkheadFullException.class, bulkheads::acquireConnection);
+        assertEquals(1.0, meterRegistry.get("retail.bulkhead.rejections")
+                .tags("workload", "point-read", "budget", "connections").counter().count());
+
+        bulkheads.releaseConnection(Workload.POINT_READ);
+        assertEquals(Workload.POINT_READ, bulkheads.acquireConnection());
+    }
+
+    @Test
+    void testBind_ChargesConnectionsWithoutCallPermit() {
+        assertTrue(bulkheads.enter(Workload.POINT_READ));
+        Thread caller = new Thread(() -> bulkheads.enter(Workload.POINT_READ));
+        caller.start();
+        assertDoesNotThrow(() -> caller.join());
+        bulkheads.exit();
+
+        // Both call permits are taken; background work still runs bound to the workload
+        assertTrue(bulkheads.bind(Workload.POINT_READ));
+        assertFalse(bulkheads.bind(Workload.LIST_READ));
+        assertEquals(Workload.POINT_READ, bulkheads.acquireConnection());
+        assertThrows(BulkheadFullException.class, bulkheads::acquireConnection);
+        bulkheads.releaseConnection(Workload.POINT_READ);
+
+        bulkheads.unbind();
+        assertNull(bulkheads.current());
+        assertEquals(1.0, meterRegistry.get("retail.bulkhead.in.use")
+                .tags("workload", "point-read", "budget", "calls").gauge().value());
+    }
+
+    @Test
+    void testQueryTimeoutSeconds_RoundsUp() {
+        assertEquals(2, bulkheads.queryTimeoutSeconds(Workload.POINT_READ));
+        assertEquals(0, bulkheads.queryTimeoutSeconds(Workload.LIST_READ));
+        assertEquals(5, bulkheads.queryTimeoutSeconds(Workload.WRITE));
+    }
+
+    @Test
+    void testEnter_DisabledTakesNoPermits() {
+        ReflectionTestUtils.setField(bulkheads, "enabled", false);
+
+        assertFalse(bulkheads.enter(Workload.LIST_READ));
+        assertFalse(bulkheads.enter(Workload.LIST_READ));
+        assertNull(bulkheads.acquireConnection());
+    }
+}